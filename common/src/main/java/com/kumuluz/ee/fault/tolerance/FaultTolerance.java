@@ -0,0 +1,446 @@
+/*
+ *  Copyright (c) 2014-2017 Kumuluz and/or its affiliates
+ *  and other contributors as indicated by the @author tags and
+ *  the contributor list.
+ *
+ *  Licensed under the MIT License (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://opensource.org/licenses/MIT
+ *
+ *  The software is provided "AS IS", WITHOUT WARRANTY OF ANY KIND, express or
+ *  implied, including but not limited to the warranties of merchantability,
+ *  fitness for a particular purpose and noninfringement. in no event shall the
+ *  authors or copyright holders be liable for any claim, damages or other
+ *  liability, whether in an action of contract, tort or otherwise, arising from,
+ *  out of or in connection with the software or the use or other dealings in the
+ *  software. See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.kumuluz.ee.fault.tolerance;
+
+import com.kumuluz.ee.fault.tolerance.enums.CircuitBreakerType;
+import com.kumuluz.ee.fault.tolerance.enums.CriticalityLevel;
+import com.kumuluz.ee.fault.tolerance.interfaces.FaultToleranceUtil;
+import com.kumuluz.ee.fault.tolerance.metrics.*;
+import com.kumuluz.ee.fault.tolerance.models.ExecutionMetadata;
+import com.kumuluz.ee.fault.tolerance.models.ProgrammaticInvocationContext;
+import org.eclipse.microprofile.faulttolerance.Bulkhead;
+import org.eclipse.microprofile.faulttolerance.CircuitBreaker;
+import org.eclipse.microprofile.faulttolerance.Retry;
+import org.eclipse.microprofile.faulttolerance.Timeout;
+import org.eclipse.microprofile.faulttolerance.exceptions.FaultToleranceDefinitionException;
+import org.eclipse.microprofile.faulttolerance.exceptions.FaultToleranceException;
+import org.eclipse.microprofile.metrics.MetricRegistry;
+import org.jboss.weld.context.RequestContext;
+import org.jboss.weld.context.unbound.UnboundLiteral;
+
+import javax.enterprise.inject.spi.CDI;
+import java.lang.annotation.Annotation;
+import java.time.temporal.ChronoUnit;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Programmatic fault tolerance, applying fault tolerance patterns to a {@link Callable}, {@link Supplier} or
+ * {@link Function} without CDI interception.
+ *
+ * Executions are passed to the same {@link com.kumuluz.ee.fault.tolerance.interfaces.FaultToleranceExecutor} as
+ * executions of annotated methods, so configuration keys using command and group keys apply to programmatic commands
+ * as well. Metrics are named {@code ft.<group-key>.<command-key>.*}. Instances are thread-safe and should be built once
+ * per command key and reused.
+ *
+ * <pre>
+ * FaultTolerance&lt;String&gt; ft = FaultTolerance.&lt;String&gt;builder()
+ *         .commandKey("fetch-customer")
+ *         .timeout(500, ChronoUnit.MILLIS)
+ *         .circuitBreaker(20, 0.5, 5, ChronoUnit.SECONDS)
+ *         .fallback(t -&gt; "unknown")
+ *         .build();
+ *
+ * String customer = ft.get(() -&gt; client.fetchCustomer(id));
+ * </pre>
+ *
+ * @param <T> result type of decorated executions
+ * @since 2.2.0
+ */
+public class FaultTolerance<T> {
+
+    private final ExecutionMetadata metadata;
+    private final Function<Throwable, ? extends T> fallback;
+
+    private volatile FaultToleranceUtil faultToleranceUtil;
+    private volatile RequestContext requestContext;
+
+    private FaultTolerance(ExecutionMetadata metadata, Function<Throwable, ? extends T> fallback) {
+        this.metadata = metadata;
+        this.fallback = fallback;
+    }
+
+    public static <T> Builder<T> builder() {
+        return new Builder<>();
+    }
+
+    /**
+     * Executes callable with fault tolerance.
+     *
+     * @param callable callable to execute
+     * @return result of the callable or the fallback
+     * @throws Exception exception thrown by the execution, if fallback is not defined
+     */
+    public T call(Callable<? extends T> callable) throws Exception {
+        return execute(callable);
+    }
+
+    /**
+     * Executes supplier with fault tolerance. Checked exceptions are wrapped in {@link FaultToleranceException}.
+     *
+     * @param supplier supplier to execute
+     * @return result of the supplier or the fallback
+     */
+    public T get(Supplier<? extends T> supplier) {
+        try {
+            return execute(supplier::get);
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new FaultToleranceException(e);
+        }
+    }
+
+    public Callable<T> decorateCallable(Callable<? extends T> callable) {
+        return () -> call(callable);
+    }
+
+    public Supplier<T> decorateSupplier(Supplier<? extends T> supplier) {
+        return () -> get(supplier);
+    }
+
+    public <A> Function<A, T> decorateFunction(Function<A, ? extends T> function) {
+        return argument -> {
+            try {
+                return execute(() -> function.apply(argument), argument);
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new FaultToleranceException(e);
+            }
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    private T execute(Callable<? extends T> callable, Object... parameters) throws Exception {
+
+        initBeans();
+
+        ProgrammaticInvocationContext invocationContext = new ProgrammaticInvocationContext(callable, parameters);
+
+        try {
+            return (T) faultToleranceUtil.execute(invocationContext, requestContext, metadata);
+        } catch (Exception e) {
+            if (fallback == null) {
+                throw e;
+            }
+
+            metadata.getFallbackMetricsCollection(invocationContext.getMethod().getName())
+                    .ifPresent(c -> c.getTotalCalls().inc());
+
+            return fallback.apply(e);
+        }
+    }
+
+    private void initBeans() {
+        if (faultToleranceUtil == null) {
+            requestContext = CDI.current().select(RequestContext.class, UnboundLiteral.INSTANCE).get();
+            faultToleranceUtil = CDI.current().select(FaultToleranceUtil.class).get();
+        }
+    }
+
+    /**
+     * Builder of {@link FaultTolerance}.
+     *
+     * @param <T> result type of decorated executions
+     */
+    public static class Builder<T> {
+
+        private String commandKey;
+        private String groupKey;
+        private CriticalityLevel criticality = CriticalityLevel.DEFAULT;
+
+        private Timeout timeout;
+        private Retry retry;
+        private CircuitBreaker circuitBreaker;
+        private Bulkhead bulkhead;
+        private Function<Throwable, ? extends T> fallback;
+
+        private Builder() {
+        }
+
+        public Builder<T> commandKey(String commandKey) {
+            this.commandKey = commandKey;
+            return this;
+        }
+
+        /**
+         * Sets group key of the command. If not set, command key is used.
+         */
+        public Builder<T> groupKey(String groupKey) {
+            this.groupKey = groupKey;
+            return this;
+        }
+
+        public Builder<T> criticality(CriticalityLevel criticality) {
+            this.criticality = criticality;
+            return this;
+        }
+
+        public Builder<T> timeout(long value, ChronoUnit unit) {
+
+            if (value < 0) {
+                throw new FaultToleranceDefinitionException("Timeout value must not be negative.");
+            }
+
+            this.timeout = new Timeout() {
+
+                @Override
+                public Class<? extends Annotation> annotationType() {
+                    return Timeout.class;
+                }
+
+                @Override
+                public long value() {
+                    return value;
+                }
+
+                @Override
+                public ChronoUnit unit() {
+                    return unit;
+                }
+            };
+            return this;
+        }
+
+        public Builder<T> retry(int maxRetries, long delay, ChronoUnit delayUnit) {
+            return retry(maxRetries, delay, delayUnit, new Class[]{Exception.class}, new Class[]{});
+        }
+
+        public Builder<T> retry(int maxRetries, long delay, ChronoUnit delayUnit,
+                                Class<? extends Throwable>[] retryOn, Class<? extends Throwable>[] abortOn) {
+
+            if (maxRetries < -1) {
+                throw new FaultToleranceDefinitionException("Retry maxRetries must be -1 or greater.");
+            }
+            if (delay < 0) {
+                throw new FaultToleranceDefinitionException("Retry delay must not be negative.");
+            }
+
+            this.retry = new Retry() {
+
+                @Override
+                public Class<? extends Annotation> annotationType() {
+                    return Retry.class;
+                }
+
+                @Override
+                public int maxRetries() {
+                    return maxRetries;
+                }
+
+                @Override
+                public long delay() {
+                    return delay;
+                }
+
+                @Override
+                public ChronoUnit delayUnit() {
+                    return delayUnit;
+                }
+
+                @Override
+                public long maxDuration() {
+                    return 180000;
+                }
+
+                @Override
+                public ChronoUnit durationUnit() {
+                    return ChronoUnit.MILLIS;
+                }
+
+                @Override
+                public long jitter() {
+                    return 200;
+                }
+
+                @Override
+                public ChronoUnit jitterDelayUnit() {
+                    return ChronoUnit.MILLIS;
+                }
+
+                @Override
+                public Class<? extends Throwable>[] retryOn() {
+                    return retryOn;
+                }
+
+                @Override
+                public Class<? extends Throwable>[] abortOn() {
+                    return abortOn;
+                }
+            };
+            return this;
+        }
+
+        public Builder<T> circuitBreaker(int requestVolumeThreshold, double failureRatio, long delay,
+                                         ChronoUnit delayUnit) {
+            return circuitBreaker(requestVolumeThreshold, failureRatio, delay, delayUnit, 1);
+        }
+
+        public Builder<T> circuitBreaker(int requestVolumeThreshold, double failureRatio, long delay,
+                                         ChronoUnit delayUnit, int successThreshold) {
+
+            if (requestVolumeThreshold < 1 || successThreshold < 1) {
+                throw new FaultToleranceDefinitionException("Circuit breaker requestVolumeThreshold and " +
+                        "successThreshold must be greater than 0.");
+            }
+            if (failureRatio < 0 || failureRatio > 1) {
+                throw new FaultToleranceDefinitionException("Circuit breaker failureRatio must be between 0 and 1.");
+            }
+            if (delay < 0) {
+                throw new FaultToleranceDefinitionException("Circuit breaker delay must not be negative.");
+            }
+
+            this.circuitBreaker = new CircuitBreaker() {
+
+                @Override
+                public Class<? extends Annotation> annotationType() {
+                    return CircuitBreaker.class;
+                }
+
+                @SuppressWarnings("unchecked")
+                @Override
+                public Class<? extends Throwable>[] failOn() {
+                    return new Class[]{Throwable.class};
+                }
+
+                @Override
+                public long delay() {
+                    return delay;
+                }
+
+                @Override
+                public ChronoUnit delayUnit() {
+                    return delayUnit;
+                }
+
+                @Override
+                public int requestVolumeThreshold() {
+                    return requestVolumeThreshold;
+                }
+
+                @Override
+                public double failureRatio() {
+                    return failureRatio;
+                }
+
+                @Override
+                public int successThreshold() {
+                    return successThreshold;
+                }
+            };
+            return this;
+        }
+
+        public Builder<T> bulkhead(int value) {
+            return bulkhead(value, 10);
+        }
+
+        public Builder<T> bulkhead(int value, int waitingTaskQueue) {
+
+            if (value < 1 || waitingTaskQueue < 1) {
+                throw new FaultToleranceDefinitionException("Bulkhead value and waitingTaskQueue must be greater " +
+                        "than 0.");
+            }
+
+            this.bulkhead = new Bulkhead() {
+
+                @Override
+                public Class<? extends Annotation> annotationType() {
+                    return Bulkhead.class;
+                }
+
+                @Override
+                public int value() {
+                    return value;
+                }
+
+                @Override
+                public int waitingTaskQueue() {
+                    return waitingTaskQueue;
+                }
+            };
+            return this;
+        }
+
+        /**
+         * Sets function providing result in case the execution fails.
+         */
+        public Builder<T> fallback(Function<Throwable, ? extends T> fallback) {
+            this.fallback = fallback;
+            return this;
+        }
+
+        public FaultTolerance<T> build() {
+
+            if (commandKey == null || commandKey.isEmpty()) {
+                throw new FaultToleranceDefinitionException("Command key of programmatic fault tolerance must be " +
+                        "set.");
+            }
+
+            String group = groupKey == null || groupKey.isEmpty() ? commandKey : groupKey;
+
+            ExecutionMetadata metadata = new ExecutionMetadata(FaultTolerance.class,
+                    ProgrammaticInvocationContext.CALL_METHOD, commandKey, group);
+            metadata.setMetricsPrefix("ft." + group + "." + commandKey + ".");
+
+            metadata.setAsynchronous(false);
+            metadata.setBulkhead(bulkhead);
+            metadata.setTimeout(timeout);
+            metadata.setRetry(retry);
+            metadata.setCircuitBreaker(circuitBreaker);
+            metadata.setCriticality(criticality);
+
+            if (circuitBreaker != null) {
+                metadata.setCircuitBreakerSuccessThreshold(circuitBreaker.successThreshold());
+                metadata.setCircuitBreakerType(CDI.current().select(FaultToleranceUtil.class).get()
+                        .getCircuitBreakerType(commandKey, group));
+            } else {
+                metadata.setCircuitBreakerType(CircuitBreakerType.HYSTRIX);
+            }
+
+            Optional<MetricRegistry> metricRegistry = CDI.current().select(MetricsUtil.class).get().getRegistry();
+            metricRegistry.ifPresent(registry -> {
+                metadata.setCommonMetricsCollectionFactory(() -> new CommonMetricsCollection(registry));
+
+                if (bulkhead != null) {
+                    metadata.setBulkheadMetricsCollectionFactory(() -> new BulkheadMetricsCollection(registry, false));
+                }
+                if (timeout != null) {
+                    metadata.setTimeoutMetricsCollectionFactory(() -> new TimeoutMetricsCollection(registry));
+                }
+                if (retry != null) {
+                    metadata.setRetryMetricsCollectionFactory(() -> new RetryMetricsCollection(registry));
+                }
+                if (circuitBreaker != null) {
+                    metadata.setCbMetricsCollectionFactory(() -> new CircuitBreakerMetricsCollection(registry));
+                }
+                if (fallback != null) {
+                    metadata.setFallbackMetricsCollectionFactory(() -> new FallbackMetricsCollection(registry));
+                }
+            });
+
+            return new FaultTolerance<>(metadata, fallback);
+        }
+    }
+}
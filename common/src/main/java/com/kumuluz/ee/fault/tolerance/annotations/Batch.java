@@ -0,0 +1,68 @@
+/*
+ *  Copyright (c) 2014-2017 Kumuluz and/or its affiliates
+ *  and other contributors as indicated by the @author tags and
+ *  the contributor list.
+ *
+ *  Licensed under the MIT License (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://opensource.org/licenses/MIT
+ *
+ *  The software is provided "AS IS", WITHOUT WARRANTY OF ANY KIND, express or
+ *  implied, including but not limited to the warranties of merchantability,
+ *  fitness for a particular purpose and noninfringement. in no event shall the
+ *  authors or copyright holders be liable for any claim, damages or other
+ *  liability, whether in an action of contract, tort or otherwise, arising from,
+ *  out of or in connection with the software or the use or other dealings in the
+ *  software. See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.kumuluz.ee.fault.tolerance.annotations;
+
+import javax.enterprise.util.Nonbinding;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+import java.time.temporal.ChronoUnit;
+
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+/**
+ * Annotation enabling request collapsing. Concurrent invocations of the annotated single-argument method, received
+ * within the batch window, are merged into a single invocation of the batch method.
+ *
+ * Batch method must be declared in the same class, accept a single {@link java.util.List} of arguments and return
+ * either a {@link java.util.List} of results (in the same order as arguments) or a {@link java.util.Map} of results
+ * keyed by arguments. Annotation is only supported on methods of {@code @ApplicationScoped} or {@code @Singleton}
+ * beans, since invocations are collapsed across all requests and executed on a single target instance. Annotation
+ * cannot be used on types, since a batch method is specific to the annotated method, interceptor is bound with
+ * {@link BatchBinding} instead.
+ *
+ * @since 2.2.0
+ */
+@Retention(RUNTIME)
+@Target(ElementType.METHOD)
+public @interface Batch {
+
+    /**
+     * Name of the method executing the batched invocations
+     */
+    @Nonbinding String batchMethod() default "";
+
+    /**
+     * Time window in which invocations are collected into a single batch
+     */
+    @Nonbinding long window() default 5;
+
+    /**
+     * Unit of the batch window
+     */
+    @Nonbinding ChronoUnit windowUnit() default ChronoUnit.MILLIS;
+
+    /**
+     * Maximum number of invocations merged into a single batch
+     */
+    @Nonbinding int maxSize() default 100;
+
+}
@@ -0,0 +1,52 @@
+/*
+ *  Copyright (c) 2014-2017 Kumuluz and/or its affiliates
+ *  and other contributors as indicated by the @author tags and
+ *  the contributor list.
+ *
+ *  Licensed under the MIT License (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://opensource.org/licenses/MIT
+ *
+ *  The software is provided "AS IS", WITHOUT WARRANTY OF ANY KIND, express or
+ *  implied, including but not limited to the warranties of merchantability,
+ *  fitness for a particular purpose and noninfringement. in no event shall the
+ *  authors or copyright holders be liable for any claim, damages or other
+ *  liability, whether in an action of contract, tort or otherwise, arising from,
+ *  out of or in connection with the software or the use or other dealings in the
+ *  software. See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.kumuluz.ee.fault.tolerance.annotations;
+
+import com.kumuluz.ee.fault.tolerance.enums.CriticalityLevel;
+
+import javax.enterprise.util.Nonbinding;
+import javax.interceptor.InterceptorBinding;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+/**
+ * Annotation setting criticality of invocations. When the bulkhead saturates, invocations with lower criticality are
+ * rejected first. Criticality can be overridden for the current request with
+ * {@link com.kumuluz.ee.fault.tolerance.utils.CriticalityContext}.
+ *
+ * @since 2.2.0
+ */
+@Inherited
+@InterceptorBinding
+@Retention(RUNTIME)
+@Target({ElementType.TYPE, ElementType.METHOD})
+public @interface Criticality {
+
+    /**
+     * Criticality level of invocations
+     */
+    @Nonbinding CriticalityLevel value() default CriticalityLevel.DEFAULT;
+
+}
@@ -0,0 +1,70 @@
+/*
+ *  Copyright (c) 2014-2017 Kumuluz and/or its affiliates
+ *  and other contributors as indicated by the @author tags and
+ *  the contributor list.
+ *
+ *  Licensed under the MIT License (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://opensource.org/licenses/MIT
+ *
+ *  The software is provided "AS IS", WITHOUT WARRANTY OF ANY KIND, express or
+ *  implied, including but not limited to the warranties of merchantability,
+ *  fitness for a particular purpose and noninfringement. in no event shall the
+ *  authors or copyright holders be liable for any claim, damages or other
+ *  liability, whether in an action of contract, tort or otherwise, arising from,
+ *  out of or in connection with the software or the use or other dealings in the
+ *  software. See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.kumuluz.ee.fault.tolerance.annotations;
+
+import javax.enterprise.util.Nonbinding;
+import javax.interceptor.InterceptorBinding;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+import java.time.temporal.ChronoUnit;
+
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+/**
+ * Annotation enabling hedged requests. If the execution of the annotated method does not complete within the hedge
+ * delay, a second execution is started in parallel. Result of the first successful execution is returned and the
+ * other execution is cancelled.
+ *
+ * Delay is either fixed or derived from the observed execution time percentile of the command. Number of hedged
+ * executions is limited by the hedge budget. If used on class, all methods will be executed with hedging.
+ *
+ * @since 2.2.0
+ */
+@Inherited
+@InterceptorBinding
+@Retention(RUNTIME)
+@Target({ElementType.TYPE, ElementType.METHOD})
+public @interface Hedge {
+
+    /**
+     * Delay after which the hedged execution is started
+     */
+    @Nonbinding long delay() default 100;
+
+    /**
+     * Unit of the hedge delay
+     */
+    @Nonbinding ChronoUnit delayUnit() default ChronoUnit.MILLIS;
+
+    /**
+     * Percentile of the observed execution times used as hedge delay (e.g. 95). If set to 0, fixed delay is used.
+     * Fixed delay is also used until execution times are observed.
+     */
+    @Nonbinding double delayPercentile() default 0;
+
+    /**
+     * Maximum ratio of executions that can be hedged
+     */
+    @Nonbinding double budget() default 0.1;
+
+}
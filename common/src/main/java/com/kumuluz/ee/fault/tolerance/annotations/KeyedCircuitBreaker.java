@@ -0,0 +1,81 @@
+/*
+ *  Copyright (c) 2014-2017 Kumuluz and/or its affiliates
+ *  and other contributors as indicated by the @author tags and
+ *  the contributor list.
+ *
+ *  Licensed under the MIT License (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://opensource.org/licenses/MIT
+ *
+ *  The software is provided "AS IS", WITHOUT WARRANTY OF ANY KIND, express or
+ *  implied, including but not limited to the warranties of merchantability,
+ *  fitness for a particular purpose and noninfringement. in no event shall the
+ *  authors or copyright holders be liable for any claim, damages or other
+ *  liability, whether in an action of contract, tort or otherwise, arising from,
+ *  out of or in connection with the software or the use or other dealings in the
+ *  software. See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.kumuluz.ee.fault.tolerance.annotations;
+
+import com.kumuluz.ee.fault.tolerance.interfaces.CircuitBreakerKeyExtractor;
+
+import javax.enterprise.util.Nonbinding;
+import javax.interceptor.InterceptorBinding;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+import java.time.temporal.ChronoUnit;
+
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+/**
+ * Annotation partitioning the circuit breaker of the command. Each partition (e.g. tenant or downstream host) gets its
+ * own circuit breaker, so failures of one partition do not open the circuit for others. Must be used in combination
+ * with {@link org.eclipse.microprofile.faulttolerance.CircuitBreaker}, which defines thresholds of all partitions.
+ *
+ * Partition key is the value of the method argument at {@link #keyParameter()} index, unless {@link #keyExtractor()}
+ * is set. Number of partitions is bounded, least recently used partitions are evicted first.
+ *
+ * @since 2.2.0
+ */
+@Inherited
+@InterceptorBinding
+@Retention(RUNTIME)
+@Target({ElementType.TYPE, ElementType.METHOD})
+public @interface KeyedCircuitBreaker {
+
+    /**
+     * Index of the method argument used as partition key
+     */
+    @Nonbinding int keyParameter() default 0;
+
+    /**
+     * Class deriving the partition key from method arguments, overrides key parameter
+     */
+    @Nonbinding Class<? extends CircuitBreakerKeyExtractor> keyExtractor() default CircuitBreakerKeyExtractor.class;
+
+    /**
+     * Maximum number of partitions kept in memory
+     */
+    @Nonbinding int maxPartitions() default 10000;
+
+    /**
+     * Time after which partitions that were not used are evicted, 0 disables time based eviction
+     */
+    @Nonbinding long partitionTtl() default 10;
+
+    /**
+     * Unit of the partition time to live
+     */
+    @Nonbinding ChronoUnit partitionTtlUnit() default ChronoUnit.MINUTES;
+
+    /**
+     * Maximum number of open partitions exported as metrics, 0 disables export of open partitions
+     */
+    @Nonbinding int openPartitionMetrics() default 10;
+
+}
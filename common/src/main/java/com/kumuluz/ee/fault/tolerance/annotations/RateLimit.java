@@ -0,0 +1,74 @@
+/*
+ *  Copyright (c) 2014-2017 Kumuluz and/or its affiliates
+ *  and other contributors as indicated by the @author tags and
+ *  the contributor list.
+ *
+ *  Licensed under the MIT License (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://opensource.org/licenses/MIT
+ *
+ *  The software is provided "AS IS", WITHOUT WARRANTY OF ANY KIND, express or
+ *  implied, including but not limited to the warranties of merchantability,
+ *  fitness for a particular purpose and noninfringement. in no event shall the
+ *  authors or copyright holders be liable for any claim, damages or other
+ *  liability, whether in an action of contract, tort or otherwise, arising from,
+ *  out of or in connection with the software or the use or other dealings in the
+ *  software. See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.kumuluz.ee.fault.tolerance.annotations;
+
+import javax.enterprise.util.Nonbinding;
+import javax.interceptor.InterceptorBinding;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+import java.time.temporal.ChronoUnit;
+
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+/**
+ * Annotation limiting the rate of executions. At most {@link #value()} executions are permitted within the time
+ * window. Executions exceeding the limit wait for at most {@link #maxWait()} and are rejected with
+ * {@link com.kumuluz.ee.fault.tolerance.exceptions.RateLimitException} afterwards.
+ *
+ * If used on method, the limit is applied to the command. If used on class, the limit is shared by all commands
+ * within the group.
+ *
+ * @since 2.2.0
+ */
+@Inherited
+@InterceptorBinding
+@Retention(RUNTIME)
+@Target({ElementType.TYPE, ElementType.METHOD})
+public @interface RateLimit {
+
+    /**
+     * Number of executions permitted within the time window
+     */
+    @Nonbinding int value() default 100;
+
+    /**
+     * Time window of the limit
+     */
+    @Nonbinding long window() default 1;
+
+    /**
+     * Unit of the time window
+     */
+    @Nonbinding ChronoUnit windowUnit() default ChronoUnit.SECONDS;
+
+    /**
+     * Maximum time the execution waits for a permit. If set to 0, execution is rejected immediately.
+     */
+    @Nonbinding long maxWait() default 0;
+
+    /**
+     * Unit of the maximum wait time
+     */
+    @Nonbinding ChronoUnit maxWaitUnit() default ChronoUnit.MILLIS;
+
+}
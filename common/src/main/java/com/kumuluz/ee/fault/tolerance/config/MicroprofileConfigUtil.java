@@ -20,6 +20,11 @@
  */
 package com.kumuluz.ee.fault.tolerance.config;
 
+import com.kumuluz.ee.fault.tolerance.annotations.Batch;
+import com.kumuluz.ee.fault.tolerance.annotations.Hedge;
+import com.kumuluz.ee.fault.tolerance.annotations.KeyedCircuitBreaker;
+import com.kumuluz.ee.fault.tolerance.annotations.RateLimit;
+import com.kumuluz.ee.fault.tolerance.interfaces.CircuitBreakerKeyExtractor;
 import com.kumuluz.ee.fault.tolerance.interfaces.ConfigWrapper;
 import org.eclipse.microprofile.faulttolerance.*;
 
@@ -264,6 +269,184 @@ public class MicroprofileConfigUtil {
         };
     }
 
+    public Batch configOverriddenBatch(Class clazz, Method method, Batch annotation) {
+
+        if (annotation == null || !isAnnotationEnabled(clazz, method, Batch.class)) {
+            return null;
+        }
+
+        String batchMethod = getConfigProperty(clazz, method, Batch.class, "batchMethod", String.class).orElse(annotation.batchMethod());
+        long window = getConfigProperty(clazz, method, Batch.class, "window", Long.class).orElse(annotation.window());
+        ChronoUnit windowUnit = getConfigProperty(clazz, method, Batch.class, "windowUnit", ChronoUnit.class).orElse(annotation.windowUnit());
+        int maxSize = getConfigProperty(clazz, method, Batch.class, "maxSize", Integer.class).orElse(annotation.maxSize());
+
+        return new Batch() {
+
+            @Override
+            public Class<? extends Annotation> annotationType() {
+                return Batch.class;
+            }
+
+            @Override
+            public String batchMethod() {
+                return batchMethod;
+            }
+
+            @Override
+            public long window() {
+                return window;
+            }
+
+            @Override
+            public ChronoUnit windowUnit() {
+                return windowUnit;
+            }
+
+            @Override
+            public int maxSize() {
+                return maxSize;
+            }
+        };
+    }
+
+    public Hedge configOverriddenHedge(Class clazz, Method method, Hedge annotation) {
+
+        if (annotation == null || !isAnnotationEnabled(clazz, method, Hedge.class)) {
+            return null;
+        }
+
+        long delay = getConfigProperty(clazz, method, Hedge.class, "delay", Long.class).orElse(annotation.delay());
+        ChronoUnit delayUnit = getConfigProperty(clazz, method, Hedge.class, "delayUnit", ChronoUnit.class).orElse(annotation.delayUnit());
+        double delayPercentile = getConfigProperty(clazz, method, Hedge.class, "delayPercentile", Double.class).orElse(annotation.delayPercentile());
+        double budget = getConfigProperty(clazz, method, Hedge.class, "budget", Double.class).orElse(annotation.budget());
+
+        return new Hedge() {
+
+            @Override
+            public Class<? extends Annotation> annotationType() {
+                return Hedge.class;
+            }
+
+            @Override
+            public long delay() {
+                return delay;
+            }
+
+            @Override
+            public ChronoUnit delayUnit() {
+                return delayUnit;
+            }
+
+            @Override
+            public double delayPercentile() {
+                return delayPercentile;
+            }
+
+            @Override
+            public double budget() {
+                return budget;
+            }
+        };
+    }
+
+    public RateLimit configOverriddenRateLimit(Class clazz, Method method, RateLimit annotation) {
+
+        if (annotation == null || !isAnnotationEnabled(clazz, method, RateLimit.class)) {
+            return null;
+        }
+
+        int value = getConfigProperty(clazz, method, RateLimit.class, "value", Integer.class).orElse(annotation.value());
+        long window = getConfigProperty(clazz, method, RateLimit.class, "window", Long.class).orElse(annotation.window());
+        ChronoUnit windowUnit = getConfigProperty(clazz, method, RateLimit.class, "windowUnit", ChronoUnit.class).orElse(annotation.windowUnit());
+        long maxWait = getConfigProperty(clazz, method, RateLimit.class, "maxWait", Long.class).orElse(annotation.maxWait());
+        ChronoUnit maxWaitUnit = getConfigProperty(clazz, method, RateLimit.class, "maxWaitUnit", ChronoUnit.class).orElse(annotation.maxWaitUnit());
+
+        return new RateLimit() {
+
+            @Override
+            public Class<? extends Annotation> annotationType() {
+                return RateLimit.class;
+            }
+
+            @Override
+            public int value() {
+                return value;
+            }
+
+            @Override
+            public long window() {
+                return window;
+            }
+
+            @Override
+            public ChronoUnit windowUnit() {
+                return windowUnit;
+            }
+
+            @Override
+            public long maxWait() {
+                return maxWait;
+            }
+
+            @Override
+            public ChronoUnit maxWaitUnit() {
+                return maxWaitUnit;
+            }
+        };
+    }
+
+    public KeyedCircuitBreaker configOverriddenKeyedCircuitBreaker(Class clazz, Method method,
+                                                                   KeyedCircuitBreaker annotation) {
+
+        if (annotation == null || !isAnnotationEnabled(clazz, method, KeyedCircuitBreaker.class)) {
+            return null;
+        }
+
+        int keyParameter = getConfigProperty(clazz, method, KeyedCircuitBreaker.class, "keyParameter", Integer.class).orElse(annotation.keyParameter());
+        int maxPartitions = getConfigProperty(clazz, method, KeyedCircuitBreaker.class, "maxPartitions", Integer.class).orElse(annotation.maxPartitions());
+        long partitionTtl = getConfigProperty(clazz, method, KeyedCircuitBreaker.class, "partitionTtl", Long.class).orElse(annotation.partitionTtl());
+        ChronoUnit partitionTtlUnit = getConfigProperty(clazz, method, KeyedCircuitBreaker.class, "partitionTtlUnit", ChronoUnit.class).orElse(annotation.partitionTtlUnit());
+        int openPartitionMetrics = getConfigProperty(clazz, method, KeyedCircuitBreaker.class, "openPartitionMetrics", Integer.class).orElse(annotation.openPartitionMetrics());
+
+        return new KeyedCircuitBreaker() {
+
+            @Override
+            public Class<? extends Annotation> annotationType() {
+                return KeyedCircuitBreaker.class;
+            }
+
+            @Override
+            public int keyParameter() {
+                return keyParameter;
+            }
+
+            @Override
+            public Class<? extends CircuitBreakerKeyExtractor> keyExtractor() {
+                return annotation.keyExtractor();
+            }
+
+            @Override
+            public int maxPartitions() {
+                return maxPartitions;
+            }
+
+            @Override
+            public long partitionTtl() {
+                return partitionTtl;
+            }
+
+            @Override
+            public ChronoUnit partitionTtlUnit() {
+                return partitionTtlUnit;
+            }
+
+            @Override
+            public int openPartitionMetrics() {
+                return openPartitionMetrics;
+            }
+        };
+    }
+
     public boolean isAnnotationEnabled(Class clazz, Method method, Class<? extends Annotation> annotation) {
         Optional<Boolean> value = getConfigPropertyForEnabled(clazz, method, annotation);
 
@@ -33,7 +33,11 @@ public enum FaultToleranceType {
     TIMEOUT("timeout"),
     FALLBACK("fallback"),
     RETRY("retry"),
-    CIRCUIT_BREAKER("circuit-breaker");
+    CIRCUIT_BREAKER("circuit-breaker"),
+    BATCH("batch"),
+    CACHE_RESULT("cache-result"),
+    HEDGE("hedge"),
+    RATE_LIMIT("rate-limit");
 
     private final String key;
 
@@ -59,6 +63,14 @@ public enum FaultToleranceType {
             return RETRY;
         else if (str.equals(CIRCUIT_BREAKER.getKey()))
             return CIRCUIT_BREAKER;
+        else if (str.equals(BATCH.getKey()))
+            return BATCH;
+        else if (str.equals(CACHE_RESULT.getKey()))
+            return CACHE_RESULT;
+        else if (str.equals(HEDGE.getKey()))
+            return HEDGE;
+        else if (str.equals(RATE_LIMIT.getKey()))
+            return RATE_LIMIT;
         else
             return null;
     }
@@ -40,6 +40,10 @@ public class FaultToleranceInterceptorPriority {
     public static final int RETRY = 4;
     public static final int FALLBACK = 5;
     public static final int ASYNCHRONOUS = 6;
+    public static final int BATCH = 7;
+    public static final int CACHE_RESULT = 8;
+    public static final int HEDGE = 9;
+    public static final int RATE_LIMIT = 10;
 
     public static boolean shouldExecute(InvocationContext ic) {
 
@@ -20,8 +20,10 @@
  */
 package com.kumuluz.ee.fault.tolerance.interfaces;
 
+import com.kumuluz.ee.fault.tolerance.enums.CircuitBreakerType;
 import com.kumuluz.ee.fault.tolerance.enums.FaultToleranceType;
 import com.kumuluz.ee.fault.tolerance.models.ConfigurationProperty;
+import com.kumuluz.ee.fault.tolerance.models.ExecutionMetadata;
 import org.jboss.weld.context.RequestContext;
 
 import javax.interceptor.InvocationContext;
@@ -38,6 +40,11 @@ public interface FaultToleranceUtil {
 
     Object execute(InvocationContext invocationContext, RequestContext requestContext) throws Exception;
 
+    Object execute(InvocationContext invocationContext, RequestContext requestContext, ExecutionMetadata metadata)
+            throws Exception;
+
+    CircuitBreakerType getCircuitBreakerType(String commandKey, String groupKey);
+
     boolean isWatchEnabled(ConfigurationProperty property);
 
     void watch(ConfigurationProperty property);
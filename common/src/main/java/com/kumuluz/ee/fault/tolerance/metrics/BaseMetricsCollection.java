@@ -20,8 +20,13 @@
  */
 package com.kumuluz.ee.fault.tolerance.metrics;
 
+import com.kumuluz.ee.configuration.utils.ConfigurationUtil;
+import com.kumuluz.ee.fault.tolerance.utils.FaultToleranceHelper;
 import org.eclipse.microprofile.metrics.*;
 
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
 /**
  * Abstract class representing common ground for metrics collections.
  *
@@ -30,6 +35,10 @@ import org.eclipse.microprofile.metrics.*;
  */
 public abstract class BaseMetricsCollection {
 
+    private static final String STRIPED_COUNTERS_ENABLED = "kumuluzee.fault-tolerance.metrics.striped-counters.enabled";
+    private static final String HIGH_RESOLUTION_HISTOGRAMS_PREFIX =
+            "kumuluzee.fault-tolerance.metrics.high-resolution-histograms.";
+
     protected boolean initialized;
 
     protected MetricRegistry registry;
@@ -62,6 +71,48 @@ public abstract class BaseMetricsCollection {
         }
     }
 
+    /**
+     * Creates counter. If striped counters are enabled, {@link StripedCounter} is registered instead of the default
+     * counter of the registry.
+     */
+    protected Counter createCounter(Metadata metadata) {
+
+        if (!ConfigurationUtil.getInstance().getBoolean(STRIPED_COUNTERS_ENABLED).orElse(false)) {
+            return registry.counter(metadata);
+        }
+
+        try {
+            return registry.register(metadata, new StripedCounter());
+        } catch (IllegalArgumentException e) {
+            // counter is already registered, possibly by a concurrently initialized collection
+            return registry.counter(metadata);
+        }
+    }
+
+    /**
+     * Creates histogram of durations in nanoseconds. If high-resolution histograms are enabled, {@link LatencyHistogram}
+     * is registered instead of the default histogram of the registry.
+     */
+    protected Histogram createDurationHistogram(Metadata metadata) {
+
+        ConfigurationUtil configurationUtil = ConfigurationUtil.getInstance();
+
+        if (!configurationUtil.getBoolean(HIGH_RESOLUTION_HISTOGRAMS_PREFIX + "enabled").orElse(false)) {
+            return registry.histogram(metadata);
+        }
+
+        Duration interval = configurationUtil.get(HIGH_RESOLUTION_HISTOGRAMS_PREFIX + "interval")
+                .map(FaultToleranceHelper::parseDuration)
+                .orElse(Duration.ofMinutes(1));
+
+        try {
+            return registry.register(metadata, new LatencyHistogram(interval.toNanos(), TimeUnit.NANOSECONDS));
+        } catch (IllegalArgumentException e) {
+            // histogram is already registered, possibly by a concurrently initialized collection
+            return registry.histogram(metadata);
+        }
+    }
+
     public void setMetricsPrefix(String metricsPrefix) {
         this.metricsPrefix = metricsPrefix;
     }
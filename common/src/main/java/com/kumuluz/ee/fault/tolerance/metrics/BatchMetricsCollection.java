@@ -0,0 +1,77 @@
+/*
+ *  Copyright (c) 2014-2017 Kumuluz and/or its affiliates
+ *  and other contributors as indicated by the @author tags and
+ *  the contributor list.
+ *
+ *  Licensed under the MIT License (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://opensource.org/licenses/MIT
+ *
+ *  The software is provided "AS IS", WITHOUT WARRANTY OF ANY KIND, express or
+ *  implied, including but not limited to the warranties of merchantability,
+ *  fitness for a particular purpose and noninfringement. in no event shall the
+ *  authors or copyright holders be liable for any claim, damages or other
+ *  liability, whether in an action of contract, tort or otherwise, arising from,
+ *  out of or in connection with the software or the use or other dealings in the
+ *  software. See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.kumuluz.ee.fault.tolerance.metrics;
+
+import org.eclipse.microprofile.metrics.*;
+
+/**
+ * Metrics collection for {@link com.kumuluz.ee.fault.tolerance.annotations.Batch}.
+ *
+ * @since 2.2.0
+ */
+public class BatchMetricsCollection extends BaseMetricsCollection {
+
+    private static final String BATCH_PREFIX = "batch.";
+
+    private Counter batchesTotal;
+    private Histogram batchSize;
+    private Histogram windowDuration;
+
+    public BatchMetricsCollection(MetricRegistry registry) {
+        super(registry);
+    }
+
+    @Override
+    public void initMetrics() {
+        Metadata batchesTotalMetadata = createMetadata(
+                metricsPrefix + BATCH_PREFIX + "batches.total",
+                MetricType.COUNTER,
+                MetricUnits.NONE,
+                "Number of times the batch method was called");
+        batchesTotal = createCounter(batchesTotalMetadata);
+
+        Metadata batchSizeMetadata = createMetadata(
+                metricsPrefix + BATCH_PREFIX + "size",
+                MetricType.HISTOGRAM,
+                MetricUnits.NONE,
+                "Histogram of the number of invocations merged into a single batch");
+        batchSize = registry.histogram(batchSizeMetadata);
+
+        Metadata windowDurationMetadata = createMetadata(
+                metricsPrefix + BATCH_PREFIX + "window.duration",
+                MetricType.HISTOGRAM,
+                MetricUnits.NANOSECONDS,
+                "Histogram of the time invocations spend waiting for the batch to be executed");
+        windowDuration = createDurationHistogram(windowDurationMetadata);
+    }
+
+    public Counter getBatchesTotal() {
+        return batchesTotal;
+    }
+
+    public Histogram getBatchSize() {
+        return batchSize;
+    }
+
+    public Histogram getWindowDuration() {
+        return windowDuration;
+    }
+}
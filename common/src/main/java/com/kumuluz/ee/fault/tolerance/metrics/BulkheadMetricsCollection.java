@@ -20,9 +20,12 @@
  */
 package com.kumuluz.ee.fault.tolerance.metrics;
 
+import com.kumuluz.ee.fault.tolerance.enums.CriticalityLevel;
 import org.eclipse.microprofile.metrics.*;
 
-import java.util.concurrent.atomic.AtomicLong;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * Metrics collection for {@link org.eclipse.microprofile.faulttolerance.Bulkhead}.
@@ -41,8 +44,11 @@ public class BulkheadMetricsCollection extends BaseMetricsCollection {
     private Histogram executionDuration;
     private Histogram waitingDuration;
 
-    private AtomicLong currentlyExecuting;
-    private AtomicLong currentlyWaiting;
+    private Map<CriticalityLevel, Counter> criticalityCallsAccepted;
+    private Map<CriticalityLevel, Counter> criticalityCallsRejected;
+
+    private LongAdder currentlyExecuting;
+    private LongAdder currentlyWaiting;
 
     public BulkheadMetricsCollection(MetricRegistry registry, boolean isAsync) {
         super(registry);
@@ -56,14 +62,35 @@ public class BulkheadMetricsCollection extends BaseMetricsCollection {
                 MetricType.COUNTER,
                 MetricUnits.NONE,
                 "Number of calls accepted by the bulkhead");
-        this.callsAccepted = registry.counter(callsAcceptedMetadata);
+        this.callsAccepted = createCounter(callsAcceptedMetadata);
 
         Metadata callsRejectedMetadata = createMetadata(
                 metricsPrefix + BULKHEAD_PREFIX + "callsRejected.total",
                 MetricType.COUNTER,
                 MetricUnits.NONE,
                 "Number of calls rejected by the bulkhead");
-        this.callsRejected = registry.counter(callsRejectedMetadata);
+        this.callsRejected = createCounter(callsRejectedMetadata);
+
+        this.criticalityCallsAccepted = new EnumMap<>(CriticalityLevel.class);
+        this.criticalityCallsRejected = new EnumMap<>(CriticalityLevel.class);
+
+        for (CriticalityLevel level : CriticalityLevel.values()) {
+            String criticalityPrefix = metricsPrefix + BULKHEAD_PREFIX + level.name().toLowerCase() + ".";
+
+            Metadata criticalityAcceptedMetadata = createMetadata(
+                    criticalityPrefix + "callsAccepted.total",
+                    MetricType.COUNTER,
+                    MetricUnits.NONE,
+                    "Number of calls with " + level.name().toLowerCase() + " criticality accepted by the bulkhead");
+            this.criticalityCallsAccepted.put(level, createCounter(criticalityAcceptedMetadata));
+
+            Metadata criticalityRejectedMetadata = createMetadata(
+                    criticalityPrefix + "callsRejected.total",
+                    MetricType.COUNTER,
+                    MetricUnits.NONE,
+                    "Number of calls with " + level.name().toLowerCase() + " criticality rejected by the bulkhead");
+            this.criticalityCallsRejected.put(level, createCounter(criticalityRejectedMetadata));
+        }
 
         Metadata executionDurationMetadata = createMetadata(
                 metricsPrefix + BULKHEAD_PREFIX + "executionDuration",
@@ -71,11 +98,12 @@ public class BulkheadMetricsCollection extends BaseMetricsCollection {
                 MetricUnits.NANOSECONDS,
                 "Histogram of method execution times. This does not include any time spent waiting in the " +
                         "bulkhead queue.");
-        this.executionDuration = registry.histogram(executionDurationMetadata);
+        this.executionDuration = createDurationHistogram(executionDurationMetadata);
 
-        this.currentlyExecuting = new AtomicLong(0);
+        this.currentlyExecuting = new LongAdder();
         registerGauge(metricsPrefix + BULKHEAD_PREFIX + "concurrentExecutions",
-                () -> this.currentlyExecuting.get(), MetricUnits.NONE, "Number of currently running executions");
+                () -> Math.max(0, this.currentlyExecuting.sum()), MetricUnits.NONE,
+                "Number of currently running executions");
 
         if (this.isAsync) {
             Metadata waitingDurationMetadata = createMetadata(
@@ -83,11 +111,11 @@ public class BulkheadMetricsCollection extends BaseMetricsCollection {
                     MetricType.HISTOGRAM,
                     MetricUnits.NANOSECONDS,
                     "Histogram of the time executions spend waiting in the queue");
-            this.waitingDuration = registry.histogram(waitingDurationMetadata);
+            this.waitingDuration = createDurationHistogram(waitingDurationMetadata);
 
-            this.currentlyWaiting = new AtomicLong(0);
+            this.currentlyWaiting = new LongAdder();
             registerGauge(metricsPrefix + BULKHEAD_PREFIX + "waitingQueue.population",
-                    () -> this.currentlyWaiting.get(), MetricUnits.NONE, "Number of executions currently " +
+                    () -> Math.max(0, this.currentlyWaiting.sum()), MetricUnits.NONE, "Number of executions currently " +
                             "waiting in the queue");
         }
     }
@@ -100,6 +128,14 @@ public class BulkheadMetricsCollection extends BaseMetricsCollection {
         return callsRejected;
     }
 
+    public Counter getCallsAccepted(CriticalityLevel criticality) {
+        return criticalityCallsAccepted.get(criticality);
+    }
+
+    public Counter getCallsRejected(CriticalityLevel criticality) {
+        return criticalityCallsRejected.get(criticality);
+    }
+
     public Histogram getExecutionDuration() {
         return executionDuration;
     }
@@ -108,11 +144,11 @@ public class BulkheadMetricsCollection extends BaseMetricsCollection {
         return waitingDuration;
     }
 
-    public AtomicLong getCurrentlyExecuting() {
+    public LongAdder getCurrentlyExecuting() {
         return currentlyExecuting;
     }
 
-    public AtomicLong getCurrentlyWaiting() {
+    public LongAdder getCurrentlyWaiting() {
         return currentlyWaiting;
     }
 }
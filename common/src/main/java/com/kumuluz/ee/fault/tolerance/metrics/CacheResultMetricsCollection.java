@@ -0,0 +1,65 @@
+/*
+ *  Copyright (c) 2014-2017 Kumuluz and/or its affiliates
+ *  and other contributors as indicated by the @author tags and
+ *  the contributor list.
+ *
+ *  Licensed under the MIT License (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://opensource.org/licenses/MIT
+ *
+ *  The software is provided "AS IS", WITHOUT WARRANTY OF ANY KIND, express or
+ *  implied, including but not limited to the warranties of merchantability,
+ *  fitness for a particular purpose and noninfringement. in no event shall the
+ *  authors or copyright holders be liable for any claim, damages or other
+ *  liability, whether in an action of contract, tort or otherwise, arising from,
+ *  out of or in connection with the software or the use or other dealings in the
+ *  software. See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.kumuluz.ee.fault.tolerance.metrics;
+
+import org.eclipse.microprofile.metrics.*;
+
+/**
+ * Metrics collection for {@link com.kumuluz.ee.fault.tolerance.annotations.CacheResult}.
+ *
+ * @since 2.2.0
+ */
+public class CacheResultMetricsCollection extends BaseMetricsCollection {
+
+    private static final String CACHE_PREFIX = "cache.";
+
+    private Counter hitsTotal;
+    private Counter missesTotal;
+
+    public CacheResultMetricsCollection(MetricRegistry registry) {
+        super(registry);
+    }
+
+    @Override
+    public void initMetrics() {
+        Metadata hitsTotalMetadata = createMetadata(
+                metricsPrefix + CACHE_PREFIX + "hits.total",
+                MetricType.COUNTER,
+                MetricUnits.NONE,
+                "Number of times the result was returned from the request cache");
+        hitsTotal = createCounter(hitsTotalMetadata);
+
+        Metadata missesTotalMetadata = createMetadata(
+                metricsPrefix + CACHE_PREFIX + "misses.total",
+                MetricType.COUNTER,
+                MetricUnits.NONE,
+                "Number of times the result was not found in the request cache and the method was executed");
+        missesTotal = createCounter(missesTotalMetadata);
+    }
+
+    public Counter getHitsTotal() {
+        return hitsTotal;
+    }
+
+    public Counter getMissesTotal() {
+        return missesTotal;
+    }
+}
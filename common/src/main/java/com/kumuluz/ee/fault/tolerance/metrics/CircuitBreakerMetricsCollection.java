@@ -22,6 +22,8 @@ package com.kumuluz.ee.fault.tolerance.metrics;
 
 import org.eclipse.microprofile.metrics.*;
 
+import java.util.regex.Pattern;
+
 /**
  * Metrics collection for {@link org.eclipse.microprofile.faulttolerance.CircuitBreaker}.
  *
@@ -32,6 +34,9 @@ public class CircuitBreakerMetricsCollection extends BaseMetricsCollection {
 
     private static final String CIRCUIT_BREAKER_PREFIX = "circuitbreaker.";
 
+    private static final int MAX_PARTITION_KEY_LENGTH = 64;
+    private static final Pattern INVALID_PARTITION_KEY_CHARACTERS = Pattern.compile("[^A-Za-z0-9_-]");
+
     private Counter callsSucceeded;
     private Counter callsFailed;
     private Counter callsPrevented;
@@ -48,28 +53,28 @@ public class CircuitBreakerMetricsCollection extends BaseMetricsCollection {
                 MetricType.COUNTER,
                 MetricUnits.NONE,
                 "Number of calls allowed to run by the circuit breaker that returned successfully");
-        callsSucceeded = registry.counter(callsSucceededMetadata);
+        callsSucceeded = createCounter(callsSucceededMetadata);
 
         Metadata callsFailedMetadata = createMetadata(
                 metricsPrefix + CIRCUIT_BREAKER_PREFIX + "callsFailed.total",
                 MetricType.COUNTER,
                 MetricUnits.NONE,
                 "Number of calls allowed to run by the circuit breaker that then failed");
-        callsFailed = registry.counter(callsFailedMetadata);
+        callsFailed = createCounter(callsFailedMetadata);
 
         Metadata callsPreventedMetadata = createMetadata(
                 metricsPrefix + CIRCUIT_BREAKER_PREFIX + "callsPrevented.total",
                 MetricType.COUNTER,
                 MetricUnits.NONE,
                 "Number of calls prevented from running by an open circuit breaker");
-        callsPrevented = registry.counter(callsPreventedMetadata);
+        callsPrevented = createCounter(callsPreventedMetadata);
 
         Metadata openedMetadata = createMetadata(
                 metricsPrefix + CIRCUIT_BREAKER_PREFIX + "opened.total",
                 MetricType.COUNTER,
                 MetricUnits.NONE,
                 "Number of times the circuit breaker has moved from closed state to open state");
-        opened = registry.counter(openedMetadata);
+        opened = createCounter(openedMetadata);
     }
 
     public void registerOpenGauge(Gauge<Long> gauge) {
@@ -87,6 +92,62 @@ public class CircuitBreakerMetricsCollection extends BaseMetricsCollection {
                 "Amount of time the circuit breaker has spent in closed state");
     }
 
+    public void registerPartitionsGauge(Gauge<Long> gauge) {
+        registerGauge(metricsPrefix + CIRCUIT_BREAKER_PREFIX + "partitions.current", gauge, MetricUnits.NONE,
+                "Number of circuit breaker partitions currently kept in memory");
+    }
+
+    public void registerOpenPartitionsGauge(Gauge<Long> gauge) {
+        registerGauge(metricsPrefix + CIRCUIT_BREAKER_PREFIX + "partitions.open.current", gauge, MetricUnits.NONE,
+                "Number of circuit breaker partitions currently in open state");
+    }
+
+    /**
+     * Registers gauge of an open partition. Partition key is sanitized before it is used in the metric name.
+     *
+     * @return false if a gauge with the same name is already registered
+     */
+    public boolean registerOpenPartitionGauge(String partitionKey, Gauge<Long> gauge) {
+        try {
+            registerGauge(openPartitionGaugeName(partitionKey), gauge, MetricUnits.MILLISECONDS,
+                    "Amount of time the circuit breaker partition has been in open state");
+        } catch (IllegalArgumentException e) {
+            // sanitized key collides with a key of another partition
+            return false;
+        }
+
+        return true;
+    }
+
+    public void removeOpenPartitionGauge(String partitionKey) {
+        registry.remove(openPartitionGaugeName(partitionKey));
+    }
+
+    private String openPartitionGaugeName(String partitionKey) {
+        return metricsPrefix + CIRCUIT_BREAKER_PREFIX + "partitions.open." + sanitizePartitionKey(partitionKey) +
+                ".current";
+    }
+
+    /**
+     * Partition keys are arbitrary values of method parameters. Characters other than letters, digits, '_' and '-' are
+     * replaced with '_' and keys are truncated to {@value #MAX_PARTITION_KEY_LENGTH} characters. Hash of the original
+     * key is appended to changed keys, so they remain distinct.
+     */
+    static String sanitizePartitionKey(String partitionKey) {
+
+        String sanitized = INVALID_PARTITION_KEY_CHARACTERS.matcher(partitionKey).replaceAll("_");
+
+        if (!partitionKey.isEmpty() && sanitized.equals(partitionKey) &&
+                partitionKey.length() <= MAX_PARTITION_KEY_LENGTH) {
+            return partitionKey;
+        }
+
+        String hash = String.format("%08x", partitionKey.hashCode());
+
+        return sanitized.substring(0, Math.min(sanitized.length(), MAX_PARTITION_KEY_LENGTH - hash.length() - 1)) +
+                "_" + hash;
+    }
+
     public Counter getCallsSucceeded() {
         return callsSucceeded;
     }
@@ -44,7 +44,7 @@ public class CommonMetricsCollection extends BaseMetricsCollection {
                 MetricType.COUNTER,
                 MetricUnits.NONE,
                 "The number of times the method was called");
-        this.totalInvocations = registry.counter(totalInvocationsMetadata);
+        this.totalInvocations = createCounter(totalInvocationsMetadata);
 
         Metadata failedInvocationsMetadata = createMetadata(
                 metricsPrefix + "invocations.failed.total",
@@ -52,7 +52,7 @@ public class CommonMetricsCollection extends BaseMetricsCollection {
                 MetricUnits.NONE,
                 "The number of times the method was called and, after all Fault Tolerance actions had been " +
                         "processed, threw a Throwable");
-        this.failedInvocations = registry.counter(failedInvocationsMetadata);
+        this.failedInvocations = createCounter(failedInvocationsMetadata);
     }
 
     public Counter getTotalInvocations() {
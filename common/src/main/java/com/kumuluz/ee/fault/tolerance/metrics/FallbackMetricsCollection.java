@@ -45,7 +45,7 @@ public class FallbackMetricsCollection extends BaseMetricsCollection {
                 MetricType.COUNTER,
                 MetricUnits.NONE,
                 "Number of times the fallback handler or method was called");
-        totalCalls = registry.counter(totalInvocationsMetadata);
+        totalCalls = createCounter(totalInvocationsMetadata);
     }
 
     public Counter getTotalCalls() {
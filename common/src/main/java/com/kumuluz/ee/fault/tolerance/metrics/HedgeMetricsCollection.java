@@ -0,0 +1,77 @@
+/*
+ *  Copyright (c) 2014-2017 Kumuluz and/or its affiliates
+ *  and other contributors as indicated by the @author tags and
+ *  the contributor list.
+ *
+ *  Licensed under the MIT License (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://opensource.org/licenses/MIT
+ *
+ *  The software is provided "AS IS", WITHOUT WARRANTY OF ANY KIND, express or
+ *  implied, including but not limited to the warranties of merchantability,
+ *  fitness for a particular purpose and noninfringement. in no event shall the
+ *  authors or copyright holders be liable for any claim, damages or other
+ *  liability, whether in an action of contract, tort or otherwise, arising from,
+ *  out of or in connection with the software or the use or other dealings in the
+ *  software. See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.kumuluz.ee.fault.tolerance.metrics;
+
+import org.eclipse.microprofile.metrics.*;
+
+/**
+ * Metrics collection for {@link com.kumuluz.ee.fault.tolerance.annotations.Hedge}.
+ *
+ * @since 2.2.0
+ */
+public class HedgeMetricsCollection extends BaseMetricsCollection {
+
+    private static final String HEDGE_PREFIX = "hedge.";
+
+    private Counter hedgesTotal;
+    private Counter hedgesWon;
+    private Counter budgetExhausted;
+
+    public HedgeMetricsCollection(MetricRegistry registry) {
+        super(registry);
+    }
+
+    @Override
+    public void initMetrics() {
+        Metadata hedgesTotalMetadata = createMetadata(
+                metricsPrefix + HEDGE_PREFIX + "hedges.total",
+                MetricType.COUNTER,
+                MetricUnits.NONE,
+                "Number of hedged executions started");
+        hedgesTotal = createCounter(hedgesTotalMetadata);
+
+        Metadata hedgesWonMetadata = createMetadata(
+                metricsPrefix + HEDGE_PREFIX + "hedges.won.total",
+                MetricType.COUNTER,
+                MetricUnits.NONE,
+                "Number of times the hedged execution completed before the original execution");
+        hedgesWon = createCounter(hedgesWonMetadata);
+
+        Metadata budgetExhaustedMetadata = createMetadata(
+                metricsPrefix + HEDGE_PREFIX + "budget.exhausted.total",
+                MetricType.COUNTER,
+                MetricUnits.NONE,
+                "Number of times the hedged execution was not started because the hedge budget was exhausted");
+        budgetExhausted = createCounter(budgetExhaustedMetadata);
+    }
+
+    public Counter getHedgesTotal() {
+        return hedgesTotal;
+    }
+
+    public Counter getHedgesWon() {
+        return hedgesWon;
+    }
+
+    public Counter getBudgetExhausted() {
+        return budgetExhausted;
+    }
+}
@@ -0,0 +1,299 @@
+/*
+ *  Copyright (c) 2014-2017 Kumuluz and/or its affiliates
+ *  and other contributors as indicated by the @author tags and
+ *  the contributor list.
+ *
+ *  Licensed under the MIT License (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://opensource.org/licenses/MIT
+ *
+ *  The software is provided "AS IS", WITHOUT WARRANTY OF ANY KIND, express or
+ *  implied, including but not limited to the warranties of merchantability,
+ *  fitness for a particular purpose and noninfringement. in no event shall the
+ *  authors or copyright holders be liable for any claim, damages or other
+ *  liability, whether in an action of contract, tort or otherwise, arising from,
+ *  out of or in connection with the software or the use or other dealings in the
+ *  software. See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.kumuluz.ee.fault.tolerance.metrics;
+
+import org.eclipse.microprofile.metrics.Histogram;
+import org.eclipse.microprofile.metrics.Snapshot;
+
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Fixed-memory, lock-free latency histogram with HdrHistogram-style log-linear buckets.
+ *
+ * Values are recorded into one of two bucket arrays. On snapshot, when the interval has elapsed, arrays are swapped: the
+ * array recorded in the previous phase becomes the previous interval (once all writers have left it) and is cleared for
+ * the next phase. Snapshot covers the previous and the current interval. Recording is a single atomic increment, relative
+ * error of reported values is below 1 %. Values above the highest trackable value (about 18 minutes in nanoseconds) are
+ * recorded as the highest trackable value.
+ *
+ * @since 2.2.0
+ */
+public class LatencyHistogram implements Histogram {
+
+    private static final int SUB_BUCKET_BITS = 7;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int SUB_BUCKET_HALF_COUNT = SUB_BUCKET_COUNT / 2;
+    private static final int MAX_VALUE_BITS = 40;
+    private static final long MAX_VALUE = (1L << MAX_VALUE_BITS) - 1;
+    private static final int BUCKETS = (MAX_VALUE_BITS - SUB_BUCKET_BITS + 2) * SUB_BUCKET_HALF_COUNT;
+
+    private final long intervalNanos;
+
+    private final AtomicLongArray[] phases = {new AtomicLongArray(BUCKETS), new AtomicLongArray(BUCKETS)};
+    private final LongAdder count = new LongAdder();
+
+    // writer-reader phaser, see HdrHistogram WriterReaderPhaser
+    private final AtomicLong startEpoch = new AtomicLong(0);
+    private final AtomicLong evenEndEpoch = new AtomicLong(0);
+    private final AtomicLong oddEndEpoch = new AtomicLong(Long.MIN_VALUE);
+
+    private long[] previousInterval = new long[BUCKETS];
+    private long lastSwap = System.nanoTime();
+
+    public LatencyHistogram(long interval, TimeUnit intervalUnit) {
+        this.intervalNanos = intervalUnit.toNanos(interval);
+    }
+
+    @Override
+    public void update(int value) {
+        update((long) value);
+    }
+
+    @Override
+    public void update(long value) {
+
+        long epoch = startEpoch.getAndIncrement();
+        try {
+            phases[epoch < 0 ? 1 : 0].incrementAndGet(bucketIndex(value));
+        } finally {
+            (epoch < 0 ? oddEndEpoch : evenEndEpoch).getAndIncrement();
+        }
+
+        count.increment();
+    }
+
+    @Override
+    public long getCount() {
+        return count.sum();
+    }
+
+    @Override
+    public Snapshot getSnapshot() {
+
+        long[] counts = new long[BUCKETS];
+
+        synchronized (this) {
+            if (System.nanoTime() - lastSwap >= intervalNanos) {
+                swap();
+            }
+
+            AtomicLongArray active = phases[startEpoch.get() < 0 ? 1 : 0];
+            for (int i = 0; i < BUCKETS; i++) {
+                counts[i] = previousInterval[i] + active.get(i);
+            }
+        }
+
+        return new LatencySnapshot(counts);
+    }
+
+    private void swap() {
+
+        boolean nextPhaseIsEven = startEpoch.get() < 0;
+        long initialStartValue = nextPhaseIsEven ? 0 : Long.MIN_VALUE;
+
+        (nextPhaseIsEven ? evenEndEpoch : oddEndEpoch).lazySet(initialStartValue);
+        long startValueAtFlip = startEpoch.getAndSet(initialStartValue);
+
+        // wait for writers still recording into the previous phase
+        AtomicLong previousEndEpoch = nextPhaseIsEven ? oddEndEpoch : evenEndEpoch;
+        while (previousEndEpoch.get() != startValueAtFlip) {
+            Thread.yield();
+        }
+
+        AtomicLongArray previous = phases[nextPhaseIsEven ? 1 : 0];
+        for (int i = 0; i < BUCKETS; i++) {
+            previousInterval[i] = previous.getAndSet(i, 0);
+        }
+
+        lastSwap = System.nanoTime();
+    }
+
+    private static int bucketIndex(long value) {
+
+        if (value < SUB_BUCKET_COUNT) {
+            return value < 0 ? 0 : (int) value;
+        }
+        if (value > MAX_VALUE) {
+            value = MAX_VALUE;
+        }
+
+        int shift = 63 - Long.numberOfLeadingZeros(value) - (SUB_BUCKET_BITS - 1);
+
+        return shift * SUB_BUCKET_HALF_COUNT + (int) (value >>> shift);
+    }
+
+    /**
+     * Returns the middle of the range of values recorded into the bucket.
+     */
+    private static long bucketValue(int index) {
+
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+
+        int shift = index / SUB_BUCKET_HALF_COUNT - 1;
+        long lowest = (long) (index - shift * SUB_BUCKET_HALF_COUNT) << shift;
+
+        return lowest + ((1L << shift) >> 1);
+    }
+
+    private static class LatencySnapshot extends Snapshot {
+
+        private final long[] counts;
+        private final long total;
+        private final int minIndex;
+        private final int maxIndex;
+
+        LatencySnapshot(long[] counts) {
+
+            this.counts = counts;
+
+            long sum = 0;
+            int min = -1;
+            int max = -1;
+            for (int i = 0; i < counts.length; i++) {
+                if (counts[i] > 0) {
+                    sum += counts[i];
+                    if (min < 0) {
+                        min = i;
+                    }
+                    max = i;
+                }
+            }
+
+            this.total = sum;
+            this.minIndex = min;
+            this.maxIndex = max;
+        }
+
+        @Override
+        public double getValue(double quantile) {
+
+            if (quantile < 0.0 || quantile > 1.0 || Double.isNaN(quantile)) {
+                throw new IllegalArgumentException(quantile + " is not in [0..1]");
+            }
+            if (total == 0) {
+                return 0.0;
+            }
+
+            long rank = Math.max(1, (long) Math.ceil(quantile * total));
+            long seen = 0;
+            for (int i = minIndex; i <= maxIndex; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return bucketValue(i);
+                }
+            }
+
+            return bucketValue(maxIndex);
+        }
+
+        /**
+         * Returns the value of each non-empty bucket once.
+         */
+        @Override
+        public long[] getValues() {
+
+            long[] values = new long[size()];
+            int n = 0;
+            for (int i = minIndex; i >= 0 && i <= maxIndex; i++) {
+                if (counts[i] > 0) {
+                    values[n++] = bucketValue(i);
+                }
+            }
+
+            return values;
+        }
+
+        @Override
+        public int size() {
+
+            int size = 0;
+            for (int i = minIndex; i >= 0 && i <= maxIndex; i++) {
+                if (counts[i] > 0) {
+                    size++;
+                }
+            }
+
+            return size;
+        }
+
+        @Override
+        public long getMax() {
+            return total == 0 ? 0 : bucketValue(maxIndex);
+        }
+
+        @Override
+        public double getMean() {
+
+            if (total == 0) {
+                return 0.0;
+            }
+
+            double sum = 0;
+            for (int i = minIndex; i <= maxIndex; i++) {
+                sum += (double) counts[i] * bucketValue(i);
+            }
+
+            return sum / total;
+        }
+
+        @Override
+        public long getMin() {
+            return total == 0 ? 0 : bucketValue(minIndex);
+        }
+
+        @Override
+        public double getStdDev() {
+
+            if (total <= 1) {
+                return 0.0;
+            }
+
+            double mean = getMean();
+            double variance = 0;
+            for (int i = minIndex; i <= maxIndex; i++) {
+                double diff = bucketValue(i) - mean;
+                variance += counts[i] * diff * diff;
+            }
+
+            return Math.sqrt(variance / (total - 1));
+        }
+
+        @Override
+        public void dump(OutputStream output) {
+            try (PrintWriter out = new PrintWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8))) {
+                for (int i = minIndex; i >= 0 && i <= maxIndex; i++) {
+                    if (counts[i] > 0) {
+                        out.printf("%d\t%d%n", bucketValue(i), counts[i]);
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ *  Copyright (c) 2014-2017 Kumuluz and/or its affiliates
+ *  and other contributors as indicated by the @author tags and
+ *  the contributor list.
+ *
+ *  Licensed under the MIT License (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://opensource.org/licenses/MIT
+ *
+ *  The software is provided "AS IS", WITHOUT WARRANTY OF ANY KIND, express or
+ *  implied, including but not limited to the warranties of merchantability,
+ *  fitness for a particular purpose and noninfringement. in no event shall the
+ *  authors or copyright holders be liable for any claim, damages or other
+ *  liability, whether in an action of contract, tort or otherwise, arising from,
+ *  out of or in connection with the software or the use or other dealings in the
+ *  software. See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.kumuluz.ee.fault.tolerance.metrics;
+
+import org.eclipse.microprofile.metrics.*;
+
+/**
+ * Metrics collection for {@link com.kumuluz.ee.fault.tolerance.annotations.RateLimit}.
+ *
+ * @since 2.2.0
+ */
+public class RateLimitMetricsCollection extends BaseMetricsCollection {
+
+    private static final String RATE_LIMIT_PREFIX = "ratelimit.";
+
+    private Counter callsAccepted;
+    private Counter callsRejected;
+    private Counter callsDelayed;
+    private Histogram waitingDuration;
+
+    public RateLimitMetricsCollection(MetricRegistry registry) {
+        super(registry);
+    }
+
+    @Override
+    public void initMetrics() {
+        Metadata callsAcceptedMetadata = createMetadata(
+                metricsPrefix + RATE_LIMIT_PREFIX + "callsAccepted.total",
+                MetricType.COUNTER,
+                MetricUnits.NONE,
+                "Number of calls accepted by the rate limiter");
+        callsAccepted = createCounter(callsAcceptedMetadata);
+
+        Metadata callsRejectedMetadata = createMetadata(
+                metricsPrefix + RATE_LIMIT_PREFIX + "callsRejected.total",
+                MetricType.COUNTER,
+                MetricUnits.NONE,
+                "Number of calls rejected by the rate limiter");
+        callsRejected = createCounter(callsRejectedMetadata);
+
+        Metadata callsDelayedMetadata = createMetadata(
+                metricsPrefix + RATE_LIMIT_PREFIX + "callsDelayed.total",
+                MetricType.COUNTER,
+                MetricUnits.NONE,
+                "Number of accepted calls which had to wait for a permit");
+        callsDelayed = createCounter(callsDelayedMetadata);
+
+        Metadata waitingDurationMetadata = createMetadata(
+                metricsPrefix + RATE_LIMIT_PREFIX + "waiting.duration",
+                MetricType.HISTOGRAM,
+                MetricUnits.NANOSECONDS,
+                "Histogram of the time delayed calls spent waiting for a permit");
+        waitingDuration = createDurationHistogram(waitingDurationMetadata);
+    }
+
+    public Counter getCallsAccepted() {
+        return callsAccepted;
+    }
+
+    public Counter getCallsRejected() {
+        return callsRejected;
+    }
+
+    public Counter getCallsDelayed() {
+        return callsDelayed;
+    }
+
+    public Histogram getWaitingDuration() {
+        return waitingDuration;
+    }
+}
@@ -48,28 +48,28 @@ public class RetryMetricsCollection extends BaseMetricsCollection {
                 MetricType.COUNTER,
                 MetricUnits.NONE,
                 "The number of times the method was called and succeeded without retrying");
-        this.callsSucceededNotRetried = registry.counter(callsSucceededNotRetriedMetadata);
+        this.callsSucceededNotRetried = createCounter(callsSucceededNotRetriedMetadata);
 
         Metadata callsSucceededRetriedMetadata = createMetadata(
                 metricsPrefix + RETRY_PREFIX + "callsSucceededRetried.total",
                 MetricType.COUNTER,
                 MetricUnits.NONE,
                 "The number of times the method was called and succeeded after retrying at least once");
-        this.callsSucceededRetried = registry.counter(callsSucceededRetriedMetadata);
+        this.callsSucceededRetried = createCounter(callsSucceededRetriedMetadata);
 
         Metadata callsFailedMetadata = createMetadata(
                 metricsPrefix + RETRY_PREFIX + "callsFailed.total",
                 MetricType.COUNTER,
                 MetricUnits.NONE,
                 "The number of times the method was called and ultimately failed after retrying");
-        this.callsFailed = registry.counter(callsFailedMetadata);
+        this.callsFailed = createCounter(callsFailedMetadata);
 
         Metadata retriesTotalMetadata = createMetadata(
                 metricsPrefix + RETRY_PREFIX + "retries.total",
                 MetricType.COUNTER,
                 MetricUnits.NONE,
                 "The total number of times the method was retried");
-        this.retriesTotal = registry.counter(retriesTotalMetadata);
+        this.retriesTotal = createCounter(retriesTotalMetadata);
     }
 
     public Counter getCallsSucceededNotRetried() {
@@ -47,21 +47,26 @@ public class TimeoutMetricsCollection extends BaseMetricsCollection {
                 MetricType.HISTOGRAM,
                 MetricUnits.NANOSECONDS,
                 "Histogram of execution times for the method");
-        executionDuration = registry.histogram(executionDurationMetadata);
+        executionDuration = createDurationHistogram(executionDurationMetadata);
 
         Metadata callsTimedOutMetadata = createMetadata(
                 metricsPrefix + TIMEOUT_PREFIX + "callsTimedOut.total",
                 MetricType.COUNTER,
                 MetricUnits.NONE,
                 "The number of times the method timed out");
-        callsTimedOut = registry.counter(callsTimedOutMetadata);
+        callsTimedOut = createCounter(callsTimedOutMetadata);
 
         Metadata callsNotTimedOutMetadata = createMetadata(
                 metricsPrefix + TIMEOUT_PREFIX + "callsNotTimedOut.total",
                 MetricType.COUNTER,
                 MetricUnits.NONE,
                 "The number of times the method completed without timing out");
-        callsNotTimedOut = registry.counter(callsNotTimedOutMetadata);
+        callsNotTimedOut = createCounter(callsNotTimedOutMetadata);
+    }
+
+    public void registerEffectiveTimeoutGauge(Gauge<Long> gauge) {
+        registerGauge(metricsPrefix + TIMEOUT_PREFIX + "effective", gauge, MetricUnits.MILLISECONDS,
+                "Timeout currently applied to the method");
     }
 
     public Histogram getExecutionDuration() {
@@ -20,14 +20,21 @@
  */
 package com.kumuluz.ee.fault.tolerance.models;
 
+import com.kumuluz.ee.fault.tolerance.annotations.Batch;
+import com.kumuluz.ee.fault.tolerance.annotations.Hedge;
+import com.kumuluz.ee.fault.tolerance.annotations.KeyedCircuitBreaker;
+import com.kumuluz.ee.fault.tolerance.annotations.RateLimit;
 import com.kumuluz.ee.fault.tolerance.enums.CircuitBreakerType;
+import com.kumuluz.ee.fault.tolerance.enums.CriticalityLevel;
+import com.kumuluz.ee.fault.tolerance.interfaces.CircuitBreakerKeyExtractor;
 import com.kumuluz.ee.fault.tolerance.metrics.*;
 import org.eclipse.microprofile.faulttolerance.*;
 
 import java.lang.reflect.Method;
-import java.util.HashMap;
-import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
 
 /**
  * Model for holding information fault tolerance needs to execute method.
@@ -43,6 +50,8 @@ public class ExecutionMetadata {
     private final String groupKey;
 
     private boolean asynchronous;
+    private boolean reactive;
+    private boolean cacheResult;
     private Class<? extends FallbackHandler> fallbackHandlerClass;
     private Method fallbackMethod;
 
@@ -50,29 +59,36 @@ public class ExecutionMetadata {
     private Timeout timeout;
     private Retry retry;
     private CircuitBreaker circuitBreaker;
+    private KeyedCircuitBreaker keyedCircuitBreaker;
+    private CircuitBreakerKeyExtractor circuitBreakerKeyExtractor;
+    private Batch batch;
+    private Method batchMethod;
+    private Hedge hedge;
+    private RateLimit rateLimit;
+    private boolean rateLimitGroupScoped;
+    private CriticalityLevel criticality = CriticalityLevel.DEFAULT;
 
     private Integer circuitBreakerSuccessThreshold;
     private CircuitBreakerType circuitBreakerType;
 
-    private Map<String, CommonMetricsCollection> commonMetricsCollections;
-    private Map<String, RetryMetricsCollection> retryMetricsCollections;
-    private Map<String, TimeoutMetricsCollection> timeoutMetricsCollections;
-    private Map<String, FallbackMetricsCollection> fallbackMetricsCollectionMap;
-    private Map<String, CircuitBreakerMetricsCollection> cbMetricsCollectionMap;
-    private Map<String, BulkheadMetricsCollection> bulkheadMetricsCollectionMap;
+    private String metricsPrefix;
+
+    private final MetricsCollections<CommonMetricsCollection> commonMetricsCollections = new MetricsCollections<>();
+    private final MetricsCollections<RetryMetricsCollection> retryMetricsCollections = new MetricsCollections<>();
+    private final MetricsCollections<TimeoutMetricsCollection> timeoutMetricsCollections = new MetricsCollections<>();
+    private final MetricsCollections<FallbackMetricsCollection> fallbackMetricsCollectionMap = new MetricsCollections<>();
+    private final MetricsCollections<CircuitBreakerMetricsCollection> cbMetricsCollectionMap = new MetricsCollections<>();
+    private final MetricsCollections<BulkheadMetricsCollection> bulkheadMetricsCollectionMap = new MetricsCollections<>();
+    private final MetricsCollections<BatchMetricsCollection> batchMetricsCollectionMap = new MetricsCollections<>();
+    private final MetricsCollections<CacheResultMetricsCollection> cacheResultMetricsCollectionMap = new MetricsCollections<>();
+    private final MetricsCollections<HedgeMetricsCollection> hedgeMetricsCollectionMap = new MetricsCollections<>();
+    private final MetricsCollections<RateLimitMetricsCollection> rateLimitMetricsCollectionMap = new MetricsCollections<>();
 
     public ExecutionMetadata(Class targetClass, Method method, String commandKey, String groupKey) {
         this.targetClass = targetClass;
         this.method = method;
         this.commandKey = commandKey;
         this.groupKey = groupKey;
-
-        this.commonMetricsCollections = new HashMap<>();
-        this.retryMetricsCollections = new HashMap<>();
-        this.timeoutMetricsCollections = new HashMap<>();
-        this.fallbackMetricsCollectionMap = new HashMap<>();
-        this.cbMetricsCollectionMap = new HashMap<>();
-        this.bulkheadMetricsCollectionMap = new HashMap<>();
     }
 
     public String getIdentifier() {
@@ -103,6 +119,22 @@ public class ExecutionMetadata {
         this.asynchronous = asynchronous;
     }
 
+    public boolean isReactive() {
+        return reactive;
+    }
+
+    public void setReactive(boolean reactive) {
+        this.reactive = reactive;
+    }
+
+    public boolean isCacheResult() {
+        return cacheResult;
+    }
+
+    public void setCacheResult(boolean cacheResult) {
+        this.cacheResult = cacheResult;
+    }
+
     public Class<? extends FallbackHandler> getFallbackHandlerClass() {
         return fallbackHandlerClass;
     }
@@ -151,6 +183,70 @@ public class ExecutionMetadata {
         this.circuitBreaker = circuitBreaker;
     }
 
+    public KeyedCircuitBreaker getKeyedCircuitBreaker() {
+        return keyedCircuitBreaker;
+    }
+
+    public void setKeyedCircuitBreaker(KeyedCircuitBreaker keyedCircuitBreaker) {
+        this.keyedCircuitBreaker = keyedCircuitBreaker;
+    }
+
+    public CircuitBreakerKeyExtractor getCircuitBreakerKeyExtractor() {
+        return circuitBreakerKeyExtractor;
+    }
+
+    public void setCircuitBreakerKeyExtractor(CircuitBreakerKeyExtractor circuitBreakerKeyExtractor) {
+        this.circuitBreakerKeyExtractor = circuitBreakerKeyExtractor;
+    }
+
+    public Batch getBatch() {
+        return batch;
+    }
+
+    public void setBatch(Batch batch) {
+        this.batch = batch;
+    }
+
+    public Method getBatchMethod() {
+        return batchMethod;
+    }
+
+    public void setBatchMethod(Method batchMethod) {
+        this.batchMethod = batchMethod;
+    }
+
+    public Hedge getHedge() {
+        return hedge;
+    }
+
+    public void setHedge(Hedge hedge) {
+        this.hedge = hedge;
+    }
+
+    public RateLimit getRateLimit() {
+        return rateLimit;
+    }
+
+    public void setRateLimit(RateLimit rateLimit) {
+        this.rateLimit = rateLimit;
+    }
+
+    public boolean isRateLimitGroupScoped() {
+        return rateLimitGroupScoped;
+    }
+
+    public void setRateLimitGroupScoped(boolean rateLimitGroupScoped) {
+        this.rateLimitGroupScoped = rateLimitGroupScoped;
+    }
+
+    public CriticalityLevel getCriticality() {
+        return criticality;
+    }
+
+    public void setCriticality(CriticalityLevel criticality) {
+        this.criticality = criticality;
+    }
+
     public Integer getCircuitBreakerSuccessThreshold() {
         return circuitBreakerSuccessThreshold;
     }
@@ -168,67 +264,131 @@ public class ExecutionMetadata {
     }
 
     public Optional<CommonMetricsCollection> getCommonMetricsCollection(String methodName) {
-        return Optional.ofNullable(commonMetricsCollections.get(methodName));
+        return commonMetricsCollections.get(methodName);
     }
 
     public Optional<RetryMetricsCollection> getRetryMetricsCollection(String methodName) {
-        return Optional.ofNullable(retryMetricsCollections.get(methodName));
+        return retryMetricsCollections.get(methodName);
     }
 
     public Optional<TimeoutMetricsCollection> getTimeoutMetricsCollection(String methodName) {
-        return Optional.ofNullable(timeoutMetricsCollections.get(methodName));
+        return timeoutMetricsCollections.get(methodName);
     }
 
     public Optional<FallbackMetricsCollection> getFallbackMetricsCollection(String methodName) {
-        return Optional.ofNullable(fallbackMetricsCollectionMap.get(methodName));
+        return fallbackMetricsCollectionMap.get(methodName);
     }
 
     public Optional<CircuitBreakerMetricsCollection> getCbMetricsCollection(String methodName) {
-        return Optional.ofNullable(cbMetricsCollectionMap.get(methodName));
+        return cbMetricsCollectionMap.get(methodName);
     }
 
     public Optional<BulkheadMetricsCollection> getBulkheadMetricsCollection(String methodName) {
-        return Optional.ofNullable(bulkheadMetricsCollectionMap.get(methodName));
+        return bulkheadMetricsCollectionMap.get(methodName);
     }
 
-    public void addCommonMetricsCollection(Method method, CommonMetricsCollection commonMetricsCollection) {
-        if (commonMetricsCollections.putIfAbsent(method.getName(), commonMetricsCollection) == null) {
-            initMetricsCollection(method.getName(), commonMetricsCollection);
-        }
+    public Optional<BatchMetricsCollection> getBatchMetricsCollection(String methodName) {
+        return batchMetricsCollectionMap.get(methodName);
     }
 
-    public void addRetryMetricsCollection(Method method, RetryMetricsCollection retryMetricsCollection) {
-        if (retryMetricsCollections.putIfAbsent(method.getName(), retryMetricsCollection) == null) {
-            initMetricsCollection(method.getName(), retryMetricsCollection);
-        }
+    public Optional<CacheResultMetricsCollection> getCacheResultMetricsCollection(String methodName) {
+        return cacheResultMetricsCollectionMap.get(methodName);
     }
 
-    public void addTimeoutMetricsCollection(Method method, TimeoutMetricsCollection timeoutMetricsCollection) {
-        if (timeoutMetricsCollections.putIfAbsent(method.getName(), timeoutMetricsCollection) == null) {
-            initMetricsCollection(method.getName(), timeoutMetricsCollection);
-        }
+    public Optional<HedgeMetricsCollection> getHedgeMetricsCollection(String methodName) {
+        return hedgeMetricsCollectionMap.get(methodName);
     }
 
-    public void addFallbackMetricsCollection(Method method, FallbackMetricsCollection fallbackMetricsCollection) {
-        if (fallbackMetricsCollectionMap.putIfAbsent(method.getName(), fallbackMetricsCollection) == null) {
-            initMetricsCollection(method.getName(), fallbackMetricsCollection);
-        }
+    public Optional<RateLimitMetricsCollection> getRateLimitMetricsCollection(String methodName) {
+        return rateLimitMetricsCollectionMap.get(methodName);
     }
 
-    public void addCbMetricsCollection(Method method, CircuitBreakerMetricsCollection cbMetricsCollection) {
-        if (cbMetricsCollectionMap.putIfAbsent(method.getName(), cbMetricsCollection) == null) {
-            initMetricsCollection(method.getName(), cbMetricsCollection);
-        }
+    public void setCommonMetricsCollectionFactory(Supplier<CommonMetricsCollection> factory) {
+        commonMetricsCollections.setFactory(factory);
     }
 
-    public void addBulkheadMetricsCollection(Method method, BulkheadMetricsCollection bulkheadMetricsCollection) {
-        if (bulkheadMetricsCollectionMap.putIfAbsent(method.getName(), bulkheadMetricsCollection) == null) {
-            initMetricsCollection(method.getName(), bulkheadMetricsCollection);
-        }
+    public void setRetryMetricsCollectionFactory(Supplier<RetryMetricsCollection> factory) {
+        retryMetricsCollections.setFactory(factory);
+    }
+
+    public void setTimeoutMetricsCollectionFactory(Supplier<TimeoutMetricsCollection> factory) {
+        timeoutMetricsCollections.setFactory(factory);
+    }
+
+    public void setFallbackMetricsCollectionFactory(Supplier<FallbackMetricsCollection> factory) {
+        fallbackMetricsCollectionMap.setFactory(factory);
+    }
+
+    public void setCbMetricsCollectionFactory(Supplier<CircuitBreakerMetricsCollection> factory) {
+        cbMetricsCollectionMap.setFactory(factory);
+    }
+
+    public void setBulkheadMetricsCollectionFactory(Supplier<BulkheadMetricsCollection> factory) {
+        bulkheadMetricsCollectionMap.setFactory(factory);
+    }
+
+    public void setBatchMetricsCollectionFactory(Supplier<BatchMetricsCollection> factory) {
+        batchMetricsCollectionMap.setFactory(factory);
+    }
+
+    public void setCacheResultMetricsCollectionFactory(Supplier<CacheResultMetricsCollection> factory) {
+        cacheResultMetricsCollectionMap.setFactory(factory);
+    }
+
+    public void setHedgeMetricsCollectionFactory(Supplier<HedgeMetricsCollection> factory) {
+        hedgeMetricsCollectionMap.setFactory(factory);
+    }
+
+    public void setRateLimitMetricsCollectionFactory(Supplier<RateLimitMetricsCollection> factory) {
+        rateLimitMetricsCollectionMap.setFactory(factory);
+    }
+
+    /**
+     * Overrides the prefix of metrics, which is by default derived from target class and method name.
+     *
+     * @param metricsPrefix Prefix of metrics names
+     */
+    public void setMetricsPrefix(String metricsPrefix) {
+        this.metricsPrefix = metricsPrefix;
     }
 
     private void initMetricsCollection(String methodName, BaseMetricsCollection baseMetricsCollection) {
-        baseMetricsCollection.setMetricsPrefix("ft." + this.targetClass.getCanonicalName() + "." + methodName + ".");
+        baseMetricsCollection.setMetricsPrefix(metricsPrefix != null ? metricsPrefix :
+                "ft." + this.targetClass.getCanonicalName() + "." + methodName + ".");
         baseMetricsCollection.initialize();
     }
+
+    /**
+     * Metrics collections of a single type, keyed by method name. Collection of a method is created and registered the
+     * first time it is requested, subsequent lookups are lock-free and do not allocate.
+     */
+    private class MetricsCollections<T extends BaseMetricsCollection> {
+
+        private final ConcurrentMap<String, Optional<T>> collections = new ConcurrentHashMap<>();
+        private volatile Supplier<T> factory;
+
+        void setFactory(Supplier<T> factory) {
+            this.factory = factory;
+        }
+
+        Optional<T> get(String methodName) {
+
+            Optional<T> collection = collections.get(methodName);
+
+            if (collection == null) {
+                if (factory == null) {
+                    return Optional.empty();
+                }
+
+                collection = collections.computeIfAbsent(methodName, name -> {
+                    T created = factory.get();
+                    initMetricsCollection(name, created);
+
+                    return Optional.of(created);
+                });
+            }
+
+            return collection;
+        }
+    }
 }
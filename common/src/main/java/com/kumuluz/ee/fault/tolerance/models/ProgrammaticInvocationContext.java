@@ -0,0 +1,103 @@
+/*
+ *  Copyright (c) 2014-2017 Kumuluz and/or its affiliates
+ *  and other contributors as indicated by the @author tags and
+ *  the contributor list.
+ *
+ *  Licensed under the MIT License (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://opensource.org/licenses/MIT
+ *
+ *  The software is provided "AS IS", WITHOUT WARRANTY OF ANY KIND, express or
+ *  implied, including but not limited to the warranties of merchantability,
+ *  fitness for a particular purpose and noninfringement. in no event shall the
+ *  authors or copyright holders be liable for any claim, damages or other
+ *  liability, whether in an action of contract, tort or otherwise, arising from,
+ *  out of or in connection with the software or the use or other dealings in the
+ *  software. See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.kumuluz.ee.fault.tolerance.models;
+
+import javax.interceptor.InvocationContext;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+/**
+ * Invocation context of a programmatic fault tolerance execution, proceeding with invocation of the decorated
+ * {@link Callable}.
+ *
+ * {@link Callable#call()} is returned by {@link #getMethod()}, metrics of the execution are named by the command key
+ * set in {@link ExecutionMetadata#setMetricsPrefix(String)}.
+ *
+ * @since 2.2.0
+ */
+public class ProgrammaticInvocationContext implements InvocationContext {
+
+    public static final Method CALL_METHOD;
+
+    static {
+        try {
+            CALL_METHOD = Callable.class.getMethod("call");
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private final Callable<?> callable;
+    private final Object[] parameters;
+    private Map<String, Object> contextData;
+
+    public ProgrammaticInvocationContext(Callable<?> callable, Object... parameters) {
+        this.callable = callable;
+        this.parameters = parameters;
+    }
+
+    @Override
+    public Object getTarget() {
+        return callable;
+    }
+
+    @Override
+    public Object getTimer() {
+        return null;
+    }
+
+    @Override
+    public Method getMethod() {
+        return CALL_METHOD;
+    }
+
+    @Override
+    public Constructor<?> getConstructor() {
+        return null;
+    }
+
+    @Override
+    public Object[] getParameters() {
+        return parameters;
+    }
+
+    @Override
+    public void setParameters(Object[] objects) {
+        throw new UnsupportedOperationException("Parameters of a programmatic invocation cannot be changed.");
+    }
+
+    @Override
+    public Map<String, Object> getContextData() {
+        if (contextData == null) {
+            contextData = new HashMap<>();
+        }
+
+        return contextData;
+    }
+
+    @Override
+    public Object proceed() throws Exception {
+        return callable.call();
+    }
+}
@@ -0,0 +1,46 @@
+/*
+ *  Copyright (c) 2014-2017 Kumuluz and/or its affiliates
+ *  and other contributors as indicated by the @author tags and
+ *  the contributor list.
+ *
+ *  Licensed under the MIT License (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://opensource.org/licenses/MIT
+ *
+ *  The software is provided "AS IS", WITHOUT WARRANTY OF ANY KIND, express or
+ *  implied, including but not limited to the warranties of merchantability,
+ *  fitness for a particular purpose and noninfringement. in no event shall the
+ *  authors or copyright holders be liable for any claim, damages or other
+ *  liability, whether in an action of contract, tort or otherwise, arising from,
+ *  out of or in connection with the software or the use or other dealings in the
+ *  software. See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.kumuluz.ee.fault.tolerance.utils;
+
+import com.kumuluz.ee.fault.tolerance.annotations.Batch;
+import com.kumuluz.ee.fault.tolerance.annotations.BatchBinding;
+
+import javax.enterprise.event.Observes;
+import javax.enterprise.inject.spi.BeanManager;
+import javax.enterprise.inject.spi.BeforeBeanDiscovery;
+import javax.enterprise.inject.spi.Extension;
+import javax.enterprise.util.AnnotationLiteral;
+
+/**
+ * Adds {@link BatchBinding} interceptor binding to all methods, annotated with {@link Batch}.
+ *
+ * This is done because {@link Batch} only supports METHOD target, so it cannot be used as an interceptor binding of
+ * the interceptor directly.
+ *
+ * @since 2.2.0
+ */
+public class BatchBindingAnnotator implements Extension {
+
+    void addBatchBinding(@Observes BeforeBeanDiscovery bbd, BeanManager bm) {
+        bbd.addInterceptorBinding(new AnnotatedTypeDecorator<>(bm.createAnnotatedType(Batch.class),
+                BatchBinding.class, new AnnotationLiteral<BatchBinding>() {}));
+    }
+}
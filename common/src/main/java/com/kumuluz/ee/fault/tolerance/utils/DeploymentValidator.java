@@ -20,15 +20,21 @@
  */
 package com.kumuluz.ee.fault.tolerance.utils;
 
+import com.kumuluz.ee.fault.tolerance.annotations.Batch;
+import com.kumuluz.ee.fault.tolerance.annotations.Hedge;
+import com.kumuluz.ee.fault.tolerance.annotations.RateLimit;
 import com.kumuluz.ee.fault.tolerance.config.IsEnabledConfig;
 import org.eclipse.microprofile.faulttolerance.*;
 import org.eclipse.microprofile.faulttolerance.exceptions.FaultToleranceDefinitionException;
 
+import javax.enterprise.context.ApplicationScoped;
 import javax.enterprise.event.Observes;
 import javax.enterprise.inject.spi.*;
+import javax.inject.Singleton;
 import java.lang.reflect.Method;
 import java.time.Duration;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 
@@ -65,6 +71,14 @@ public class DeploymentValidator implements Extension {
             validateBulkhead(type, null);
         }
 
+        if (type.isAnnotationPresent(Hedge.class)) {
+            validateHedge(type, null);
+        }
+
+        if (type.isAnnotationPresent(RateLimit.class)) {
+            validateRateLimit(type, null);
+        }
+
         for (AnnotatedMethod<? super T> method : anType.getAnnotatedType().getMethods()) {
 
             if (method.isAnnotationPresent(Asynchronous.class)) {
@@ -90,6 +104,18 @@ public class DeploymentValidator implements Extension {
             if (method.isAnnotationPresent(Bulkhead.class)) {
                 validateBulkhead(type, method);
             }
+
+            if (method.isAnnotationPresent(Batch.class)) {
+                validateBatch(type, method);
+            }
+
+            if (method.isAnnotationPresent(Hedge.class)) {
+                validateHedge(type, method);
+            }
+
+            if (method.isAnnotationPresent(RateLimit.class)) {
+                validateRateLimit(type, method);
+            }
         }
     }
 
@@ -105,6 +131,73 @@ public class DeploymentValidator implements Extension {
         }
     }
 
+    private <T> void validateBatch(AnnotatedType<T> type, AnnotatedMethod<? super T> method) {
+        Batch batch = method.getAnnotation(Batch.class);
+
+        if (batch.batchMethod().equals("")) {
+            throwDefinitionException(type, method, "Batch annotation does not specify batch method.");
+        }
+        if (method.getJavaMember().getParameterCount() != 1) {
+            throwDefinitionException(type, method, "Method annotated with @Batch must have exactly one parameter.");
+        }
+        if (method.isAnnotationPresent(Asynchronous.class) || type.isAnnotationPresent(Asynchronous.class)) {
+            throwDefinitionException(type, method, "Batch annotation cannot be used in combination with " +
+                    "@Asynchronous.");
+        }
+        // collapser is shared by all instances of the bean and executes batches on a single target instance
+        if (!type.isAnnotationPresent(ApplicationScoped.class) && !type.isAnnotationPresent(Singleton.class)) {
+            throwDefinitionException(type, method, "Batch annotation can only be used on @ApplicationScoped or " +
+                    "@Singleton beans.");
+        }
+        if (batch.window() < 0) {
+            throwDefinitionException(type, method, "Batch window parameter must be greater than or equal to 0.");
+        }
+        if (batch.maxSize() < 1) {
+            throwDefinitionException(type, method, "Batch maxSize parameter must be greater than or equal to 1.");
+        }
+
+        boolean batchMethodFound = type.getMethods().stream()
+                .map(AnnotatedMethod::getJavaMember)
+                .anyMatch(m -> m.getName().equals(batch.batchMethod()) && m.getParameterCount() == 1 &&
+                        m.getParameterTypes()[0].isAssignableFrom(List.class) &&
+                        (List.class.isAssignableFrom(m.getReturnType()) || Map.class.isAssignableFrom(m.getReturnType())));
+
+        if (!batchMethodFound) {
+            throwDefinitionException(type, method, "Batch method with name " + batch.batchMethod() + " accepting " +
+                    "a List and returning a List or a Map not found.");
+        }
+    }
+
+    private <T> void validateHedge(AnnotatedType<T> type, AnnotatedMethod<? super T> method) {
+        Hedge hedge = (method == null) ? type.getAnnotation(Hedge.class) : method.getAnnotation(Hedge.class);
+
+        if (hedge.delay() < 0) {
+            throwDefinitionException(type, method, "Hedge delay parameter must be greater than or equal to 0.");
+        }
+        if (hedge.delayPercentile() < 0.0 || hedge.delayPercentile() >= 100.0) {
+            throwDefinitionException(type, method, "Hedge delayPercentile parameter must be greater than or equal " +
+                    "to 0 and less than 100.");
+        }
+        if (hedge.budget() < 0.0 || hedge.budget() > 1.0) {
+            throwDefinitionException(type, method, "Hedge budget parameter must be between 0 and 1.");
+        }
+    }
+
+    private <T> void validateRateLimit(AnnotatedType<T> type, AnnotatedMethod<? super T> method) {
+        RateLimit rateLimit = (method == null) ? type.getAnnotation(RateLimit.class) :
+                method.getAnnotation(RateLimit.class);
+
+        if (rateLimit.value() < 1) {
+            throwDefinitionException(type, method, "RateLimit value parameter must be greater than or equal to 1.");
+        }
+        if (rateLimit.window() < 1) {
+            throwDefinitionException(type, method, "RateLimit window parameter must be greater than or equal to 1.");
+        }
+        if (rateLimit.maxWait() < 0) {
+            throwDefinitionException(type, method, "RateLimit maxWait parameter must be greater than or equal to 0.");
+        }
+    }
+
     private <T> void validateCircuitBreaker(AnnotatedType<T> type, AnnotatedMethod<? super T> method) {
         CircuitBreaker circuitBreaker = (method == null) ? type.getAnnotation(CircuitBreaker.class) :
                 method.getAnnotation(CircuitBreaker.class);
@@ -245,8 +338,10 @@ public class DeploymentValidator implements Extension {
     }
 
     private <T> void validateAsynchronous(AnnotatedType<T> type, AnnotatedMethod<? super T> method) {
-        if (method != null && !method.getJavaMember().getReturnType().isAssignableFrom(Future.class)) {
-            throwDefinitionException(type, method, "Method annotated with @Asynchronous must return a Future.");
+        if (method != null && !method.getJavaMember().getReturnType().isAssignableFrom(Future.class) &&
+                !ReactiveTypes.isReactive(method.getJavaMember().getReturnType())) {
+            throwDefinitionException(type, method, "Method annotated with @Asynchronous must return a Future or " +
+                    "a reactive type.");
         }
     }
 
@@ -22,11 +22,19 @@ package com.kumuluz.ee.fault.tolerance.utils;
 
 import com.kumuluz.ee.configuration.ConfigurationListener;
 import com.kumuluz.ee.configuration.utils.ConfigurationUtil;
+import com.kumuluz.ee.fault.tolerance.annotations.Batch;
+import com.kumuluz.ee.fault.tolerance.annotations.CacheResult;
+import com.kumuluz.ee.fault.tolerance.annotations.Hedge;
+import com.kumuluz.ee.fault.tolerance.annotations.Criticality;
+import com.kumuluz.ee.fault.tolerance.annotations.KeyedCircuitBreaker;
+import com.kumuluz.ee.fault.tolerance.annotations.RateLimit;
 import com.kumuluz.ee.fault.tolerance.annotations.CommandKey;
 import com.kumuluz.ee.fault.tolerance.annotations.GroupKey;
 import com.kumuluz.ee.fault.tolerance.config.MicroprofileConfigUtil;
 import com.kumuluz.ee.fault.tolerance.enums.CircuitBreakerType;
+import com.kumuluz.ee.fault.tolerance.enums.CriticalityLevel;
 import com.kumuluz.ee.fault.tolerance.enums.FaultToleranceType;
+import com.kumuluz.ee.fault.tolerance.interfaces.CircuitBreakerKeyExtractor;
 import com.kumuluz.ee.fault.tolerance.interfaces.FaultToleranceExecutor;
 import com.kumuluz.ee.fault.tolerance.interfaces.FaultToleranceUtil;
 import com.kumuluz.ee.fault.tolerance.metrics.*;
@@ -40,6 +48,8 @@ import org.jboss.weld.context.RequestContext;
 import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
 import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.inject.Instance;
+import javax.enterprise.inject.spi.CDI;
 import javax.inject.Inject;
 import javax.interceptor.InvocationContext;
 import java.lang.reflect.Method;
@@ -119,9 +129,51 @@ public class FaultToleranceUtilImpl implements FaultToleranceUtil {
 
         ExecutionMetadata config = toExecutionMetadata(invocationContext);
 
+        return execute(invocationContext, requestContext, config);
+    }
+
+    /**
+     * Executes invocation with provided execution metadata, used by programmatic fault tolerance
+     *
+     * @param invocationContext Invocation context
+     * @param requestContext    Request context
+     * @param metadata          Execution metadata of the invocation
+     * @return Result of the execution
+     * @throws Exception
+     */
+    @Override
+    public Object execute(InvocationContext invocationContext, RequestContext requestContext,
+                          ExecutionMetadata metadata) throws Exception {
+
         updateConfigurations();
 
-        return executor.execute(invocationContext, requestContext, config);
+        return executor.execute(invocationContext, requestContext, metadata);
+    }
+
+    /**
+     * Reads type of the circuit breaker for command from configuration
+     *
+     * @param commandKey Command key
+     * @param groupKey   Group key
+     * @return Circuit breaker type, HYSTRIX if not configured
+     */
+    @Override
+    public CircuitBreakerType getCircuitBreakerType(String commandKey, String groupKey) {
+
+        try {
+            return findConfig(
+                    commandKey,
+                    groupKey,
+                    FaultToleranceType.CIRCUIT_BREAKER,
+                    "circuit-breaker-type")
+                    .flatMap(cp -> ConfigurationUtil.getInstance().get(cp.configurationPath()))
+                    .flatMap(configVal -> Optional.of(CircuitBreakerType.valueOf(configVal.toUpperCase())))
+                    .orElse(CircuitBreakerType.HYSTRIX);
+        } catch (IllegalArgumentException e) {
+            log.log(Level.SEVERE, "Could not determine circuit breaker type from config, using HYSTRIX " +
+                    "circuit breaker.", e);
+            return CircuitBreakerType.HYSTRIX;
+        }
     }
 
     /**
@@ -313,6 +365,11 @@ public class FaultToleranceUtilImpl implements FaultToleranceUtil {
         Fallback fallback = null;
         Retry retry = null;
         CircuitBreaker circuitBreaker = null;
+        KeyedCircuitBreaker keyedCircuitBreaker = null;
+        Batch batch = null;
+        Hedge hedge = null;
+        RateLimit rateLimit = null;
+        boolean rateLimitGroupScoped = false;
 
         boolean isAsync = false;
         // check for asynchronous annotation
@@ -322,20 +379,24 @@ public class FaultToleranceUtilImpl implements FaultToleranceUtil {
             isAsync = microprofileConfigUtil.isAnnotationEnabled(targetClass, null, Asynchronous.class);
         }
 
+        // reactive executions are not blocking, fault tolerance is applied to the subscription
+        boolean isReactive = ReactiveTypes.isReactive(targetMethod.getReturnType());
+
         // check for bulkhead annotation
+        boolean asyncBulkhead = isAsync && !isReactive;
         if (targetMethod.isAnnotationPresent(Bulkhead.class)) {
             bulkhead = microprofileConfigUtil.configOverriddenBulkhead(targetClass, targetMethod, targetMethod.getAnnotation(Bulkhead.class));
             if (metricRegistry.isPresent()) {
-                metadata.addCommonMetricsCollection(targetMethod, new CommonMetricsCollection(metricRegistry.get()));
-                metadata.addBulkheadMetricsCollection(targetMethod, new BulkheadMetricsCollection(metricRegistry.get(), isAsync));
+                metadata.setCommonMetricsCollectionFactory(() -> new CommonMetricsCollection(metricRegistry.get()));
+                metadata.setBulkheadMetricsCollectionFactory(() -> new BulkheadMetricsCollection(metricRegistry.get(),
+                        asyncBulkhead));
             }
         } else if (targetClass.isAnnotationPresent(Bulkhead.class)) {
             bulkhead = microprofileConfigUtil.configOverriddenBulkhead(targetClass, null, targetClass.getAnnotation(Bulkhead.class));
             if (metricRegistry.isPresent()) {
-                for (Method method : targetClass.getMethods()) {
-                    metadata.addCommonMetricsCollection(method, new CommonMetricsCollection(metricRegistry.get()));
-                    metadata.addBulkheadMetricsCollection(method, new BulkheadMetricsCollection(metricRegistry.get(), isAsync));
-                }
+                metadata.setCommonMetricsCollectionFactory(() -> new CommonMetricsCollection(metricRegistry.get()));
+                metadata.setBulkheadMetricsCollectionFactory(() -> new BulkheadMetricsCollection(metricRegistry.get(),
+                        asyncBulkhead));
             }
         }
 
@@ -343,16 +404,14 @@ public class FaultToleranceUtilImpl implements FaultToleranceUtil {
         if (targetMethod.isAnnotationPresent(Timeout.class)) {
             timeout = microprofileConfigUtil.configOverriddenTimeout(targetClass, targetMethod, targetMethod.getAnnotation(Timeout.class));
             if (metricRegistry.isPresent()) {
-                metadata.addCommonMetricsCollection(targetMethod, new CommonMetricsCollection(metricRegistry.get()));
-                metadata.addTimeoutMetricsCollection(targetMethod, new TimeoutMetricsCollection(metricRegistry.get()));
+                metadata.setCommonMetricsCollectionFactory(() -> new CommonMetricsCollection(metricRegistry.get()));
+                metadata.setTimeoutMetricsCollectionFactory(() -> new TimeoutMetricsCollection(metricRegistry.get()));
             }
         } else if (targetClass.isAnnotationPresent(Timeout.class)) {
             timeout = microprofileConfigUtil.configOverriddenTimeout(targetClass, null, targetClass.getAnnotation(Timeout.class));
             if (metricRegistry.isPresent()) {
-                for (Method method : targetClass.getMethods()) {
-                    metadata.addCommonMetricsCollection(method, new CommonMetricsCollection(metricRegistry.get()));
-                    metadata.addTimeoutMetricsCollection(method, new TimeoutMetricsCollection(metricRegistry.get()));
-                }
+                metadata.setCommonMetricsCollectionFactory(() -> new CommonMetricsCollection(metricRegistry.get()));
+                metadata.setTimeoutMetricsCollectionFactory(() -> new TimeoutMetricsCollection(metricRegistry.get()));
             }
         }
 
@@ -360,16 +419,14 @@ public class FaultToleranceUtilImpl implements FaultToleranceUtil {
         if (targetMethod.isAnnotationPresent(Fallback.class)) {
             fallback = microprofileConfigUtil.configOverriddenFallback(targetClass, targetMethod, targetMethod.getAnnotation(Fallback.class));
             if (metricRegistry.isPresent()) {
-                metadata.addCommonMetricsCollection(targetMethod, new CommonMetricsCollection(metricRegistry.get()));
-                metadata.addFallbackMetricsCollection(targetMethod, new FallbackMetricsCollection(metricRegistry.get()));
+                metadata.setCommonMetricsCollectionFactory(() -> new CommonMetricsCollection(metricRegistry.get()));
+                metadata.setFallbackMetricsCollectionFactory(() -> new FallbackMetricsCollection(metricRegistry.get()));
             }
         } else if (targetClass.isAnnotationPresent(Fallback.class)) {
             fallback = microprofileConfigUtil.configOverriddenFallback(targetClass, null, targetClass.getAnnotation(Fallback.class));
             if (metricRegistry.isPresent()) {
-                for (Method method : targetClass.getMethods()) {
-                    metadata.addCommonMetricsCollection(method, new CommonMetricsCollection(metricRegistry.get()));
-                    metadata.addFallbackMetricsCollection(method, new FallbackMetricsCollection(metricRegistry.get()));
-                }
+                metadata.setCommonMetricsCollectionFactory(() -> new CommonMetricsCollection(metricRegistry.get()));
+                metadata.setFallbackMetricsCollectionFactory(() -> new FallbackMetricsCollection(metricRegistry.get()));
             }
         }
 
@@ -377,16 +434,14 @@ public class FaultToleranceUtilImpl implements FaultToleranceUtil {
         if (targetMethod.isAnnotationPresent(Retry.class)) {
             retry = microprofileConfigUtil.configOverriddenRetry(targetClass, targetMethod, targetMethod.getAnnotation(Retry.class));
             if (metricRegistry.isPresent()) {
-                metadata.addCommonMetricsCollection(targetMethod, new CommonMetricsCollection(metricRegistry.get()));
-                metadata.addRetryMetricsCollection(targetMethod, new RetryMetricsCollection(metricRegistry.get()));
+                metadata.setCommonMetricsCollectionFactory(() -> new CommonMetricsCollection(metricRegistry.get()));
+                metadata.setRetryMetricsCollectionFactory(() -> new RetryMetricsCollection(metricRegistry.get()));
             }
         } else if (targetClass.isAnnotationPresent(Retry.class)) {
             retry = microprofileConfigUtil.configOverriddenRetry(targetClass, null, targetClass.getAnnotation(Retry.class));
             if (metricRegistry.isPresent()) {
-                for (Method method : targetClass.getMethods()) {
-                    metadata.addCommonMetricsCollection(method, new CommonMetricsCollection(metricRegistry.get()));
-                    metadata.addRetryMetricsCollection(method, new RetryMetricsCollection(metricRegistry.get()));
-                }
+                metadata.setCommonMetricsCollectionFactory(() -> new CommonMetricsCollection(metricRegistry.get()));
+                metadata.setRetryMetricsCollectionFactory(() -> new RetryMetricsCollection(metricRegistry.get()));
             }
         }
 
@@ -394,22 +449,108 @@ public class FaultToleranceUtilImpl implements FaultToleranceUtil {
         if (targetMethod.isAnnotationPresent(CircuitBreaker.class)) {
             circuitBreaker = microprofileConfigUtil.configOverriddenCircuitBreaker(targetClass, targetMethod, targetMethod.getAnnotation(CircuitBreaker.class));
             if (metricRegistry.isPresent()) {
-                metadata.addCommonMetricsCollection(targetMethod, new CommonMetricsCollection(metricRegistry.get()));
-                metadata.addCbMetricsCollection(targetMethod, new CircuitBreakerMetricsCollection(metricRegistry.get()));
+                metadata.setCommonMetricsCollectionFactory(() -> new CommonMetricsCollection(metricRegistry.get()));
+                metadata.setCbMetricsCollectionFactory(() -> new CircuitBreakerMetricsCollection(metricRegistry.get()));
             }
         } else if (targetClass.isAnnotationPresent(CircuitBreaker.class)) {
             circuitBreaker = microprofileConfigUtil.configOverriddenCircuitBreaker(targetClass, null, targetClass.getAnnotation(CircuitBreaker.class));
             if (metricRegistry.isPresent()) {
-                for (Method method : targetClass.getMethods()) {
-                    metadata.addCommonMetricsCollection(method, new CommonMetricsCollection(metricRegistry.get()));
-                    metadata.addCbMetricsCollection(method, new CircuitBreakerMetricsCollection(metricRegistry.get()));
-                }
+                metadata.setCommonMetricsCollectionFactory(() -> new CommonMetricsCollection(metricRegistry.get()));
+                metadata.setCbMetricsCollectionFactory(() -> new CircuitBreakerMetricsCollection(metricRegistry.get()));
+            }
+        }
+
+        // check for keyed circuit breaker annotation
+        if (targetMethod.isAnnotationPresent(KeyedCircuitBreaker.class)) {
+            keyedCircuitBreaker = microprofileConfigUtil.configOverriddenKeyedCircuitBreaker(targetClass, targetMethod,
+                    targetMethod.getAnnotation(KeyedCircuitBreaker.class));
+        } else if (targetClass.isAnnotationPresent(KeyedCircuitBreaker.class)) {
+            keyedCircuitBreaker = microprofileConfigUtil.configOverriddenKeyedCircuitBreaker(targetClass, null,
+                    targetClass.getAnnotation(KeyedCircuitBreaker.class));
+        }
+
+        // check for batch annotation
+        if (targetMethod.isAnnotationPresent(Batch.class)) {
+            batch = microprofileConfigUtil.configOverriddenBatch(targetClass, targetMethod, targetMethod.getAnnotation(Batch.class));
+            if (batch != null && metricRegistry.isPresent()) {
+                metadata.setCommonMetricsCollectionFactory(() -> new CommonMetricsCollection(metricRegistry.get()));
+                metadata.setBatchMetricsCollectionFactory(() -> new BatchMetricsCollection(metricRegistry.get()));
+            }
+        }
+
+        // check for hedge annotation
+        if (targetMethod.isAnnotationPresent(Hedge.class)) {
+            hedge = microprofileConfigUtil.configOverriddenHedge(targetClass, targetMethod, targetMethod.getAnnotation(Hedge.class));
+            if (hedge != null && metricRegistry.isPresent()) {
+                metadata.setCommonMetricsCollectionFactory(() -> new CommonMetricsCollection(metricRegistry.get()));
+                metadata.setHedgeMetricsCollectionFactory(() -> new HedgeMetricsCollection(metricRegistry.get()));
+            }
+        } else if (targetClass.isAnnotationPresent(Hedge.class)) {
+            hedge = microprofileConfigUtil.configOverriddenHedge(targetClass, null, targetClass.getAnnotation(Hedge.class));
+            if (hedge != null && metricRegistry.isPresent()) {
+                metadata.setCommonMetricsCollectionFactory(() -> new CommonMetricsCollection(metricRegistry.get()));
+                metadata.setHedgeMetricsCollectionFactory(() -> new HedgeMetricsCollection(metricRegistry.get()));
+            }
+        }
+
+        // check for rate limit annotation
+        if (targetMethod.isAnnotationPresent(RateLimit.class)) {
+            rateLimit = microprofileConfigUtil.configOverriddenRateLimit(targetClass, targetMethod, targetMethod.getAnnotation(RateLimit.class));
+            if (rateLimit != null && metricRegistry.isPresent()) {
+                metadata.setCommonMetricsCollectionFactory(() -> new CommonMetricsCollection(metricRegistry.get()));
+                metadata.setRateLimitMetricsCollectionFactory(() -> new RateLimitMetricsCollection(metricRegistry.get()));
+            }
+        } else if (targetClass.isAnnotationPresent(RateLimit.class)) {
+            rateLimit = microprofileConfigUtil.configOverriddenRateLimit(targetClass, null, targetClass.getAnnotation(RateLimit.class));
+            rateLimitGroupScoped = true;
+            if (rateLimit != null && metricRegistry.isPresent()) {
+                metadata.setCommonMetricsCollectionFactory(() -> new CommonMetricsCollection(metricRegistry.get()));
+                metadata.setRateLimitMetricsCollectionFactory(() -> new RateLimitMetricsCollection(metricRegistry.get()));
+            }
+        }
+
+        boolean isCacheResult = false;
+        // check for cache result annotation
+        if (targetMethod.isAnnotationPresent(CacheResult.class)) {
+            isCacheResult = microprofileConfigUtil.isAnnotationEnabled(targetClass, targetMethod, CacheResult.class);
+            if (isCacheResult && metricRegistry.isPresent()) {
+                metadata.setCommonMetricsCollectionFactory(() -> new CommonMetricsCollection(metricRegistry.get()));
+                metadata.setCacheResultMetricsCollectionFactory(() -> new CacheResultMetricsCollection(metricRegistry.get()));
+            }
+        } else if (targetClass.isAnnotationPresent(CacheResult.class)) {
+            isCacheResult = microprofileConfigUtil.isAnnotationEnabled(targetClass, null, CacheResult.class);
+            if (isCacheResult && metricRegistry.isPresent()) {
+                metadata.setCommonMetricsCollectionFactory(() -> new CommonMetricsCollection(metricRegistry.get()));
+                metadata.setCacheResultMetricsCollectionFactory(() -> new CacheResultMetricsCollection(metricRegistry.get()));
             }
         }
 
-        if (isAsync && !targetMethod.getReturnType().equals(Future.class)) {
+        if (isAsync && !isReactive && !targetMethod.getReturnType().equals(Future.class)) {
             throw new FaultToleranceDefinitionException("If target method is annotated with @Asynchronous " +
-                    "Future is expected to be method's return type.");
+                    "Future or a reactive type is expected to be method's return type.");
+        }
+
+        if (isReactive && (batch != null || hedge != null || isCacheResult)) {
+            throw new FaultToleranceDefinitionException("@Batch, @Hedge and @CacheResult cannot be used on methods " +
+                    "returning a reactive type.");
+        }
+
+        if (isAsync && batch != null) {
+            throw new FaultToleranceDefinitionException("@Batch cannot be used in combination with @Asynchronous.");
+        }
+
+        if (isCacheResult && batch != null) {
+            throw new FaultToleranceDefinitionException("@CacheResult cannot be used in combination with @Batch.");
+        }
+
+        if (hedge != null && (isAsync || batch != null || isCacheResult)) {
+            throw new FaultToleranceDefinitionException("@Hedge cannot be used in combination with @Asynchronous, " +
+                    "@Batch or @CacheResult.");
+        }
+
+        if (keyedCircuitBreaker != null && circuitBreaker == null) {
+            throw new FaultToleranceDefinitionException("@KeyedCircuitBreaker can only be used in combination " +
+                    "with @CircuitBreaker.");
         }
 
         Class<? extends FallbackHandler> fallbackHandlerClass = getFallbackHandlerClass(fallback, targetMethod);
@@ -420,7 +561,9 @@ public class FaultToleranceUtilImpl implements FaultToleranceUtil {
                     "fallbackeMethod should be provided, but not both");
         }
 
-        metadata.setAsynchronous(isAsync);
+        metadata.setAsynchronous(isAsync && !isReactive);
+        metadata.setReactive(isReactive);
+        metadata.setCacheResult(isCacheResult);
         metadata.setFallbackHandlerClass(fallbackHandlerClass);
         metadata.setFallbackMethod(fallbackMethod);
 
@@ -428,23 +571,18 @@ public class FaultToleranceUtilImpl implements FaultToleranceUtil {
         metadata.setTimeout(timeout);
         metadata.setRetry(retry);
         metadata.setCircuitBreaker(circuitBreaker);
+        metadata.setKeyedCircuitBreaker(keyedCircuitBreaker);
+        metadata.setCircuitBreakerKeyExtractor(getCircuitBreakerKeyExtractor(keyedCircuitBreaker, targetMethod));
+        metadata.setBatch(batch);
+        metadata.setBatchMethod(getBatchMethod(batch, targetClass, targetMethod));
+        metadata.setHedge(hedge);
+        metadata.setRateLimit(rateLimit);
+        metadata.setRateLimitGroupScoped(rateLimitGroupScoped);
+        metadata.setCriticality(getCriticality(targetClass, targetMethod));
 
         if (circuitBreaker != null) {
             metadata.setCircuitBreakerSuccessThreshold(circuitBreaker.successThreshold());
-            try {
-                metadata.setCircuitBreakerType(findConfig(
-                        commandKey,
-                        groupKey,
-                        FaultToleranceType.CIRCUIT_BREAKER,
-                        "circuit-breaker-type")
-                        .flatMap(cp -> ConfigurationUtil.getInstance().get(cp.configurationPath()))
-                        .flatMap(configVal -> Optional.of(CircuitBreakerType.valueOf(configVal.toUpperCase())))
-                        .orElse(CircuitBreakerType.HYSTRIX));
-            } catch (IllegalArgumentException e) {
-                log.log(Level.SEVERE, "Could not determine circuit breaker type from config, using HYSTRIX " +
-                        "circuit breaker.", e);
-                metadata.setCircuitBreakerType(CircuitBreakerType.HYSTRIX);
-            }
+            metadata.setCircuitBreakerType(getCircuitBreakerType(commandKey, groupKey));
         } else {
             metadata.setCircuitBreakerType(CircuitBreakerType.HYSTRIX);
         }
@@ -474,6 +612,76 @@ public class FaultToleranceUtilImpl implements FaultToleranceUtil {
             return targetClass.getSimpleName() + "-" + targetMethod.getName();
     }
 
+    /**
+     * Creates key extractor of keyed circuit breaker. If key extractor class is not set, method argument at key
+     * parameter index is used as partition key.
+     *
+     * @param keyedCircuitBreaker Keyed circuit breaker annotation
+     * @param targetMethod        Execution target method
+     * @return Circuit breaker key extractor
+     */
+    private CircuitBreakerKeyExtractor getCircuitBreakerKeyExtractor(KeyedCircuitBreaker keyedCircuitBreaker,
+                                                                     Method targetMethod) {
+
+        if (keyedCircuitBreaker == null)
+            return null;
+
+        if (!keyedCircuitBreaker.keyExtractor().equals(CircuitBreakerKeyExtractor.class)) {
+            return createKeyExtractor(keyedCircuitBreaker.keyExtractor());
+        }
+
+        int keyParameter = keyedCircuitBreaker.keyParameter();
+
+        if (keyParameter < 0 || keyParameter >= targetMethod.getParameterCount()) {
+            throw new FaultToleranceDefinitionException("Key parameter " + keyParameter + " of @KeyedCircuitBreaker " +
+                    "is out of range for method " + targetMethod.getName() + ".");
+        }
+
+        return (method, parameters) -> parameters[keyParameter] == null ? null :
+                String.valueOf(parameters[keyParameter]);
+    }
+
+    /**
+     * Obtains key extractor from CDI, so that key extractors can inject other beans. Key extractor classes which are
+     * not beans are instantiated with their no-arg constructor.
+     *
+     * @param keyExtractorClass Key extractor class
+     * @return Circuit breaker key extractor
+     */
+    private CircuitBreakerKeyExtractor createKeyExtractor(
+            Class<? extends CircuitBreakerKeyExtractor> keyExtractorClass) {
+
+        Instance<? extends CircuitBreakerKeyExtractor> instance = CDI.current().select(keyExtractorClass);
+
+        if (instance.isResolvable()) {
+            return instance.get();
+        }
+
+        try {
+            return keyExtractorClass.newInstance();
+        } catch (InstantiationException | IllegalAccessException e) {
+            throw new FaultToleranceDefinitionException("Circuit breaker key extractor " +
+                    keyExtractorClass.getName() + " could not be instantiated.", e);
+        }
+    }
+
+    /**
+     * Reads criticality of invocations from @Criticality annotation on target method or target class.
+     *
+     * @param targetClass  Execution target class
+     * @param targetMethod Execution target method
+     * @return Criticality level
+     */
+    private CriticalityLevel getCriticality(Class<?> targetClass, Method targetMethod) {
+
+        if (targetMethod.isAnnotationPresent(Criticality.class))
+            return targetMethod.getAnnotation(Criticality.class).value();
+        else if (targetClass.isAnnotationPresent(Criticality.class))
+            return targetClass.getAnnotation(Criticality.class).value();
+        else
+            return CriticalityLevel.DEFAULT;
+    }
+
     /**
      * Constructs group key. By default target class simple name is used. If @Bulkhead annotation is used on
      * target method, then target method name is set as group key. In case of @GroupKey annotation, it's value
@@ -585,6 +793,45 @@ public class FaultToleranceUtilImpl implements FaultToleranceUtil {
         return null;
     }
 
+    /**
+     * Finds batch method using reflection, checks if batch method accepts a list of target method arguments and
+     * returns a list or a map of results
+     *
+     * @param batch        Batch annotation associated with target method
+     * @param targetClass  Execution target class
+     * @param targetMethod Execution target method
+     * @return Batch reflection Method object
+     */
+    private Method getBatchMethod(Batch batch, Class targetClass, Method targetMethod) {
+
+        if (batch == null)
+            return null;
+
+        if (targetMethod.getParameterCount() != 1) {
+            throw new FaultToleranceDefinitionException("Method annotated with @Batch should have exactly one " +
+                    "parameter.");
+        }
+
+        for (Method m : targetClass.getMethods()) {
+            if (m.getName().equals(batch.batchMethod()) && m.getParameterCount() == 1) {
+                if (!m.getParameterTypes()[0].isAssignableFrom(List.class)) {
+                    throw new FaultToleranceDefinitionException("BatchMethod on @Batch should accept a List of " +
+                            "intercepted target method arguments.");
+                }
+
+                if (!List.class.isAssignableFrom(m.getReturnType()) && !Map.class.isAssignableFrom(m.getReturnType())) {
+                    throw new FaultToleranceDefinitionException("BatchMethod on @Batch should return either a List " +
+                            "or a Map of results.");
+                }
+
+                return m;
+            }
+        }
+
+        throw new FaultToleranceDefinitionException("BatchMethod '" + batch.batchMethod() + "' on @Batch was not " +
+                "found.");
+    }
+
     /**
      * Check if target class is proxied due to CDI use
      *
@@ -0,0 +1,77 @@
+/*
+ *  Copyright (c) 2014-2017 Kumuluz and/or its affiliates
+ *  and other contributors as indicated by the @author tags and
+ *  the contributor list.
+ *
+ *  Licensed under the MIT License (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://opensource.org/licenses/MIT
+ *
+ *  The software is provided "AS IS", WITHOUT WARRANTY OF ANY KIND, express or
+ *  implied, including but not limited to the warranties of merchantability,
+ *  fitness for a particular purpose and noninfringement. in no event shall the
+ *  authors or copyright holders be liable for any claim, damages or other
+ *  liability, whether in an action of contract, tort or otherwise, arising from,
+ *  out of or in connection with the software or the use or other dealings in the
+ *  software. See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.kumuluz.ee.fault.tolerance.utils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Recognizes reactive return types of methods, which are executed with fault tolerance applied to the subscription
+ * instead of the method invocation. Types are recognized by name, so reactive libraries are optional dependencies.
+ *
+ * Supported are {@code org.reactivestreams.Publisher} (including its implementations, e.g. Mutiny {@code Multi},
+ * RxJava 2 {@code Flowable} and Reactor {@code Flux}) and RxJava 1 {@code rx.Observable}.
+ *
+ * @since 2.2.0
+ */
+public final class ReactiveTypes {
+
+    private static final String[] REACTIVE_TYPE_NAMES = {
+            "org.reactivestreams.Publisher",
+            "rx.Observable",
+    };
+
+    private static final List<Class<?>> REACTIVE_TYPES;
+
+    static {
+        List<Class<?>> types = new ArrayList<>();
+
+        for (String typeName : REACTIVE_TYPE_NAMES) {
+            try {
+                types.add(Class.forName(typeName, false, ReactiveTypes.class.getClassLoader()));
+            } catch (ClassNotFoundException ignored) {
+            }
+        }
+
+        REACTIVE_TYPES = Collections.unmodifiableList(types);
+    }
+
+    private ReactiveTypes() {
+    }
+
+    /**
+     * Checks if the type is a supported reactive type.
+     *
+     * @param type Return type of the method
+     * @return True if the type is a supported reactive type, false otherwise
+     */
+    public static boolean isReactive(Class<?> type) {
+
+        for (Class<?> reactiveType : REACTIVE_TYPES) {
+            if (reactiveType.isAssignableFrom(type)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+}
@@ -20,34 +20,63 @@
  */
 package com.kumuluz.ee.fault.tolerance;
 
+import com.kumuluz.ee.fault.tolerance.annotations.Hedge;
+import com.kumuluz.ee.fault.tolerance.commands.AdaptiveTimeoutController;
+import com.kumuluz.ee.fault.tolerance.commands.BulkheadAdmissionController;
+import com.kumuluz.ee.fault.tolerance.commands.CircuitBreakerStateExchangeManager;
+import com.kumuluz.ee.fault.tolerance.commands.DeadlineContext;
+import com.kumuluz.ee.fault.tolerance.commands.DelayedExecution;
+import com.kumuluz.ee.fault.tolerance.commands.ExceptionClassifier;
 import com.kumuluz.ee.fault.tolerance.commands.FallbackHelper;
+import com.kumuluz.ee.fault.tolerance.commands.HedgeBudget;
+import com.kumuluz.ee.fault.tolerance.commands.HedgedExecution;
 import com.kumuluz.ee.fault.tolerance.commands.HystrixCommandConfiguration;
+import com.kumuluz.ee.fault.tolerance.commands.RateLimiter;
+import com.kumuluz.ee.fault.tolerance.commands.KumuluzHystrixBatchCollapser;
+import com.kumuluz.ee.fault.tolerance.commands.ReactiveConverters;
+import com.kumuluz.ee.fault.tolerance.configurations.hystrix.CollapserHystrixConfigurationUtil;
 import com.kumuluz.ee.fault.tolerance.configurations.hystrix.CommandHystrixConfigurationUtil;
 import com.kumuluz.ee.fault.tolerance.configurations.hystrix.HystrixFaultToleranceConfigurationManager;
 import com.kumuluz.ee.fault.tolerance.configurations.hystrix.ThreadPoolHystrixConfigurationUtil;
+import com.kumuluz.ee.fault.tolerance.configurations.ratelimit.RateLimitConfigurationManager;
 import com.kumuluz.ee.fault.tolerance.configurations.retry.RetryConfig;
 import com.kumuluz.ee.fault.tolerance.configurations.retry.RetryConfigurationManager;
+import com.kumuluz.ee.fault.tolerance.enums.CriticalityLevel;
 import com.kumuluz.ee.fault.tolerance.enums.FaultToleranceType;
+import com.kumuluz.ee.fault.tolerance.exceptions.RateLimitException;
 import com.kumuluz.ee.fault.tolerance.interfaces.FaultToleranceExecutor;
+import com.kumuluz.ee.fault.tolerance.jfr.FaultToleranceEvents;
+import com.kumuluz.ee.fault.tolerance.metrics.HedgeMetricsCollection;
+import com.kumuluz.ee.fault.tolerance.metrics.RateLimitMetricsCollection;
 import com.kumuluz.ee.fault.tolerance.metrics.TimeoutMetricsCollection;
 import com.kumuluz.ee.fault.tolerance.models.ConfigurationProperty;
 import com.kumuluz.ee.fault.tolerance.models.ExecutionMetadata;
+import com.kumuluz.ee.fault.tolerance.utils.CriticalityContext;
 import com.netflix.hystrix.*;
 import com.netflix.hystrix.exception.HystrixBadRequestException;
 import com.netflix.hystrix.exception.HystrixRuntimeException;
+import com.netflix.hystrix.strategy.concurrency.HystrixRequestContext;
 import org.eclipse.microprofile.faulttolerance.exceptions.BulkheadException;
 import org.eclipse.microprofile.faulttolerance.exceptions.CircuitBreakerOpenException;
+import org.eclipse.microprofile.faulttolerance.exceptions.FaultToleranceException;
 import org.eclipse.microprofile.faulttolerance.exceptions.TimeoutException;
 import org.jboss.weld.context.RequestContext;
+import rx.Observable;
 
+import javax.annotation.PreDestroy;
 import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.context.ContextNotActiveException;
+import javax.enterprise.context.RequestScoped;
+import javax.enterprise.inject.spi.BeanManager;
 import javax.inject.Inject;
 import javax.interceptor.InvocationContext;
 import java.time.Duration;
 import java.time.Instant;
-import java.util.Arrays;
 import java.util.HashMap;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
@@ -69,6 +98,8 @@ public class HystrixFaultToleranceExecutorImpl implements FaultToleranceExecutor
     private static HashMap<String, HystrixCommandConfiguration> hystrixCommandConfigurations = new HashMap<>();
     private static HashMap<String, HystrixCommandKey> hystrixCommandKeys = new HashMap<>();
     private static HashMap<String, HystrixThreadPoolKey> hystrixThreadPoolKeys = new HashMap<>();
+    private static Map<String, HedgeBudget> hedgeBudgets = new ConcurrentHashMap<>();
+    private static Map<String, AdaptiveTimeoutController> adaptiveTimeoutControllers = new ConcurrentHashMap<>();
 
     @Inject
     private HystrixFaultToleranceConfigurationManager configManager;
@@ -76,11 +107,28 @@ public class HystrixFaultToleranceExecutorImpl implements FaultToleranceExecutor
     @Inject
     private RetryConfigurationManager retryManager;
 
+    @Inject
+    private RateLimitConfigurationManager rateLimitManager;
+
+    @Inject
+    private HystrixRequestContextHolder hystrixRequestContextHolder;
+
+    @Inject
+    private CriticalityContext criticalityContext;
+
+    @Inject
+    private BeanManager beanManager;
+
     @Override
     public String getName() {
         return NAME;
     }
 
+    @PreDestroy
+    private void destroy() {
+        CircuitBreakerStateExchangeManager.shutdown();
+    }
+
     @Override
     public Object execute(InvocationContext invocationContext, RequestContext requestContext,
                           ExecutionMetadata metadata) throws Exception {
@@ -90,6 +138,17 @@ public class HystrixFaultToleranceExecutorImpl implements FaultToleranceExecutor
         metadata.getCommonMetricsCollection(invocationContext.getMethod().getName())
                 .ifPresent(c -> c.getTotalInvocations().inc());
 
+        if (metadata.getTimeout() != null) {
+            getAdaptiveTimeoutController(hystrixCommandConfig, invocationContext, metadata).update();
+        }
+
+        if (metadata.isReactive()) {
+            return executeReactive(hystrixCommandConfig, invocationContext, requestContext, metadata);
+        }
+
+        HystrixRequestContext previousHystrixRequestContext = HystrixRequestContext.getContextForCurrentThread();
+        boolean hystrixRequestContextBound = bindHystrixRequestContext(metadata);
+
         try {
             if (metadata.getRetry() == null) {
                 return executeWithHystrix(hystrixCommandConfig, invocationContext, requestContext, metadata);
@@ -102,6 +161,46 @@ public class HystrixFaultToleranceExecutorImpl implements FaultToleranceExecutor
                     .ifPresent(c -> c.getFailedInvocations().inc());
 
             throw e;
+        } finally {
+            if (hystrixRequestContextBound) {
+                HystrixRequestContext.setContextOnCurrentThread(previousHystrixRequestContext);
+            }
+        }
+    }
+
+    private AdaptiveTimeoutController getAdaptiveTimeoutController(HystrixCommandConfiguration hystrixCommand,
+                                                                   InvocationContext invocationContext,
+                                                                   ExecutionMetadata metadata) {
+
+        return adaptiveTimeoutControllers.computeIfAbsent(metadata.getIdentifier(), k -> {
+            AdaptiveTimeoutController controller = AdaptiveTimeoutController.getInstance(
+                    hystrixCommand.getCommandKey(), configManager);
+
+            metadata.getTimeoutMetricsCollection(invocationContext.getMethod().getName())
+                    .ifPresent(c -> c.registerEffectiveTimeoutGauge(controller::getEffectiveTimeout));
+
+            return controller;
+        });
+    }
+
+    private boolean bindHystrixRequestContext(ExecutionMetadata metadata) {
+
+        // request cache is only available within an active request
+        if (!metadata.isCacheResult() || HystrixRequestContext.isCurrentThreadInitialized() ||
+                !isRequestScopeActive()) {
+            return false;
+        }
+
+        HystrixRequestContext.setContextOnCurrentThread(hystrixRequestContextHolder.getHystrixRequestContext());
+
+        return true;
+    }
+
+    private boolean isRequestScopeActive() {
+        try {
+            return beanManager.getContext(RequestScoped.class).isActive();
+        } catch (ContextNotActiveException e) {
+            return false;
         }
     }
 
@@ -135,20 +234,15 @@ public class HystrixFaultToleranceExecutorImpl implements FaultToleranceExecutor
 
             return returnObject;
         } catch (Exception e) {
-            boolean doRetryOn = Arrays.stream(retryConfig.getRetryOn()).anyMatch(ro -> ro.isInstance(e));
-            boolean doAbortOn = Arrays.stream(retryConfig.getAbortOn()).anyMatch(ao -> ao.isInstance(e));
+            long delay = getRetryDelayInMillis(retryConfig);
 
-            boolean maxDurationExceeded = executionStart
-                    .plus(Duration.of(metadata.getRetry().maxDuration(), metadata.getRetry().durationUnit()))
-                    .isBefore(Instant.now());
-
-            if (!doAbortOn && doRetryOn && !maxDurationExceeded &&
-                    (retryConfig.getMaxRetries() == -1 || execCnt < retryConfig.getMaxRetries() + 1)) {
+            if (isRetryAllowed(retryConfig, metadata, e, execCnt, executionStart, delay, DeadlineContext.get())) {
                 // retry is allowed, execute after delay and jitter
-                long jitter = (long)(Math.random() * retryConfig.getJitterInMillis() * 2) -
-                        retryConfig.getJitterInMillis();
 
-                TimeUnit.MILLISECONDS.sleep(retryConfig.getDelayInMillis() + jitter);
+                FaultToleranceEvents.retry(metadata.getCommandKey(), metadata.getGroupKey(), execCnt + 1,
+                        TimeUnit.MILLISECONDS.toNanos(Math.max(delay, 0)), e);
+
+                TimeUnit.MILLISECONDS.sleep(delay);
 
                 return executeWithRetry(hystrixCommand, invocationContext, requestContext, metadata,
                         retryConfig, execCnt + 1, executionStart);
@@ -164,15 +258,240 @@ public class HystrixFaultToleranceExecutorImpl implements FaultToleranceExecutor
         }
     }
 
+    private boolean isRetryAllowed(RetryConfig retryConfig, ExecutionMetadata metadata, Exception e, int execCnt,
+                                   Instant executionStart, long delay, Long deadline) {
+
+        ExceptionClassifier.Classification classification = ExceptionClassifier.getInstance(metadata).classify(e);
+        boolean doRetryOn = classification.isRetryOn();
+        boolean doAbortOn = classification.isAbortOn();
+
+        boolean maxDurationExceeded = executionStart
+                .plus(Duration.of(metadata.getRetry().maxDuration(), metadata.getRetry().durationUnit()))
+                .isBefore(Instant.now());
+
+        // retry would start after the deadline of the enclosing execution
+        if (deadline != null &&
+                deadline - System.nanoTime() <= TimeUnit.MILLISECONDS.toNanos(Math.max(delay, 0))) {
+            log.finest("Skipping retry of command '" + metadata.getCommandKey() + "', deadline of the enclosing " +
+                    "execution would be exceeded.");
+            maxDurationExceeded = true;
+        }
+
+        return !doAbortOn && doRetryOn && !maxDurationExceeded &&
+                (retryConfig.getMaxRetries() == -1 || execCnt < retryConfig.getMaxRetries() + 1);
+    }
+
+    private long getRetryDelayInMillis(RetryConfig retryConfig) {
+
+        long jitter = (long)(Math.random() * retryConfig.getJitterInMillis() * 2) -
+                retryConfig.getJitterInMillis();
+
+        return retryConfig.getDelayInMillis() + jitter;
+    }
+
+    private Object executeReactive(HystrixCommandConfiguration hystrixCommand, InvocationContext invocationContext,
+                                   RequestContext requestContext, ExecutionMetadata metadata) {
+
+        Observable<Object> observable;
+
+        if (metadata.getRetry() == null) {
+            observable = observeWithHystrix(hystrixCommand, invocationContext, requestContext, metadata);
+        } else {
+            // retries and max duration are tracked per subscription
+            observable = Observable.defer(() -> observeWithRetry(hystrixCommand, invocationContext, requestContext,
+                    metadata, retryManager.getRetryConfig(metadata.getIdentifier()), 1, Instant.now()));
+        }
+
+        observable = observable.doOnError(e -> metadata.getCommonMetricsCollection(invocationContext.getMethod()
+                .getName()).ifPresent(c -> c.getFailedInvocations().inc()));
+
+        return ReactiveConverters.fromObservable(observable, invocationContext.getMethod().getReturnType());
+    }
+
+    private Observable<Object> observeWithRetry(HystrixCommandConfiguration hystrixCommand,
+                                                InvocationContext invocationContext, RequestContext requestContext,
+                                                ExecutionMetadata metadata, RetryConfig retryConfig, int execCnt,
+                                                Instant executionStart) {
+
+        if (execCnt > 1) {
+            log.info("Retry attempt #" + execCnt + " to execute command '" + metadata.getCommandKey() + ".");
+            metadata.getRetryMetricsCollection(invocationContext.getMethod().getName())
+                    .ifPresent(c -> c.getRetriesTotal().inc());
+        }
+
+        return observeWithHystrix(hystrixCommand, invocationContext, requestContext, metadata)
+                .doOnCompleted(() -> metadata.getRetryMetricsCollection(invocationContext.getMethod().getName())
+                        .ifPresent(c -> {
+                            if (execCnt > 1) {
+                                c.getCallsSucceededRetried().inc();
+                            } else {
+                                c.getCallsSucceededNotRetried().inc();
+                            }
+                        }))
+                .onErrorResumeNext(t -> {
+                    Exception e = t instanceof Exception ? (Exception) t : new FaultToleranceException(t);
+
+                    long delay = Math.max(getRetryDelayInMillis(retryConfig), 0);
+
+                    // deadlines are not propagated to subscriptions of reactive streams
+                    if (isRetryAllowed(retryConfig, metadata, e, execCnt, executionStart, delay, null)) {
+                        // failed stream is subscribed to again after delay and jitter
+
+                        FaultToleranceEvents.retry(metadata.getCommandKey(), metadata.getGroupKey(), execCnt + 1,
+                                TimeUnit.MILLISECONDS.toNanos(delay), e);
+
+                        return Observable.defer(() -> observeWithRetry(hystrixCommand, invocationContext,
+                                requestContext, metadata, retryConfig, execCnt + 1, executionStart))
+                                .delaySubscription(delay, TimeUnit.MILLISECONDS);
+                    } else if (metadata.getFallbackHandlerClass() != null || metadata.getFallbackMethod() != null) {
+                        return observeFallback(e, metadata, invocationContext);
+                    } else {
+                        metadata.getRetryMetricsCollection(invocationContext.getMethod().getName())
+                                .ifPresent(c -> c.getCallsFailed().inc());
+                        return Observable.error(e);
+                    }
+                });
+    }
+
+    private Observable<Object> observeWithHystrix(HystrixCommandConfiguration hystrixCommand,
+                                                  InvocationContext invocationContext,
+                                                  RequestContext requestContext, ExecutionMetadata metadata) {
+
+        Observable<Object> execution = Observable.defer(() -> observeCommand(hystrixCommand, invocationContext,
+                requestContext, metadata));
+
+        if (metadata.getRateLimit() == null) {
+            return execution;
+        }
+
+        return Observable.defer(() -> {
+            long wait;
+
+            try {
+                wait = reserveRateLimitPermit(metadata, invocationContext);
+            } catch (RateLimitException e) {
+                return observeRejection(e, metadata, invocationContext);
+            }
+
+            // delayed executions wait on the timer instead of blocking the subscribing thread
+            return wait > 0 ? execution.delaySubscription(wait, TimeUnit.NANOSECONDS) : execution;
+        });
+    }
+
+    private Observable<Object> observeCommand(HystrixCommandConfiguration hystrixCommand,
+                                              InvocationContext invocationContext, RequestContext requestContext,
+                                              ExecutionMetadata metadata) {
+
+        KumuluzHystrixObservableCommand cmd = new KumuluzHystrixObservableCommand(hystrixCommand,
+                invocationContext, requestContext, metadata);
+
+        if (metadata.getBulkhead() != null) {
+            try {
+                cmd.setAdmissionController(acquireBulkheadAdmission(hystrixCommand, metadata, invocationContext));
+            } catch (BulkheadException e) {
+                return observeRejection(e, metadata, invocationContext);
+            }
+        }
+
+        return cmd.toObservable()
+                .doOnCompleted(() -> updateExecutionSuccessfulMetrics(metadata, invocationContext, null))
+                .onErrorResumeNext(e -> Observable.error(unwrapHystrixException(e, metadata, invocationContext,
+                        null)));
+    }
+
+    private Observable<Object> observeRejection(FaultToleranceException e, ExecutionMetadata metadata,
+                                                InvocationContext invocationContext) {
+
+        // rejections are made outside of Hystrix command, fallback is executed here if not handled by retry
+        if (metadata.getRetry() == null &&
+                (metadata.getFallbackHandlerClass() != null || metadata.getFallbackMethod() != null)) {
+            return observeFallback(e, metadata, invocationContext);
+        }
+
+        return Observable.error(e);
+    }
+
+    private Observable<Object> observeFallback(Exception e, ExecutionMetadata metadata,
+                                               InvocationContext invocationContext) {
+        try {
+            return ReactiveConverters.toObservable(FallbackHelper.executeFallback(e, metadata, invocationContext,
+                    null));
+        } catch (Exception fallbackException) {
+            return Observable.error(fallbackException);
+        }
+    }
+
     private Object executeWithHystrix(HystrixCommandConfiguration hystrixCommand, InvocationContext invocationContext,
                                       RequestContext requestContext, ExecutionMetadata metadata) throws Exception {
 
+        if (metadata.getRateLimit() != null) {
+            long wait;
+
+            try {
+                wait = reserveRateLimitPermit(metadata, invocationContext);
+            } catch (RateLimitException e) {
+                return handleRejection(e, metadata, invocationContext);
+            }
+
+            if (wait > 0 && metadata.isAsynchronous()) {
+                // delayed asynchronous executions wait on the timer instead of blocking the calling thread
+                return executeDelayed(wait, hystrixCommand, invocationContext, requestContext, metadata);
+            } else if (wait > 0) {
+                TimeUnit.NANOSECONDS.sleep(wait);
+            }
+        }
+
+        return executeAdmitted(hystrixCommand, invocationContext, requestContext, metadata);
+    }
+
+    private Object executeDelayed(long wait, HystrixCommandConfiguration hystrixCommand,
+                                  InvocationContext invocationContext, RequestContext requestContext,
+                                  ExecutionMetadata metadata) {
+
+        HystrixRequestContext callerHystrixRequestContext = HystrixRequestContext.getContextForCurrentThread();
+        Long callerDeadline = DeadlineContext.get();
+
+        return new DelayedExecution(wait, () -> {
+            HystrixRequestContext previousHystrixRequestContext = HystrixRequestContext.getContextForCurrentThread();
+            HystrixRequestContext.setContextOnCurrentThread(callerHystrixRequestContext);
+            Long previousDeadline = DeadlineContext.set(callerDeadline);
+
+            try {
+                return executeAdmitted(hystrixCommand, invocationContext, requestContext, metadata);
+            } finally {
+                DeadlineContext.restore(previousDeadline);
+                HystrixRequestContext.setContextOnCurrentThread(previousHystrixRequestContext);
+            }
+        });
+    }
+
+    private Object executeAdmitted(HystrixCommandConfiguration hystrixCommand, InvocationContext invocationContext,
+                                   RequestContext requestContext, ExecutionMetadata metadata) throws Exception {
+
+        if (metadata.getBatch() != null) {
+            return executeWithCollapser(hystrixCommand, invocationContext, requestContext, metadata);
+        }
+
+        if (metadata.getHedge() != null) {
+            return executeWithHedge(hystrixCommand, invocationContext, requestContext, metadata);
+        }
+
         KumuluzHystrixGenericCommand cmd = new KumuluzHystrixGenericCommand(hystrixCommand, invocationContext,
                 requestContext, metadata);
 
+        if (metadata.getBulkhead() != null) {
+            try {
+                cmd.setAdmissionController(acquireBulkheadAdmission(hystrixCommand, metadata, invocationContext));
+            } catch (BulkheadException e) {
+                return handleRejection(e, metadata, invocationContext);
+            }
+        }
+
         try {
             if (metadata.isAsynchronous()) {
                 Future queued = cmd.queue();
+                updateCacheResultMetrics(metadata, invocationContext, cmd);
+
                 return new Future() {
                     @Override
                     public boolean cancel(boolean b) {
@@ -199,6 +518,13 @@ public class HystrixFaultToleranceExecutorImpl implements FaultToleranceExecutor
                                 o = ((Future) o).get();
                             }
                         } catch (ExecutionException e) {
+                            cmd.clearCachedResponse();
+
+                            if (isShedExecution(e)) {
+                                return handleShedExecution((BulkheadException) e.getCause().getCause(), metadata,
+                                        invocationContext);
+                            }
+
                             Exception processedException = unwrapBulkheadException(e);
 
                             if (processedException == null && e.getCause() instanceof HystrixRuntimeException) {
@@ -224,6 +550,13 @@ public class HystrixFaultToleranceExecutorImpl implements FaultToleranceExecutor
                                 o = ((Future) o).get(l, timeUnit);
                             }
                         } catch (ExecutionException e) {
+                            cmd.clearCachedResponse();
+
+                            if (isShedExecution(e)) {
+                                return handleShedExecution((BulkheadException) e.getCause().getCause(), metadata,
+                                        invocationContext);
+                            }
+
                             Exception processedException = unwrapBulkheadException(e);
 
                             if (processedException == null && e.getCause() instanceof HystrixRuntimeException) {
@@ -241,24 +574,341 @@ public class HystrixFaultToleranceExecutorImpl implements FaultToleranceExecutor
                 };
             } else {
                 Object returnObject = cmd.execute();
+                updateCacheResultMetrics(metadata, invocationContext, cmd);
                 updateExecutionSuccessfulMetrics(metadata, invocationContext, cmd);
                 return returnObject;
             }
         } catch (HystrixBadRequestException e) {
+            cmd.clearCachedResponse();
+
             throw (Exception) e.getCause();
         } catch (HystrixRuntimeException e) {
+            cmd.clearCachedResponse();
+
             log.warning("Hystrix runtime exception was thrown because of " + e.getCause().getClass().getName());
 
             throw processHystrixException(e, metadata, invocationContext, cmd);
         }
     }
 
-    private void markBulkheadRejected(ExecutionMetadata metadata, InvocationContext invocationContext) {
+    private boolean isShedExecution(ExecutionException e) {
+        return e.getCause() instanceof HystrixBadRequestException &&
+                e.getCause().getCause() instanceof BulkheadException;
+    }
+
+    /**
+     * Handles an execution shed from the bulkhead queue. Shed executions are reported to Hystrix as bad requests, so
+     * they are not recorded as circuit breaker failures, and the fallback is executed here instead.
+     */
+    private Object handleShedExecution(BulkheadException e, ExecutionMetadata metadata,
+                                       InvocationContext invocationContext)
+            throws InterruptedException, ExecutionException {
+
+        if (metadata.getRetry() != null ||
+                (metadata.getFallbackHandlerClass() == null && metadata.getFallbackMethod() == null)) {
+            throw new ExecutionException(e);
+        }
+
+        Object fallbackResult;
+
+        try {
+            fallbackResult = FallbackHelper.executeFallback(e, metadata, invocationContext, null);
+        } catch (Exception fallbackException) {
+            throw new ExecutionException(fallbackException);
+        }
+
+        return fallbackResult instanceof Future ? ((Future) fallbackResult).get() : fallbackResult;
+    }
+
+    private void updateCacheResultMetrics(ExecutionMetadata metadata, InvocationContext invocationContext,
+                                          KumuluzHystrixGenericCommand cmd) {
+
+        if (!metadata.isCacheResult() || !HystrixRequestContext.isCurrentThreadInitialized()) {
+            return;
+        }
+
+        metadata.getCacheResultMetricsCollection(invocationContext.getMethod().getName())
+                .ifPresent(c -> {
+                    if (cmd.isResponseFromCache()) {
+                        c.getHitsTotal().inc();
+                    } else {
+                        c.getMissesTotal().inc();
+                    }
+                });
+    }
+
+    /**
+     * Reserves a permit of the rate limiter without waiting for it.
+     *
+     * @return Time in nanoseconds the execution needs to be delayed for
+     */
+    private long reserveRateLimitPermit(ExecutionMetadata metadata, InvocationContext invocationContext) {
+
+        RateLimiter rateLimiter = rateLimitManager.getRateLimiter(metadata);
+        Optional<RateLimitMetricsCollection> metricsCollection = metadata.getRateLimitMetricsCollection(
+                invocationContext.getMethod().getName());
+
+        long wait = rateLimiter.acquire();
+
+        if (wait < 0) {
+            metricsCollection.ifPresent(c -> c.getCallsRejected().inc());
+
+            throw new RateLimitException("Rate limit exceeded for command '" + metadata.getCommandKey() + "'.");
+        }
+
+        if (wait > 0) {
+            metricsCollection.ifPresent(c -> {
+                c.getCallsDelayed().inc();
+                c.getWaitingDuration().update(wait);
+            });
+        }
+
+        metricsCollection.ifPresent(c -> c.getCallsAccepted().inc());
+
+        return wait;
+    }
+
+    private BulkheadAdmissionController acquireBulkheadAdmission(HystrixCommandConfiguration hystrixCommand,
+                                                                 ExecutionMetadata metadata,
+                                                                 InvocationContext invocationContext) {
+
+        BulkheadAdmissionController admissionController = getBulkheadAdmissionController(hystrixCommand, metadata);
+        CriticalityLevel criticality = getCriticality(metadata);
+
+        if (!admissionController.tryAcquire(criticality)) {
+            metadata.getBulkheadMetricsCollection(invocationContext.getMethod().getName())
+                    .ifPresent(c -> {
+                        c.getCallsRejected().inc();
+                        c.getCallsRejected(criticality).inc();
+                    });
+            FaultToleranceEvents.bulkheadRejected(metadata.getCommandKey(), metadata.getGroupKey(),
+                    criticality.name().toLowerCase() + " criticality");
+
+            throw new BulkheadException("Execution with " + criticality.name().toLowerCase() + " criticality was " +
+                    "rejected, bulkhead capacity is reserved for executions with higher criticality.");
+        }
+
+        metadata.getBulkheadMetricsCollection(invocationContext.getMethod().getName())
+                .ifPresent(c -> c.getCallsAccepted(criticality).inc());
+
+        return admissionController;
+    }
+
+    private BulkheadAdmissionController getBulkheadAdmissionController(HystrixCommandConfiguration hystrixCommand,
+                                                                       ExecutionMetadata metadata) {
+
+        // hedged executions are always executed on a thread pool
+        return metadata.isAsynchronous() || metadata.getHedge() != null ?
+                BulkheadAdmissionController.getInstance(hystrixCommand.getThreadPoolKey()) :
+                BulkheadAdmissionController.getInstance(hystrixCommand.getCommandKey());
+    }
+
+    private CriticalityLevel getCriticality(ExecutionMetadata metadata) {
+
+        // criticality set for the current request overrides the annotated criticality
+        if (isRequestScopeActive() && criticalityContext.getCriticality() != null) {
+            return criticalityContext.getCriticality();
+        }
+
+        return metadata.getCriticality();
+    }
+
+    private Object handleRejection(FaultToleranceException e, ExecutionMetadata metadata,
+                                   InvocationContext invocationContext) throws Exception {
+
+        // rejections are made outside of Hystrix command, fallback is executed here if not handled by retry
+        if (metadata.getRetry() == null &&
+                (metadata.getFallbackHandlerClass() != null || metadata.getFallbackMethod() != null)) {
+            return FallbackHelper.executeFallback(e, metadata, invocationContext, null);
+        }
+
+        if (metadata.isAsynchronous()) {
+            CompletableFuture<Object> rejected = new CompletableFuture<>();
+            rejected.completeExceptionally(e);
+
+            return rejected;
+        }
+
+        throw e;
+    }
+
+    private Object executeWithCollapser(HystrixCommandConfiguration hystrixCommand, InvocationContext invocationContext,
+                                        RequestContext requestContext, ExecutionMetadata metadata) throws Exception {
+
+        KumuluzHystrixBatchCollapser collapser = new KumuluzHystrixBatchCollapser(hystrixCommand, invocationContext,
+                requestContext, metadata);
+
+        Exception exception;
+
+        try {
+            Object returnObject = collapser.execute();
+            updateExecutionSuccessfulMetrics(metadata, invocationContext, null);
+            return returnObject;
+        } catch (RuntimeException e) {
+            exception = unwrapHystrixException(e, metadata, invocationContext, null);
+        }
+
+        // batch command has no fallback, fallback is executed for each collapsed invocation
+        if (metadata.getRetry() == null &&
+                (metadata.getFallbackHandlerClass() != null || metadata.getFallbackMethod() != null)) {
+            return FallbackHelper.executeFallback(exception, metadata, invocationContext, null);
+        }
+
+        throw exception;
+    }
+
+    private Object executeWithHedge(HystrixCommandConfiguration hystrixCommand, InvocationContext invocationContext,
+                                    RequestContext requestContext, ExecutionMetadata metadata) throws Exception {
+
+        Hedge hedge = metadata.getHedge();
+        Optional<HedgeMetricsCollection> metricsCollection = metadata.getHedgeMetricsCollection(invocationContext
+                .getMethod().getName());
+
+        HedgeBudget hedgeBudget = hedgeBudgets.computeIfAbsent(metadata.getIdentifier(), k -> new HedgeBudget());
+        hedgeBudget.deposit(hedge.budget());
+
+        HedgedExecution execution = new HedgedExecution();
+        KumuluzHystrixGenericCommand cmd = new KumuluzHystrixGenericCommand(hystrixCommand, invocationContext,
+                requestContext, metadata);
+
+        if (metadata.getBulkhead() != null) {
+            try {
+                cmd.setAdmissionController(acquireBulkheadAdmission(hystrixCommand, metadata, invocationContext));
+            } catch (BulkheadException e) {
+                return handleRejection(e, metadata, invocationContext);
+            }
+        }
+
+        Exception exception;
+
+        try {
+            execution.start(cmd);
+
+            if (!execution.await(getHedgeDelayInNanos(hystrixCommand, hedge))) {
+                if (hedgeBudget.withdraw()) {
+                    if (startHedge(execution, hystrixCommand, invocationContext, requestContext, metadata)) {
+                        metricsCollection.ifPresent(c -> c.getHedgesTotal().inc());
+                    } else {
+                        // return the withdrawn token, hedge was not started
+                        hedgeBudget.deposit(1);
+                    }
+                } else {
+                    metricsCollection.ifPresent(c -> c.getBudgetExhausted().inc());
+                }
+            }
+
+            Object returnObject = execution.get();
+
+            if (execution.getCompletedCommand() != cmd) {
+                metricsCollection.ifPresent(c -> c.getHedgesWon().inc());
+            }
+
+            updateExecutionSuccessfulMetrics(metadata, invocationContext, execution.getCompletedCommand());
+
+            return returnObject;
+        } catch (ExecutionException e) {
+            exception = unwrapHystrixException(e.getCause(), metadata, invocationContext,
+                    execution.getCompletedCommand());
+        } finally {
+            execution.cancel();
+        }
+
+        // fallback is disabled on hedged commands and is executed after all executions fail
+        if (metadata.getRetry() == null &&
+                (metadata.getFallbackHandlerClass() != null || metadata.getFallbackMethod() != null)) {
+            return FallbackHelper.executeFallback(exception, metadata, invocationContext, null);
+        }
+
+        throw exception;
+    }
+
+    /**
+     * Starts a hedged execution if it is admitted into the bulkhead. Hedges are not started if the bulkhead is full,
+     * rejections of hedges are not recorded as bulkhead rejections.
+     */
+    private boolean startHedge(HedgedExecution execution, HystrixCommandConfiguration hystrixCommand,
+                               InvocationContext invocationContext, RequestContext requestContext,
+                               ExecutionMetadata metadata) {
+
+        KumuluzHystrixGenericCommand hedgeCmd = new KumuluzHystrixGenericCommand(hystrixCommand, invocationContext,
+                requestContext, metadata);
+        BulkheadAdmissionController admissionController = null;
+
+        if (metadata.getBulkhead() != null) {
+            admissionController = getBulkheadAdmissionController(hystrixCommand, metadata);
+
+            if (!admissionController.tryAcquire(getCriticality(metadata))) {
+                return false;
+            }
+
+            hedgeCmd.setAdmissionController(admissionController);
+        }
+
+        // primary execution may have completed after waiting for it timed out
+        if (!execution.startHedge(hedgeCmd)) {
+            if (admissionController != null) {
+                admissionController.release();
+            }
+
+            return false;
+        }
+
+        log.finest("Started hedged execution of command '" + metadata.getCommandKey() + "'.");
+
+        return true;
+    }
+
+    private long getHedgeDelayInNanos(HystrixCommandConfiguration hystrixCommand, Hedge hedge) {
+
+        if (hedge.delayPercentile() > 0) {
+            HystrixCommandMetrics commandMetrics = HystrixCommandMetrics.getInstance(hystrixCommand.getCommandKey());
+            int percentile = commandMetrics == null ? 0 :
+                    commandMetrics.getExecutionTimePercentile(hedge.delayPercentile());
+
+            // fixed delay is used until execution times are observed
+            if (percentile > 0) {
+                return TimeUnit.MILLISECONDS.toNanos(percentile);
+            }
+        }
+
+        return Duration.of(hedge.delay(), hedge.delayUnit()).toNanos();
+    }
+
+    private Exception unwrapHystrixException(Throwable e, ExecutionMetadata metadata,
+                                             InvocationContext invocationContext,
+                                             KumuluzHystrixGenericCommand cmd) {
+        Throwable current = e;
+        Throwable previous = null;
+
+        while (previous != current && current != null) {
+
+            if (current instanceof HystrixBadRequestException && current.getCause() instanceof Exception) {
+                return (Exception) current.getCause();
+            }
+
+            if (current instanceof HystrixRuntimeException) {
+                log.warning("Hystrix runtime exception was thrown because of " +
+                        current.getCause().getClass().getName());
+
+                return processHystrixException((HystrixRuntimeException) current, metadata, invocationContext,
+                        cmd);
+            }
+
+            previous = current;
+            current = current.getCause();
+        }
+
+        return e instanceof Exception ? (Exception) e : new FaultToleranceException(e);
+    }
+
+    private void markBulkheadRejected(ExecutionMetadata metadata, InvocationContext invocationContext,
+                                      String reason) {
+        FaultToleranceEvents.bulkheadRejected(metadata.getCommandKey(), metadata.getGroupKey(), reason);
         metadata.getBulkheadMetricsCollection(invocationContext.getMethod().getName())
                 .ifPresent(c -> c.getCallsRejected().inc());
         if (metadata.isAsynchronous()) {
             metadata.getBulkheadMetricsCollection(invocationContext.getMethod().getName())
-                    .ifPresent(c -> c.getCurrentlyWaiting().decrementAndGet());
+                    .ifPresent(c -> c.getCurrentlyWaiting().decrement());
         }
     }
 
@@ -270,6 +920,8 @@ public class HystrixFaultToleranceExecutorImpl implements FaultToleranceExecutor
 
         if (property.getType() == FaultToleranceType.RETRY) {
             retryManager.updateProperty(property);
+        } else if (property.getType() == FaultToleranceType.RATE_LIMIT) {
+            rateLimitManager.updateProperty(property);
         } else {
             configManager.updateProperty(property);
         }
@@ -315,6 +967,14 @@ public class HystrixFaultToleranceExecutorImpl implements FaultToleranceExecutor
         if (metadata.getRetry() != null)
             retryManager.initializeRetry(metadata);
 
+        if (metadata.getRateLimit() != null)
+            rateLimitManager.initializeRateLimit(metadata);
+
+        if (metadata.getBatch() != null) {
+            CollapserHystrixConfigurationUtil cohcUtil = new CollapserHystrixConfigurationUtil(configManager);
+            cohcUtil.initialize(metadata);
+        }
+
         hystrixCommandKeys.put(metadata.getIdentifier(), commandKey);
 
         return commandKey;
@@ -335,7 +995,7 @@ public class HystrixFaultToleranceExecutorImpl implements FaultToleranceExecutor
 
         log.finest("Initializing Hystrix thread pool key object for key '" + key + "'.");
 
-        if (!metadata.isAsynchronous())
+        if (!metadata.isAsynchronous() && metadata.getHedge() == null)
             return null;
 
         if (metadata.getBulkhead() != null) {
@@ -368,11 +1028,14 @@ public class HystrixFaultToleranceExecutorImpl implements FaultToleranceExecutor
     }
 
     private void updateExecutionSuccessfulMetrics(ExecutionMetadata metadata, InvocationContext invocationContext,
-                                                  HystrixCommand cmd) {
+                                                  KumuluzHystrixGenericCommand cmd) {
         Optional<TimeoutMetricsCollection> metricsCollection = metadata.getTimeoutMetricsCollection(invocationContext
                 .getMethod().getName());
         if (metricsCollection.isPresent()) {
-            metricsCollection.get().getExecutionDuration().update(cmd.getExecutionTimeInMilliseconds() * 1000000);
+            // execution time of collapsed invocations is not tracked separately
+            if (cmd != null && cmd.getExecutionTimeInNanoseconds() >= 0) {
+                metricsCollection.get().getExecutionDuration().update(cmd.getExecutionTimeInNanoseconds());
+            }
             metricsCollection.get().getCallsNotTimedOut().inc();
         }
 
@@ -381,7 +1044,8 @@ public class HystrixFaultToleranceExecutorImpl implements FaultToleranceExecutor
     }
 
     private Exception processHystrixException(HystrixRuntimeException e, ExecutionMetadata metadata,
-                                                            InvocationContext invocationContext, HystrixCommand cmd) {
+                                              InvocationContext invocationContext,
+                                              KumuluzHystrixGenericCommand cmd) {
 
         if (e.getFailureType().equals(HystrixRuntimeException.FailureType.SHORTCIRCUIT)) {
             metadata.getCbMetricsCollection(invocationContext.getMethod().getName())
@@ -393,21 +1057,31 @@ public class HystrixFaultToleranceExecutorImpl implements FaultToleranceExecutor
 
         switch (e.getFailureType()) {
             case TIMEOUT:
-                metadata.getTimeoutMetricsCollection(invocationContext.getMethod().getName())
-                        .ifPresent(c -> c.getExecutionDuration()
-                                .update(cmd.getExecutionTimeInMilliseconds() * 1000000));
+                if (cmd != null && cmd.getExecutionTimeInNanoseconds() >= 0) {
+                    metadata.getTimeoutMetricsCollection(invocationContext.getMethod().getName())
+                            .ifPresent(c -> c.getExecutionDuration().update(cmd.getExecutionTimeInNanoseconds()));
+                }
                 metadata.getTimeoutMetricsCollection(invocationContext.getMethod().getName())
                         .ifPresent(c -> c.getCallsTimedOut().inc());
+                FaultToleranceEvents.timeout(metadata.getCommandKey(), metadata.getGroupKey(),
+                        cmd == null ? -1 : cmd.getExecutionTimeInNanoseconds());
                 return new TimeoutException("Execution timed out.");
             case SHORTCIRCUIT:
                 return new CircuitBreakerOpenException("Circuit breaker is in OPEN state.");
             case REJECTED_THREAD_EXECUTION:
-                markBulkheadRejected(metadata, invocationContext);
+                markBulkheadRejected(metadata, invocationContext, "thread pool full");
                 return new BulkheadException("Thread execution was rejected.");
             case REJECTED_SEMAPHORE_EXECUTION:
-                markBulkheadRejected(metadata, invocationContext);
+                markBulkheadRejected(metadata, invocationContext, "semaphore full");
                 return new BulkheadException("Semaphore execution was rejected.");
             default:
+                // timeout shortened to the deadline of the enclosing execution
+                if (e.getCause() instanceof TimeoutException) {
+                    metadata.getTimeoutMetricsCollection(invocationContext.getMethod().getName())
+                            .ifPresent(c -> c.getCallsTimedOut().inc());
+                    FaultToleranceEvents.timeout(metadata.getCommandKey(), metadata.getGroupKey(),
+                            cmd == null ? -1 : cmd.getExecutionTimeInNanoseconds());
+                }
                 return (Exception) e.getCause();
         }
     }
@@ -0,0 +1,66 @@
+/*
+ *  Copyright (c) 2014-2017 Kumuluz and/or its affiliates
+ *  and other contributors as indicated by the @author tags and
+ *  the contributor list.
+ *
+ *  Licensed under the MIT License (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://opensource.org/licenses/MIT
+ *
+ *  The software is provided "AS IS", WITHOUT WARRANTY OF ANY KIND, express or
+ *  implied, including but not limited to the warranties of merchantability,
+ *  fitness for a particular purpose and noninfringement. in no event shall the
+ *  authors or copyright holders be liable for any claim, damages or other
+ *  liability, whether in an action of contract, tort or otherwise, arising from,
+ *  out of or in connection with the software or the use or other dealings in the
+ *  software. See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.kumuluz.ee.fault.tolerance;
+
+import com.netflix.hystrix.strategy.concurrency.HystrixRequestContext;
+
+import javax.annotation.PreDestroy;
+import javax.enterprise.context.RequestScoped;
+import java.util.logging.Logger;
+
+/**
+ * Holder binding the lifecycle of {@link HystrixRequestContext} to the CDI request context. Hystrix request context
+ * is initialized on first use within the request and shut down when the request context is destroyed.
+ *
+ * @since 2.2.0
+ */
+@RequestScoped
+public class HystrixRequestContextHolder {
+
+    private static final Logger log = Logger.getLogger(HystrixRequestContextHolder.class.getName());
+
+    private HystrixRequestContext hystrixRequestContext;
+
+    public HystrixRequestContext getHystrixRequestContext() {
+
+        if (hystrixRequestContext == null) {
+            log.finest("Initializing Hystrix request context.");
+
+            HystrixRequestContext current = HystrixRequestContext.getContextForCurrentThread();
+            hystrixRequestContext = HystrixRequestContext.initializeContext();
+            // initialization binds the context to the current thread, context is bound by the executor instead
+            HystrixRequestContext.setContextOnCurrentThread(current);
+        }
+
+        return hystrixRequestContext;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+
+        if (hystrixRequestContext != null) {
+            log.finest("Shutting down Hystrix request context.");
+
+            hystrixRequestContext.shutdown();
+            hystrixRequestContext = null;
+        }
+    }
+}
@@ -0,0 +1,225 @@
+/*
+ *  Copyright (c) 2014-2017 Kumuluz and/or its affiliates
+ *  and other contributors as indicated by the @author tags and
+ *  the contributor list.
+ *
+ *  Licensed under the MIT License (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://opensource.org/licenses/MIT
+ *
+ *  The software is provided "AS IS", WITHOUT WARRANTY OF ANY KIND, express or
+ *  implied, including but not limited to the warranties of merchantability,
+ *  fitness for a particular purpose and noninfringement. in no event shall the
+ *  authors or copyright holders be liable for any claim, damages or other
+ *  liability, whether in an action of contract, tort or otherwise, arising from,
+ *  out of or in connection with the software or the use or other dealings in the
+ *  software. See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.kumuluz.ee.fault.tolerance.commands;
+
+import com.kumuluz.ee.fault.tolerance.configurations.hystrix.HystrixFaultToleranceConfigurationManager;
+import com.kumuluz.ee.fault.tolerance.enums.HystrixConfigurationType;
+import com.netflix.config.DynamicBooleanProperty;
+import com.netflix.config.DynamicDoubleProperty;
+import com.netflix.config.DynamicIntProperty;
+import com.netflix.config.DynamicLongProperty;
+import com.netflix.config.DynamicPropertyFactory;
+import com.netflix.hystrix.HystrixCommandKey;
+import com.netflix.hystrix.HystrixCommandMetrics;
+import com.netflix.hystrix.HystrixCommandProperties;
+import com.netflix.hystrix.strategy.properties.HystrixPropertiesFactory;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+/**
+ * Controller adapting the timeout of the command to its observed latency. Effective timeout is computed as
+ * {@code max(floor, min(ceiling, percentile * multiplier))}, where the percentile is taken from the rolling execution
+ * time percentile of the Hystrix command metrics.
+ *
+ * Timeout is recomputed at most once per update interval, piggybacked on executions of the command, and applied by
+ * setting the Hystrix timeout property of the command. Until execution times are observed, ceiling is used. The
+ * configured timeout is kept in a separate property, which is used as the default ceiling and restored when adaptive
+ * timeout is disabled.
+ *
+ * @since 2.2.0
+ */
+public class AdaptiveTimeoutController {
+
+    private static final Logger log = Logger.getLogger(AdaptiveTimeoutController.class.getName());
+
+    public static final String ENABLED_PROPERTY = "kumuluz.timeout.adaptive.enabled";
+    public static final String PERCENTILE_PROPERTY = "kumuluz.timeout.adaptive.percentile";
+    public static final String MULTIPLIER_PROPERTY = "kumuluz.timeout.adaptive.multiplier";
+    public static final String FLOOR_PROPERTY = "kumuluz.timeout.adaptive.floor";
+    public static final String CEILING_PROPERTY = "kumuluz.timeout.adaptive.ceiling";
+    public static final String UPDATE_INTERVAL_PROPERTY = "kumuluz.timeout.adaptive.update-interval";
+
+    public static final String CONFIGURED_TIMEOUT_PROPERTY = "kumuluz.timeout.configured";
+
+    private static final String TIMEOUT_PROPERTY = "execution.isolation.thread.timeoutInMilliseconds";
+
+    private static final ConcurrentHashMap<String, AdaptiveTimeoutController> controllers =
+            new ConcurrentHashMap<>();
+
+    private final HystrixCommandKey commandKey;
+    private final HystrixFaultToleranceConfigurationManager configManager;
+    private final HystrixCommandProperties commandProperties;
+
+    private final DynamicBooleanProperty enabled;
+    private final DynamicIntProperty percentile;
+    private final DynamicDoubleProperty multiplier;
+    private final DynamicLongProperty floor;
+    private final DynamicLongProperty ceiling;
+    private final DynamicLongProperty updateInterval;
+
+    private final DynamicLongProperty configuredTimeout;
+
+    // timeout of the command when the controller was created, used if the configured timeout is not set
+    private final long initialTimeout;
+
+    private final AtomicLong nextUpdate;
+
+    private AdaptiveTimeoutController(HystrixCommandKey commandKey,
+                                      HystrixFaultToleranceConfigurationManager configManager) {
+
+        DynamicPropertyFactory propertyFactory = DynamicPropertyFactory.getInstance();
+        String prefix = "hystrix.command." + commandKey.name() + ".";
+
+        this.commandKey = commandKey;
+        this.configManager = configManager;
+        this.commandProperties = HystrixPropertiesFactory.getCommandProperties(commandKey, null);
+
+        this.enabled = propertyFactory.getBooleanProperty(prefix + ENABLED_PROPERTY, false);
+        this.percentile = propertyFactory.getIntProperty(prefix + PERCENTILE_PROPERTY, 99);
+        this.multiplier = propertyFactory.getDoubleProperty(prefix + MULTIPLIER_PROPERTY, 2);
+        this.floor = propertyFactory.getLongProperty(prefix + FLOOR_PROPERTY, -1);
+        this.ceiling = propertyFactory.getLongProperty(prefix + CEILING_PROPERTY, -1);
+        this.updateInterval = propertyFactory.getLongProperty(prefix + UPDATE_INTERVAL_PROPERTY, 1000);
+
+        this.configuredTimeout = propertyFactory.getLongProperty(prefix + CONFIGURED_TIMEOUT_PROPERTY, -1);
+        this.initialTimeout = commandProperties.executionTimeoutInMilliseconds().get();
+        this.nextUpdate = new AtomicLong(System.nanoTime());
+
+        this.enabled.addCallback(() -> {
+            if (!enabled.get()) {
+                restoreConfiguredTimeout();
+            }
+        });
+        // recompute on the next execution, since configured timeout may be the ceiling
+        this.configuredTimeout.addCallback(() -> nextUpdate.set(System.nanoTime()));
+    }
+
+    /**
+     * Returns adaptive timeout controller of the command.
+     *
+     * @param commandKey    Hystrix command key
+     * @param configManager Configuration manager used to apply the timeout
+     * @return Adaptive timeout controller
+     */
+    public static AdaptiveTimeoutController getInstance(HystrixCommandKey commandKey,
+                                                        HystrixFaultToleranceConfigurationManager configManager) {
+        return controllers.computeIfAbsent(commandKey.name(),
+                k -> new AdaptiveTimeoutController(commandKey, configManager));
+    }
+
+    public boolean isEnabled() {
+        return enabled.get();
+    }
+
+    /**
+     * Recomputes the timeout of the command if adaptive timeout is enabled and the update interval has elapsed since
+     * the last update.
+     */
+    public void update() {
+
+        if (!enabled.get()) {
+            return;
+        }
+
+        long now = System.nanoTime();
+        long next = nextUpdate.get();
+
+        // only one of the concurrent executions recomputes the timeout
+        if (now - next < 0 ||
+                !nextUpdate.compareAndSet(next, now + TimeUnit.MILLISECONDS.toNanos(updateInterval.get()))) {
+            return;
+        }
+
+        applyTimeout(computeTimeout());
+    }
+
+    /**
+     * Returns the timeout currently applied to the command.
+     *
+     * @return Effective timeout in milliseconds
+     */
+    public long getEffectiveTimeout() {
+        return commandProperties.executionTimeoutInMilliseconds().get();
+    }
+
+    /**
+     * Returns the timeout configured for the command, regardless of adaptation.
+     *
+     * @return Configured timeout in milliseconds
+     */
+    public long getConfiguredTimeout() {
+        return configuredTimeout.get() >= 0 ? configuredTimeout.get() : initialTimeout;
+    }
+
+    private synchronized void applyTimeout(long timeout) {
+
+        // adaptive timeout may have been disabled while the timeout was computed
+        if (!enabled.get()) {
+            return;
+        }
+
+        int clamped = clamp(timeout);
+
+        if (clamped != commandProperties.executionTimeoutInMilliseconds().get()) {
+            log.finest("Adapting timeout of command '" + commandKey.name() + "' to " + clamped + " ms.");
+
+            setTimeout(clamped);
+        }
+    }
+
+    private synchronized void restoreConfiguredTimeout() {
+
+        int configured = clamp(getConfiguredTimeout());
+
+        log.finest("Restoring configured timeout " + configured + " ms of command '" + commandKey.name() + "'.");
+
+        setTimeout(configured);
+    }
+
+    private void setTimeout(int timeout) {
+        configManager.setHystrixConfig(HystrixConfigurationType.COMMAND, commandKey.name(), TIMEOUT_PROPERTY,
+                timeout);
+    }
+
+    private static int clamp(long timeout) {
+        return (int) Math.max(0, Math.min(Integer.MAX_VALUE, timeout));
+    }
+
+    private long computeTimeout() {
+
+        long ceilingMillis = ceiling.get() >= 0 ? ceiling.get() : getConfiguredTimeout();
+        long floorMillis = floor.get() >= 0 ? floor.get() : ceilingMillis / 10;
+
+        HystrixCommandMetrics commandMetrics = HystrixCommandMetrics.getInstance(commandKey);
+        int observed = commandMetrics == null ? 0 : commandMetrics.getExecutionTimePercentile(percentile.get());
+
+        if (observed <= 0) {
+            return ceilingMillis;
+        }
+
+        long adapted = (long) Math.ceil(observed * multiplier.get());
+
+        return Math.max(floorMillis, Math.min(ceilingMillis, adapted));
+    }
+}
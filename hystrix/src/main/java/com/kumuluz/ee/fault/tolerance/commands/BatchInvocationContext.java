@@ -0,0 +1,101 @@
+/*
+ *  Copyright (c) 2014-2017 Kumuluz and/or its affiliates
+ *  and other contributors as indicated by the @author tags and
+ *  the contributor list.
+ *
+ *  Licensed under the MIT License (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://opensource.org/licenses/MIT
+ *
+ *  The software is provided "AS IS", WITHOUT WARRANTY OF ANY KIND, express or
+ *  implied, including but not limited to the warranties of merchantability,
+ *  fitness for a particular purpose and noninfringement. in no event shall the
+ *  authors or copyright holders be liable for any claim, damages or other
+ *  liability, whether in an action of contract, tort or otherwise, arising from,
+ *  out of or in connection with the software or the use or other dealings in the
+ *  software. See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.kumuluz.ee.fault.tolerance.commands;
+
+import javax.interceptor.InvocationContext;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Invocation context which proceeds with invocation of the batch method instead of the intercepted method.
+ *
+ * Intercepted method is still returned by {@link #getMethod()} so the batch execution is tracked under the metrics
+ * of the intercepted method.
+ *
+ * @since 2.2.0
+ */
+public class BatchInvocationContext implements InvocationContext {
+
+    private final InvocationContext invocationContext;
+    private final Method batchMethod;
+    private final List<Object> arguments;
+
+    public BatchInvocationContext(InvocationContext invocationContext, Method batchMethod, List<Object> arguments) {
+        this.invocationContext = invocationContext;
+        this.batchMethod = batchMethod;
+        this.arguments = arguments;
+    }
+
+    public List<Object> getArguments() {
+        return arguments;
+    }
+
+    @Override
+    public Object getTarget() {
+        return invocationContext.getTarget();
+    }
+
+    @Override
+    public Object getTimer() {
+        return invocationContext.getTimer();
+    }
+
+    @Override
+    public Method getMethod() {
+        return invocationContext.getMethod();
+    }
+
+    @Override
+    public Constructor<?> getConstructor() {
+        return invocationContext.getConstructor();
+    }
+
+    @Override
+    public Object[] getParameters() {
+        return new Object[]{arguments};
+    }
+
+    @Override
+    public void setParameters(Object[] objects) {
+        throw new UnsupportedOperationException("Parameters of a batch invocation cannot be changed.");
+    }
+
+    @Override
+    public Map<String, Object> getContextData() {
+        return invocationContext.getContextData();
+    }
+
+    @Override
+    public Object proceed() throws Exception {
+        try {
+            return batchMethod.invoke(invocationContext.getTarget(), arguments);
+        } catch (InvocationTargetException e) {
+            if (e.getCause() instanceof Exception) {
+                throw (Exception) e.getCause();
+            }
+
+            throw e;
+        }
+    }
+}
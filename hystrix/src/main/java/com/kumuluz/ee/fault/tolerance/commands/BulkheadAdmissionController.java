@@ -0,0 +1,160 @@
+/*
+ *  Copyright (c) 2014-2017 Kumuluz and/or its affiliates
+ *  and other contributors as indicated by the @author tags and
+ *  the contributor list.
+ *
+ *  Licensed under the MIT License (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://opensource.org/licenses/MIT
+ *
+ *  The software is provided "AS IS", WITHOUT WARRANTY OF ANY KIND, express or
+ *  implied, including but not limited to the warranties of merchantability,
+ *  fitness for a particular purpose and noninfringement. in no event shall the
+ *  authors or copyright holders be liable for any claim, damages or other
+ *  liability, whether in an action of contract, tort or otherwise, arising from,
+ *  out of or in connection with the software or the use or other dealings in the
+ *  software. See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.kumuluz.ee.fault.tolerance.commands;
+
+import com.kumuluz.ee.fault.tolerance.enums.CriticalityLevel;
+import com.netflix.config.DynamicDoubleProperty;
+import com.netflix.config.DynamicPropertyFactory;
+import com.netflix.hystrix.HystrixCommandKey;
+import com.netflix.hystrix.HystrixCommandProperties;
+import com.netflix.hystrix.HystrixThreadPoolKey;
+import com.netflix.hystrix.HystrixThreadPoolProperties;
+import com.netflix.hystrix.strategy.properties.HystrixPropertiesFactory;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntSupplier;
+
+/**
+ * Controller admitting invocations into the bulkhead based on their criticality.
+ *
+ * A fraction of bulkhead capacity (concurrent executions and waiting task queue) is reserved for invocations with
+ * higher criticality. Invocations with {@link CriticalityLevel#DEFAULT} criticality cannot use capacity reserved for
+ * {@link CriticalityLevel#CRITICAL} invocations and invocations with {@link CriticalityLevel#SHEDDABLE} criticality
+ * cannot use capacity reserved for both. Hard limit of the bulkhead is still enforced by Hystrix.
+ *
+ * @since 2.2.0
+ */
+public class BulkheadAdmissionController {
+
+    public static final String RESERVE_CRITICAL_PROPERTY = "kumuluz.bulkhead.reserve.critical";
+    public static final String RESERVE_DEFAULT_PROPERTY = "kumuluz.bulkhead.reserve.default";
+
+    private static final ConcurrentHashMap<String, BulkheadAdmissionController> controllers =
+            new ConcurrentHashMap<>();
+
+    private final IntSupplier capacity;
+    private final DynamicDoubleProperty reserveCritical;
+    private final DynamicDoubleProperty reserveDefault;
+
+    private final AtomicInteger inFlight = new AtomicInteger(0);
+
+    private BulkheadAdmissionController(String prefix, IntSupplier capacity) {
+        DynamicPropertyFactory propertyFactory = DynamicPropertyFactory.getInstance();
+
+        this.capacity = capacity;
+        this.reserveCritical = propertyFactory.getDoubleProperty(prefix + RESERVE_CRITICAL_PROPERTY, 0);
+        this.reserveDefault = propertyFactory.getDoubleProperty(prefix + RESERVE_DEFAULT_PROPERTY, 0);
+    }
+
+    /**
+     * Returns controller of the semaphored bulkhead of the command.
+     *
+     * @param commandKey Hystrix command key
+     * @return Bulkhead admission controller
+     */
+    public static BulkheadAdmissionController getInstance(HystrixCommandKey commandKey) {
+
+        String prefix = "hystrix.command." + commandKey.name() + ".";
+
+        return controllers.computeIfAbsent(prefix, p -> {
+            HystrixCommandProperties properties = HystrixPropertiesFactory.getCommandProperties(commandKey, null);
+
+            return new BulkheadAdmissionController(p,
+                    () -> properties.executionIsolationSemaphoreMaxConcurrentRequests().get());
+        });
+    }
+
+    /**
+     * Returns controller of the thread pool bulkhead.
+     *
+     * @param threadPoolKey Hystrix thread pool key
+     * @return Bulkhead admission controller
+     */
+    public static BulkheadAdmissionController getInstance(HystrixThreadPoolKey threadPoolKey) {
+
+        String prefix = "hystrix.threadpool." + threadPoolKey.name() + ".";
+
+        return controllers.computeIfAbsent(prefix, p -> {
+            HystrixThreadPoolProperties properties = HystrixPropertiesFactory.getThreadPoolProperties(threadPoolKey,
+                    null);
+
+            return new BulkheadAdmissionController(p, () -> {
+                int maxQueueSize = properties.maxQueueSize().get();
+                int queueSize = maxQueueSize > 0 ?
+                        Math.min(maxQueueSize, properties.queueSizeRejectionThreshold().get()) : 0;
+
+                return properties.actualMaximumSize() + queueSize;
+            });
+        });
+    }
+
+    /**
+     * Tries to admit an invocation into the bulkhead. Admitted invocations must be released with {@link #release()}
+     * once completed.
+     *
+     * @param criticality criticality of the invocation
+     * @return true if invocation was admitted
+     */
+    public boolean tryAcquire(CriticalityLevel criticality) {
+
+        int limit = getLimit(criticality);
+
+        while (true) {
+            int current = inFlight.get();
+
+            if (current >= limit) {
+                return false;
+            }
+
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    public void release() {
+        inFlight.decrementAndGet();
+    }
+
+    private int getLimit(CriticalityLevel criticality) {
+
+        int max = capacity.getAsInt();
+
+        switch (criticality) {
+            case CRITICAL:
+                return Integer.MAX_VALUE;
+            case DEFAULT:
+                return max - reserved(max, reserveCritical.get());
+            default:
+                return max - reserved(max, Math.max(reserveCritical.get(), reserveDefault.get()));
+        }
+    }
+
+    private static int reserved(int capacity, double ratio) {
+
+        if (ratio <= 0) {
+            return 0;
+        }
+
+        return (int) Math.ceil(capacity * Math.min(ratio, 1.0));
+    }
+}
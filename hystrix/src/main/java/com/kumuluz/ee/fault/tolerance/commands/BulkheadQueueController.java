@@ -0,0 +1,141 @@
+/*
+ *  Copyright (c) 2014-2017 Kumuluz and/or its affiliates
+ *  and other contributors as indicated by the @author tags and
+ *  the contributor list.
+ *
+ *  Licensed under the MIT License (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://opensource.org/licenses/MIT
+ *
+ *  The software is provided "AS IS", WITHOUT WARRANTY OF ANY KIND, express or
+ *  implied, including but not limited to the warranties of merchantability,
+ *  fitness for a particular purpose and noninfringement. in no event shall the
+ *  authors or copyright holders be liable for any claim, damages or other
+ *  liability, whether in an action of contract, tort or otherwise, arising from,
+ *  out of or in connection with the software or the use or other dealings in the
+ *  software. See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.kumuluz.ee.fault.tolerance.commands;
+
+import com.netflix.config.DynamicLongProperty;
+import com.netflix.config.DynamicPropertyFactory;
+import com.netflix.hystrix.HystrixThreadPoolKey;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Controller deciding whether a task waiting in the bulkhead queue should be shed instead of executed, based on the
+ * time the task spent in the queue (sojourn time).
+ *
+ * Tasks are shed if the sojourn time exceeds the maximum queue time. Alternatively, a CoDel-style controller can be
+ * used. Controller starts shedding when sojourn time stays above target for at least an interval and increases the
+ * shedding rate while the queue does not drain.
+ *
+ * @since 2.2.0
+ */
+public class BulkheadQueueController {
+
+    public static final String MAX_QUEUE_TIME_PROPERTY = "kumuluz.queue.maxTimeInMilliseconds";
+    public static final String CODEL_TARGET_PROPERTY = "kumuluz.queue.codel.targetInMilliseconds";
+    public static final String CODEL_INTERVAL_PROPERTY = "kumuluz.queue.codel.intervalInMilliseconds";
+
+    private static final long DEFAULT_CODEL_INTERVAL = 100;
+
+    private static final ConcurrentHashMap<String, BulkheadQueueController> controllers = new ConcurrentHashMap<>();
+
+    private final DynamicLongProperty maxQueueTime;
+    private final DynamicLongProperty codelTarget;
+    private final DynamicLongProperty codelInterval;
+
+    private long firstAboveTime = 0;
+    private long dropNext = 0;
+    private int dropCount = 0;
+    private boolean dropping = false;
+
+    private BulkheadQueueController(String threadPoolKey) {
+        DynamicPropertyFactory propertyFactory = DynamicPropertyFactory.getInstance();
+        String prefix = "hystrix.threadpool." + threadPoolKey + ".";
+
+        this.maxQueueTime = propertyFactory.getLongProperty(prefix + MAX_QUEUE_TIME_PROPERTY, 0);
+        this.codelTarget = propertyFactory.getLongProperty(prefix + CODEL_TARGET_PROPERTY, 0);
+        this.codelInterval = propertyFactory.getLongProperty(prefix + CODEL_INTERVAL_PROPERTY,
+                DEFAULT_CODEL_INTERVAL);
+    }
+
+    public static BulkheadQueueController getInstance(HystrixThreadPoolKey threadPoolKey) {
+        return controllers.computeIfAbsent(threadPoolKey.name(), BulkheadQueueController::new);
+    }
+
+    /**
+     * Decides whether the task should be shed.
+     *
+     * @param sojournTime time in nanoseconds the task spent waiting in the queue
+     * @return true if task should not be executed
+     */
+    public boolean shouldShed(long sojournTime) {
+
+        long maxQueueTimeInMillis = maxQueueTime.get();
+
+        if (maxQueueTimeInMillis > 0 && sojournTime > TimeUnit.MILLISECONDS.toNanos(maxQueueTimeInMillis)) {
+            return true;
+        }
+
+        long targetInMillis = codelTarget.get();
+
+        if (targetInMillis <= 0) {
+            return false;
+        }
+
+        return shouldShedCoDel(sojournTime, TimeUnit.MILLISECONDS.toNanos(targetInMillis),
+                TimeUnit.MILLISECONDS.toNanos(Math.max(codelInterval.get(), 1)));
+    }
+
+    private synchronized boolean shouldShedCoDel(long sojournTime, long target, long interval) {
+
+        long now = System.nanoTime();
+
+        if (sojournTime < target) {
+            // queue is draining, leave the dropping state
+            firstAboveTime = 0;
+            dropping = false;
+
+            return false;
+        }
+
+        if (firstAboveTime == 0) {
+            firstAboveTime = now + interval;
+
+            return false;
+        }
+
+        if (!dropping) {
+            if (now - firstAboveTime < 0) {
+                return false;
+            }
+
+            // recently left dropping state, continue at the previous rate
+            dropCount = (dropCount > 2 && now - dropNext < 8 * interval) ? dropCount - 2 : 1;
+            dropping = true;
+            dropNext = now + controlLaw(interval, dropCount);
+
+            return true;
+        }
+
+        if (now - dropNext >= 0) {
+            dropCount++;
+            dropNext += controlLaw(interval, dropCount);
+
+            return true;
+        }
+
+        return false;
+    }
+
+    private static long controlLaw(long interval, int count) {
+        return (long) (interval / Math.sqrt(count));
+    }
+}
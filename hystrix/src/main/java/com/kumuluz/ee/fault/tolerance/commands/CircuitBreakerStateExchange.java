@@ -0,0 +1,74 @@
+/*
+ *  Copyright (c) 2014-2017 Kumuluz and/or its affiliates
+ *  and other contributors as indicated by the @author tags and
+ *  the contributor list.
+ *
+ *  Licensed under the MIT License (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://opensource.org/licenses/MIT
+ *
+ *  The software is provided "AS IS", WITHOUT WARRANTY OF ANY KIND, express or
+ *  implied, including but not limited to the warranties of merchantability,
+ *  fitness for a particular purpose and noninfringement. in no event shall the
+ *  authors or copyright holders be liable for any claim, damages or other
+ *  liability, whether in an action of contract, tort or otherwise, arising from,
+ *  out of or in connection with the software or the use or other dealings in the
+ *  software. See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.kumuluz.ee.fault.tolerance.commands;
+
+/**
+ * Service provider interface for exchanging circuit breaker states between nodes.
+ *
+ * States are published only on transitions of local circuit breakers, never on the invocation path. Circuit breakers are
+ * identified by the hash of their key (see {@link CircuitBreakerStateStore#hashKey(String)}), which is the same on all
+ * nodes. Each state carries an epoch (time of the transition in milliseconds); a state with a greater epoch supersedes
+ * older states of the same circuit breaker on the same node.
+ *
+ * Implementations are discovered with {@link java.util.ServiceLoader}. If no implementation is registered,
+ * {@link UdpGossipStateExchange} is used.
+ *
+ * @since 2.2.0
+ */
+public interface CircuitBreakerStateExchange {
+
+    /**
+     * Starts the exchange.
+     *
+     * @param listener Listener notified of states received from other nodes
+     */
+    void start(Listener listener);
+
+    /**
+     * Publishes state of a local circuit breaker. Must not block.
+     *
+     * @param keyHash Hash of the circuit breaker key
+     * @param open    Whether the circuit is open
+     * @param epoch   Time of the transition in milliseconds
+     */
+    void publish(long keyHash, boolean open, long epoch);
+
+    /**
+     * Stops the exchange and releases its resources.
+     */
+    void stop();
+
+    /**
+     * Listener of circuit breaker states received from other nodes.
+     */
+    interface Listener {
+
+        /**
+         * Called when a newer state of a circuit breaker of another node is received.
+         *
+         * @param nodeId  Identifier of the node which published the state
+         * @param keyHash Hash of the circuit breaker key
+         * @param open    Whether the circuit is open
+         * @param epoch   Time of the transition in milliseconds
+         */
+        void onRemoteState(long nodeId, long keyHash, boolean open, long epoch);
+    }
+}
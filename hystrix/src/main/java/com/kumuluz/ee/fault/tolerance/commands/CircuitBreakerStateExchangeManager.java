@@ -0,0 +1,198 @@
+/*
+ *  Copyright (c) 2014-2017 Kumuluz and/or its affiliates
+ *  and other contributors as indicated by the @author tags and
+ *  the contributor list.
+ *
+ *  Licensed under the MIT License (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://opensource.org/licenses/MIT
+ *
+ *  The software is provided "AS IS", WITHOUT WARRANTY OF ANY KIND, express or
+ *  implied, including but not limited to the warranties of merchantability,
+ *  fitness for a particular purpose and noninfringement. in no event shall the
+ *  authors or copyright holders be liable for any claim, damages or other
+ *  liability, whether in an action of contract, tort or otherwise, arising from,
+ *  out of or in connection with the software or the use or other dealings in the
+ *  software. See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.kumuluz.ee.fault.tolerance.commands;
+
+import com.kumuluz.ee.configuration.utils.ConfigurationUtil;
+import com.kumuluz.ee.fault.tolerance.enums.RemoteOpenPolicy;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.ServiceLoader;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Connects {@link SuccessThresholdCircuitBreaker} instances with the {@link CircuitBreakerStateExchange}.
+ *
+ * Transitions of local circuit breakers are published to the exchange, OPEN states received from other nodes are
+ * applied to local circuit breakers according to the configured {@link RemoteOpenPolicy}. Exchange is disabled by
+ * default. Circuit breakers using the HYSTRIX implementation are not exchanged.
+ *
+ * @since 2.2.0
+ */
+public class CircuitBreakerStateExchangeManager {
+
+    private static final Logger log = Logger.getLogger(CircuitBreakerStateExchangeManager.class.getName());
+
+    private static final String CONFIG_PREFIX = "kumuluzee.fault-tolerance.hystrix.circuit-breaker-exchange.";
+
+    private static final Map<Long, SuccessThresholdCircuitBreaker> circuitBreakers = new ConcurrentHashMap<>();
+    private static final Map<Long, Map<Long, Long>> remoteOpenStates = new ConcurrentHashMap<>();
+
+    private static volatile boolean initialized = false;
+    private static volatile CircuitBreakerStateExchange exchange;
+    private static RemoteOpenPolicy policy;
+    private static int quorum;
+
+    private CircuitBreakerStateExchangeManager() {
+    }
+
+    static void register(long keyHash, SuccessThresholdCircuitBreaker circuitBreaker) {
+        if (getExchange() != null) {
+            circuitBreakers.put(keyHash, circuitBreaker);
+        }
+    }
+
+    static void unregister(long keyHash, SuccessThresholdCircuitBreaker circuitBreaker) {
+        if (exchange != null && circuitBreakers.remove(keyHash, circuitBreaker)) {
+            remoteOpenStates.remove(keyHash);
+        }
+    }
+
+    /**
+     * Logs a warning if the exchange is enabled, since only circuit breakers using the SUCCESS_THRESHOLD
+     * implementation are connected with the exchange. Called once, when the circuit breaker of the command is created.
+     *
+     * @param commandKey Command key of the circuit breaker which is not exchanged
+     */
+    static void warnNotExchanged(String commandKey) {
+        if (ConfigurationUtil.getInstance().getBoolean(CONFIG_PREFIX + "enabled").orElse(false)) {
+            log.warning("Circuit breaker of command '" + commandKey + "' uses the HYSTRIX implementation, its state " +
+                    "is not exchanged with other nodes. Only SUCCESS_THRESHOLD circuit breakers are exchanged.");
+        }
+    }
+
+    static void publish(long keyHash, boolean open, long epoch) {
+
+        CircuitBreakerStateExchange currentExchange = exchange;
+
+        if (currentExchange != null) {
+            currentExchange.publish(keyHash, open, epoch);
+        }
+    }
+
+    /**
+     * Stops the exchange, called on application shutdown.
+     */
+    public static void shutdown() {
+
+        CircuitBreakerStateExchange currentExchange;
+
+        synchronized (CircuitBreakerStateExchangeManager.class) {
+            currentExchange = exchange;
+            exchange = null;
+            initialized = false;
+        }
+
+        if (currentExchange != null) {
+            currentExchange.stop();
+            circuitBreakers.clear();
+            remoteOpenStates.clear();
+        }
+    }
+
+    private static void onRemoteState(long nodeId, long keyHash, boolean open, long epoch) {
+
+        SuccessThresholdCircuitBreaker circuitBreaker = circuitBreakers.get(keyHash);
+
+        if (circuitBreaker == null || policy == RemoteOpenPolicy.IGNORE) {
+            return;
+        }
+
+        if (policy == RemoteOpenPolicy.ADOPT) {
+            if (open && circuitBreaker.adoptRemoteOpen(epoch)) {
+                log.fine("Circuit breaker opened by node " + Long.toHexString(nodeId) + ".");
+            }
+            return;
+        }
+
+        Map<Long, Long> openStates = remoteOpenStates.computeIfAbsent(keyHash, k -> new ConcurrentHashMap<>());
+        if (open) {
+            openStates.put(nodeId, epoch);
+        } else {
+            openStates.remove(nodeId);
+        }
+
+        int openNodes = 0;
+        long latestEpoch = 0;
+        for (long openEpoch : openStates.values()) {
+            if (circuitBreaker.isWithinSleepWindow(openEpoch)) {
+                openNodes++;
+                latestEpoch = Math.max(latestEpoch, openEpoch);
+            }
+        }
+
+        if (openNodes >= quorum && circuitBreaker.adoptRemoteOpen(latestEpoch)) {
+            log.fine("Circuit breaker opened by quorum of " + openNodes + " nodes.");
+        }
+    }
+
+    private static CircuitBreakerStateExchange getExchange() {
+        if (!initialized) {
+            synchronized (CircuitBreakerStateExchangeManager.class) {
+                if (!initialized) {
+                    exchange = createExchange();
+                    initialized = true;
+                }
+            }
+        }
+
+        return exchange;
+    }
+
+    private static CircuitBreakerStateExchange createExchange() {
+
+        ConfigurationUtil configurationUtil = ConfigurationUtil.getInstance();
+
+        if (!configurationUtil.getBoolean(CONFIG_PREFIX + "enabled").orElse(false)) {
+            return null;
+        }
+
+        String policyName = configurationUtil.get(CONFIG_PREFIX + "policy").orElse(RemoteOpenPolicy.ADOPT.name());
+        try {
+            policy = RemoteOpenPolicy.valueOf(policyName.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            log.warning("Unknown remote open policy '" + policyName + "', using " + RemoteOpenPolicy.ADOPT + ".");
+            policy = RemoteOpenPolicy.ADOPT;
+        }
+        quorum = configurationUtil.getInteger(CONFIG_PREFIX + "quorum").orElse(2);
+
+        Iterator<CircuitBreakerStateExchange> providers = ServiceLoader.load(CircuitBreakerStateExchange.class)
+                .iterator();
+        CircuitBreakerStateExchange stateExchange = providers.hasNext() ?
+                providers.next() :
+                new UdpGossipStateExchange();
+
+        try {
+            stateExchange.start(CircuitBreakerStateExchangeManager::onRemoteState);
+        } catch (RuntimeException e) {
+            log.log(Level.WARNING, "Circuit breaker state exchange could not be started, circuit breaker states " +
+                    "will not be exchanged.", e);
+            return null;
+        }
+
+        log.info("Circuit breaker states are exchanged using " + stateExchange.getClass().getName() +
+                " with policy " + policy + ".");
+
+        return stateExchange;
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ *  Copyright (c) 2014-2017 Kumuluz and/or its affiliates
+ *  and other contributors as indicated by the @author tags and
+ *  the contributor list.
+ *
+ *  Licensed under the MIT License (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://opensource.org/licenses/MIT
+ *
+ *  The software is provided "AS IS", WITHOUT WARRANTY OF ANY KIND, express or
+ *  implied, including but not limited to the warranties of merchantability,
+ *  fitness for a particular purpose and noninfringement. in no event shall the
+ *  authors or copyright holders be liable for any claim, damages or other
+ *  liability, whether in an action of contract, tort or otherwise, arising from,
+ *  out of or in connection with the software or the use or other dealings in the
+ *  software. See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.kumuluz.ee.fault.tolerance.commands;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Store packing state of many circuit breakers into fixed-size slots of long fields. Circuit breakers are thin views
+ * over their slot, which keeps memory footprint per circuit breaker low.
+ *
+ * Layout of the fields within a slot is defined by the circuit breaker. Newly allocated slots have all fields set to 0.
+ *
+ * @since 2.2.0
+ */
+public interface CircuitBreakerStateStore {
+
+    /**
+     * Allocates a slot for the circuit breaker.
+     *
+     * @param key Key of the circuit breaker
+     * @return Slot index
+     */
+    int allocate(String key);
+
+    /**
+     * Allocates a slot for a partition of a keyed circuit breaker. Partition keys are unbounded, so stores which
+     * persist state may keep state of partitions elsewhere.
+     *
+     * @param key Key of the partition
+     * @return Slot index
+     */
+    default int allocatePartition(String key) {
+        return allocate(key);
+    }
+
+    /**
+     * Releases the slot, so it can be reused by other circuit breakers. Views of a released circuit breaker may still
+     * be referenced by executing commands, so the slot is only reused once the owner is no longer reachable.
+     *
+     * @param slot  Slot index
+     * @param owner Circuit breaker view which owned the slot
+     */
+    void release(int slot, Object owner);
+
+    long get(int slot, int field);
+
+    void set(int slot, int field, long value);
+
+    long getAndSet(int slot, int field, long value);
+
+    boolean compareAndSet(int slot, int field, long expect, long update);
+
+    long addAndGet(int slot, int field, long delta);
+
+    /**
+     * Hashes the circuit breaker key. Hash is stable across processes.
+     *
+     * @param key Key of the circuit breaker
+     * @return 64-bit FNV-1a hash of the key
+     */
+    static long hashKey(String key) {
+
+        long hash = 0xcbf29ce484222325L;
+
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+
+        return hash;
+    }
+
+}
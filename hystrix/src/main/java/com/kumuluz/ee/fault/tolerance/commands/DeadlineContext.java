@@ -0,0 +1,92 @@
+/*
+ *  Copyright (c) 2014-2017 Kumuluz and/or its affiliates
+ *  and other contributors as indicated by the @author tags and
+ *  the contributor list.
+ *
+ *  Licensed under the MIT License (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://opensource.org/licenses/MIT
+ *
+ *  The software is provided "AS IS", WITHOUT WARRANTY OF ANY KIND, express or
+ *  implied, including but not limited to the warranties of merchantability,
+ *  fitness for a particular purpose and noninfringement. in no event shall the
+ *  authors or copyright holders be liable for any claim, damages or other
+ *  liability, whether in an action of contract, tort or otherwise, arising from,
+ *  out of or in connection with the software or the use or other dealings in the
+ *  software. See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.kumuluz.ee.fault.tolerance.commands;
+
+/**
+ * Holds the deadline of the fault tolerant execution on the current thread, so nested fault tolerant executions can be
+ * limited to the remaining time budget of their callers. Deadline is carried onto Hystrix threads by
+ * {@link com.netflix.hystrix.KumuluzHystrixGenericCommand}.
+ *
+ * Deadline is an absolute time, measured with {@link System#nanoTime()}.
+ *
+ * @since 2.2.0
+ */
+public class DeadlineContext {
+
+    private static final ThreadLocal<Long> deadline = new ThreadLocal<>();
+
+    private DeadlineContext() {
+    }
+
+    /**
+     * Returns deadline of the current execution.
+     *
+     * @return Deadline in nanoseconds or null if execution has no deadline
+     */
+    public static Long get() {
+        return deadline.get();
+    }
+
+    /**
+     * Sets deadline of the current execution. Deadline is never extended, if the current deadline is earlier, it is
+     * kept.
+     *
+     * @param newDeadline Deadline in nanoseconds or null
+     * @return Previous deadline, which needs to be restored with {@link #restore(Long)}
+     */
+    public static Long set(Long newDeadline) {
+
+        Long previous = deadline.get();
+
+        if (newDeadline != null && (previous == null || newDeadline - previous < 0)) {
+            deadline.set(newDeadline);
+        }
+
+        return previous;
+    }
+
+    /**
+     * Restores deadline of the enclosing execution.
+     *
+     * @param previous Deadline returned by {@link #set(Long)}
+     */
+    public static void restore(Long previous) {
+
+        if (previous == null) {
+            deadline.remove();
+        } else {
+            deadline.set(previous);
+        }
+    }
+
+    /**
+     * Returns time remaining until the deadline of the current execution.
+     *
+     * @return Remaining time in nanoseconds (negative if deadline has passed) or {@link Long#MAX_VALUE} if execution
+     * has no deadline
+     */
+    public static long getRemainingNanos() {
+
+        Long current = deadline.get();
+
+        return current == null ? Long.MAX_VALUE : current - System.nanoTime();
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ *  Copyright (c) 2014-2017 Kumuluz and/or its affiliates
+ *  and other contributors as indicated by the @author tags and
+ *  the contributor list.
+ *
+ *  Licensed under the MIT License (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://opensource.org/licenses/MIT
+ *
+ *  The software is provided "AS IS", WITHOUT WARRANTY OF ANY KIND, express or
+ *  implied, including but not limited to the warranties of merchantability,
+ *  fitness for a particular purpose and noninfringement. in no event shall the
+ *  authors or copyright holders be liable for any claim, damages or other
+ *  liability, whether in an action of contract, tort or otherwise, arising from,
+ *  out of or in connection with the software or the use or other dealings in the
+ *  software. See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.kumuluz.ee.fault.tolerance.commands;
+
+import rx.Observable;
+import rx.Subscription;
+import rx.schedulers.Schedulers;
+
+import java.util.concurrent.*;
+
+/**
+ * Asynchronous execution which is started after a delay, without blocking the calling thread while it waits. Result of
+ * the execution is the result of the future returned by the started execution.
+ *
+ * @since 2.2.0
+ */
+public class DelayedExecution implements Future<Object> {
+
+    private final CompletableFuture<Object> started = new CompletableFuture<>();
+    private final Subscription timer;
+
+    /**
+     * Schedules the execution. Execution is started on an I/O thread, since it may block until it is admitted.
+     *
+     * @param delay delay in nanoseconds
+     * @param execution execution which returns a future or the result of the execution
+     */
+    public DelayedExecution(long delay, Callable<Object> execution) {
+        this.timer = Observable.timer(delay, TimeUnit.NANOSECONDS, Schedulers.io())
+                .subscribe(t -> start(execution));
+    }
+
+    private void start(Callable<Object> execution) {
+
+        if (started.isDone()) {
+            return;
+        }
+
+        try {
+            Object result = execution.call();
+
+            // execution was cancelled while it was being started
+            if (!started.complete(result) && result instanceof Future) {
+                ((Future<?>) result).cancel(true);
+            }
+        } catch (Exception e) {
+            started.completeExceptionally(e);
+        }
+    }
+
+    /**
+     * Cancels the execution if it has not been started yet, otherwise cancels the started execution.
+     */
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+
+        if (started.cancel(mayInterruptIfRunning)) {
+            timer.unsubscribe();
+            return true;
+        }
+
+        Future<?> execution = getStartedExecution();
+
+        return execution != null && execution.cancel(mayInterruptIfRunning);
+    }
+
+    @Override
+    public boolean isCancelled() {
+
+        Future<?> execution = getStartedExecution();
+
+        return started.isCancelled() || (execution != null && execution.isCancelled());
+    }
+
+    @Override
+    public boolean isDone() {
+
+        Future<?> execution = getStartedExecution();
+
+        return started.isDone() && (execution == null || execution.isDone());
+    }
+
+    @Override
+    public Object get() throws InterruptedException, ExecutionException {
+
+        Object result = started.get();
+
+        return result instanceof Future ? ((Future<?>) result).get() : result;
+    }
+
+    @Override
+    public Object get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        Object result = started.get(timeout, unit);
+
+        return result instanceof Future ?
+                ((Future<?>) result).get(deadline - System.nanoTime(), TimeUnit.NANOSECONDS) : result;
+    }
+
+    private Future<?> getStartedExecution() {
+
+        if (!started.isDone() || started.isCompletedExceptionally()) {
+            return null;
+        }
+
+        Object result = started.getNow(null);
+
+        return result instanceof Future ? (Future<?>) result : null;
+    }
+}
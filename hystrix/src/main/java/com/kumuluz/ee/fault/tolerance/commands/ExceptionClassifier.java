@@ -0,0 +1,124 @@
+/*
+ *  Copyright (c) 2014-2017 Kumuluz and/or its affiliates
+ *  and other contributors as indicated by the @author tags and
+ *  the contributor list.
+ *
+ *  Licensed under the MIT License (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://opensource.org/licenses/MIT
+ *
+ *  The software is provided "AS IS", WITHOUT WARRANTY OF ANY KIND, express or
+ *  implied, including but not limited to the warranties of merchantability,
+ *  fitness for a particular purpose and noninfringement. in no event shall the
+ *  authors or copyright holders be liable for any claim, damages or other
+ *  liability, whether in an action of contract, tort or otherwise, arising from,
+ *  out of or in connection with the software or the use or other dealings in the
+ *  software. See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.kumuluz.ee.fault.tolerance.commands;
+
+import com.kumuluz.ee.fault.tolerance.models.ExecutionMetadata;
+import org.eclipse.microprofile.faulttolerance.CircuitBreaker;
+import org.eclipse.microprofile.faulttolerance.Retry;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Classifies exceptions thrown by the command according to {@link Retry#retryOn()}, {@link Retry#abortOn()} and
+ * {@link CircuitBreaker#failOn()}. Classification is resolved once per exception class and cached, so failing
+ * executions do not scan the configured exception classes on each invocation.
+ *
+ * @since 2.2.0
+ */
+public class ExceptionClassifier {
+
+    private static final ConcurrentHashMap<String, ExceptionClassifier> classifiers = new ConcurrentHashMap<>();
+
+    private static final Class<?>[] NONE = new Class<?>[0];
+
+    private final Class<?>[] retryOn;
+    private final Class<?>[] abortOn;
+    private final Class<?>[] failOn;
+
+    // exception classes are read from annotations and cannot be reconfigured at runtime, so cached classifications
+    // never need to be discarded
+    private final ClassValue<Classification> classifications = createClassifications();
+
+    private ExceptionClassifier(ExecutionMetadata metadata) {
+
+        Retry retry = metadata.getRetry();
+        CircuitBreaker circuitBreaker = metadata.getCircuitBreaker();
+
+        this.retryOn = retry == null ? NONE : retry.retryOn();
+        this.abortOn = retry == null ? NONE : retry.abortOn();
+        this.failOn = circuitBreaker == null ? null : circuitBreaker.failOn();
+    }
+
+    /**
+     * Returns exception classifier of the command.
+     *
+     * @param metadata Execution metadata of the command
+     * @return Exception classifier
+     */
+    public static ExceptionClassifier getInstance(ExecutionMetadata metadata) {
+        return classifiers.computeIfAbsent(metadata.getIdentifier(), k -> new ExceptionClassifier(metadata));
+    }
+
+    public Classification classify(Throwable e) {
+        return classifications.get(e.getClass());
+    }
+
+    private ClassValue<Classification> createClassifications() {
+        return new ClassValue<Classification>() {
+            @Override
+            protected Classification computeValue(Class<?> type) {
+                return new Classification(isAssignableToAny(retryOn, type), isAssignableToAny(abortOn, type),
+                        failOn == null || isAssignableToAny(failOn, type));
+            }
+        };
+    }
+
+    private static boolean isAssignableToAny(Class<?>[] classes, Class<?> type) {
+
+        for (Class<?> c : classes) {
+            if (c.isAssignableFrom(type))
+                return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * Classification of an exception class.
+     */
+    public static class Classification {
+
+        private final boolean retryOn;
+        private final boolean abortOn;
+        private final boolean failOn;
+
+        Classification(boolean retryOn, boolean abortOn, boolean failOn) {
+            this.retryOn = retryOn;
+            this.abortOn = abortOn;
+            this.failOn = failOn;
+        }
+
+        public boolean isRetryOn() {
+            return retryOn;
+        }
+
+        public boolean isAbortOn() {
+            return abortOn;
+        }
+
+        /**
+         * @return True if exception is counted as a failure by the circuit breaker (and fallback is invoked)
+         */
+        public boolean isFailOn() {
+            return failOn;
+        }
+    }
+}
@@ -21,6 +21,7 @@
 package com.kumuluz.ee.fault.tolerance.commands;
 
 import com.kumuluz.ee.fault.tolerance.exceptions.FaultToleranceConfigException;
+import com.kumuluz.ee.fault.tolerance.jfr.FaultToleranceEvents;
 import com.kumuluz.ee.fault.tolerance.models.DefaultFallbackExecutionContext;
 import com.kumuluz.ee.fault.tolerance.models.ExecutionMetadata;
 import org.eclipse.microprofile.faulttolerance.FallbackHandler;
@@ -51,6 +52,8 @@ public class FallbackHelper {
                     cause.getClass().getName());
         }
 
+        FaultToleranceEvents.fallback(metadata.getCommandKey(), metadata.getGroupKey(), cause);
+
         boolean rcActivated = false;
 
         try {
@@ -0,0 +1,171 @@
+/*
+ *  Copyright (c) 2014-2017 Kumuluz and/or its affiliates
+ *  and other contributors as indicated by the @author tags and
+ *  the contributor list.
+ *
+ *  Licensed under the MIT License (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://opensource.org/licenses/MIT
+ *
+ *  The software is provided "AS IS", WITHOUT WARRANTY OF ANY KIND, express or
+ *  implied, including but not limited to the warranties of merchantability,
+ *  fitness for a particular purpose and noninfringement. in no event shall the
+ *  authors or copyright holders be liable for any claim, damages or other
+ *  liability, whether in an action of contract, tort or otherwise, arising from,
+ *  out of or in connection with the software or the use or other dealings in the
+ *  software. See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.kumuluz.ee.fault.tolerance.commands;
+
+import java.lang.ref.PhantomReference;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Heap implementation of {@link CircuitBreakerStateStore}. Slots are stored in segments of {@link AtomicLongArray},
+ * which are allocated on demand and never moved, so growing the store does not block updates of existing slots.
+ *
+ * Released slots are reused only after the circuit breaker view which owned the slot has been garbage collected, so
+ * commands still holding a view of an evicted circuit breaker can never update the state of a new one.
+ *
+ * @since 2.2.0
+ */
+public class HeapCircuitBreakerStateStore implements CircuitBreakerStateStore {
+
+    private static final int SEGMENT_SHIFT = 10;
+    private static final int SEGMENT_SIZE = 1 << SEGMENT_SHIFT;
+    private static final int SEGMENT_MASK = SEGMENT_SIZE - 1;
+
+    private final int fields;
+
+    private volatile AtomicLongArray[] segments = new AtomicLongArray[0];
+    private final AtomicInteger nextSlot = new AtomicInteger(0);
+    private final ConcurrentLinkedQueue<Integer> freeSlots = new ConcurrentLinkedQueue<>();
+
+    private final ReferenceQueue<Object> releasedOwners = new ReferenceQueue<>();
+    // references must remain reachable until they are enqueued
+    private final Set<ReleasedSlot> releasedSlots = ConcurrentHashMap.newKeySet();
+
+    /**
+     * @param fields Number of long fields in a slot
+     */
+    public HeapCircuitBreakerStateStore(int fields) {
+        this.fields = fields;
+    }
+
+    @Override
+    public int allocate(String key) {
+
+        reclaimReleasedSlots();
+
+        Integer freeSlot = freeSlots.poll();
+
+        if (freeSlot != null) {
+            return freeSlot;
+        }
+
+        int slot = nextSlot.getAndIncrement();
+        ensureSegment(slot >>> SEGMENT_SHIFT);
+
+        return slot;
+    }
+
+    @Override
+    public void release(int slot, Object owner) {
+        releasedSlots.add(new ReleasedSlot(owner, slot, releasedOwners));
+    }
+
+    @Override
+    public long get(int slot, int field) {
+        return segment(slot).get(offset(slot, field));
+    }
+
+    @Override
+    public void set(int slot, int field, long value) {
+        segment(slot).set(offset(slot, field), value);
+    }
+
+    @Override
+    public long getAndSet(int slot, int field, long value) {
+        return segment(slot).getAndSet(offset(slot, field), value);
+    }
+
+    @Override
+    public boolean compareAndSet(int slot, int field, long expect, long update) {
+        return segment(slot).compareAndSet(offset(slot, field), expect, update);
+    }
+
+    @Override
+    public long addAndGet(int slot, int field, long delta) {
+        return segment(slot).addAndGet(offset(slot, field), delta);
+    }
+
+    private void reclaimReleasedSlots() {
+
+        Reference<?> reference;
+
+        while ((reference = releasedOwners.poll()) != null) {
+            ReleasedSlot releasedSlot = (ReleasedSlot) reference;
+            releasedSlots.remove(releasedSlot);
+
+            AtomicLongArray segment = segment(releasedSlot.slot);
+            int offset = offset(releasedSlot.slot, 0);
+
+            for (int i = 0; i < fields; i++) {
+                segment.set(offset + i, 0);
+            }
+
+            freeSlots.offer(releasedSlot.slot);
+        }
+    }
+
+    private AtomicLongArray segment(int slot) {
+        return segments[slot >>> SEGMENT_SHIFT];
+    }
+
+    private int offset(int slot, int field) {
+        return (slot & SEGMENT_MASK) * fields + field;
+    }
+
+    private void ensureSegment(int segmentIndex) {
+
+        if (segmentIndex < segments.length) {
+            return;
+        }
+
+        synchronized (this) {
+            AtomicLongArray[] current = segments;
+
+            if (segmentIndex < current.length) {
+                return;
+            }
+
+            AtomicLongArray[] grown = new AtomicLongArray[segmentIndex + 1];
+            System.arraycopy(current, 0, grown, 0, current.length);
+
+            for (int i = current.length; i < grown.length; i++) {
+                grown[i] = new AtomicLongArray(SEGMENT_SIZE * fields);
+            }
+
+            segments = grown;
+        }
+    }
+
+    private static class ReleasedSlot extends PhantomReference<Object> {
+
+        private final int slot;
+
+        private ReleasedSlot(Object owner, int slot, ReferenceQueue<Object> queue) {
+            super(owner, queue);
+            this.slot = slot;
+        }
+    }
+}
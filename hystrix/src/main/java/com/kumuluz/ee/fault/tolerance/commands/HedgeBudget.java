@@ -0,0 +1,59 @@
+/*
+ *  Copyright (c) 2014-2017 Kumuluz and/or its affiliates
+ *  and other contributors as indicated by the @author tags and
+ *  the contributor list.
+ *
+ *  Licensed under the MIT License (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://opensource.org/licenses/MIT
+ *
+ *  The software is provided "AS IS", WITHOUT WARRANTY OF ANY KIND, express or
+ *  implied, including but not limited to the warranties of merchantability,
+ *  fitness for a particular purpose and noninfringement. in no event shall the
+ *  authors or copyright holders be liable for any claim, damages or other
+ *  liability, whether in an action of contract, tort or otherwise, arising from,
+ *  out of or in connection with the software or the use or other dealings in the
+ *  software. See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.kumuluz.ee.fault.tolerance.commands;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Budget limiting the number of hedged executions of a command. Every execution deposits a fraction of a token
+ * determined by the budget ratio, every hedged execution withdraws a whole token.
+ *
+ * @since 2.2.0
+ */
+public class HedgeBudget {
+
+    private static final long TOKEN = 1000;
+    private static final long MAX_BALANCE = 10 * TOKEN;
+
+    private final AtomicLong balance = new AtomicLong();
+
+    public void deposit(double ratio) {
+        long amount = (long) (ratio * TOKEN);
+
+        if (amount > 0) {
+            balance.accumulateAndGet(amount, (current, added) -> Math.min(current + added, MAX_BALANCE));
+        }
+    }
+
+    public boolean withdraw() {
+        long current;
+
+        do {
+            current = balance.get();
+
+            if (current < TOKEN) {
+                return false;
+            }
+        } while (!balance.compareAndSet(current, current - TOKEN));
+
+        return true;
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ *  Copyright (c) 2014-2017 Kumuluz and/or its affiliates
+ *  and other contributors as indicated by the @author tags and
+ *  the contributor list.
+ *
+ *  Licensed under the MIT License (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://opensource.org/licenses/MIT
+ *
+ *  The software is provided "AS IS", WITHOUT WARRANTY OF ANY KIND, express or
+ *  implied, including but not limited to the warranties of merchantability,
+ *  fitness for a particular purpose and noninfringement. in no event shall the
+ *  authors or copyright holders be liable for any claim, damages or other
+ *  liability, whether in an action of contract, tort or otherwise, arising from,
+ *  out of or in connection with the software or the use or other dealings in the
+ *  software. See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.kumuluz.ee.fault.tolerance.commands;
+
+import com.netflix.hystrix.KumuluzHystrixGenericCommand;
+import rx.Subscription;
+
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Execution of a command which can be hedged by starting additional executions of the same command. Result of the
+ * first successful execution completes the execution. Execution fails only after all started executions fail.
+ *
+ * @since 2.2.0
+ */
+public class HedgedExecution {
+
+    private final CompletableFuture<Object> result = new CompletableFuture<>();
+    private final AtomicInteger running = new AtomicInteger();
+    private final AtomicReference<KumuluzHystrixGenericCommand> completedCommand = new AtomicReference<>();
+    private final Map<KumuluzHystrixGenericCommand, Subscription> subscriptions = new ConcurrentHashMap<>();
+
+    public void start(KumuluzHystrixGenericCommand command) {
+
+        running.incrementAndGet();
+        subscribe(command);
+    }
+
+    /**
+     * Starts a hedged execution of the command, unless the execution has already completed or all started executions
+     * have failed in the meantime.
+     *
+     * @param command command to execute
+     * @return true if the hedged execution was started
+     */
+    public boolean startHedge(KumuluzHystrixGenericCommand command) {
+
+        int current;
+
+        do {
+            current = running.get();
+
+            if (current == 0 || result.isDone()) {
+                return false;
+            }
+        } while (!running.compareAndSet(current, current + 1));
+
+        subscribe(command);
+
+        return true;
+    }
+
+    private void subscribe(KumuluzHystrixGenericCommand command) {
+
+        Subscription subscription = command.toObservable().subscribe(
+                value -> {
+                    if (completedCommand.compareAndSet(null, command)) {
+                        result.complete(value);
+                    }
+                },
+                error -> {
+                    if (running.decrementAndGet() == 0 && completedCommand.compareAndSet(null, command)) {
+                        result.completeExceptionally(error);
+                    }
+                });
+
+        subscriptions.put(command, subscription);
+    }
+
+    /**
+     * Waits for the execution to complete.
+     *
+     * @param timeout timeout in nanoseconds
+     * @return true if execution completed within timeout
+     */
+    public boolean await(long timeout) throws InterruptedException {
+        try {
+            result.get(timeout, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            return false;
+        } catch (ExecutionException e) {
+            return true;
+        }
+
+        return true;
+    }
+
+    public Object get() throws InterruptedException, ExecutionException {
+        return result.get();
+    }
+
+    public KumuluzHystrixGenericCommand getCompletedCommand() {
+        return completedCommand.get();
+    }
+
+    /**
+     * Cancels all executions except the one which completed the execution.
+     */
+    public void cancel() {
+        subscriptions.forEach((command, subscription) -> {
+            if (command != completedCommand.get()) {
+                subscription.unsubscribe();
+                command.cancelExecution();
+            }
+        });
+    }
+}
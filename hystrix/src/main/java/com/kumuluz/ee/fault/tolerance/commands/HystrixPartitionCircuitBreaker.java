@@ -0,0 +1,185 @@
+/*
+ *  Copyright (c) 2014-2017 Kumuluz and/or its affiliates
+ *  and other contributors as indicated by the @author tags and
+ *  the contributor list.
+ *
+ *  Licensed under the MIT License (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://opensource.org/licenses/MIT
+ *
+ *  The software is provided "AS IS", WITHOUT WARRANTY OF ANY KIND, express or
+ *  implied, including but not limited to the warranties of merchantability,
+ *  fitness for a particular purpose and noninfringement. in no event shall the
+ *  authors or copyright holders be liable for any claim, damages or other
+ *  liability, whether in an action of contract, tort or otherwise, arising from,
+ *  out of or in connection with the software or the use or other dealings in the
+ *  software. See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.kumuluz.ee.fault.tolerance.commands;
+
+import com.kumuluz.ee.fault.tolerance.jfr.FaultToleranceEvents;
+import com.kumuluz.ee.fault.tolerance.metrics.CircuitBreakerMetricsCollection;
+import com.netflix.hystrix.HystrixCircuitBreaker;
+import com.netflix.hystrix.HystrixCommandProperties;
+import com.netflix.hystrix.util.HystrixRollingNumber;
+import com.netflix.hystrix.util.HystrixRollingNumberEvent;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Circuit breaker of a single partition of a keyed circuit breaker with {@link
+ * com.kumuluz.ee.fault.tolerance.enums.CircuitBreakerType#HYSTRIX} semantics.
+ *
+ * Default Hystrix circuit breaker reads health counts from command metrics, which are shared by all partitions of the
+ * command. This circuit breaker counts invocation results of its partition in its own rolling window instead, and
+ * otherwise behaves as the default Hystrix circuit breaker: circuit opens when error percentage in the rolling window
+ * reaches the threshold and a single trial invocation is allowed after the sleep window.
+ *
+ * @since 2.2.0
+ */
+class HystrixPartitionCircuitBreaker implements HystrixCircuitBreaker {
+
+    enum Status {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final HystrixCommandProperties properties;
+    private final String key;
+    private final String commandKey;
+    private final String groupKey;
+    private final CircuitBreakerMetricsCollection metricsCollection;
+
+    private final HystrixRollingNumber counts;
+    private final AtomicReference<Status> status = new AtomicReference<>(Status.CLOSED);
+    private final AtomicLong circuitOpened = new AtomicLong(-1);
+
+    private volatile boolean released = false;
+
+    HystrixPartitionCircuitBreaker(HystrixCommandProperties properties, String key, String commandKey,
+                                   String groupKey, CircuitBreakerMetricsCollection metricsCollection) {
+        this.properties = properties;
+        this.key = key;
+        this.commandKey = commandKey;
+        this.groupKey = groupKey;
+        this.metricsCollection = metricsCollection;
+        this.counts = new HystrixRollingNumber(properties.metricsRollingStatisticalWindowInMilliseconds(),
+                properties.metricsRollingStatisticalWindowBuckets());
+    }
+
+    @Override
+    public void markSuccess() {
+
+        if (released) {
+            return;
+        }
+
+        if (status.compareAndSet(Status.HALF_OPEN, Status.CLOSED)) {
+            counts.reset();
+            circuitOpened.set(-1);
+            FaultToleranceEvents.circuitBreakerStateChanged(commandKey, groupKey, key, Status.HALF_OPEN.name(),
+                    Status.CLOSED.name());
+        } else {
+            counts.increment(HystrixRollingNumberEvent.SUCCESS);
+        }
+    }
+
+    @Override
+    public void markNonSuccess() {
+
+        if (released) {
+            return;
+        }
+
+        if (status.compareAndSet(Status.HALF_OPEN, Status.OPEN)) {
+            // trial invocation failed, sleep window starts again
+            circuitOpened.set(System.currentTimeMillis());
+            FaultToleranceEvents.circuitBreakerStateChanged(commandKey, groupKey, key, Status.HALF_OPEN.name(),
+                    Status.OPEN.name());
+        } else {
+            counts.increment(HystrixRollingNumberEvent.FAILURE);
+            checkThresholds();
+        }
+    }
+
+    @Override
+    public boolean isOpen() {
+        if (properties.circuitBreakerForceOpen().get()) {
+            return true;
+        }
+        if (properties.circuitBreakerForceClosed().get()) {
+            return false;
+        }
+        return circuitOpened.get() >= 0;
+    }
+
+    /**
+     * Shouldn't matter, only used for Hystrix internal tests.
+     */
+    @Override
+    public boolean allowRequest() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean attemptExecution() {
+        if (properties.circuitBreakerForceOpen().get()) {
+            return false;
+        }
+        if (properties.circuitBreakerForceClosed().get()) {
+            return true;
+        }
+
+        long circuitOpenTime = circuitOpened.get();
+
+        if (circuitOpenTime < 0) {
+            return true;
+        }
+
+        // only a single trial invocation is allowed after the sleep window
+        if (System.currentTimeMillis() > circuitOpenTime + properties.circuitBreakerSleepWindowInMilliseconds().get()
+                && status.compareAndSet(Status.OPEN, Status.HALF_OPEN)) {
+            FaultToleranceEvents.circuitBreakerStateChanged(commandKey, groupKey, key, Status.OPEN.name(),
+                    Status.HALF_OPEN.name());
+
+            return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * Returns time in milliseconds at which the circuit was opened or -1 if circuit is closed.
+     */
+    long getCircuitOpenedTime() {
+        return circuitOpened.get();
+    }
+
+    /**
+     * Releases the circuit breaker. Released circuit breaker ignores all further invocation results.
+     */
+    void release() {
+        released = true;
+    }
+
+    private void checkThresholds() {
+        long failed = counts.getRollingSum(HystrixRollingNumberEvent.FAILURE);
+        long sum = failed + counts.getRollingSum(HystrixRollingNumberEvent.SUCCESS);
+
+        if (sum >= properties.circuitBreakerRequestVolumeThreshold().get() &&
+                failed * 100 >= sum * properties.circuitBreakerErrorThresholdPercentage().get()) {
+            if (status.compareAndSet(Status.CLOSED, Status.OPEN)) {
+                circuitOpened.set(System.currentTimeMillis());
+
+                if (metricsCollection != null) {
+                    metricsCollection.getOpened().inc();
+                }
+                FaultToleranceEvents.circuitBreakerStateChanged(commandKey, groupKey, key, Status.CLOSED.name(),
+                        Status.OPEN.name());
+            }
+        }
+    }
+}
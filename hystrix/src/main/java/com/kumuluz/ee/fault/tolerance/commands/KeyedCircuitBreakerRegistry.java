@@ -0,0 +1,336 @@
+/*
+ *  Copyright (c) 2014-2017 Kumuluz and/or its affiliates
+ *  and other contributors as indicated by the @author tags and
+ *  the contributor list.
+ *
+ *  Licensed under the MIT License (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://opensource.org/licenses/MIT
+ *
+ *  The software is provided "AS IS", WITHOUT WARRANTY OF ANY KIND, express or
+ *  implied, including but not limited to the warranties of merchantability,
+ *  fitness for a particular purpose and noninfringement. in no event shall the
+ *  authors or copyright holders be liable for any claim, damages or other
+ *  liability, whether in an action of contract, tort or otherwise, arising from,
+ *  out of or in connection with the software or the use or other dealings in the
+ *  software. See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.kumuluz.ee.fault.tolerance.commands;
+
+import com.kumuluz.ee.fault.tolerance.annotations.KeyedCircuitBreaker;
+import com.kumuluz.ee.fault.tolerance.enums.CircuitBreakerType;
+import com.kumuluz.ee.fault.tolerance.metrics.CircuitBreakerMetricsCollection;
+import com.kumuluz.ee.fault.tolerance.models.ExecutionMetadata;
+import com.netflix.hystrix.HystrixCircuitBreaker;
+import com.netflix.hystrix.HystrixCommandKey;
+import com.netflix.hystrix.HystrixCommandProperties;
+
+import java.time.Duration;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+
+/**
+ * Registry of circuit breaker partitions of a command annotated with {@link KeyedCircuitBreaker}.
+ *
+ * Partitions use the circuit breaker type of the command. Number of partitions is bounded. When the limit is
+ * exceeded, least recently used partitions are evicted in batches to amortize the cost of eviction. Partitions which
+ * were not used for longer than partition time to live are evicted periodically. Open partitions are not evicted
+ * before their sleep window elapses, since that would close their circuits.
+ *
+ * Open partitions which were open for the longest time are exported as gauges. Exported gauges are refreshed at most
+ * once per second while the command is invoked.
+ *
+ * @since 2.2.0
+ */
+public class KeyedCircuitBreakerRegistry {
+
+    private static final Logger log = Logger.getLogger(KeyedCircuitBreakerRegistry.class.getName());
+
+    private static final ConcurrentHashMap<String, KeyedCircuitBreakerRegistry> registries = new ConcurrentHashMap<>();
+
+    private static final long OPEN_PARTITION_METRICS_INTERVAL = TimeUnit.SECONDS.toNanos(1);
+
+    static final int MAX_OPEN_PARTITION_METRICS = 100;
+
+    private final String commandKey;
+    private final String groupKey;
+    private final HystrixCommandProperties properties;
+    private final Integer successThreshold;
+    private final boolean hystrixType;
+    private final CircuitBreakerMetricsCollection metricsCollection;
+
+    private final int maxPartitions;
+    private final long partitionTtl;
+    private final int openPartitionMetrics;
+
+    private final ConcurrentHashMap<String, Partition> partitions = new ConcurrentHashMap<>();
+    private final ReentrantLock evictionLock = new ReentrantLock();
+    private volatile long nextExpiration;
+
+    private final Set<String> exportedOpenPartitions = new HashSet<>();
+    private volatile long nextOpenPartitionMetricsUpdate;
+
+    private KeyedCircuitBreakerRegistry(String commandKey, HystrixCommandProperties properties,
+                                        ExecutionMetadata metadata,
+                                        CircuitBreakerMetricsCollection metricsCollection) {
+        KeyedCircuitBreaker keyedCircuitBreaker = metadata.getKeyedCircuitBreaker();
+
+        this.commandKey = commandKey;
+        this.groupKey = metadata.getGroupKey();
+        this.properties = properties;
+        this.successThreshold = metadata.getCircuitBreakerSuccessThreshold();
+        this.hystrixType = CircuitBreakerType.HYSTRIX.equals(metadata.getCircuitBreakerType());
+        this.metricsCollection = metricsCollection;
+
+        this.maxPartitions = Math.max(keyedCircuitBreaker.maxPartitions(), 1);
+        this.partitionTtl = keyedCircuitBreaker.partitionTtl() > 0 ?
+                Duration.of(keyedCircuitBreaker.partitionTtl(), keyedCircuitBreaker.partitionTtlUnit()).toNanos() : 0;
+        this.openPartitionMetrics = Math.min(Math.max(keyedCircuitBreaker.openPartitionMetrics(), 0),
+                MAX_OPEN_PARTITION_METRICS);
+        this.nextExpiration = System.nanoTime() + partitionTtl;
+        this.nextOpenPartitionMetricsUpdate = System.nanoTime();
+
+        if (hystrixType) {
+            CircuitBreakerStateExchangeManager.warnNotExchanged(commandKey);
+        }
+
+        if (keyedCircuitBreaker.openPartitionMetrics() > MAX_OPEN_PARTITION_METRICS) {
+            log.warning("Number of open partitions of command '" + commandKey + "' exported as metrics is limited " +
+                    "to " + MAX_OPEN_PARTITION_METRICS + ".");
+        }
+
+        if (metricsCollection != null) {
+            metricsCollection.registerPartitionsGauge(() -> (long) partitions.size());
+            metricsCollection.registerOpenPartitionsGauge(() -> partitions.values().stream()
+                    .filter(p -> p.getCircuitOpenedTime() >= 0)
+                    .count());
+        }
+    }
+
+    public static KeyedCircuitBreakerRegistry getInstance(HystrixCommandKey key, HystrixCommandProperties properties,
+                                                          ExecutionMetadata metadata,
+                                                          CircuitBreakerMetricsCollection metricsCollection) {
+        return registries.computeIfAbsent(key.name(),
+                k -> new KeyedCircuitBreakerRegistry(k, properties, metadata, metricsCollection));
+    }
+
+    /**
+     * Returns registry of circuit breaker partitions of the command, if command uses keyed circuit breaker and was
+     * already executed.
+     *
+     * @param commandKey Command key
+     * @return Keyed circuit breaker registry
+     */
+    public static Optional<KeyedCircuitBreakerRegistry> getInstance(String commandKey) {
+        return Optional.ofNullable(registries.get(commandKey));
+    }
+
+    /**
+     * Returns circuit breaker of the partition, creating it if partition does not exist.
+     *
+     * @param partitionKey Partition key
+     * @return Circuit breaker of the partition
+     */
+    public HystrixCircuitBreaker getCircuitBreaker(String partitionKey) {
+
+        long now = System.nanoTime();
+        Partition partition = partitions.get(partitionKey);
+
+        if (partition == null) {
+            partition = partitions.computeIfAbsent(partitionKey, this::createPartition);
+        }
+
+        partition.lastAccess = now;
+
+        if (partitions.size() > maxPartitions || (partitionTtl > 0 && now - nextExpiration >= 0)) {
+            evict(now);
+        }
+
+        if (metricsCollection != null && openPartitionMetrics > 0 && now - nextOpenPartitionMetricsUpdate >= 0) {
+            updateOpenPartitionMetrics(now);
+        }
+
+        return partition.circuitBreaker;
+    }
+
+    private Partition createPartition(String partitionKey) {
+
+        String key = commandKey + "#" + partitionKey;
+
+        if (hystrixType) {
+            HystrixPartitionCircuitBreaker circuitBreaker = new HystrixPartitionCircuitBreaker(properties, key,
+                    commandKey, groupKey, metricsCollection);
+
+            return new Partition(circuitBreaker, circuitBreaker::getCircuitOpenedTime, circuitBreaker::release);
+        }
+
+        SuccessThresholdCircuitBreaker circuitBreaker = SuccessThresholdCircuitBreaker.createPartition(properties, key,
+                commandKey, groupKey, successThreshold, metricsCollection);
+
+        return new Partition(circuitBreaker, circuitBreaker::getCircuitOpenedTime, circuitBreaker::release);
+    }
+
+    public int getPartitionCount() {
+        return partitions.size();
+    }
+
+    /**
+     * Returns keys of open partitions, ordered by the time the circuit was opened (longest open first).
+     *
+     * @param limit Maximum number of returned partition keys
+     * @return Keys of open partitions
+     */
+    public List<String> getOpenPartitions(int limit) {
+        return partitions.entrySet().stream()
+                .map(e -> new AbstractMap.SimpleImmutableEntry<>(e.getKey(), e.getValue().getCircuitOpenedTime()))
+                .filter(e -> e.getValue() >= 0)
+                .sorted(Map.Entry.comparingByValue())
+                .limit(limit)
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toList());
+    }
+
+    private void evict(long now) {
+
+        // only one thread evicts at a time, others proceed without waiting
+        if (!evictionLock.tryLock()) {
+            return;
+        }
+
+        try {
+            long sleepWindow = properties.circuitBreakerSleepWindowInMilliseconds().get();
+            long currentTime = System.currentTimeMillis();
+
+            if (partitionTtl > 0 && now - nextExpiration >= 0) {
+                partitions.forEach((k, p) -> {
+                    if (now - p.lastAccess > partitionTtl && !p.isInSleepWindow(currentTime, sleepWindow)) {
+                        removePartition(k);
+                    }
+                });
+                nextExpiration = now + partitionTtl / 2;
+            }
+
+            int excess = partitions.size() - maxPartitions;
+
+            if (excess <= 0) {
+                return;
+            }
+
+            // last access times are copied, since they change while sorting
+            List<Map.Entry<String, Long>> accessTimes = new ArrayList<>(partitions.size());
+            partitions.forEach((k, p) -> {
+                if (!p.isInSleepWindow(currentTime, sleepWindow)) {
+                    accessTimes.add(new AbstractMap.SimpleImmutableEntry<>(k, p.lastAccess));
+                }
+            });
+
+            int evictCount = Math.min(Math.max(excess, maxPartitions / 10), accessTimes.size());
+
+            accessTimes.stream()
+                    .sorted(Comparator.comparingLong(e -> e.getValue() - now))
+                    .limit(evictCount)
+                    .forEach(e -> removePartition(e.getKey()));
+
+            if (evictCount < excess) {
+                // limit is exceeded until sleep windows of open partitions elapse
+                log.fine("Circuit breaker partitions of command '" + commandKey + "' exceed the limit of " +
+                        maxPartitions + ", since open partitions are not evicted.");
+            }
+
+            log.finest("Evicted " + evictCount + " circuit breaker partitions of command '" + commandKey + "'.");
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    private void removePartition(String partitionKey) {
+
+        Partition partition = partitions.remove(partitionKey);
+
+        // state of evicted partition is released, so its slot can be reused by new partitions
+        if (partition != null) {
+            partition.release.run();
+        }
+    }
+
+    /**
+     * Exports partitions open for the longest time as gauges and removes gauges of partitions which are no longer among
+     * them.
+     */
+    private void updateOpenPartitionMetrics(long now) {
+
+        if (!evictionLock.tryLock()) {
+            return;
+        }
+
+        try {
+            nextOpenPartitionMetricsUpdate = now + OPEN_PARTITION_METRICS_INTERVAL;
+
+            Set<String> openPartitions = new HashSet<>(getOpenPartitions(openPartitionMetrics));
+
+            exportedOpenPartitions.removeIf(partitionKey -> {
+                if (!openPartitions.contains(partitionKey)) {
+                    metricsCollection.removeOpenPartitionGauge(partitionKey);
+                    return true;
+                }
+                return false;
+            });
+
+            for (String partitionKey : openPartitions) {
+                if (!exportedOpenPartitions.contains(partitionKey) &&
+                        metricsCollection.registerOpenPartitionGauge(partitionKey, () -> {
+                            Partition partition = partitions.get(partitionKey);
+                            long openedTime = (partition == null) ? -1 : partition.getCircuitOpenedTime();
+
+                            return openedTime < 0 ? 0 : System.currentTimeMillis() - openedTime;
+                        })) {
+                    exportedOpenPartitions.add(partitionKey);
+                }
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    private static class Partition {
+
+        private final HystrixCircuitBreaker circuitBreaker;
+        private final LongSupplier circuitOpenedTime;
+        private final Runnable release;
+        private volatile long lastAccess;
+
+        Partition(HystrixCircuitBreaker circuitBreaker, LongSupplier circuitOpenedTime, Runnable release) {
+            this.circuitBreaker = circuitBreaker;
+            this.circuitOpenedTime = circuitOpenedTime;
+            this.release = release;
+        }
+
+        long getCircuitOpenedTime() {
+            return circuitOpenedTime.getAsLong();
+        }
+
+        /**
+         * Returns true if the circuit is open and its sleep window has not yet elapsed.
+         */
+        boolean isInSleepWindow(long currentTime, long sleepWindow) {
+            long openedTime = getCircuitOpenedTime();
+
+            return openedTime >= 0 && currentTime <= openedTime + sleepWindow;
+        }
+    }
+}
@@ -0,0 +1,183 @@
+/*
+ *  Copyright (c) 2014-2017 Kumuluz and/or its affiliates
+ *  and other contributors as indicated by the @author tags and
+ *  the contributor list.
+ *
+ *  Licensed under the MIT License (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://opensource.org/licenses/MIT
+ *
+ *  The software is provided "AS IS", WITHOUT WARRANTY OF ANY KIND, express or
+ *  implied, including but not limited to the warranties of merchantability,
+ *  fitness for a particular purpose and noninfringement. in no event shall the
+ *  authors or copyright holders be liable for any claim, damages or other
+ *  liability, whether in an action of contract, tort or otherwise, arising from,
+ *  out of or in connection with the software or the use or other dealings in the
+ *  software. See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.kumuluz.ee.fault.tolerance.commands;
+
+import com.kumuluz.ee.fault.tolerance.metrics.BatchMetricsCollection;
+import com.kumuluz.ee.fault.tolerance.models.ExecutionMetadata;
+import com.netflix.hystrix.HystrixCollapser;
+import com.netflix.hystrix.HystrixCollapserKey;
+import com.netflix.hystrix.HystrixCommand;
+import com.netflix.hystrix.KumuluzHystrixGenericCommand;
+import org.eclipse.microprofile.faulttolerance.exceptions.FaultToleranceException;
+import org.jboss.weld.context.RequestContext;
+
+import javax.interceptor.InvocationContext;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+
+/**
+ * Hystrix collapser merging concurrent invocations of a method annotated with
+ * {@link com.kumuluz.ee.fault.tolerance.annotations.Batch} into a single invocation of its batch method.
+ *
+ * Batch method is executed within {@link KumuluzHystrixGenericCommand} using the command key of the intercepted
+ * method, so circuit breaker, timeout and bulkhead configuration of the command are applied to the batch.
+ *
+ * Collapser is global and Hystrix keeps using the first collapser instance created for the command key to create batch
+ * commands. The instance therefore holds no state of its own, command configuration and metadata are carried by each
+ * collapsed request and taken from the requests of the current batch. Batches are executed on the target instance of
+ * the collapsed requests, so {@link com.kumuluz.ee.fault.tolerance.annotations.Batch} is only allowed on beans with a
+ * single instance (see {@link com.kumuluz.ee.fault.tolerance.utils.DeploymentValidator}).
+ *
+ * @since 2.2.0
+ */
+public class KumuluzHystrixBatchCollapser extends HystrixCollapser<Object, Object,
+        KumuluzHystrixBatchCollapser.BatchRequest> {
+
+    private static final Logger log = Logger.getLogger(KumuluzHystrixBatchCollapser.class.getName());
+
+    private final BatchRequest batchRequest;
+
+    public KumuluzHystrixBatchCollapser(HystrixCommandConfiguration configuration, InvocationContext invocationContext,
+                                        RequestContext requestContext, ExecutionMetadata metadata) {
+
+        super(Setter.withCollapserKey(HystrixCollapserKey.Factory.asKey(configuration.getCommandKey().name()))
+                .andScope(Scope.GLOBAL));
+
+        this.batchRequest = new BatchRequest(configuration, invocationContext, requestContext, metadata);
+    }
+
+    @Override
+    public BatchRequest getRequestArgument() {
+        return batchRequest;
+    }
+
+    @Override
+    protected HystrixCommand<Object> createCommand(Collection<CollapsedRequest<Object, BatchRequest>> requests) {
+
+        BatchRequest template = requests.iterator().next().getArgument();
+        ExecutionMetadata metadata = template.getMetadata();
+        BatchMetricsCollection batchMetricsCollection = metadata
+                .getBatchMetricsCollection(template.getInvocationContext().getMethod().getName())
+                .orElse(null);
+
+        log.finest("Collapsing " + requests.size() + " requests for command '" + metadata.getCommandKey() + "'.");
+
+        long batchStartTime = System.nanoTime();
+        List<Object> arguments = new ArrayList<>(requests.size());
+
+        for (CollapsedRequest<Object, BatchRequest> request : requests) {
+            arguments.add(request.getArgument().getArgument());
+
+            if (batchMetricsCollection != null) {
+                batchMetricsCollection.getWindowDuration()
+                        .update(batchStartTime - request.getArgument().getQueuedTime());
+            }
+        }
+
+        if (batchMetricsCollection != null) {
+            batchMetricsCollection.getBatchesTotal().inc();
+            batchMetricsCollection.getBatchSize().update(requests.size());
+        }
+
+        BatchInvocationContext batchInvocationContext = new BatchInvocationContext(template.getInvocationContext(),
+                metadata.getBatchMethod(), arguments);
+
+        return new KumuluzHystrixGenericCommand(template.getConfiguration(), batchInvocationContext,
+                template.getRequestContext(), metadata);
+    }
+
+    @Override
+    protected void mapResponseToRequests(Object batchResponse,
+                                         Collection<CollapsedRequest<Object, BatchRequest>> requests) {
+
+        if (batchResponse instanceof Map) {
+            Map<?, ?> responseMap = (Map<?, ?>) batchResponse;
+
+            for (CollapsedRequest<Object, BatchRequest> request : requests) {
+                request.setResponse(responseMap.get(request.getArgument().getArgument()));
+            }
+        } else if (batchResponse instanceof List && ((List<?>) batchResponse).size() == requests.size()) {
+            List<?> responseList = (List<?>) batchResponse;
+
+            int i = 0;
+            for (CollapsedRequest<Object, BatchRequest> request : requests) {
+                request.setResponse(responseList.get(i++));
+            }
+        } else {
+            String msg = "Batch method for command '" +
+                    requests.iterator().next().getArgument().getMetadata().getCommandKey() + "' returned a result " +
+                    "which could not be mapped to " + requests.size() + " requests.";
+            log.severe(msg);
+
+            for (CollapsedRequest<Object, BatchRequest> request : requests) {
+                request.setException(new FaultToleranceException(msg));
+            }
+        }
+    }
+
+    /**
+     * Single invocation collected into a batch.
+     */
+    public static class BatchRequest {
+
+        private final HystrixCommandConfiguration configuration;
+        private final InvocationContext invocationContext;
+        private final RequestContext requestContext;
+        private final ExecutionMetadata metadata;
+        private final long queuedTime;
+
+        BatchRequest(HystrixCommandConfiguration configuration, InvocationContext invocationContext,
+                     RequestContext requestContext, ExecutionMetadata metadata) {
+            this.configuration = configuration;
+            this.invocationContext = invocationContext;
+            this.requestContext = requestContext;
+            this.metadata = metadata;
+            this.queuedTime = System.nanoTime();
+        }
+
+        public HystrixCommandConfiguration getConfiguration() {
+            return configuration;
+        }
+
+        public InvocationContext getInvocationContext() {
+            return invocationContext;
+        }
+
+        public RequestContext getRequestContext() {
+            return requestContext;
+        }
+
+        public ExecutionMetadata getMetadata() {
+            return metadata;
+        }
+
+        public Object getArgument() {
+            return invocationContext.getParameters()[0];
+        }
+
+        public long getQueuedTime() {
+            return queuedTime;
+        }
+    }
+}
@@ -0,0 +1,492 @@
+/*
+ *  Copyright (c) 2014-2017 Kumuluz and/or its affiliates
+ *  and other contributors as indicated by the @author tags and
+ *  the contributor list.
+ *
+ *  Licensed under the MIT License (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://opensource.org/licenses/MIT
+ *
+ *  The software is provided "AS IS", WITHOUT WARRANTY OF ANY KIND, express or
+ *  implied, including but not limited to the warranties of merchantability,
+ *  fitness for a particular purpose and noninfringement. in no event shall the
+ *  authors or copyright holders be liable for any claim, damages or other
+ *  liability, whether in an action of contract, tort or otherwise, arising from,
+ *  out of or in connection with the software or the use or other dealings in the
+ *  software. See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.kumuluz.ee.fault.tolerance.commands;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
+
+/**
+ * Implementation of {@link CircuitBreakerStateStore} backed by a memory-mapped file, which preserves state of circuit
+ * breakers across restarts. When the file is placed in shared memory (e.g. {@code /dev/shm}), circuit breakers with the
+ * same key share state across all processes on the host which map the file.
+ *
+ * Slots are updated in place with atomic operations on the mapped memory, so state transitions do not require any
+ * system calls. Since the operations are lock-free, a circuit breaker opened by one process short-circuits executions
+ * in all other processes immediately. Slots are assigned to circuit breaker keys with an open addressing hash table
+ * stored in the file. If the table is full or the key is longer than {@value #KEY_BYTES} bytes, state of the circuit
+ * breaker is kept on heap.
+ *
+ * A slot is claimed before its key is written. Claim of a process which crashed before completing it is taken over
+ * after {@value #CLAIM_TIMEOUT} ms.
+ *
+ * Every store holds a shared lock on the file while it is mapped. The first store mapping the file, when no other
+ * process is using it, discards state of circuit breakers which did not change their state for longer than max age.
+ * State in use by other processes is never discarded. The time of the last change is only updated by writes other
+ * than counter increments ({@link #addAndGet(int, int, long)}), which circuit breakers use for state transitions, so
+ * counting executions does not read the clock.
+ *
+ * State of partitions of keyed circuit breakers is kept on heap, since their keys are unbounded and slots in the file
+ * are never released.
+ *
+ * The file is created readable and writable only by its owner (or also by its group, if group access is enabled).
+ * Existing files which are symbolic links or accessible by other users are rejected.
+ *
+ * @since 2.2.0
+ */
+public class MappedCircuitBreakerStateStore implements CircuitBreakerStateStore {
+
+    private static final Logger log = Logger.getLogger(MappedCircuitBreakerStateStore.class.getName());
+
+    private static final long MAGIC = 0x4b5a4654434253L;
+    private static final int VERSION = 2;
+
+    private static final int HEADER_SIZE = 64;
+    private static final int MAGIC_OFFSET = 0;
+    private static final int VERSION_OFFSET = 8;
+    private static final int FIELDS_OFFSET = 12;
+    private static final int CAPACITY_OFFSET = 16;
+
+    private static final int KEY_STATE_OFFSET = 0;
+    private static final int KEY_HASH_OFFSET = 8;
+    private static final int LAST_UPDATE_OFFSET = 16;
+    private static final int KEY_LENGTH_OFFSET = 24;
+    private static final int KEY_BYTES_OFFSET = 28;
+    static final int KEY_BYTES = 228;
+    private static final int SLOT_HEADER_SIZE = KEY_BYTES_OFFSET + KEY_BYTES;
+
+    // key state of an empty slot is 0, claimed slots hold negated time in milliseconds at which they were claimed
+    private static final long KEY_READY = 1;
+
+    static final long CLAIM_TIMEOUT = 1000;
+
+    // locked regions lie beyond the mapped size, so that mandatory locks do not affect access to the mapping
+    private static final long INIT_LOCK_POSITION = Long.MAX_VALUE - 2;
+    private static final long USERS_LOCK_POSITION = Long.MAX_VALUE - 1;
+
+    private final int fields;
+    private final int capacity;
+    private final int slotSize;
+    private final long maxAge;
+
+    // mapped buffer is referenced to prevent unmapping while the store is in use
+    private final MappedByteBuffer buffer;
+    private final long address;
+
+    // channel is kept open to hold the users lock while the file is mapped
+    private final FileChannel channel;
+    private final FileLock usersLock;
+
+    private final ConcurrentHashMap<String, Integer> slots = new ConcurrentHashMap<>();
+    private final HeapCircuitBreakerStateStore overflowStore;
+    private volatile boolean overflowReported = false;
+
+    /**
+     * Creates store with the file accessible only by its owner.
+     *
+     * @param file     Mapped file
+     * @param fields   Number of long fields in a slot
+     * @param capacity Maximum number of slots stored in the file
+     * @param maxAge   Maximum age of the state restored from the file
+     * @param shared   Whether the file is shared with other processes
+     * @throws IOException if file cannot be mapped
+     * @throws UnsupportedOperationException if atomic operations on mapped memory are not supported by the JVM
+     */
+    public MappedCircuitBreakerStateStore(File file, int fields, int capacity, Duration maxAge, boolean shared)
+            throws IOException {
+        this(file, fields, capacity, maxAge, shared, false);
+    }
+
+    /**
+     * @param file        Mapped file
+     * @param fields      Number of long fields in a slot
+     * @param capacity    Maximum number of slots stored in the file
+     * @param maxAge      Maximum age of the state restored from the file
+     * @param shared      Whether the file is shared with other processes
+     * @param groupAccess Whether the file is also accessible by the group of its owner
+     * @throws IOException if file cannot be mapped
+     * @throws UnsupportedOperationException if atomic operations on mapped memory are not supported by the JVM
+     */
+    public MappedCircuitBreakerStateStore(File file, int fields, int capacity, Duration maxAge, boolean shared,
+                                          boolean groupAccess) throws IOException {
+
+        MappedMemory.checkAvailable();
+
+        this.fields = fields;
+        this.capacity = capacity;
+        this.slotSize = SLOT_HEADER_SIZE + fields * 8;
+        this.maxAge = maxAge.toMillis();
+        this.overflowStore = new HeapCircuitBreakerStateStore(fields);
+
+        long size = HEADER_SIZE + (long) capacity * slotSize;
+
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("Circuit breaker state file " + file + " would exceed 2 GB, capacity " + capacity +
+                    " is too large.");
+        }
+
+        createFile(file.toPath(), groupAccess);
+
+        RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+        this.channel = randomAccessFile.getChannel();
+
+        try {
+            // file is only locked exclusively while it is initialized
+            try (FileLock ignored = channel.lock(INIT_LOCK_POSITION, 1, false)) {
+                ByteBuffer header = readHeader(channel);
+                boolean initialized = header != null && header.getLong(MAGIC_OFFSET) == MAGIC;
+                boolean compatible = initialized && randomAccessFile.length() == size &&
+                        header.getInt(VERSION_OFFSET) == VERSION &&
+                        header.getInt(FIELDS_OFFSET) == fields &&
+                        header.getInt(CAPACITY_OFFSET) == capacity;
+
+                // other processes may be using the file, it cannot be reinitialized
+                if (shared && initialized && !compatible) {
+                    throw new IOException("Circuit breaker state file " + file + " is shared with a different " +
+                            "layout (version, fields or capacity).");
+                }
+
+                this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+                this.buffer.order(ByteOrder.nativeOrder());
+                this.address = MappedMemory.address(buffer);
+
+                if (!compatible) {
+                    log.info("Initializing circuit breaker state file " + file + ".");
+
+                    for (int offset = 0; offset < size; offset += 8) {
+                        buffer.putLong(offset, 0);
+                    }
+                    buffer.putInt(VERSION_OFFSET, VERSION);
+                    buffer.putInt(FIELDS_OFFSET, fields);
+                    buffer.putInt(CAPACITY_OFFSET, capacity);
+                    MappedMemory.putLongVolatile(address + MAGIC_OFFSET, MAGIC);
+                }
+
+                FileLock exclusiveUsersLock;
+                try {
+                    exclusiveUsersLock = channel.tryLock(USERS_LOCK_POSITION, 1, false);
+                } catch (OverlappingFileLockException e) {
+                    // file is already mapped by another store in this JVM, which holds the users lock
+                    exclusiveUsersLock = null;
+                }
+
+                if (exclusiveUsersLock != null) {
+                    // no other process is using the file, state is restored after a restart
+                    if (compatible) {
+                        discardExpired();
+                    }
+
+                    exclusiveUsersLock.release();
+                    this.usersLock = channel.lock(USERS_LOCK_POSITION, 1, true);
+                } else {
+                    this.usersLock = null;
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Releases the users lock and closes the file. Used by tests to simulate a restart.
+     */
+    void close() throws IOException {
+        if (usersLock != null) {
+            usersLock.release();
+        }
+        channel.close();
+    }
+
+    private static void createFile(Path path, boolean groupAccess) throws IOException {
+
+        Set<PosixFilePermission> permissions = PosixFilePermissions.fromString(groupAccess ? "rw-rw----" : "rw-------");
+        Path directory = path.toAbsolutePath().getParent();
+
+        try {
+            if (directory != null && !Files.isDirectory(directory)) {
+                Files.createDirectories(directory, PosixFilePermissions.asFileAttribute(
+                        PosixFilePermissions.fromString(groupAccess ? "rwxrwx---" : "rwx------")));
+            }
+
+            // permissions are set after the file is created, since they are otherwise reduced by the umask
+            Files.createFile(path, PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rw-------")));
+            Files.setPosixFilePermissions(path, permissions);
+        } catch (FileAlreadyExistsException e) {
+            // file was created by another process or before a restart, its permissions are checked below
+        } catch (UnsupportedOperationException e) {
+            // file system does not support POSIX permissions
+            if (directory != null) {
+                Files.createDirectories(directory);
+            }
+            return;
+        }
+
+        if (Files.isSymbolicLink(path)) {
+            throw new IOException("Circuit breaker state file " + path + " is a symbolic link.");
+        }
+
+        Set<PosixFilePermission> current = Files.getPosixFilePermissions(path, LinkOption.NOFOLLOW_LINKS);
+
+        if (current.contains(PosixFilePermission.OTHERS_READ) || current.contains(PosixFilePermission.OTHERS_WRITE)) {
+            throw new IOException("Circuit breaker state file " + path + " is accessible by other users.");
+        }
+    }
+
+    private static ByteBuffer readHeader(FileChannel channel) throws IOException {
+
+        if (channel.size() < HEADER_SIZE) {
+            return null;
+        }
+
+        // header is written with native byte order through the mapping
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.nativeOrder());
+
+        while (header.hasRemaining() && channel.read(header, header.position()) >= 0) {
+            // read until header is complete
+        }
+
+        return header;
+    }
+
+    @Override
+    public int allocate(String key) {
+        return slots.computeIfAbsent(key, this::findSlot);
+    }
+
+    /**
+     * Slots of partitions are allocated on heap and reused once released.
+     */
+    @Override
+    public int allocatePartition(String key) {
+        return capacity + overflowStore.allocate(key);
+    }
+
+    /**
+     * State kept in the file is not released, so it is restored if circuit breaker with the same key is created again.
+     */
+    @Override
+    public void release(int slot, Object owner) {
+        if (slot >= capacity) {
+            overflowStore.release(slot - capacity, owner);
+        }
+    }
+
+    @Override
+    public long get(int slot, int field) {
+        if (slot >= capacity) {
+            return overflowStore.get(slot - capacity, field);
+        }
+
+        return MappedMemory.getLongVolatile(fieldAddress(slot, field));
+    }
+
+    @Override
+    public void set(int slot, int field, long value) {
+        if (slot >= capacity) {
+            overflowStore.set(slot - capacity, field, value);
+            return;
+        }
+
+        MappedMemory.putLongVolatile(fieldAddress(slot, field), value);
+        markUpdated(slot);
+    }
+
+    @Override
+    public long getAndSet(int slot, int field, long value) {
+        if (slot >= capacity) {
+            return overflowStore.getAndSet(slot - capacity, field, value);
+        }
+
+        long previous = MappedMemory.getAndSetLong(fieldAddress(slot, field), value);
+        markUpdated(slot);
+
+        return previous;
+    }
+
+    @Override
+    public boolean compareAndSet(int slot, int field, long expect, long update) {
+        if (slot >= capacity) {
+            return overflowStore.compareAndSet(slot - capacity, field, expect, update);
+        }
+
+        boolean updated = MappedMemory.compareAndSwapLong(fieldAddress(slot, field), expect, update);
+
+        if (updated) {
+            markUpdated(slot);
+        }
+
+        return updated;
+    }
+
+    @Override
+    public long addAndGet(int slot, int field, long delta) {
+        if (slot >= capacity) {
+            return overflowStore.addAndGet(slot - capacity, field, delta);
+        }
+
+        return MappedMemory.getAndAddLong(fieldAddress(slot, field), delta) + delta;
+    }
+
+    /**
+     * Returns true if the slot is stored in the mapped file.
+     */
+    boolean isMapped(int slot) {
+        return slot < capacity;
+    }
+
+    private int findSlot(String key) {
+
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+
+        // keys are compared in full, longer keys cannot be stored in the file
+        if (keyBytes.length > KEY_BYTES) {
+            log.warning("Key of circuit breaker '" + key + "' is longer than " + KEY_BYTES + " bytes, its state " +
+                    "will not be persisted.");
+
+            return capacity + overflowStore.allocate(key);
+        }
+
+        long hash = CircuitBreakerStateStore.hashKey(key);
+        int start = (int) ((hash & Long.MAX_VALUE) % capacity);
+
+        for (int i = 0; i < capacity; i++) {
+            int slot = (start + i) % capacity;
+            int slotOffset = slotOffset(slot);
+            long keyState;
+
+            // keys are never stored beyond a claimed slot, so no other slot can be assigned to the same key
+            while ((keyState = awaitClaim(slotOffset)) != KEY_READY) {
+                // slot is empty or its claim was abandoned
+                if (MappedMemory.compareAndSwapLong(address + slotOffset + KEY_STATE_OFFSET, keyState,
+                        -System.currentTimeMillis())) {
+                    buffer.putLong(slotOffset + KEY_HASH_OFFSET, hash);
+                    buffer.putInt(slotOffset + KEY_LENGTH_OFFSET, keyBytes.length);
+                    for (int b = 0; b < keyBytes.length; b++) {
+                        buffer.put(slotOffset + KEY_BYTES_OFFSET + b, keyBytes[b]);
+                    }
+                    // abandoned claim may have left partially written state
+                    for (int field = 0; field < fields; field++) {
+                        MappedMemory.putLongVolatile(fieldAddress(slot, field), 0);
+                    }
+                    MappedMemory.putLongVolatile(address + slotOffset + LAST_UPDATE_OFFSET,
+                            System.currentTimeMillis());
+                    MappedMemory.putLongVolatile(address + slotOffset + KEY_STATE_OFFSET, KEY_READY);
+
+                    return slot;
+                }
+            }
+
+            if (matches(slotOffset, hash, keyBytes)) {
+                return slot;
+            }
+        }
+
+        if (!overflowReported) {
+            overflowReported = true;
+            log.warning("Circuit breaker state file is full, state of circuit breaker '" + key + "' and " +
+                    "circuit breakers created afterwards will not be persisted.");
+        }
+
+        return capacity + overflowStore.allocate(key);
+    }
+
+    /**
+     * Waits until the key of a claimed slot is written. Returns the claim if it was not completed within the timeout,
+     * process which claimed the slot has crashed in that case.
+     */
+    private long awaitClaim(int slotOffset) {
+
+        long keyState;
+
+        while ((keyState = MappedMemory.getLongVolatile(address + slotOffset + KEY_STATE_OFFSET)) < 0 &&
+                System.currentTimeMillis() + keyState <= CLAIM_TIMEOUT) {
+            Thread.yield();
+        }
+
+        return keyState;
+    }
+
+    private boolean matches(int slotOffset, long hash, byte[] keyBytes) {
+
+        if (buffer.getLong(slotOffset + KEY_HASH_OFFSET) != hash ||
+                buffer.getInt(slotOffset + KEY_LENGTH_OFFSET) != keyBytes.length) {
+            return false;
+        }
+
+        for (int b = 0; b < keyBytes.length; b++) {
+            if (buffer.get(slotOffset + KEY_BYTES_OFFSET + b) != keyBytes[b]) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Called only while no other process is using the file, keys of the slots are kept.
+     */
+    private void discardExpired() {
+
+        long now = System.currentTimeMillis();
+
+        for (int slot = 0; slot < capacity; slot++) {
+            long slotAddress = address + slotOffset(slot);
+
+            if (MappedMemory.getLongVolatile(slotAddress + KEY_STATE_OFFSET) == KEY_READY &&
+                    now - MappedMemory.getLongVolatile(slotAddress + LAST_UPDATE_OFFSET) > maxAge) {
+                for (int field = 0; field < fields; field++) {
+                    MappedMemory.putLongVolatile(fieldAddress(slot, field), 0);
+                }
+                MappedMemory.putLongVolatile(slotAddress + LAST_UPDATE_OFFSET, now);
+            }
+        }
+    }
+
+    private void markUpdated(int slot) {
+        MappedMemory.putOrderedLong(address + slotOffset(slot) + LAST_UPDATE_OFFSET, System.currentTimeMillis());
+    }
+
+    private int slotOffset(int slot) {
+        return HEADER_SIZE + slot * slotSize;
+    }
+
+    private long fieldAddress(int slot, int field) {
+        return address + slotOffset(slot) + SLOT_HEADER_SIZE + field * 8L;
+    }
+}
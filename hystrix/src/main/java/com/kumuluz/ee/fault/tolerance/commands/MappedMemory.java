@@ -0,0 +1,179 @@
+/*
+ *  Copyright (c) 2014-2017 Kumuluz and/or its affiliates
+ *  and other contributors as indicated by the @author tags and
+ *  the contributor list.
+ *
+ *  Licensed under the MIT License (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://opensource.org/licenses/MIT
+ *
+ *  The software is provided "AS IS", WITHOUT WARRANTY OF ANY KIND, express or
+ *  implied, including but not limited to the warranties of merchantability,
+ *  fitness for a particular purpose and noninfringement. in no event shall the
+ *  authors or copyright holders be liable for any claim, damages or other
+ *  liability, whether in an action of contract, tort or otherwise, arising from,
+ *  out of or in connection with the software or the use or other dealings in the
+ *  software. See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.kumuluz.ee.fault.tolerance.commands;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.nio.Buffer;
+
+/**
+ * Atomic operations on memory of a mapped file. Java 8 offers no atomic operations on buffers, so the operations are
+ * delegated to {@code sun.misc.Unsafe}. It is looked up reflectively and invoked through method handles, so there is
+ * no compile-time dependency on internal API. Method handles are held in static final fields, which the JIT compiles
+ * as direct calls.
+ *
+ * If {@code sun.misc.Unsafe} is not available, {@link #checkAvailable()} reports the cause instead of the class failing
+ * to initialize.
+ *
+ * @since 2.2.0
+ */
+final class MappedMemory {
+
+    private static final Throwable UNAVAILABLE_CAUSE;
+
+    private static final MethodHandle GET_LONG_VOLATILE;
+    private static final MethodHandle PUT_LONG_VOLATILE;
+    private static final MethodHandle PUT_ORDERED_LONG;
+    private static final MethodHandle COMPARE_AND_SWAP_LONG;
+    private static final MethodHandle GET_AND_ADD_LONG;
+    private static final MethodHandle GET_AND_SET_LONG;
+    private static final MethodHandle GET_BUFFER_ADDRESS;
+
+    static {
+        MethodHandle getLongVolatile = null;
+        MethodHandle putLongVolatile = null;
+        MethodHandle putOrderedLong = null;
+        MethodHandle compareAndSwapLong = null;
+        MethodHandle getAndAddLong = null;
+        MethodHandle getAndSetLong = null;
+        MethodHandle getBufferAddress = null;
+        Throwable unavailableCause = null;
+
+        try {
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            Field unsafeField = unsafeClass.getDeclaredField("theUnsafe");
+            unsafeField.setAccessible(true);
+            Object unsafe = unsafeField.get(null);
+
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            MethodType getType = MethodType.methodType(long.class, Object.class, long.class);
+            MethodType putType = MethodType.methodType(void.class, Object.class, long.class, long.class);
+            MethodType updateType = MethodType.methodType(long.class, Object.class, long.class, long.class);
+
+            getLongVolatile = lookup.findVirtual(unsafeClass, "getLongVolatile", getType).bindTo(unsafe);
+            putLongVolatile = lookup.findVirtual(unsafeClass, "putLongVolatile", putType).bindTo(unsafe);
+            putOrderedLong = lookup.findVirtual(unsafeClass, "putOrderedLong", putType).bindTo(unsafe);
+            compareAndSwapLong = lookup.findVirtual(unsafeClass, "compareAndSwapLong", MethodType.methodType(
+                    boolean.class, Object.class, long.class, long.class, long.class)).bindTo(unsafe);
+            getAndAddLong = lookup.findVirtual(unsafeClass, "getAndAddLong", updateType).bindTo(unsafe);
+            getAndSetLong = lookup.findVirtual(unsafeClass, "getAndSetLong", updateType).bindTo(unsafe);
+
+            long addressOffset = (long) lookup.findVirtual(unsafeClass, "objectFieldOffset",
+                    MethodType.methodType(long.class, Field.class))
+                    .invoke(unsafe, Buffer.class.getDeclaredField("address"));
+            getBufferAddress = MethodHandles.insertArguments(
+                    lookup.findVirtual(unsafeClass, "getLong", getType).bindTo(unsafe), 1, addressOffset);
+        } catch (Throwable e) {
+            unavailableCause = e;
+        }
+
+        GET_LONG_VOLATILE = getLongVolatile;
+        PUT_LONG_VOLATILE = putLongVolatile;
+        PUT_ORDERED_LONG = putOrderedLong;
+        COMPARE_AND_SWAP_LONG = compareAndSwapLong;
+        GET_AND_ADD_LONG = getAndAddLong;
+        GET_AND_SET_LONG = getAndSetLong;
+        GET_BUFFER_ADDRESS = getBufferAddress;
+        UNAVAILABLE_CAUSE = unavailableCause;
+    }
+
+    private MappedMemory() {
+    }
+
+    /**
+     * @throws UnsupportedOperationException if atomic operations on mapped memory are not supported by the JVM
+     */
+    static void checkAvailable() {
+        if (UNAVAILABLE_CAUSE != null) {
+            throw new UnsupportedOperationException("Atomic operations on mapped memory are not supported: " +
+                    UNAVAILABLE_CAUSE, UNAVAILABLE_CAUSE);
+        }
+    }
+
+    static long address(Buffer buffer) {
+        try {
+            return (long) GET_BUFFER_ADDRESS.invokeExact((Object) buffer);
+        } catch (Throwable e) {
+            throw propagate(e);
+        }
+    }
+
+    static long getLongVolatile(long address) {
+        try {
+            return (long) GET_LONG_VOLATILE.invokeExact((Object) null, address);
+        } catch (Throwable e) {
+            throw propagate(e);
+        }
+    }
+
+    static void putLongVolatile(long address, long value) {
+        try {
+            PUT_LONG_VOLATILE.invokeExact((Object) null, address, value);
+        } catch (Throwable e) {
+            throw propagate(e);
+        }
+    }
+
+    static void putOrderedLong(long address, long value) {
+        try {
+            PUT_ORDERED_LONG.invokeExact((Object) null, address, value);
+        } catch (Throwable e) {
+            throw propagate(e);
+        }
+    }
+
+    static boolean compareAndSwapLong(long address, long expect, long update) {
+        try {
+            return (boolean) COMPARE_AND_SWAP_LONG.invokeExact((Object) null, address, expect, update);
+        } catch (Throwable e) {
+            throw propagate(e);
+        }
+    }
+
+    static long getAndAddLong(long address, long delta) {
+        try {
+            return (long) GET_AND_ADD_LONG.invokeExact((Object) null, address, delta);
+        } catch (Throwable e) {
+            throw propagate(e);
+        }
+    }
+
+    static long getAndSetLong(long address, long value) {
+        try {
+            return (long) GET_AND_SET_LONG.invokeExact((Object) null, address, value);
+        } catch (Throwable e) {
+            throw propagate(e);
+        }
+    }
+
+    private static RuntimeException propagate(Throwable e) {
+        if (e instanceof RuntimeException) {
+            throw (RuntimeException) e;
+        }
+        if (e instanceof Error) {
+            throw (Error) e;
+        }
+
+        throw new IllegalStateException(e);
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ *  Copyright (c) 2014-2017 Kumuluz and/or its affiliates
+ *  and other contributors as indicated by the @author tags and
+ *  the contributor list.
+ *
+ *  Licensed under the MIT License (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://opensource.org/licenses/MIT
+ *
+ *  The software is provided "AS IS", WITHOUT WARRANTY OF ANY KIND, express or
+ *  implied, including but not limited to the warranties of merchantability,
+ *  fitness for a particular purpose and noninfringement. in no event shall the
+ *  authors or copyright holders be liable for any claim, damages or other
+ *  liability, whether in an action of contract, tort or otherwise, arising from,
+ *  out of or in connection with the software or the use or other dealings in the
+ *  software. See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.kumuluz.ee.fault.tolerance.commands;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free rate limiter implementing the generic cell rate algorithm (GCRA). The whole state of the limiter is the
+ * theoretical arrival time of the next execution, held in a single {@link AtomicLong}.
+ *
+ * @since 2.2.0
+ */
+public class RateLimiter {
+
+    private final AtomicLong theoreticalArrivalTime;
+
+    private int permits;
+    private long windowInNanos;
+
+    private volatile long emissionIntervalInNanos;
+    private volatile long burstToleranceInNanos;
+    private volatile long maxWaitInNanos;
+
+    public RateLimiter(int permits, long windowInNanos, long maxWaitInNanos) {
+        this.theoreticalArrivalTime = new AtomicLong(System.nanoTime());
+
+        this.permits = permits;
+        this.windowInNanos = windowInNanos;
+        this.maxWaitInNanos = maxWaitInNanos;
+
+        updateEmissionInterval();
+    }
+
+    /**
+     * Acquires a permit for execution.
+     *
+     * @return time in nanoseconds the execution needs to wait before proceeding or -1 if the execution is rejected
+     */
+    public long acquire() {
+
+        long emissionInterval = emissionIntervalInNanos;
+        long burstTolerance = burstToleranceInNanos;
+        long maxWait = maxWaitInNanos;
+        long now = System.nanoTime();
+
+        while (true) {
+            long tat = theoreticalArrivalTime.get();
+            long base = tat - now > 0 ? tat : now;
+            long wait = base - burstTolerance - now;
+
+            if (wait > maxWait) {
+                return -1;
+            }
+
+            if (theoreticalArrivalTime.compareAndSet(tat, base + emissionInterval)) {
+                return wait > 0 ? wait : 0;
+            }
+        }
+    }
+
+    public synchronized void setPermits(int permits) {
+        this.permits = permits;
+
+        updateEmissionInterval();
+    }
+
+    public synchronized void setWindowInNanos(long windowInNanos) {
+        this.windowInNanos = windowInNanos;
+
+        updateEmissionInterval();
+    }
+
+    public void setMaxWaitInNanos(long maxWaitInNanos) {
+        this.maxWaitInNanos = maxWaitInNanos;
+    }
+
+    private synchronized void updateEmissionInterval() {
+        long previousEmissionInterval = emissionIntervalInNanos;
+        long emissionInterval = Math.max(windowInNanos / Math.max(permits, 1), 1);
+
+        // burst of all permits within the window is allowed
+        this.emissionIntervalInNanos = emissionInterval;
+        this.burstToleranceInNanos = Math.max(windowInNanos - emissionInterval, 0);
+
+        if (previousEmissionInterval > 0 && previousEmissionInterval != emissionInterval) {
+            rescaleTheoreticalArrivalTime((double) emissionInterval / previousEmissionInterval);
+        }
+    }
+
+    /**
+     * Converts permits already taken to the new emission interval, so that a changed limit applies immediately
+     * instead of after the executions admitted under the previous limit are paid off.
+     */
+    private void rescaleTheoreticalArrivalTime(double factor) {
+        while (true) {
+            long now = System.nanoTime();
+            long tat = theoreticalArrivalTime.get();
+
+            if (tat - now <= 0 || theoreticalArrivalTime.compareAndSet(tat, now + (long) ((tat - now) * factor))) {
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,268 @@
+/*
+ *  Copyright (c) 2014-2017 Kumuluz and/or its affiliates
+ *  and other contributors as indicated by the @author tags and
+ *  the contributor list.
+ *
+ *  Licensed under the MIT License (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://opensource.org/licenses/MIT
+ *
+ *  The software is provided "AS IS", WITHOUT WARRANTY OF ANY KIND, express or
+ *  implied, including but not limited to the warranties of merchantability,
+ *  fitness for a particular purpose and noninfringement. in no event shall the
+ *  authors or copyright holders be liable for any claim, damages or other
+ *  liability, whether in an action of contract, tort or otherwise, arising from,
+ *  out of or in connection with the software or the use or other dealings in the
+ *  software. See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.kumuluz.ee.fault.tolerance.commands;
+
+import org.eclipse.microprofile.faulttolerance.exceptions.FaultToleranceException;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscription;
+import rx.Observable;
+import rx.Producer;
+import rx.Subscriber;
+import rx.subscriptions.Subscriptions;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Converts between reactive return types of intercepted methods and RxJava 1 {@link Observable}, used by Hystrix.
+ * Demand of the subscriber is propagated in both directions, so backpressure is preserved.
+ *
+ * @since 2.2.0
+ */
+public class ReactiveConverters {
+
+    private static final Map<Class<?>, Function<Publisher<Object>, Object>> PUBLISHER_ADAPTERS =
+            new ConcurrentHashMap<>();
+
+    private ReactiveConverters() {
+    }
+
+    /**
+     * Converts value returned by intercepted method to {@link Observable}.
+     *
+     * @param value {@link Observable} or {@link Publisher} returned by the method
+     * @return Observable emitting the items of the value
+     */
+    @SuppressWarnings("unchecked")
+    public static Observable<Object> toObservable(Object value) {
+
+        if (value instanceof Observable) {
+            return (Observable<Object>) value;
+        }
+
+        if (value instanceof Publisher) {
+            return Observable.create(new PublisherOnSubscribe((Publisher<Object>) value));
+        }
+
+        if (value == null) {
+            return Observable.error(new FaultToleranceException("Method returned null instead of a reactive type."));
+        }
+
+        return Observable.error(new FaultToleranceException("Reactive type " + value.getClass().getName() +
+                " is not supported."));
+    }
+
+    /**
+     * Converts {@link Observable} to the return type of intercepted method.
+     *
+     * @param observable Observable to convert
+     * @param returnType Return type of the method
+     * @return Instance of the return type emitting the items of the observable
+     */
+    public static Object fromObservable(Observable<Object> observable, Class<?> returnType) {
+
+        if (returnType.isAssignableFrom(Observable.class)) {
+            return observable;
+        }
+
+        Publisher<Object> publisher = new ObservablePublisher(observable);
+
+        if (returnType.isAssignableFrom(Publisher.class)) {
+            return publisher;
+        }
+
+        return PUBLISHER_ADAPTERS.computeIfAbsent(returnType, ReactiveConverters::findPublisherAdapter)
+                .apply(publisher);
+    }
+
+    /**
+     * Finds a factory method of the reactive type creating an instance from {@link Publisher}, e.g.
+     * {@code Flux.from(Publisher)}, {@code Flowable.fromPublisher(Publisher)} or
+     * {@code Multi.createFrom().publisher(Publisher)}.
+     */
+    private static Function<Publisher<Object>, Object> findPublisherAdapter(Class<?> returnType) {
+
+        for (String factoryName : new String[]{"fromPublisher", "from"}) {
+            try {
+                Method factory = returnType.getMethod(factoryName, Publisher.class);
+
+                if (Modifier.isStatic(factory.getModifiers()) &&
+                        returnType.isAssignableFrom(factory.getReturnType())) {
+                    return publisher -> invoke(factory, null, publisher);
+                }
+            } catch (NoSuchMethodException ignored) {
+            }
+        }
+
+        try {
+            Method createFrom = returnType.getMethod("createFrom");
+            Method factory = createFrom.getReturnType().getMethod("publisher", Publisher.class);
+
+            if (Modifier.isStatic(createFrom.getModifiers()) &&
+                    returnType.isAssignableFrom(factory.getReturnType())) {
+                return publisher -> invoke(factory, invoke(createFrom, null), publisher);
+            }
+        } catch (NoSuchMethodException ignored) {
+        }
+
+        return publisher -> {
+            throw new FaultToleranceException("Reactive type " + returnType.getName() + " cannot be created from " +
+                    "a Publisher.");
+        };
+    }
+
+    private static Object invoke(Method method, Object target, Object... arguments) {
+        try {
+            return method.invoke(target, arguments);
+        } catch (IllegalAccessException | InvocationTargetException e) {
+            throw new FaultToleranceException("Could not convert Publisher with " + method.getName() + ".", e);
+        }
+    }
+
+    /**
+     * Subscribes to the publisher when the observable is subscribed, forwarding requests of the subscriber.
+     */
+    private static class PublisherOnSubscribe implements Observable.OnSubscribe<Object> {
+
+        private final Publisher<Object> publisher;
+
+        PublisherOnSubscribe(Publisher<Object> publisher) {
+            this.publisher = publisher;
+        }
+
+        @Override
+        public void call(Subscriber<? super Object> child) {
+
+            publisher.subscribe(new org.reactivestreams.Subscriber<Object>() {
+
+                @Override
+                public void onSubscribe(Subscription subscription) {
+                    child.add(Subscriptions.create(subscription::cancel));
+
+                    if (child.isUnsubscribed()) {
+                        return;
+                    }
+
+                    child.setProducer((Producer) n -> {
+                        if (n > 0) {
+                            subscription.request(n);
+                        }
+                    });
+                }
+
+                @Override
+                public void onNext(Object item) {
+                    child.onNext(item);
+                }
+
+                @Override
+                public void onError(Throwable throwable) {
+                    child.onError(throwable);
+                }
+
+                @Override
+                public void onComplete() {
+                    child.onCompleted();
+                }
+            });
+        }
+    }
+
+    /**
+     * Publisher subscribing to the observable, items are requested from the observable on demand of the subscriber.
+     */
+    private static class ObservablePublisher implements Publisher<Object> {
+
+        private final Observable<Object> observable;
+
+        ObservablePublisher(Observable<Object> observable) {
+            this.observable = observable;
+        }
+
+        @Override
+        public void subscribe(org.reactivestreams.Subscriber<? super Object> subscriber) {
+
+            DemandSubscriber demandSubscriber = new DemandSubscriber(subscriber);
+
+            subscriber.onSubscribe(new Subscription() {
+
+                @Override
+                public void request(long n) {
+                    if (n <= 0) {
+                        demandSubscriber.unsubscribe();
+                        subscriber.onError(new IllegalArgumentException("Number of requested items must be " +
+                                "positive, requested " + n + "."));
+                        return;
+                    }
+
+                    demandSubscriber.requestMore(n);
+                }
+
+                @Override
+                public void cancel() {
+                    demandSubscriber.unsubscribe();
+                }
+            });
+
+            if (!demandSubscriber.isUnsubscribed()) {
+                observable.unsafeSubscribe(demandSubscriber);
+            }
+        }
+    }
+
+    private static class DemandSubscriber extends Subscriber<Object> {
+
+        private final org.reactivestreams.Subscriber<? super Object> subscriber;
+
+        DemandSubscriber(org.reactivestreams.Subscriber<? super Object> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        public void onStart() {
+            // nothing is emitted until requested by the subscriber
+            request(0);
+        }
+
+        void requestMore(long n) {
+            request(n);
+        }
+
+        @Override
+        public void onNext(Object item) {
+            subscriber.onNext(item);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            subscriber.onError(throwable);
+        }
+
+        @Override
+        public void onCompleted() {
+            subscriber.onComplete();
+        }
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ *  Copyright (c) 2014-2017 Kumuluz and/or its affiliates
+ *  and other contributors as indicated by the @author tags and
+ *  the contributor list.
+ *
+ *  Licensed under the MIT License (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://opensource.org/licenses/MIT
+ *
+ *  The software is provided "AS IS", WITHOUT WARRANTY OF ANY KIND, express or
+ *  implied, including but not limited to the warranties of merchantability,
+ *  fitness for a particular purpose and noninfringement. in no event shall the
+ *  authors or copyright holders be liable for any claim, damages or other
+ *  liability, whether in an action of contract, tort or otherwise, arising from,
+ *  out of or in connection with the software or the use or other dealings in the
+ *  software. See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.kumuluz.ee.fault.tolerance.commands;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Assigns request cache keys to invocation arguments. Hystrix request cache is keyed by strings, while two invocations
+ * share a cached result only if their arguments are equal. Each distinct list of arguments is therefore assigned a
+ * sequential key, with arguments compared using {@link Arrays#deepEquals(Object[], Object[])}.
+ *
+ * A single instance is kept per request, so the arguments are retained only until the request completes.
+ *
+ * @since 2.2.0
+ */
+public class RequestCacheKeys {
+
+    private final ConcurrentHashMap<Arguments, String> keys = new ConcurrentHashMap<>();
+    private final AtomicLong nextKey = new AtomicLong();
+
+    /**
+     * Returns the cache key of the arguments. Equal arguments are always assigned the same key.
+     *
+     * @param parameters Invocation arguments
+     * @return Cache key
+     */
+    public String getKey(Object[] parameters) {
+        return keys.computeIfAbsent(new Arguments(parameters), a -> Long.toString(nextKey.getAndIncrement()));
+    }
+
+    private static class Arguments {
+
+        private final Object[] parameters;
+        private final int hash;
+
+        private Arguments(Object[] parameters) {
+            this.parameters = parameters.clone();
+            this.hash = Arrays.deepHashCode(this.parameters);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Arguments)) {
+                return false;
+            }
+
+            Arguments arguments = (Arguments) o;
+
+            return hash == arguments.hash && Arrays.deepEquals(parameters, arguments.parameters);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
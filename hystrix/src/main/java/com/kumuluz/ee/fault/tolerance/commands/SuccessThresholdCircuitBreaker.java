@@ -20,61 +20,114 @@
  */
 package com.kumuluz.ee.fault.tolerance.commands;
 
+import com.kumuluz.ee.configuration.utils.ConfigurationUtil;
 import com.kumuluz.ee.fault.tolerance.enums.CircuitBreakerType;
+import com.kumuluz.ee.fault.tolerance.jfr.FaultToleranceEvents;
 import com.kumuluz.ee.fault.tolerance.metrics.CircuitBreakerMetricsCollection;
 import com.kumuluz.ee.fault.tolerance.models.ExecutionMetadata;
+import com.kumuluz.ee.fault.tolerance.utils.FaultToleranceHelper;
 import com.netflix.hystrix.*;
 
+import java.io.File;
 import java.time.Duration;
-import java.time.Instant;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicLong;
-import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
 
 /**
  * Circuit breaker with support for success threshold.
  *
- * Adapted from {@link com.netflix.hystrix.HystrixCircuitBreaker.HystrixCircuitBreakerImpl}.
+ * Adapted from {@link com.netflix.hystrix.HystrixCircuitBreaker.HystrixCircuitBreakerImpl}. State of the circuit
+ * breaker is kept in a slot of {@link CircuitBreakerStateStore}, circuit breaker itself is only a thin view over it.
  *
  * @author Urban Malc
  * @since 1.1.0
  */
 public class SuccessThresholdCircuitBreaker implements HystrixCircuitBreaker {
 
-    private final HystrixCommandProperties properties;
+    private static final Logger log = Logger.getLogger(SuccessThresholdCircuitBreaker.class.getName());
 
-    private final AtomicReference<Status> status = new AtomicReference<>(Status.CLOSED);
-    private final AtomicLong circuitOpened = new AtomicLong(-1);
+    // layout of the circuit breaker slot in state store
+    static final int STATUS = 0;
+    static final int CIRCUIT_OPENED = 1;
+    static final int SUCCESSFUL_INVOCATIONS = 2;
+    static final int FAILED_INVOCATIONS = 3;
+    static final int HALF_OPEN_INVOCATIONS = 4;
+    static final int PREVIOUS_CHANGE_TIME = 5;
+    static final int TIME_SPENT_CLOSED = 6;
+    static final int TIME_SPENT_OPEN = 7;
+    static final int TIME_SPENT_HALF_OPEN = 8;
+    static final int FIELDS = 9;
 
-    private int successThreshold;
-    private CircuitBreakerMetricsCollection metricsCollection;
+    private final HystrixCommandProperties properties;
+    private final CircuitBreakerStateStore stateStore;
+    private final int slot;
+    private final String key;
+    private final long keyHash;
+    private final String commandKey;
+    private final String groupKey;
 
-    private AtomicLong remainingHalfOpenInvocations = new AtomicLong(successThreshold);
-    private AtomicLong successfulInvocations = new AtomicLong(0);
-    private AtomicLong failedInvocations = new AtomicLong(0);
+    private final int successThreshold;
+    private final CircuitBreakerMetricsCollection metricsCollection;
 
-    private Map<Status, AtomicLong> timeSpentInStatus;
-    private Instant previousChangeTime;
+    private volatile boolean released = false;
 
-    private SuccessThresholdCircuitBreaker(HystrixCommandProperties properties, Integer successThreshold,
+    private SuccessThresholdCircuitBreaker(HystrixCommandProperties properties, String key, String groupKey,
+                                           Integer successThreshold,
                                            CircuitBreakerMetricsCollection metricsCollection) {
+        this(properties, key, key, groupKey, successThreshold, metricsCollection, false);
+    }
+
+    private SuccessThresholdCircuitBreaker(HystrixCommandProperties properties, String key, String commandKey,
+                                           String groupKey, Integer successThreshold,
+                                           CircuitBreakerMetricsCollection metricsCollection,
+                                           boolean partition) {
         this.properties = properties;
+        this.stateStore = CustomCbFactory.getStateStore();
+        this.slot = partition ? stateStore.allocatePartition(key) : stateStore.allocate(key);
+        this.key = key;
+        this.keyHash = CircuitBreakerStateStore.hashKey(key);
+        this.commandKey = commandKey;
+        this.groupKey = groupKey;
         this.successThreshold = (successThreshold == null) ? 1 : successThreshold;
         this.metricsCollection = metricsCollection;
 
-        this.timeSpentInStatus = new HashMap<>(Status.values().length);
-        this.timeSpentInStatus.put(Status.CLOSED, new AtomicLong(0L));
-        this.timeSpentInStatus.put(Status.OPEN, new AtomicLong(0L));
-        this.timeSpentInStatus.put(Status.HALF_OPEN, new AtomicLong(0L));
-        this.previousChangeTime = Instant.now();
+        stateStore.compareAndSet(slot, PREVIOUS_CHANGE_TIME, 0, currentTimeNanos());
+
+        // trial executions of a restored half-open circuit will never complete, allow new ones
+        if (getStatus().equals(Status.HALF_OPEN)) {
+            stateStore.set(slot, HALF_OPEN_INVOCATIONS, 0);
+        }
 
-        if (metricsCollection != null) {
+        if (metricsCollection != null && !partition) {
             metricsCollection.registerClosedGauge(() -> getTimeSpentInStatus(Status.CLOSED));
             metricsCollection.registerOpenGauge(() -> getTimeSpentInStatus(Status.OPEN));
             metricsCollection.registerHalfOpenGauge(() -> getTimeSpentInStatus(Status.HALF_OPEN));
         }
+
+        CircuitBreakerStateExchangeManager.register(keyHash, this);
+    }
+
+    /**
+     * Creates circuit breaker of a single partition of a keyed circuit breaker. Partition circuit breakers share
+     * metrics collection of the command, but do not register gauges of their own. State of partitions is not
+     * persisted.
+     *
+     * @param properties        Command properties
+     * @param key               Key of the partition
+     * @param commandKey        Command key
+     * @param groupKey          Group key
+     * @param successThreshold  Success threshold
+     * @param metricsCollection Circuit breaker metrics collection of the command
+     * @return Partition circuit breaker
+     */
+    static SuccessThresholdCircuitBreaker createPartition(HystrixCommandProperties properties, String key,
+                                                          String commandKey, String groupKey,
+                                                          Integer successThreshold,
+                                                          CircuitBreakerMetricsCollection metricsCollection) {
+        return new SuccessThresholdCircuitBreaker(properties, key, commandKey, groupKey, successThreshold,
+                metricsCollection, true);
     }
 
     enum Status {
@@ -84,15 +137,20 @@ public class SuccessThresholdCircuitBreaker implements HystrixCircuitBreaker {
     @Override
     public void markSuccess() {
 
-        if (successfulInvocations.incrementAndGet() == successThreshold && !this.status.get().equals(Status.CLOSED)) {
+        if (released) {
+            return;
+        }
+
+        if (stateStore.addAndGet(slot, SUCCESSFUL_INVOCATIONS, 1) == successThreshold &&
+                !getStatus().equals(Status.CLOSED)) {
             //This thread wins the race to close the circuit
-            circuitOpened.set(-1L);
+            stateStore.set(slot, CIRCUIT_OPENED, 0);
 
-            Status previousStatus = this.status.getAndSet(Status.CLOSED);
-            this.successfulInvocations.set(0);
-            this.failedInvocations.set(0);
-            this.remainingHalfOpenInvocations.set(successThreshold);
-            this.markStatusChange(previousStatus);
+            Status previousStatus = Status.values()[(int) stateStore.getAndSet(slot, STATUS,
+                    Status.CLOSED.ordinal())];
+            resetInvocations();
+            this.markStatusChange(previousStatus, Status.CLOSED);
+            CircuitBreakerStateExchangeManager.publish(keyHash, false, System.currentTimeMillis());
         }
 
         checkThresholds(); // required because of late success while request volume not reached yet
@@ -101,17 +159,23 @@ public class SuccessThresholdCircuitBreaker implements HystrixCircuitBreaker {
     @Override
     public void markNonSuccess() {
 
-        if (status.compareAndSet(Status.HALF_OPEN, Status.OPEN)) {
+        if (released) {
+            return;
+        }
+
+        if (compareAndSetStatus(Status.HALF_OPEN, Status.OPEN)) {
             //This thread wins the race to re-open the circuit - it resets the start time for the sleep window
-            circuitOpened.set(System.currentTimeMillis());
-            this.successfulInvocations.set(0);
-            this.failedInvocations.set(0);
-            this.remainingHalfOpenInvocations.set(successThreshold);
+            long openedTime = System.currentTimeMillis();
+            stateStore.set(slot, CIRCUIT_OPENED, openedTime);
+            resetInvocations();
 
-            this.metricsCollection.getOpened().inc();
-            this.markStatusChange(Status.HALF_OPEN);
+            if (this.metricsCollection != null) {
+                this.metricsCollection.getOpened().inc();
+            }
+            this.markStatusChange(Status.HALF_OPEN, Status.OPEN);
+            CircuitBreakerStateExchangeManager.publish(keyHash, true, openedTime);
         } else {
-            this.failedInvocations.incrementAndGet();
+            stateStore.addAndGet(slot, FAILED_INVOCATIONS, 1);
             checkThresholds();
         }
     }
@@ -124,7 +188,7 @@ public class SuccessThresholdCircuitBreaker implements HystrixCircuitBreaker {
         if (properties.circuitBreakerForceClosed().get()) {
             return false;
         }
-        return circuitOpened.get() >= 0;
+        return stateStore.get(slot, CIRCUIT_OPENED) != 0;
     }
 
     /**
@@ -135,29 +199,28 @@ public class SuccessThresholdCircuitBreaker implements HystrixCircuitBreaker {
         throw new UnsupportedOperationException();
     }
 
-    private boolean isAfterSleepWindow() {
-        final long circuitOpenTime = circuitOpened.get();
+    private boolean isAfterSleepWindow(long circuitOpenTime) {
         final long currentTime = System.currentTimeMillis();
         final long sleepWindowTime = properties.circuitBreakerSleepWindowInMilliseconds().get();
         return currentTime > circuitOpenTime + sleepWindowTime;
     }
 
     private void checkThresholds() {
-        long failed = this.failedInvocations.get();
-        long sum = failed + this.successfulInvocations.get();
+        long failed = stateStore.get(slot, FAILED_INVOCATIONS);
+        long sum = failed + stateStore.get(slot, SUCCESSFUL_INVOCATIONS);
 
         if (sum >= this.properties.circuitBreakerRequestVolumeThreshold().get() &&
                 (double) failed / sum >= (double) this.properties.circuitBreakerErrorThresholdPercentage().get() / 100) {
-            if (status.compareAndSet(Status.CLOSED, Status.OPEN)) {
-                circuitOpened.set(System.currentTimeMillis());
-                this.failedInvocations.set(0);
-                this.successfulInvocations.set(0);
-                this.remainingHalfOpenInvocations.set(successThreshold);
+            if (compareAndSetStatus(Status.CLOSED, Status.OPEN)) {
+                long openedTime = System.currentTimeMillis();
+                stateStore.set(slot, CIRCUIT_OPENED, openedTime);
+                resetInvocations();
 
                 if (this.metricsCollection != null) {
                     this.metricsCollection.getOpened().inc();
-                    this.markStatusChange(Status.CLOSED);
                 }
+                this.markStatusChange(Status.CLOSED, Status.OPEN);
+                CircuitBreakerStateExchangeManager.publish(keyHash, true, openedTime);
             }
         }
     }
@@ -170,40 +233,189 @@ public class SuccessThresholdCircuitBreaker implements HystrixCircuitBreaker {
         if (properties.circuitBreakerForceClosed().get()) {
             return true;
         }
-        if (circuitOpened.get() == -1) {
+
+        long circuitOpenTime = stateStore.get(slot, CIRCUIT_OPENED);
+
+        if (circuitOpenTime == 0) {
             return true;
         } else {
-            if (isAfterSleepWindow()) {
+            if (isAfterSleepWindow(circuitOpenTime)) {
+                if (compareAndSetStatus(Status.OPEN, Status.HALF_OPEN)) {
+                    this.markStatusChange(Status.OPEN, Status.HALF_OPEN);
+                }
+
                 //only the first few requests after sleep window should execute
                 //if the executing command succeeds, the status will transition to CLOSED
                 //if the executing command fails, the status will transition to OPEN
                 //if the executing command gets unsubscribed, the status will transition to OPEN
-                return this.remainingHalfOpenInvocations.decrementAndGet() >= 0;
+                return stateStore.addAndGet(slot, HALF_OPEN_INVOCATIONS, 1) <= successThreshold;
             } else {
                 return false;
             }
         }
     }
 
-    private void markStatusChange(Status previous) {
-        Instant changeTime = Instant.now();
-        this.timeSpentInStatus.get(previous).addAndGet(Duration.between(this.previousChangeTime, changeTime).toNanos());
-        this.previousChangeTime = changeTime;
+    /**
+     * Returns time in milliseconds at which the circuit was opened or -1 if circuit is closed.
+     */
+    long getCircuitOpenedTime() {
+        long circuitOpenTime = stateStore.get(slot, CIRCUIT_OPENED);
+
+        return circuitOpenTime == 0 ? -1 : circuitOpenTime;
+    }
+
+    /**
+     * Opens a closed circuit because the circuit of the same command was opened on another node. Transition is not
+     * published back to the exchange.
+     *
+     * @param openedTime Time in milliseconds at which the circuit was opened on the other node
+     * @return true if the circuit was opened
+     */
+    boolean adoptRemoteOpen(long openedTime) {
+
+        if (released || properties.circuitBreakerForceClosed().get() || !isWithinSleepWindow(openedTime)) {
+            return false;
+        }
+
+        if (compareAndSetStatus(Status.CLOSED, Status.OPEN)) {
+            stateStore.set(slot, CIRCUIT_OPENED, openedTime);
+            resetInvocations();
+
+            if (this.metricsCollection != null) {
+                this.metricsCollection.getOpened().inc();
+            }
+            this.markStatusChange(Status.CLOSED, Status.OPEN);
+
+            return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * Returns true if the sleep window of a circuit opened at the given time has not yet elapsed.
+     */
+    boolean isWithinSleepWindow(long openedTime) {
+        return !isAfterSleepWindow(openedTime);
+    }
+
+    /**
+     * Releases the state of the circuit breaker. Released circuit breaker ignores all further invocation results. Its
+     * slot is reused only after the circuit breaker is no longer referenced by any executing command.
+     */
+    void release() {
+        if (!released) {
+            released = true;
+            CircuitBreakerStateExchangeManager.unregister(keyHash, this);
+            stateStore.release(slot, this);
+        }
+    }
+
+    private Status getStatus() {
+        return Status.values()[(int) stateStore.get(slot, STATUS)];
+    }
+
+    private boolean compareAndSetStatus(Status expect, Status update) {
+        return stateStore.compareAndSet(slot, STATUS, expect.ordinal(), update.ordinal());
+    }
+
+    private void resetInvocations() {
+        stateStore.set(slot, SUCCESSFUL_INVOCATIONS, 0);
+        stateStore.set(slot, FAILED_INVOCATIONS, 0);
+        stateStore.set(slot, HALF_OPEN_INVOCATIONS, 0);
+    }
+
+    private void markStatusChange(Status previous, Status current) {
+        long changeTime = currentTimeNanos();
+        long previousChangeTime = stateStore.getAndSet(slot, PREVIOUS_CHANGE_TIME, changeTime);
+
+        stateStore.addAndGet(slot, timeSpentField(previous), changeTime - previousChangeTime);
+
+        FaultToleranceEvents.circuitBreakerStateChanged(commandKey, groupKey, key, previous.name(), current.name());
     }
 
     private Long getTimeSpentInStatus(Status status) {
-        long time = this.timeSpentInStatus.get(status).get();
-        if (this.status.get().equals(status)) {
-            time += Duration.between(this.previousChangeTime, Instant.now()).toNanos();
+        long time = stateStore.get(slot, timeSpentField(status));
+        if (getStatus().equals(status)) {
+            time += currentTimeNanos() - stateStore.get(slot, PREVIOUS_CHANGE_TIME);
         }
 
         return time;
     }
 
+    private static int timeSpentField(Status status) {
+        switch (status) {
+            case OPEN:
+                return TIME_SPENT_OPEN;
+            case HALF_OPEN:
+                return TIME_SPENT_HALF_OPEN;
+            default:
+                return TIME_SPENT_CLOSED;
+        }
+    }
+
+    private static long currentTimeNanos() {
+        return TimeUnit.MILLISECONDS.toNanos(System.currentTimeMillis());
+    }
+
     public static class CustomCbFactory extends Factory {
         // String is HystrixCommandKey.name() (we can't use HystrixCommandKey directly as we can't guarantee it implements hashcode/equals correctly)
         private static ConcurrentHashMap<String, HystrixCircuitBreaker> circuitBreakersByCommand = new ConcurrentHashMap<>();
 
+        private static final String STATE_CONFIG_PREFIX = "kumuluzee.fault-tolerance.hystrix.circuit-breaker-state.";
+        private static final int DEFAULT_STATE_CAPACITY = 4096;
+        private static final Duration DEFAULT_STATE_MAX_AGE = Duration.ofMinutes(5);
+
+        private static volatile CircuitBreakerStateStore stateStore;
+
+        static CircuitBreakerStateStore getStateStore() {
+            if (stateStore == null) {
+                synchronized (CustomCbFactory.class) {
+                    if (stateStore == null) {
+                        stateStore = createStateStore();
+                    }
+                }
+            }
+
+            return stateStore;
+        }
+
+        private static CircuitBreakerStateStore createStateStore() {
+
+            ConfigurationUtil configurationUtil = ConfigurationUtil.getInstance();
+            boolean shared = configurationUtil.getBoolean(STATE_CONFIG_PREFIX + "shared").orElse(false);
+            boolean groupAccess = configurationUtil.getBoolean(STATE_CONFIG_PREFIX + "group-access").orElse(false);
+            Optional<String> path = configurationUtil.get(STATE_CONFIG_PREFIX + "path");
+
+            if (!path.isPresent()) {
+                if (shared) {
+                    log.warning("Sharing of circuit breaker state requires " + STATE_CONFIG_PREFIX + "path to be " +
+                            "set, state will be kept on heap.");
+                }
+
+                return new HeapCircuitBreakerStateStore(FIELDS);
+            }
+
+            int capacity = configurationUtil.getInteger(STATE_CONFIG_PREFIX + "capacity")
+                    .orElse(DEFAULT_STATE_CAPACITY);
+            Duration maxAge = configurationUtil.get(STATE_CONFIG_PREFIX + "max-age")
+                    .map(FaultToleranceHelper::parseDuration)
+                    .orElse(DEFAULT_STATE_MAX_AGE);
+
+            try {
+                log.info((shared ? "Sharing" : "Persisting") + " circuit breaker state using " + path.get() + ".");
+
+                return new MappedCircuitBreakerStateStore(new File(path.get()), FIELDS, capacity, maxAge, shared,
+                        groupAccess);
+            } catch (Exception | LinkageError e) {
+                // circuit breakers must remain usable even if the JVM does not support mapped state
+                log.warning("Circuit breaker state file " + path.get() + " could not be mapped, state will be " +
+                        "kept on heap: " + e);
+
+                return new HeapCircuitBreakerStateStore(FIELDS);
+            }
+        }
+
         /**
          * Get the {@link HystrixCircuitBreaker} instance for a given {@link HystrixCommandKey}.
          * <p>
@@ -234,22 +446,18 @@ public class SuccessThresholdCircuitBreaker implements HystrixCircuitBreaker {
 
             // if we get here this is the first time so we need to initialize
 
-            // Create and add to the map ... use putIfAbsent to atomically handle the possible race-condition of
-            // 2 threads hitting this point at the same time and let ConcurrentHashMap provide us our thread-safety
-            // If 2 threads hit here only one will get added and the other will get a non-null response instead.
-            HystrixCircuitBreaker instance = (metadata.getCircuitBreakerType().equals(CircuitBreakerType.HYSTRIX)) ?
-                    Factory.getInstance(key, group, properties, metrics) :
-                    new SuccessThresholdCircuitBreaker(properties, metadata.getCircuitBreakerSuccessThreshold(),
-                            metricsCollection);
-            HystrixCircuitBreaker cbForCommand = circuitBreakersByCommand.putIfAbsent(mapKey, instance);
-            if (cbForCommand == null) {
-                // this means the putIfAbsent step just created a new one so let's retrieve and return it
-                return circuitBreakersByCommand.get(mapKey);
-            } else {
-                // this means a race occurred and while attempting to 'put' another one got there before
-                // and we instead retrieved it and will now return it
-                return cbForCommand;
-            }
+            // circuit breaker allocates a state slot and registers gauges and exchange listener when constructed, so
+            // only one instance may ever be constructed per command, computeIfAbsent guarantees that
+            return circuitBreakersByCommand.computeIfAbsent(mapKey, k -> {
+                if (metadata.getCircuitBreakerType().equals(CircuitBreakerType.HYSTRIX)) {
+                    CircuitBreakerStateExchangeManager.warnNotExchanged(k);
+
+                    return Factory.getInstance(key, group, properties, metrics);
+                }
+
+                return new SuccessThresholdCircuitBreaker(properties, k, group.name(),
+                        metadata.getCircuitBreakerSuccessThreshold(), metricsCollection);
+            });
         }
     }
 }
@@ -0,0 +1,474 @@
+/*
+ *  Copyright (c) 2014-2017 Kumuluz and/or its affiliates
+ *  and other contributors as indicated by the @author tags and
+ *  the contributor list.
+ *
+ *  Licensed under the MIT License (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://opensource.org/licenses/MIT
+ *
+ *  The software is provided "AS IS", WITHOUT WARRANTY OF ANY KIND, express or
+ *  implied, including but not limited to the warranties of merchantability,
+ *  fitness for a particular purpose and noninfringement. in no event shall the
+ *  authors or copyright holders be liable for any claim, damages or other
+ *  liability, whether in an action of contract, tort or otherwise, arising from,
+ *  out of or in connection with the software or the use or other dealings in the
+ *  software. See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.kumuluz.ee.fault.tolerance.commands;
+
+import com.kumuluz.ee.configuration.utils.ConfigurationUtil;
+import com.kumuluz.ee.fault.tolerance.utils.FaultToleranceHelper;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetSocketAddress;
+import java.net.SocketException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Reference {@link CircuitBreakerStateExchange} gossiping circuit breaker states over UDP.
+ *
+ * Each state (rumor) is retransmitted in a number of gossip rounds to a few randomly chosen peers. Newer states
+ * received from other nodes are relayed in the same way, so states reach nodes which are not peers of the publishing
+ * node. All rumors due in a round are batched into as few datagrams as possible, each entry taking 25 bytes (origin
+ * node, key hash, state, epoch).
+ *
+ * Datagrams are authenticated with HMAC-SHA256 over a shared secret, datagrams without a valid signature are dropped.
+ * Rumors older than the rumor TTL are neither accepted nor kept, so replayed datagrams cannot reopen circuits and memory
+ * is bounded by the number of transitions within the TTL.
+ *
+ * @since 2.2.0
+ */
+public class UdpGossipStateExchange implements CircuitBreakerStateExchange {
+
+    private static final Logger log = Logger.getLogger(UdpGossipStateExchange.class.getName());
+
+    private static final String CONFIG_PREFIX = "kumuluzee.fault-tolerance.hystrix.circuit-breaker-exchange.udp.";
+
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+
+    private static final int MAGIC = 0x4b554346;
+    private static final int HEADER_SIZE = 6;
+    private static final int ENTRY_SIZE = 25;
+    private static final int MAC_SIZE = 32;
+    private static final int MAX_DATAGRAM_SIZE = 1400;
+    private static final int MAX_ENTRIES = (MAX_DATAGRAM_SIZE - HEADER_SIZE - MAC_SIZE) / ENTRY_SIZE;
+
+    private final long nodeId = UUID.randomUUID().getMostSignificantBits();
+
+    private final InetSocketAddress bindAddress;
+    private final List<InetSocketAddress> peers;
+    private final long intervalMillis;
+    private final int fanout;
+    private final int retransmit;
+    private final long rumorTtlMillis;
+    private final byte[] secret;
+
+    // latest rumor of each circuit breaker of each node, used to discard stale and duplicate rumors
+    private final Map<RumorKey, Rumor> rumors = new ConcurrentHashMap<>();
+    // rumors which are still being retransmitted
+    private final Queue<Rumor> spreading = new ConcurrentLinkedQueue<>();
+    // rumors which were fully spread, in order of expiry
+    private final Queue<Rumor> spread = new ConcurrentLinkedQueue<>();
+
+    private volatile DatagramSocket socket;
+    private ScheduledExecutorService scheduler;
+    private Thread receiver;
+
+    public UdpGossipStateExchange() {
+
+        ConfigurationUtil configurationUtil = ConfigurationUtil.getInstance();
+
+        this.bindAddress = new InetSocketAddress(configurationUtil.get(CONFIG_PREFIX + "host").orElse("127.0.0.1"),
+                configurationUtil.getInteger(CONFIG_PREFIX + "port").orElse(7946));
+        this.peers = parsePeers(configurationUtil.get(CONFIG_PREFIX + "peers").orElse(""));
+        this.intervalMillis = configurationUtil.get(CONFIG_PREFIX + "interval")
+                .map(FaultToleranceHelper::parseDuration)
+                .orElse(Duration.ofMillis(200))
+                .toMillis();
+        this.fanout = configurationUtil.getInteger(CONFIG_PREFIX + "fanout").orElse(3);
+        this.retransmit = configurationUtil.getInteger(CONFIG_PREFIX + "retransmit").orElse(3);
+        this.rumorTtlMillis = configurationUtil.get(CONFIG_PREFIX + "rumor-ttl")
+                .map(FaultToleranceHelper::parseDuration)
+                .orElse(Duration.ofMinutes(1))
+                .toMillis();
+        this.secret = configurationUtil.get(CONFIG_PREFIX + "secret")
+                .map(s -> s.getBytes(StandardCharsets.UTF_8))
+                .orElse(null);
+    }
+
+    public UdpGossipStateExchange(InetSocketAddress bindAddress, List<InetSocketAddress> peers, Duration interval,
+                                  int fanout, int retransmit, Duration rumorTtl, byte[] secret) {
+        this.bindAddress = bindAddress;
+        this.peers = new ArrayList<>(peers);
+        this.intervalMillis = interval.toMillis();
+        this.fanout = fanout;
+        this.retransmit = retransmit;
+        this.rumorTtlMillis = rumorTtl.toMillis();
+        this.secret = secret == null ? null : secret.clone();
+    }
+
+    @Override
+    public synchronized void start(Listener listener) {
+
+        if (socket != null) {
+            return;
+        }
+
+        if (secret == null || secret.length == 0) {
+            throw new IllegalStateException("Circuit breaker exchange requires a shared secret (" + CONFIG_PREFIX +
+                    "secret) to authenticate states of other nodes.");
+        }
+
+        Mac receiverMac = createMac();
+        Mac gossipMac = createMac();
+
+        try {
+            socket = new DatagramSocket(bindAddress);
+        } catch (SocketException e) {
+            throw new UncheckedIOException("Circuit breaker exchange could not bind to " + bindAddress + ".", e);
+        }
+
+        DatagramSocket receiverSocket = socket;
+        receiver = new Thread(() -> receive(receiverSocket, receiverMac, listener),
+                "kumuluzee-ft-cb-exchange-receiver");
+        receiver.setDaemon(true);
+        receiver.start();
+
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "kumuluzee-ft-cb-exchange-gossip");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleAtFixedRate(() -> gossip(gossipMac), intervalMillis, intervalMillis,
+                TimeUnit.MILLISECONDS);
+
+        log.info("Exchanging circuit breaker states on " + socket.getLocalSocketAddress() + " with " + peers.size() +
+                " peers.");
+    }
+
+    @Override
+    public void publish(long keyHash, boolean open, long epoch) {
+        offer(new Rumor(nodeId, keyHash, open, epoch, retransmit));
+    }
+
+    @Override
+    public synchronized void stop() {
+
+        if (socket == null) {
+            return;
+        }
+
+        scheduler.shutdownNow();
+        socket.close();
+        socket = null;
+
+        try {
+            receiver.join(TimeUnit.SECONDS.toMillis(1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Returns the address the exchange is bound to.
+     *
+     * @return Local socket address or null if exchange is not started
+     */
+    public InetSocketAddress getLocalAddress() {
+
+        DatagramSocket current = socket;
+
+        return current == null ? null : (InetSocketAddress) current.getLocalSocketAddress();
+    }
+
+    /**
+     * @return Number of rumors currently kept by the exchange
+     */
+    int getRumorCount() {
+        return rumors.size();
+    }
+
+    /**
+     * Stores the rumor if it is newer than the known state of the same circuit breaker on the same node.
+     *
+     * @return true if rumor was stored
+     */
+    private boolean offer(Rumor rumor) {
+
+        RumorKey key = new RumorKey(rumor.origin, rumor.keyHash);
+        Rumor stored = rumors.merge(key, rumor, (current, offered) -> offered.epoch > current.epoch ||
+                (offered.origin == nodeId && offered.epoch == current.epoch) ? offered : current);
+
+        if (stored != rumor) {
+            return false;
+        }
+
+        spreading.add(rumor);
+
+        return true;
+    }
+
+    private boolean isExpired(long epoch, long now) {
+        return epoch < now - rumorTtlMillis;
+    }
+
+    private void gossip(Mac mac) {
+
+        DatagramSocket gossipSocket = socket;
+
+        if (gossipSocket == null) {
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        List<Rumor> due = new ArrayList<>();
+
+        for (Iterator<Rumor> iterator = spreading.iterator(); iterator.hasNext(); ) {
+            Rumor rumor = iterator.next();
+
+            // superseded rumors are no longer spread
+            if (rumors.get(rumor.key()) != rumor || peers.isEmpty()) {
+                iterator.remove();
+                spread.add(rumor);
+                continue;
+            }
+
+            if (rumor.remaining.getAndDecrement() > 0) {
+                due.add(rumor);
+            }
+
+            if (rumor.remaining.get() <= 0) {
+                iterator.remove();
+                spread.add(rumor);
+            }
+        }
+
+        expireRumors(now);
+
+        for (int from = 0; from < due.size(); from += MAX_ENTRIES) {
+            byte[] datagram = encode(due.subList(from, Math.min(from + MAX_ENTRIES, due.size())), mac);
+
+            for (InetSocketAddress peer : selectPeers()) {
+                try {
+                    gossipSocket.send(new DatagramPacket(datagram, datagram.length, peer));
+                } catch (IOException e) {
+                    log.log(Level.FINE, "Circuit breaker states could not be sent to " + peer + ".", e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Removes fully spread rumors older than the rumor TTL. Rumors are visited in the order they were spread and only
+     * until the first rumor which has not expired yet, so a rumor may be kept at most one TTL longer.
+     */
+    private void expireRumors(long now) {
+
+        Rumor rumor;
+        while ((rumor = spread.peek()) != null && isExpired(rumor.epoch, now)) {
+            spread.poll();
+            rumors.remove(rumor.key(), rumor);
+        }
+    }
+
+    private byte[] encode(List<Rumor> batch, Mac mac) {
+
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + batch.size() * ENTRY_SIZE + MAC_SIZE);
+
+        buffer.putInt(MAGIC);
+        buffer.putShort((short) batch.size());
+        for (Rumor rumor : batch) {
+            buffer.putLong(rumor.origin);
+            buffer.putLong(rumor.keyHash);
+            buffer.put((byte) (rumor.open ? 1 : 0));
+            buffer.putLong(rumor.epoch);
+        }
+
+        mac.update(buffer.array(), 0, buffer.position());
+        buffer.put(mac.doFinal());
+
+        return buffer.array();
+    }
+
+    private void receive(DatagramSocket receiverSocket, Mac mac, Listener listener) {
+
+        byte[] data = new byte[MAX_DATAGRAM_SIZE];
+
+        while (!receiverSocket.isClosed()) {
+            DatagramPacket packet = new DatagramPacket(data, data.length);
+
+            try {
+                receiverSocket.receive(packet);
+            } catch (IOException e) {
+                if (!receiverSocket.isClosed()) {
+                    log.log(Level.FINE, "Circuit breaker states could not be received.", e);
+                }
+                continue;
+            }
+
+            if (!isAuthentic(packet, mac)) {
+                log.fine("Dropping unauthenticated circuit breaker states from " + packet.getSocketAddress() + ".");
+                continue;
+            }
+
+            ByteBuffer buffer = ByteBuffer.wrap(packet.getData(), packet.getOffset(), packet.getLength() - MAC_SIZE);
+            if (buffer.getInt() != MAGIC) {
+                continue;
+            }
+
+            long now = System.currentTimeMillis();
+            int count = Math.min(buffer.getShort(), buffer.remaining() / ENTRY_SIZE);
+            for (int i = 0; i < count; i++) {
+                Rumor rumor = new Rumor(buffer.getLong(), buffer.getLong(), buffer.get() != 0, buffer.getLong(),
+                        retransmit);
+
+                if (rumor.origin == nodeId || isExpired(rumor.epoch, now) || !offer(rumor)) {
+                    continue;
+                }
+
+                try {
+                    listener.onRemoteState(rumor.origin, rumor.keyHash, rumor.open, rumor.epoch);
+                } catch (RuntimeException e) {
+                    log.log(Level.WARNING, "Remote circuit breaker state could not be applied.", e);
+                }
+            }
+        }
+    }
+
+    private static boolean isAuthentic(DatagramPacket packet, Mac mac) {
+
+        int length = packet.getLength() - MAC_SIZE;
+
+        if (length < HEADER_SIZE) {
+            return false;
+        }
+
+        mac.update(packet.getData(), packet.getOffset(), length);
+        byte[] expected = mac.doFinal();
+        byte[] actual = new byte[MAC_SIZE];
+        System.arraycopy(packet.getData(), packet.getOffset() + length, actual, 0, MAC_SIZE);
+
+        return MessageDigest.isEqual(expected, actual);
+    }
+
+    private Mac createMac() {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(new SecretKeySpec(secret, HMAC_ALGORITHM));
+
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Circuit breaker exchange could not initialize " + HMAC_ALGORITHM + ".", e);
+        }
+    }
+
+    private List<InetSocketAddress> selectPeers() {
+
+        if (peers.size() <= fanout) {
+            return peers;
+        }
+
+        List<InetSocketAddress> selected = new ArrayList<>(peers);
+        Collections.shuffle(selected, ThreadLocalRandom.current());
+
+        return selected.subList(0, fanout);
+    }
+
+    private static List<InetSocketAddress> parsePeers(String peers) {
+
+        List<InetSocketAddress> addresses = new ArrayList<>();
+
+        for (String peer : peers.split(",")) {
+            peer = peer.trim();
+            if (peer.isEmpty()) {
+                continue;
+            }
+
+            int separator = peer.lastIndexOf(':');
+            if (separator < 0) {
+                log.warning("Circuit breaker exchange peer '" + peer + "' is not in host:port format, ignoring.");
+                continue;
+            }
+
+            addresses.add(new InetSocketAddress(peer.substring(0, separator),
+                    Integer.parseInt(peer.substring(separator + 1))));
+        }
+
+        return addresses;
+    }
+
+    private static class RumorKey {
+
+        private final long origin;
+        private final long keyHash;
+
+        RumorKey(long origin, long keyHash) {
+            this.origin = origin;
+            this.keyHash = keyHash;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof RumorKey)) return false;
+
+            RumorKey rumorKey = (RumorKey) o;
+            return origin == rumorKey.origin && keyHash == rumorKey.keyHash;
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(origin * 31 + keyHash);
+        }
+    }
+
+    private static class Rumor {
+
+        private final long origin;
+        private final long keyHash;
+        private final boolean open;
+        private final long epoch;
+        private final AtomicInteger remaining;
+
+        Rumor(long origin, long keyHash, boolean open, long epoch, int remaining) {
+            this.origin = origin;
+            this.keyHash = keyHash;
+            this.open = open;
+            this.epoch = epoch;
+            this.remaining = new AtomicInteger(remaining);
+        }
+
+        RumorKey key() {
+            return new RumorKey(origin, keyHash);
+        }
+    }
+}
@@ -83,6 +83,13 @@ public abstract class AbstractHystrixConfigurationUtil {
             case "circuit-breaker.metrics.rolling-window.size":
             case "circuit-breaker.metrics.health-interval":
             case "timeout.value":
+            case "timeout.adaptive.floor":
+            case "timeout.adaptive.ceiling":
+            case "timeout.adaptive.update-interval":
+            case "batch.window":
+            case "bulkhead.queue.max-time":
+            case "bulkhead.queue.codel.target":
+            case "bulkhead.queue.codel.interval":
                 if (value instanceof Duration)
                     return ((Duration) value).toMillis();
                 break;
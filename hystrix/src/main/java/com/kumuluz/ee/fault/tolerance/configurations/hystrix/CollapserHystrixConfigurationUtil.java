@@ -0,0 +1,121 @@
+/*
+ *  Copyright (c) 2014-2017 Kumuluz and/or its affiliates
+ *  and other contributors as indicated by the @author tags and
+ *  the contributor list.
+ *
+ *  Licensed under the MIT License (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://opensource.org/licenses/MIT
+ *
+ *  The software is provided "AS IS", WITHOUT WARRANTY OF ANY KIND, express or
+ *  implied, including but not limited to the warranties of merchantability,
+ *  fitness for a particular purpose and noninfringement. in no event shall the
+ *  authors or copyright holders be liable for any claim, damages or other
+ *  liability, whether in an action of contract, tort or otherwise, arising from,
+ *  out of or in connection with the software or the use or other dealings in the
+ *  software. See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.kumuluz.ee.fault.tolerance.configurations.hystrix;
+
+import com.kumuluz.ee.fault.tolerance.annotations.Batch;
+import com.kumuluz.ee.fault.tolerance.enums.FaultToleranceType;
+import com.kumuluz.ee.fault.tolerance.enums.HystrixConfigurationType;
+import com.kumuluz.ee.fault.tolerance.models.ConfigurationProperty;
+import com.kumuluz.ee.fault.tolerance.models.ExecutionMetadata;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.logging.Logger;
+
+/**
+ * Hystrix collapser configuration util
+ *
+ * @since 2.2.0
+ */
+public class CollapserHystrixConfigurationUtil extends AbstractHystrixConfigurationUtil {
+
+    private static final Logger log = Logger.getLogger(CollapserHystrixConfigurationUtil.class.getName());
+
+    public CollapserHystrixConfigurationUtil(HystrixFaultToleranceConfigurationManager configManager) {
+        super(configManager);
+    }
+
+    public void initialize(ExecutionMetadata metadata) {
+
+        Batch batch = metadata.getBatch();
+
+        if (batch == null)
+            return;
+
+        String commandKey = metadata.getCommandKey();
+        String groupKey = metadata.getGroupKey();
+
+        log.info("Initializing batch pattern for command '" + metadata.getIdentifier() + "'.");
+
+        Duration window = Duration.of(batch.window(), batch.windowUnit());
+        intializeProperty(commandKey, groupKey, FaultToleranceType.BATCH, "window", window);
+        intializeProperty(commandKey, groupKey, FaultToleranceType.BATCH, "max-size", batch.maxSize());
+        intializeProperty(commandKey, groupKey, FaultToleranceType.BATCH, "request-cache.enabled", false);
+    }
+
+    public void updateProperty(ConfigurationProperty property, Object value) {
+        setHystrixProperty(property, HystrixConfigurationType.COLLAPSER, property.getCommandKey(),
+                value, true);
+    }
+
+    protected void initializeWatchedProperty(ConfigurationProperty property, ConfigurationProperty appliedProperty, Object defaultValue) {
+
+        boolean isChangeable = isHystrixPropertyChangeable(property);
+
+        setHystrixProperty(property, HystrixConfigurationType.COLLAPSER, property.getCommandKey(),
+                appliedProperty.getValue(), isChangeable);
+
+        if (isChangeable) {
+            configManager.intializeWatch(HystrixConfigurationType.COLLAPSER, appliedProperty,
+                    property);
+        }
+    }
+
+    protected String toHystrixPropertyPath(ConfigurationProperty property, boolean changeable) {
+
+        switch (property.typeConfigurationPath()) {
+            case "batch.window":
+                return "timerDelayInMilliseconds";
+            case "batch.max-size":
+                return "maxRequestsInBatch";
+            case "batch.request-cache.enabled":
+                return changeable ? null : "requestCache.enabled";
+            default:
+                return null;
+        }
+    }
+
+    private void intializeProperty(String commandKey, String groupKey, FaultToleranceType type, String propertyPath, Object defaultValue) {
+
+        boolean watchEnabled = false;
+        boolean configValueFound = false;
+        ConfigurationProperty property = new ConfigurationProperty(commandKey, groupKey, type, propertyPath);
+        Optional<ConfigurationProperty> appliedProperty = configManager.findKumuluzConfig(commandKey, groupKey, type, propertyPath);
+
+        if (appliedProperty.isPresent()) {
+            Optional<Object> configValue = configManager.getKumuluzConfig(appliedProperty.get());
+
+            if (configValue.isPresent()) {
+                appliedProperty.get().setValue(configValue.get());
+
+                configValueFound = true;
+                watchEnabled = configManager.isWatchEnabled(appliedProperty.get());
+            }
+        }
+
+        if (watchEnabled) {
+            initializeWatchedProperty(property, appliedProperty.get(), defaultValue);
+        } else if (defaultValue != null || configValueFound) {
+            setHystrixProperty(property, HystrixConfigurationType.COLLAPSER, commandKey,
+                    configValueFound ? appliedProperty.get().getValue() : defaultValue);
+        }
+    }
+}
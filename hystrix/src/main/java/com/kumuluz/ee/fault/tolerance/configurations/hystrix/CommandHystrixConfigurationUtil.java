@@ -20,6 +20,8 @@
  */
 package com.kumuluz.ee.fault.tolerance.configurations.hystrix;
 
+import com.kumuluz.ee.fault.tolerance.commands.AdaptiveTimeoutController;
+import com.kumuluz.ee.fault.tolerance.commands.BulkheadAdmissionController;
 import com.kumuluz.ee.fault.tolerance.enums.FaultToleranceType;
 import com.kumuluz.ee.fault.tolerance.enums.HystrixConfigurationType;
 import com.kumuluz.ee.fault.tolerance.models.ConfigurationProperty;
@@ -54,7 +56,8 @@ public class CommandHystrixConfigurationUtil extends AbstractHystrixConfiguratio
 
         type = FaultToleranceType.ASYNCHRONOUS;
 
-        if (!metadata.isAsynchronous()) {
+        // hedged executions are always executed on a thread pool
+        if (!metadata.isAsynchronous() && metadata.getHedge() == null) {
             intializeProperty(commandKey, groupKey, type, "value", false);
         }
 
@@ -86,9 +89,9 @@ public class CommandHystrixConfigurationUtil extends AbstractHystrixConfiguratio
             intializeProperty(commandKey, groupKey, type, "enabled", false);
         }
 
-        // fallback needs to be disabled when used with retry
+        // fallback needs to be disabled when used with retry or hedge
         type = FaultToleranceType.FALLBACK;
-        boolean isFallback = metadata.getRetry() == null &&
+        boolean isFallback = metadata.getRetry() == null && metadata.getHedge() == null &&
                 (metadata.getFallbackHandlerClass() != null || metadata.getFallbackMethod() != null);
 
         if (!isFallback) {
@@ -102,10 +105,12 @@ public class CommandHystrixConfigurationUtil extends AbstractHystrixConfiguratio
         Bulkhead bulkhead = metadata.getBulkhead();
         type = FaultToleranceType.BULKHEAD;
 
-        if (bulkhead != null && !metadata.isAsynchronous()) {
+        if (bulkhead != null && !metadata.isAsynchronous() && metadata.getHedge() == null) {
             log.info("Initializing semaphored bulkhead pattern for command '" + commandKey + "'.");
 
             intializeProperty(commandKey, groupKey, type, "value", bulkhead.value());
+            intializeProperty(commandKey, groupKey, type, "reserve.critical", null);
+            intializeProperty(commandKey, groupKey, type, "reserve.default", null);
         }
 
         Timeout timeout = metadata.getTimeout();
@@ -118,9 +123,24 @@ public class CommandHystrixConfigurationUtil extends AbstractHystrixConfiguratio
             intializeProperty(commandKey, groupKey, type, "value", value);
 
             intializeProperty(commandKey, groupKey, type, "enabled", true);
+
+            intializeProperty(commandKey, groupKey, type, "adaptive.enabled", null);
+            intializeProperty(commandKey, groupKey, type, "adaptive.percentile", null);
+            intializeProperty(commandKey, groupKey, type, "adaptive.multiplier", null);
+            intializeProperty(commandKey, groupKey, type, "adaptive.floor", null);
+            intializeProperty(commandKey, groupKey, type, "adaptive.ceiling", null);
+            intializeProperty(commandKey, groupKey, type, "adaptive.update-interval", null);
         } else {
             intializeProperty(commandKey, groupKey, type, "enabled", false);
         }
+
+        type = FaultToleranceType.CACHE_RESULT;
+
+        if (metadata.isCacheResult()) {
+            log.info("Initializing request cache for command '" + commandKey + "'.");
+
+            intializeProperty(commandKey, groupKey, type, "enabled", true);
+        }
     }
 
     public void updateProperty(ConfigurationProperty property, Object value) {
@@ -128,6 +148,19 @@ public class CommandHystrixConfigurationUtil extends AbstractHystrixConfiguratio
                 value, true);
     }
 
+    @Override
+    public void setHystrixProperty(ConfigurationProperty property, HystrixConfigurationType type, String key,
+                                   Object value, boolean changeable) {
+
+        super.setHystrixProperty(property, type, key, value, changeable);
+
+        // adaptive timeout overwrites the timeout property, configured value is kept separately
+        if (property.typeConfigurationPath().equals("timeout.value")) {
+            configManager.setHystrixConfig(type, key, AdaptiveTimeoutController.CONFIGURED_TIMEOUT_PROPERTY,
+                    convertToHystrixValue(property, value));
+        }
+    }
+
     protected void initializeWatchedProperty(ConfigurationProperty property, ConfigurationProperty appliedProperty, Object defaultValue) {
 
         boolean isChangeable = isHystrixPropertyChangeable(property);
@@ -148,6 +181,10 @@ public class CommandHystrixConfigurationUtil extends AbstractHystrixConfiguratio
                 return "execution.isolation.strategy";
             case "bulkhead.value":
                 return "execution.isolation.semaphore.maxConcurrentRequests";
+            case "bulkhead.reserve.critical":
+                return BulkheadAdmissionController.RESERVE_CRITICAL_PROPERTY;
+            case "bulkhead.reserve.default":
+                return BulkheadAdmissionController.RESERVE_DEFAULT_PROPERTY;
             case "circuit-breaker.enabled":
                 return changeable ? null : "circuitBreaker.enabled";
             case "circuit-breaker.request-volume-threshold":
@@ -180,10 +217,24 @@ public class CommandHystrixConfigurationUtil extends AbstractHystrixConfiguratio
                 return changeable ? null : "execution.timeout.enabled";
             case "timeout.value":
                 return "execution.isolation.thread.timeoutInMilliseconds";
+            case "timeout.adaptive.enabled":
+                return AdaptiveTimeoutController.ENABLED_PROPERTY;
+            case "timeout.adaptive.percentile":
+                return AdaptiveTimeoutController.PERCENTILE_PROPERTY;
+            case "timeout.adaptive.multiplier":
+                return AdaptiveTimeoutController.MULTIPLIER_PROPERTY;
+            case "timeout.adaptive.floor":
+                return AdaptiveTimeoutController.FLOOR_PROPERTY;
+            case "timeout.adaptive.ceiling":
+                return AdaptiveTimeoutController.CEILING_PROPERTY;
+            case "timeout.adaptive.update-interval":
+                return AdaptiveTimeoutController.UPDATE_INTERVAL_PROPERTY;
             case "fallback.enabled":
                 return changeable ? null : "fallback.enabled";
             case "fallback.max-requests":
                 return "fallback.isolation.semaphore.maxConcurrentRequests";
+            case "cache-result.enabled":
+                return "requestCache.enabled";
             default:
                 return null;
         }
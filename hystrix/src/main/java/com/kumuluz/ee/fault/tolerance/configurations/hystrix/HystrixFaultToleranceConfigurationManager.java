@@ -52,6 +52,7 @@ public class HystrixFaultToleranceConfigurationManager {
 
     private Map<String, List<ConfigurationProperty>> commandWatchToUpdateMap;
     private Map<String, List<ConfigurationProperty>> threadPoolWatchToUpdateMap;
+    private Map<String, List<ConfigurationProperty>> collapserWatchToUpdateMap;
 
     @Inject
     private FaultToleranceUtil faultToleranceUtil;
@@ -64,6 +65,7 @@ public class HystrixFaultToleranceConfigurationManager {
 
         commandWatchToUpdateMap = new HashMap<>();
         threadPoolWatchToUpdateMap = new HashMap<>();
+        collapserWatchToUpdateMap = new HashMap<>();
     }
 
     public void setHystrixConfig(HystrixConfigurationType type, String key, String propertyPath, Object value) {
@@ -93,9 +95,19 @@ public class HystrixFaultToleranceConfigurationManager {
             case "circuit-breaker.metrics.rolling-window.size":
             case "circuit-breaker.metrics.health-interval":
             case "timeout.value":
+            case "timeout.adaptive.floor":
+            case "timeout.adaptive.ceiling":
+            case "timeout.adaptive.update-interval":
+            case "batch.window":
+            case "bulkhead.queue.max-time":
+            case "bulkhead.queue.codel.target":
+            case "bulkhead.queue.codel.interval":
                 Optional<Duration> durationVal = getKumuluzConfigDuration(property.configurationPath());
                 return durationVal.map(Duration::toMillis);
             case "circuit-breaker.failure-ratio":
+            case "timeout.adaptive.multiplier":
+            case "bulkhead.reserve.critical":
+            case "bulkhead.reserve.default":
                 Optional<Double> doubleVal = getKumuluzConfigDouble(property.configurationPath());
                 return doubleVal.isPresent() ? Optional.of(doubleVal.get()) : Optional.empty();
             case "bulkhead.value-change-enabled":
@@ -106,7 +118,10 @@ public class HystrixFaultToleranceConfigurationManager {
             case "circuit-breaker.interrupt.on-cancel":
             case "circuit-breaker.log.enabled":
             case "timeout.enabled":
+            case "timeout.adaptive.enabled":
             case "fallback.enabled":
+            case "batch.request-cache.enabled":
+            case "cache-result.enabled":
                 Optional<Boolean> boolVal = getKumuluzConfigBoolean(property.configurationPath());
                 return boolVal.isPresent() ? Optional.of(boolVal.get()) : Optional.empty();
             default:
@@ -147,9 +162,19 @@ public class HystrixFaultToleranceConfigurationManager {
 
         String configPath = watchProperty.configurationPath();
         String newPropertyKeyPath = destProperty.configurationPath();
-        Map<String, List<ConfigurationProperty>> map = type == HystrixConfigurationType.COMMAND ?
-                commandWatchToUpdateMap :
-                threadPoolWatchToUpdateMap;
+        Map<String, List<ConfigurationProperty>> map;
+
+        switch (type) {
+            case COMMAND:
+                map = commandWatchToUpdateMap;
+                break;
+            case COLLAPSER:
+                map = collapserWatchToUpdateMap;
+                break;
+            default:
+                map = threadPoolWatchToUpdateMap;
+                break;
+        }
 
         if (map.containsKey(configPath)) {
             List<ConfigurationProperty> properties = map.get(configPath);
@@ -188,6 +213,9 @@ public class HystrixFaultToleranceConfigurationManager {
         } else if (threadPoolWatchToUpdateMap.containsKey(configPath)) {
             toUpdate = threadPoolWatchToUpdateMap.get(configPath);
             hystrixConfigurationUtil = new ThreadPoolHystrixConfigurationUtil(this);
+        } else if (collapserWatchToUpdateMap.containsKey(configPath)) {
+            toUpdate = collapserWatchToUpdateMap.get(configPath);
+            hystrixConfigurationUtil = new CollapserHystrixConfigurationUtil(this);
         } else {
             return;
         }
@@ -20,6 +20,8 @@
  */
 package com.kumuluz.ee.fault.tolerance.configurations.hystrix;
 
+import com.kumuluz.ee.fault.tolerance.commands.BulkheadAdmissionController;
+import com.kumuluz.ee.fault.tolerance.commands.BulkheadQueueController;
 import com.kumuluz.ee.fault.tolerance.enums.FaultToleranceType;
 import com.kumuluz.ee.fault.tolerance.enums.HystrixConfigurationType;
 import com.kumuluz.ee.fault.tolerance.exceptions.FaultToleranceConfigException;
@@ -55,6 +57,11 @@ public class ThreadPoolHystrixConfigurationUtil extends AbstractHystrixConfigura
         intializeProperty(key, FaultToleranceType.BULKHEAD, "metrics.rolling-window.size", null);
         intializeProperty(key, FaultToleranceType.BULKHEAD, "metrics.rolling-window.buckets", null);
         intializeProperty(key, FaultToleranceType.BULKHEAD, "keep-alive", null);
+        intializeProperty(key, FaultToleranceType.BULKHEAD, "queue.max-time", null);
+        intializeProperty(key, FaultToleranceType.BULKHEAD, "queue.codel.target", null);
+        intializeProperty(key, FaultToleranceType.BULKHEAD, "queue.codel.interval", null);
+        intializeProperty(key, FaultToleranceType.BULKHEAD, "reserve.critical", null);
+        intializeProperty(key, FaultToleranceType.BULKHEAD, "reserve.default", null);
     }
 
     public void updateProperty(ConfigurationProperty property, Object value) {
@@ -138,6 +145,16 @@ public class ThreadPoolHystrixConfigurationUtil extends AbstractHystrixConfigura
                 return changeable ? null : "metrics.rollingStats.numBuckets";
             case "bulkhead.keep-alive":
                 return "keepAliveTimeMinutes";
+            case "bulkhead.queue.max-time":
+                return BulkheadQueueController.MAX_QUEUE_TIME_PROPERTY;
+            case "bulkhead.queue.codel.target":
+                return BulkheadQueueController.CODEL_TARGET_PROPERTY;
+            case "bulkhead.queue.codel.interval":
+                return BulkheadQueueController.CODEL_INTERVAL_PROPERTY;
+            case "bulkhead.reserve.critical":
+                return BulkheadAdmissionController.RESERVE_CRITICAL_PROPERTY;
+            case "bulkhead.reserve.default":
+                return BulkheadAdmissionController.RESERVE_DEFAULT_PROPERTY;
             default:
                 return null;
         }
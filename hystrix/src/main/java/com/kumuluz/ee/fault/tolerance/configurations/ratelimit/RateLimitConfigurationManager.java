@@ -0,0 +1,193 @@
+/*
+ *  Copyright (c) 2014-2017 Kumuluz and/or its affiliates
+ *  and other contributors as indicated by the @author tags and
+ *  the contributor list.
+ *
+ *  Licensed under the MIT License (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://opensource.org/licenses/MIT
+ *
+ *  The software is provided "AS IS", WITHOUT WARRANTY OF ANY KIND, express or
+ *  implied, including but not limited to the warranties of merchantability,
+ *  fitness for a particular purpose and noninfringement. in no event shall the
+ *  authors or copyright holders be liable for any claim, damages or other
+ *  liability, whether in an action of contract, tort or otherwise, arising from,
+ *  out of or in connection with the software or the use or other dealings in the
+ *  software. See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.kumuluz.ee.fault.tolerance.configurations.ratelimit;
+
+import com.kumuluz.ee.configuration.utils.ConfigurationUtil;
+import com.kumuluz.ee.fault.tolerance.annotations.RateLimit;
+import com.kumuluz.ee.fault.tolerance.commands.RateLimiter;
+import com.kumuluz.ee.fault.tolerance.enums.FaultToleranceType;
+import com.kumuluz.ee.fault.tolerance.interfaces.FaultToleranceUtil;
+import com.kumuluz.ee.fault.tolerance.models.ConfigurationProperty;
+import com.kumuluz.ee.fault.tolerance.models.ExecutionMetadata;
+import com.kumuluz.ee.fault.tolerance.utils.FaultToleranceHelper;
+
+import javax.annotation.PostConstruct;
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
+
+/**
+ * Configuration manager for managing rate limiters that are not
+ * part of Hystrix framework
+ *
+ * @since 2.2.0
+ */
+@ApplicationScoped
+public class RateLimitConfigurationManager {
+
+    private static final Logger log = Logger.getLogger(RateLimitConfigurationManager.class.getName());
+
+    private ConfigurationUtil config;
+
+    private Map<String, RateLimiter> rateLimiters;
+    private Map<String, List<String>> rateLimitWatches;
+
+    @Inject
+    private FaultToleranceUtil faultToleranceUtil;
+
+    @PostConstruct
+    private void init() {
+        config = ConfigurationUtil.getInstance();
+
+        rateLimiters = new ConcurrentHashMap<>();
+        rateLimitWatches = new HashMap<>();
+    }
+
+    public synchronized void initializeRateLimit(ExecutionMetadata metadata) {
+
+        RateLimit rateLimit = metadata.getRateLimit();
+        String rateLimiterKey = getRateLimiterKey(metadata);
+
+        if (rateLimit == null || rateLimiters.containsKey(rateLimiterKey))
+            return;
+
+        // group scoped rate limiter is configured with group-specific or global settings only
+        String commandKey = metadata.isRateLimitGroupScoped() ? null : metadata.getCommandKey();
+
+        log.info("Initializing rate limit pattern for '" + rateLimiterKey + "'.");
+
+        int permits = findProperty(commandKey, metadata.getGroupKey(), "value", rateLimiterKey)
+                .map(p -> config.getInteger(p.configurationPath()).get())
+                .orElse(rateLimit.value());
+
+        Duration window = findProperty(commandKey, metadata.getGroupKey(), "window", rateLimiterKey)
+                .map(p -> FaultToleranceHelper.parseDuration(config.get(p.configurationPath()).get()))
+                .orElse(Duration.of(rateLimit.window(), rateLimit.windowUnit()));
+
+        Duration maxWait = findProperty(commandKey, metadata.getGroupKey(), "max-wait", rateLimiterKey)
+                .map(p -> FaultToleranceHelper.parseDuration(config.get(p.configurationPath()).get()))
+                .orElse(Duration.of(rateLimit.maxWait(), rateLimit.maxWaitUnit()));
+
+        rateLimiters.put(rateLimiterKey, new RateLimiter(permits, window.toNanos(), maxWait.toNanos()));
+    }
+
+    public RateLimiter getRateLimiter(ExecutionMetadata metadata) {
+        return rateLimiters.get(getRateLimiterKey(metadata));
+    }
+
+    public void setRateLimitConfig(String rateLimiterKey, String propertyPath, Object value) {
+
+        RateLimiter rateLimiter = rateLimiters.get(rateLimiterKey);
+
+        if (rateLimiter == null)
+            return;
+
+        switch (propertyPath) {
+            case "value":
+                if (value instanceof Integer)
+                    rateLimiter.setPermits((int) value);
+
+                break;
+            case "window":
+                toDuration(value).ifPresent(d -> rateLimiter.setWindowInNanos(d.toNanos()));
+
+                break;
+            case "max-wait":
+                toDuration(value).ifPresent(d -> rateLimiter.setMaxWaitInNanos(d.toNanos()));
+
+                break;
+            default:
+                break;
+        }
+    }
+
+    public synchronized void initializeWatch(ConfigurationProperty property, String newWatchRateLimiterKey) {
+
+        String configPath = property.configurationPath();
+
+        if (rateLimitWatches.containsKey(configPath)) {
+            List<String> rateLimiterKeys = rateLimitWatches.get(configPath);
+
+            if (rateLimiterKeys.stream().noneMatch(k -> k.equals(newWatchRateLimiterKey))) {
+                log.finest("Adding rate limiter key '" + newWatchRateLimiterKey + "' to key '" + configPath +
+                        "' in map.");
+
+                rateLimiterKeys.add(newWatchRateLimiterKey);
+            }
+        } else {
+            log.info("Initializing config watch for key path '" + configPath + "'.");
+
+            List<String> rateLimiterKeys = new ArrayList<>();
+            rateLimiterKeys.add(newWatchRateLimiterKey);
+
+            rateLimitWatches.put(configPath, rateLimiterKeys);
+
+            faultToleranceUtil.watch(property);
+        }
+    }
+
+    public synchronized void updateProperty(ConfigurationProperty property) {
+
+        String configPath = property.configurationPath();
+
+        log.info("Received update for key path '" + configPath + "'.");
+
+        if (rateLimitWatches.containsKey(configPath)) {
+            rateLimitWatches.get(configPath).forEach(k -> {
+                log.info("Updating rate limiter '" + k + "' with value '" + property.getValue() + "'.");
+
+                setRateLimitConfig(k, property.getPropertyPath(), property.getValue());
+            });
+        }
+    }
+
+    private Optional<ConfigurationProperty> findProperty(String commandKey, String groupKey, String propertyPath,
+                                                         String rateLimiterKey) {
+
+        Optional<ConfigurationProperty> property = faultToleranceUtil.findConfig(commandKey, groupKey,
+                FaultToleranceType.RATE_LIMIT, propertyPath);
+
+        if (property.isPresent() && faultToleranceUtil.isWatchEnabled(property.get())) {
+            initializeWatch(property.get(), rateLimiterKey);
+        }
+
+        return property;
+    }
+
+    private Optional<Duration> toDuration(Object value) {
+
+        if (value instanceof Duration) {
+            return Optional.of((Duration) value);
+        } else if (value instanceof Integer) {
+            // values without time unit are in milliseconds
+            return Optional.of(Duration.ofMillis((int) value));
+        }
+
+        return Optional.empty();
+    }
+
+    private String getRateLimiterKey(ExecutionMetadata metadata) {
+        return metadata.isRateLimitGroupScoped() ? metadata.getGroupKey() : metadata.getIdentifier();
+    }
+}
@@ -29,7 +29,8 @@ package com.kumuluz.ee.fault.tolerance.enums;
 public enum HystrixConfigurationType {
 
     COMMAND("command"),
-    THREAD_POOL("threadpool");
+    THREAD_POOL("threadpool"),
+    COLLAPSER("collapser");
 
     private final String configKey;
 
@@ -47,6 +48,8 @@ public enum HystrixConfigurationType {
             return COMMAND;
         else if (str.equals(THREAD_POOL.getConfigKey()))
             return THREAD_POOL;
+        else if (str.equals(COLLAPSER.getConfigKey()))
+            return COLLAPSER;
         else
             return null;
     }
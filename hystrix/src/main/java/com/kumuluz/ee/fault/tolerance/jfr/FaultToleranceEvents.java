@@ -0,0 +1,83 @@
+/*
+ *  Copyright (c) 2014-2017 Kumuluz and/or its affiliates
+ *  and other contributors as indicated by the @author tags and
+ *  the contributor list.
+ *
+ *  Licensed under the MIT License (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://opensource.org/licenses/MIT
+ *
+ *  The software is provided "AS IS", WITHOUT WARRANTY OF ANY KIND, express or
+ *  implied, including but not limited to the warranties of merchantability,
+ *  fitness for a particular purpose and noninfringement. in no event shall the
+ *  authors or copyright holders be liable for any claim, damages or other
+ *  liability, whether in an action of contract, tort or otherwise, arising from,
+ *  out of or in connection with the software or the use or other dealings in the
+ *  software. See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.kumuluz.ee.fault.tolerance.jfr;
+
+/**
+ * Emits Java Flight Recorder events of fault tolerance decisions.
+ *
+ * Events are only emitted when the JFR API ({@code jdk.jfr}) is present at runtime and the event is enabled in the
+ * active recording. Otherwise every method returns after a single check, without allocating.
+ *
+ * @since 2.2.0
+ */
+public final class FaultToleranceEvents {
+
+    private static final boolean AVAILABLE = isJfrAvailable();
+
+    private FaultToleranceEvents() {
+    }
+
+    public static void circuitBreakerStateChanged(String commandKey, String groupKey, String circuitBreakerKey,
+                                                  String previousState, String state) {
+        if (AVAILABLE) {
+            JfrEvents.circuitBreakerStateChanged(commandKey, groupKey, circuitBreakerKey, previousState, state);
+        }
+    }
+
+    public static void retry(String commandKey, String groupKey, int attempt, long delayNanos, Throwable cause) {
+        if (AVAILABLE) {
+            JfrEvents.retry(commandKey, groupKey, attempt, delayNanos, cause);
+        }
+    }
+
+    public static void bulkheadRejected(String commandKey, String groupKey, String reason) {
+        if (AVAILABLE) {
+            JfrEvents.bulkheadRejected(commandKey, groupKey, reason);
+        }
+    }
+
+    public static void bulkheadQueueWait(String commandKey, String groupKey, long waitNanos) {
+        if (AVAILABLE) {
+            JfrEvents.bulkheadQueueWait(commandKey, groupKey, waitNanos);
+        }
+    }
+
+    public static void timeout(String commandKey, String groupKey, long executionNanos) {
+        if (AVAILABLE) {
+            JfrEvents.timeout(commandKey, groupKey, executionNanos);
+        }
+    }
+
+    public static void fallback(String commandKey, String groupKey, Throwable cause) {
+        if (AVAILABLE) {
+            JfrEvents.fallback(commandKey, groupKey, cause);
+        }
+    }
+
+    private static boolean isJfrAvailable() {
+        try {
+            Class.forName("jdk.jfr.Event", false, FaultToleranceEvents.class.getClassLoader());
+            return true;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,190 @@
+/*
+ *  Copyright (c) 2014-2017 Kumuluz and/or its affiliates
+ *  and other contributors as indicated by the @author tags and
+ *  the contributor list.
+ *
+ *  Licensed under the MIT License (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://opensource.org/licenses/MIT
+ *
+ *  The software is provided "AS IS", WITHOUT WARRANTY OF ANY KIND, express or
+ *  implied, including but not limited to the warranties of merchantability,
+ *  fitness for a particular purpose and noninfringement. in no event shall the
+ *  authors or copyright holders be liable for any claim, damages or other
+ *  liability, whether in an action of contract, tort or otherwise, arising from,
+ *  out of or in connection with the software or the use or other dealings in the
+ *  software. See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.kumuluz.ee.fault.tolerance.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Java Flight Recorder events of fault tolerance decisions. Only loaded through {@link FaultToleranceEvents} when the
+ * JFR API is available.
+ *
+ * @since 2.2.0
+ */
+final class JfrEvents {
+
+    private static final String PREFIX = "com.kumuluz.ee.fault.tolerance.";
+
+    private JfrEvents() {
+    }
+
+    static void circuitBreakerStateChanged(String commandKey, String groupKey, String circuitBreakerKey,
+                                           String previousState, String state) {
+        CircuitBreakerStateChangeEvent event = new CircuitBreakerStateChangeEvent();
+        if (event.isEnabled()) {
+            event.commandKey = commandKey;
+            event.groupKey = groupKey;
+            event.circuitBreakerKey = circuitBreakerKey;
+            event.previousState = previousState;
+            event.state = state;
+            event.commit();
+        }
+    }
+
+    static void retry(String commandKey, String groupKey, int attempt, long delayNanos, Throwable cause) {
+        RetryEvent event = new RetryEvent();
+        if (event.isEnabled()) {
+            event.commandKey = commandKey;
+            event.groupKey = groupKey;
+            event.attempt = attempt;
+            event.delay = delayNanos;
+            event.cause = cause == null ? null : cause.getClass().getName();
+            event.commit();
+        }
+    }
+
+    static void bulkheadRejected(String commandKey, String groupKey, String reason) {
+        BulkheadRejectionEvent event = new BulkheadRejectionEvent();
+        if (event.isEnabled()) {
+            event.commandKey = commandKey;
+            event.groupKey = groupKey;
+            event.reason = reason;
+            event.commit();
+        }
+    }
+
+    static void bulkheadQueueWait(String commandKey, String groupKey, long waitNanos) {
+        BulkheadQueueWaitEvent event = new BulkheadQueueWaitEvent();
+        if (event.isEnabled()) {
+            event.commandKey = commandKey;
+            event.groupKey = groupKey;
+            event.waitDuration = waitNanos;
+            event.commit();
+        }
+    }
+
+    static void timeout(String commandKey, String groupKey, long executionNanos) {
+        TimeoutEvent event = new TimeoutEvent();
+        if (event.isEnabled()) {
+            event.commandKey = commandKey;
+            event.groupKey = groupKey;
+            event.executionDuration = executionNanos;
+            event.commit();
+        }
+    }
+
+    static void fallback(String commandKey, String groupKey, Throwable cause) {
+        FallbackEvent event = new FallbackEvent();
+        if (event.isEnabled()) {
+            event.commandKey = commandKey;
+            event.groupKey = groupKey;
+            event.cause = cause == null ? null : cause.getClass().getName();
+            event.commit();
+        }
+    }
+
+    @Category({"KumuluzEE", "Fault Tolerance"})
+    @StackTrace(false)
+    abstract static class FaultToleranceEvent extends Event {
+
+        @Label("Command Key")
+        String commandKey;
+
+        @Label("Group Key")
+        String groupKey;
+    }
+
+    @Name(PREFIX + "CircuitBreakerStateChange")
+    @Label("Circuit Breaker State Change")
+    @Description("Circuit breaker changed its state")
+    static class CircuitBreakerStateChangeEvent extends FaultToleranceEvent {
+
+        @Label("Circuit Breaker Key")
+        @Description("Key of the circuit breaker, including the partition key of keyed circuit breakers")
+        String circuitBreakerKey;
+
+        @Label("Previous State")
+        String previousState;
+
+        @Label("State")
+        String state;
+    }
+
+    @Name(PREFIX + "Retry")
+    @Label("Retry")
+    @Description("Failed execution is retried after a delay")
+    static class RetryEvent extends FaultToleranceEvent {
+
+        @Label("Attempt")
+        @Description("Number of the upcoming attempt, first execution is attempt 1")
+        int attempt;
+
+        @Label("Delay")
+        @Timespan(Timespan.NANOSECONDS)
+        long delay;
+
+        @Label("Cause")
+        String cause;
+    }
+
+    @Name(PREFIX + "BulkheadRejection")
+    @Label("Bulkhead Rejection")
+    @Description("Execution was rejected by the bulkhead")
+    static class BulkheadRejectionEvent extends FaultToleranceEvent {
+
+        @Label("Reason")
+        String reason;
+    }
+
+    @Name(PREFIX + "BulkheadQueueWait")
+    @Label("Bulkhead Queue Wait")
+    @Description("Execution waited in the bulkhead queue")
+    static class BulkheadQueueWaitEvent extends FaultToleranceEvent {
+
+        @Label("Wait Duration")
+        @Timespan(Timespan.NANOSECONDS)
+        long waitDuration;
+    }
+
+    @Name(PREFIX + "Timeout")
+    @Label("Timeout")
+    @Description("Execution timed out")
+    static class TimeoutEvent extends FaultToleranceEvent {
+
+        @Label("Execution Duration")
+        @Timespan(Timespan.NANOSECONDS)
+        long executionDuration;
+    }
+
+    @Name(PREFIX + "Fallback")
+    @Label("Fallback")
+    @Description("Fallback was invoked")
+    static class FallbackEvent extends FaultToleranceEvent {
+
+        @Label("Cause")
+        String cause;
+    }
+}
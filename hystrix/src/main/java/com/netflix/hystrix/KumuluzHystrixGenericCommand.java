@@ -20,23 +20,37 @@
  */
 package com.netflix.hystrix;
 
+import com.kumuluz.ee.fault.tolerance.commands.BatchInvocationContext;
+import com.kumuluz.ee.fault.tolerance.commands.BulkheadAdmissionController;
+import com.kumuluz.ee.fault.tolerance.commands.BulkheadQueueController;
+import com.kumuluz.ee.fault.tolerance.commands.DeadlineContext;
+import com.kumuluz.ee.fault.tolerance.commands.ExceptionClassifier;
 import com.kumuluz.ee.fault.tolerance.commands.FallbackHelper;
 import com.kumuluz.ee.fault.tolerance.commands.HystrixCommandConfiguration;
+import com.kumuluz.ee.fault.tolerance.commands.KeyedCircuitBreakerRegistry;
+import com.kumuluz.ee.fault.tolerance.commands.RequestCacheKeys;
 import com.kumuluz.ee.fault.tolerance.commands.SuccessThresholdCircuitBreaker;
+import com.kumuluz.ee.fault.tolerance.jfr.FaultToleranceEvents;
 import com.kumuluz.ee.fault.tolerance.metrics.BulkheadMetricsCollection;
+import com.kumuluz.ee.fault.tolerance.metrics.CircuitBreakerMetricsCollection;
 import com.kumuluz.ee.fault.tolerance.models.ExecutionMetadata;
 import com.netflix.config.ConfigurationManager;
 import com.netflix.hystrix.exception.HystrixBadRequestException;
+import com.netflix.hystrix.strategy.HystrixPlugins;
+import com.netflix.hystrix.strategy.concurrency.HystrixRequestContext;
+import com.netflix.hystrix.strategy.concurrency.HystrixRequestVariableDefault;
 import com.netflix.hystrix.strategy.properties.HystrixPropertiesFactory;
 import org.eclipse.microprofile.faulttolerance.exceptions.BulkheadException;
 import org.eclipse.microprofile.faulttolerance.exceptions.FaultToleranceException;
+import org.eclipse.microprofile.faulttolerance.exceptions.TimeoutException;
 import org.jboss.weld.context.RequestContext;
+import rx.Observable;
 
 import javax.interceptor.InvocationContext;
-import java.time.Duration;
-import java.time.Instant;
 import java.util.concurrent.Future;
-import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.logging.Logger;
 
 /**
@@ -51,28 +65,47 @@ public class KumuluzHystrixGenericCommand extends HystrixCommand<Object> {
 
     private static final Logger log = Logger.getLogger(KumuluzHystrixGenericCommand.class.getName());
 
+    private static final HystrixRequestVariableDefault<RequestCacheKeys> requestCacheKeys =
+            new HystrixRequestVariableDefault<RequestCacheKeys>() {
+                @Override
+                public RequestCacheKeys initialValue() {
+                    return new RequestCacheKeys();
+                }
+            };
+
     private final InvocationContext invocationContext;
     private final RequestContext requestContext;
     private final ExecutionMetadata metadata;
 
+    private final HystrixRequestContext hystrixRequestContext;
+
+    private final BulkheadQueueController queueController;
+    private BulkheadAdmissionController admissionController;
+    private final AtomicBoolean admissionReleased = new AtomicBoolean(false);
+
     private final BulkheadMetricsCollection bulkheadMetricsCollection;
-    private Instant waitingStartTime;
+    private boolean queued = false;
+    private long waitingStartTime;
+
+    private volatile boolean executionStarted = false;
+    private volatile long executionStartTime;
+    private volatile long executionDuration = -1;
 
     private boolean threadExecution = false;
 
+    // deadline of the enclosing execution, captured on the calling thread
+    private final Long inheritedDeadline;
+    private volatile long commandStartTime;
+
+    private final Object executionLock = new Object();
+    private Thread executionThread;
+    private boolean cancelled = false;
+
     public KumuluzHystrixGenericCommand(HystrixCommandConfiguration configuration, InvocationContext invocationContext,
                                         RequestContext requestContext, ExecutionMetadata metadata) {
 
         super(configuration.getGroupKey(), configuration.getCommandKey(), configuration.getThreadPoolKey(),
-                SuccessThresholdCircuitBreaker.CustomCbFactory.getInstance(configuration.getCommandKey(),
-                        configuration.getGroupKey(),
-                        HystrixPropertiesFactory.getCommandProperties(configuration.getCommandKey(), null),
-                        HystrixCommandMetrics.getInstance(configuration.getCommandKey(), configuration.getGroupKey(),
-                                configuration.getThreadPoolKey(),
-                                HystrixPropertiesFactory.getCommandProperties(configuration.getCommandKey(),
-                                        null)),
-                        metadata,
-                        metadata.getCbMetricsCollection(invocationContext.getMethod().getName()).orElse(null)),
+                getCircuitBreaker(configuration, invocationContext, metadata),
                 null,
                 null,
                 null,
@@ -85,28 +118,81 @@ public class KumuluzHystrixGenericCommand extends HystrixCommand<Object> {
         this.invocationContext = invocationContext;
         this.requestContext = requestContext;
         this.metadata = metadata;
+        this.hystrixRequestContext = HystrixRequestContext.getContextForCurrentThread();
+        this.inheritedDeadline = DeadlineContext.get();
+        this.queueController = configuration.getThreadPoolKey() == null ? null :
+                BulkheadQueueController.getInstance(configuration.getThreadPoolKey());
 
         this.bulkheadMetricsCollection = metadata.getBulkheadMetricsCollection(invocationContext.getMethod().getName())
                 .orElse(null);
     }
 
+    static HystrixCircuitBreaker getCircuitBreaker(HystrixCommandConfiguration configuration,
+                                                   InvocationContext invocationContext,
+                                                   ExecutionMetadata metadata) {
+
+        HystrixCommandProperties properties = HystrixPropertiesFactory.getCommandProperties(
+                configuration.getCommandKey(), null);
+        CircuitBreakerMetricsCollection metricsCollection = metadata.getCbMetricsCollection(
+                invocationContext.getMethod().getName()).orElse(null);
+
+        // batches contain invocations of multiple partitions, circuit breaker of the command is used instead
+        if (metadata.getCircuitBreakerKeyExtractor() != null &&
+                !(invocationContext instanceof BatchInvocationContext)) {
+            String partitionKey = metadata.getCircuitBreakerKeyExtractor().extractKey(invocationContext.getMethod(),
+                    invocationContext.getParameters());
+
+            if (partitionKey != null) {
+                return KeyedCircuitBreakerRegistry.getInstance(configuration.getCommandKey(), properties, metadata,
+                        metricsCollection).getCircuitBreaker(partitionKey);
+            }
+        }
+
+        return SuccessThresholdCircuitBreaker.CustomCbFactory.getInstance(configuration.getCommandKey(),
+                configuration.getGroupKey(),
+                properties,
+                HystrixCommandMetrics.getInstance(configuration.getCommandKey(), configuration.getGroupKey(),
+                        configuration.getThreadPoolKey(), properties),
+                metadata,
+                metricsCollection);
+    }
+
     @Override
     protected Object run() throws Exception {
 
         log.finest("Executing command '" + metadata.getCommandKey() + "'.");
 
-        AtomicLong currentlyExecuting = null;
+        LongAdder currentlyExecuting = null;
+        if (metadata.isAsynchronous() && this.queued) {
+            long waitingDuration = System.nanoTime() - this.waitingStartTime;
+
+            if (this.bulkheadMetricsCollection != null) {
+                bulkheadMetricsCollection.getCurrentlyWaiting().decrement();
+                bulkheadMetricsCollection.getWaitingDuration().update(waitingDuration);
+            }
+            FaultToleranceEvents.bulkheadQueueWait(metadata.getCommandKey(), metadata.getGroupKey(), waitingDuration);
+
+            // task waited in the queue for too long, caller has likely given up already
+            if (queueController != null && queueController.shouldShed(waitingDuration)) {
+                if (this.bulkheadMetricsCollection != null) {
+                    bulkheadMetricsCollection.getCallsRejected().inc();
+                }
+                FaultToleranceEvents.bulkheadRejected(metadata.getCommandKey(), metadata.getGroupKey(),
+                        "shed after queue wait");
+
+                // reported as bad request, so it is not recorded as a failure and fallback is not executed
+                BulkheadException shedException = new BulkheadException("Execution was shed after waiting in " +
+                        "the bulkhead queue for " + TimeUnit.NANOSECONDS.toMillis(waitingDuration) + " ms.");
+
+                throw new HystrixBadRequestException(shedException.getMessage(), shedException);
+            }
+        }
+
         if (this.bulkheadMetricsCollection != null) {
             bulkheadMetricsCollection.getCallsAccepted().inc();
 
             currentlyExecuting = bulkheadMetricsCollection.getCurrentlyExecuting();
-            currentlyExecuting.incrementAndGet();
-
-            if (metadata.isAsynchronous()) {
-                bulkheadMetricsCollection.getCurrentlyWaiting().decrementAndGet();
-                bulkheadMetricsCollection.getWaitingDuration()
-                        .update(Duration.between(this.waitingStartTime, Instant.now()).toNanos());
-            }
+            currentlyExecuting.increment();
         }
 
         Object result;
@@ -116,31 +202,58 @@ public class KumuluzHystrixGenericCommand extends HystrixCommand<Object> {
         boolean requestContextActivated = false;
         threadExecution = property == null || property == HystrixCommandProperties.ExecutionIsolationStrategy.THREAD;
 
-        Instant startTime = null;
-        Instant endTime = null;
+        boolean completed = false;
+        Long previousDeadline = DeadlineContext.set(inheritedDeadline);
+        DeadlineContext.set(getDeadline());
+
         try {
-            if (threadExecution && !requestContext.isActive()) {
+            // batches are executed on the collapser timer thread
+            if ((threadExecution || isBatchExecution()) && !requestContext.isActive()) {
                 requestContext.activate();
                 requestContextActivated = true;
             }
 
-            startTime = Instant.now();
+            if (threadExecution) {
+                synchronized (executionLock) {
+                    executionThread = Thread.currentThread();
+                }
+            }
+
+            executionStartTime = System.nanoTime();
+            executionStarted = true;
             result = invocationContext.proceed();
-            endTime = Instant.now();
+            completed = true;
         } catch (Throwable e) {
-            if (isFallbackInvokeable(e) || e instanceof BulkheadException)
+            if (isFallbackInvokeable(metadata, e) || e instanceof BulkheadException)
                 throw e;
 
             throw new HystrixBadRequestException(e.getMessage(), e);
         } finally {
+            DeadlineContext.restore(previousDeadline);
+
+            if (threadExecution) {
+                synchronized (executionLock) {
+                    executionThread = null;
+
+                    // clear interrupt of a cancelled execution before the thread is returned to the pool
+                    if (cancelled) {
+                        Thread.interrupted();
+                    }
+                }
+            }
+
             if (requestContextActivated && requestContext.isActive())
                 requestContext.deactivate();
 
             if (currentlyExecuting != null) {
-                currentlyExecuting.decrementAndGet();
+                currentlyExecuting.decrement();
             }
-            if (bulkheadMetricsCollection != null && startTime != null && endTime != null) {
-                bulkheadMetricsCollection.getExecutionDuration().update(Duration.between(startTime, endTime).toNanos());
+            if (executionStarted) {
+                executionDuration = System.nanoTime() - executionStartTime;
+
+                if (bulkheadMetricsCollection != null && completed) {
+                    bulkheadMetricsCollection.getExecutionDuration().update(executionDuration);
+                }
             }
         }
 
@@ -150,6 +263,11 @@ public class KumuluzHystrixGenericCommand extends HystrixCommand<Object> {
     @Override
     protected Object getFallback() {
 
+        if (isBatchExecution()) {
+            // fallback is executed for each of the collapsed invocations separately
+            throw new UnsupportedOperationException("No fallback available for batch execution.");
+        }
+
         log.finest("Executing fallback for command '" + metadata.getCommandKey() + "'.");
 
         Exception executionException = getExceptionFromThrowable(getExecutionException());
@@ -167,27 +285,171 @@ public class KumuluzHystrixGenericCommand extends HystrixCommand<Object> {
 
     @Override
     public Future<Object> queue() {
-        if (this.metadata.isAsynchronous() && this.bulkheadMetricsCollection != null) {
-            this.bulkheadMetricsCollection.getCurrentlyWaiting().incrementAndGet();
-            this.waitingStartTime = Instant.now();
+        if (this.metadata.isAsynchronous()) {
+            this.waitingStartTime = System.nanoTime();
+            this.queued = true;
+
+            if (this.bulkheadMetricsCollection != null) {
+                this.bulkheadMetricsCollection.getCurrentlyWaiting().increment();
+            }
         }
         return super.queue();
     }
 
-    private boolean isFallbackInvokeable(Throwable e) {
+    /**
+     * Returns execution time of the intercepted method in nanoseconds, measured with {@link System#nanoTime()}. If the
+     * execution is still running (e.g. it has timed out), time elapsed since its start is returned.
+     *
+     * @return Execution time in nanoseconds or -1 if execution did not start
+     */
+    public long getExecutionTimeInNanoseconds() {
 
-        if (metadata.getCircuitBreaker() == null) {
-            return true;
+        long duration = executionDuration;
+
+        if (duration >= 0) {
+            return duration;
+        }
+
+        return executionStarted ? System.nanoTime() - executionStartTime : -1;
+    }
+
+    @Override
+    public Observable<Object> toObservable() {
+
+        commandStartTime = System.nanoTime();
+
+        Observable<Object> observable = super.toObservable();
+
+        if (metadata.getTimeout() != null && inheritedDeadline != null) {
+            observable = applyInheritedDeadline(observable);
         }
 
-        Class<? extends Throwable>[] failOn = metadata.getCircuitBreaker().failOn();
+        if (admissionController == null) {
+            return observable;
+        }
+
+        return observable.doOnTerminate(this::releaseAdmission).doOnUnsubscribe(this::releaseAdmission);
+    }
 
-        for (Class<? extends Throwable> fo : failOn) {
-            if (fo.isInstance(e))
-                return true;
+    /**
+     * Shrinks the timeout of the command to the time remaining until the deadline of the enclosing execution.
+     */
+    private Observable<Object> applyInheritedDeadline(Observable<Object> observable) {
+
+        long remaining = inheritedDeadline - commandStartTime;
+
+        if (remaining <= 0) {
+            return Observable.error(new TimeoutException("Deadline of the enclosing execution has already passed."));
+        }
+
+        HystrixCommandProperties properties = getProperties();
+
+        if (properties.executionTimeoutEnabled().get() &&
+                TimeUnit.MILLISECONDS.toNanos(properties.executionTimeoutInMilliseconds().get()) <= remaining) {
+            return observable;
+        }
+
+        return observable.timeout(remaining, TimeUnit.NANOSECONDS, Observable.defer(() -> {
+            cancelExecution();
+
+            return Observable.error(new TimeoutException("Execution exceeded the deadline of the enclosing " +
+                    "execution."));
+        }));
+    }
+
+    /**
+     * Returns deadline of this execution, based on the timeout of the command.
+     *
+     * @return Deadline in nanoseconds or null if timeout is disabled
+     */
+    private Long getDeadline() {
+
+        HystrixCommandProperties properties = getProperties();
+
+        if (metadata.getTimeout() == null || !properties.executionTimeoutEnabled().get()) {
+            return null;
+        }
+
+        return commandStartTime + TimeUnit.MILLISECONDS.toNanos(properties.executionTimeoutInMilliseconds().get());
+    }
+
+    /**
+     * Sets the admission controller which admitted this command into the bulkhead. Admission is released once the
+     * command completes.
+     *
+     * @param admissionController Bulkhead admission controller
+     */
+    public void setAdmissionController(BulkheadAdmissionController admissionController) {
+        this.admissionController = admissionController;
+    }
+
+    private void releaseAdmission() {
+        if (admissionReleased.compareAndSet(false, true)) {
+            admissionController.release();
+        }
+    }
+
+    @Override
+    protected String getCacheKey() {
+
+        if (!metadata.isCacheResult() || isBatchExecution() || !HystrixRequestContext.isCurrentThreadInitialized()) {
+            return null;
+        }
+
+        return requestCacheKeys.get().getKey(invocationContext.getParameters());
+    }
+
+    /**
+     * Removes the response of this command from the request cache, so failed executions are not returned to subsequent
+     * invocations with equal arguments.
+     */
+    public void clearCachedResponse() {
+
+        if (!metadata.isCacheResult() || hystrixRequestContext == null) {
+            return;
+        }
+
+        // future may be resolved on a thread without the request context
+        HystrixRequestContext current = HystrixRequestContext.getContextForCurrentThread();
+
+        try {
+            HystrixRequestContext.setContextOnCurrentThread(hystrixRequestContext);
+
+            String cacheKey = getCacheKey();
+
+            if (cacheKey != null) {
+                HystrixRequestCache.getInstance(commandKey, HystrixPlugins.getInstance().getConcurrencyStrategy())
+                        .clear(cacheKey);
+            }
+        } finally {
+            HystrixRequestContext.setContextOnCurrentThread(current);
+        }
+    }
+
+    /**
+     * Cancels the execution by interrupting the thread executing the command. Only applicable to thread execution.
+     */
+    public void cancelExecution() {
+        synchronized (executionLock) {
+            cancelled = true;
+
+            if (executionThread != null) {
+                executionThread.interrupt();
+            }
+        }
+    }
+
+    private boolean isBatchExecution() {
+        return invocationContext instanceof BatchInvocationContext;
+    }
+
+    static boolean isFallbackInvokeable(ExecutionMetadata metadata, Throwable e) {
+
+        if (metadata.getCircuitBreaker() == null) {
+            return true;
         }
 
-        return false;
+        return ExceptionClassifier.getInstance(metadata).classify(e).isFailOn();
     }
 
 }
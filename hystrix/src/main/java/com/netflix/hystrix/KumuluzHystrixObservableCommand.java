@@ -0,0 +1,192 @@
+/*
+ *  Copyright (c) 2014-2017 Kumuluz and/or its affiliates
+ *  and other contributors as indicated by the @author tags and
+ *  the contributor list.
+ *
+ *  Licensed under the MIT License (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://opensource.org/licenses/MIT
+ *
+ *  The software is provided "AS IS", WITHOUT WARRANTY OF ANY KIND, express or
+ *  implied, including but not limited to the warranties of merchantability,
+ *  fitness for a particular purpose and noninfringement. in no event shall the
+ *  authors or copyright holders be liable for any claim, damages or other
+ *  liability, whether in an action of contract, tort or otherwise, arising from,
+ *  out of or in connection with the software or the use or other dealings in the
+ *  software. See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.netflix.hystrix;
+
+import com.kumuluz.ee.fault.tolerance.commands.BulkheadAdmissionController;
+import com.kumuluz.ee.fault.tolerance.commands.FallbackHelper;
+import com.kumuluz.ee.fault.tolerance.commands.HystrixCommandConfiguration;
+import com.kumuluz.ee.fault.tolerance.commands.ReactiveConverters;
+import com.kumuluz.ee.fault.tolerance.metrics.BulkheadMetricsCollection;
+import com.kumuluz.ee.fault.tolerance.models.ExecutionMetadata;
+import com.netflix.hystrix.exception.HystrixBadRequestException;
+import org.eclipse.microprofile.faulttolerance.exceptions.BulkheadException;
+import org.eclipse.microprofile.faulttolerance.exceptions.FaultToleranceException;
+import org.jboss.weld.context.RequestContext;
+import rx.Observable;
+
+import javax.interceptor.InvocationContext;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Logger;
+
+/**
+ * Hystrix observable command for wrapping execution of methods returning reactive types in fault tolerance. Timeout,
+ * circuit breaker and semaphore bulkhead are applied to the subscription of the returned stream, so no thread is
+ * blocked while waiting for its items.
+ *
+ * Placed in this package to share the circuit breaker of {@link KumuluzHystrixGenericCommand}.
+ *
+ * @since 2.2.0
+ */
+public class KumuluzHystrixObservableCommand extends HystrixObservableCommand<Object> {
+
+    private static final Logger log = Logger.getLogger(KumuluzHystrixObservableCommand.class.getName());
+
+    private final InvocationContext invocationContext;
+    private final RequestContext requestContext;
+    private final ExecutionMetadata metadata;
+
+    private BulkheadAdmissionController admissionController;
+    private final AtomicBoolean admissionReleased = new AtomicBoolean(false);
+
+    private final BulkheadMetricsCollection bulkheadMetricsCollection;
+    private final AtomicBoolean executionFinished = new AtomicBoolean(false);
+    private volatile long executionStartTime;
+
+    public KumuluzHystrixObservableCommand(HystrixCommandConfiguration configuration,
+                                           InvocationContext invocationContext, RequestContext requestContext,
+                                           ExecutionMetadata metadata) {
+
+        super(configuration.getGroupKey(), configuration.getCommandKey(), configuration.getThreadPoolKey(),
+                KumuluzHystrixGenericCommand.getCircuitBreaker(configuration, invocationContext, metadata),
+                null,
+                null,
+                null,
+                null,
+                null,
+                null,
+                null,
+                null);
+
+        this.invocationContext = invocationContext;
+        this.requestContext = requestContext;
+        this.metadata = metadata;
+
+        this.bulkheadMetricsCollection = metadata.getBulkheadMetricsCollection(invocationContext.getMethod().getName())
+                .orElse(null);
+    }
+
+    @Override
+    protected Observable<Object> construct() {
+
+        log.finest("Executing observable command '" + metadata.getCommandKey() + "'.");
+
+        // method is invoked on each subscription, so resubscription by retry invokes it again
+        return Observable.create(subscriber -> {
+            if (bulkheadMetricsCollection != null) {
+                bulkheadMetricsCollection.getCallsAccepted().inc();
+                bulkheadMetricsCollection.getCurrentlyExecuting().increment();
+            }
+            executionStartTime = System.nanoTime();
+
+            boolean requestContextActivated = false;
+
+            try {
+                if (!requestContext.isActive()) {
+                    requestContext.activate();
+                    requestContextActivated = true;
+                }
+
+                Object result;
+
+                try {
+                    result = invocationContext.proceed();
+                } catch (Exception e) {
+                    subscriber.onError(e);
+                    return;
+                }
+
+                // request context remains active while the returned stream is subscribed, items emitted
+                // asynchronously on other threads are emitted without it
+                ReactiveConverters.toObservable(result).unsafeSubscribe(subscriber);
+            } finally {
+                if (requestContextActivated && requestContext.isActive())
+                    requestContext.deactivate();
+            }
+        }).doOnCompleted(() -> finishExecution(true))
+                .doOnError(e -> finishExecution(false))
+                .doOnUnsubscribe(() -> finishExecution(false))
+                .onErrorResumeNext(e -> {
+                    if (KumuluzHystrixGenericCommand.isFallbackInvokeable(metadata, e) ||
+                            e instanceof BulkheadException)
+                        return Observable.error(e);
+
+                    return Observable.error(new HystrixBadRequestException(e.getMessage(), e));
+                });
+    }
+
+    @Override
+    protected Observable<Object> resumeWithFallback() {
+
+        log.finest("Executing fallback for observable command '" + metadata.getCommandKey() + "'.");
+
+        Exception executionException = getExceptionFromThrowable(getExecutionException());
+
+        try {
+            return ReactiveConverters.toObservable(FallbackHelper.executeFallback(executionException, metadata,
+                    invocationContext, null));
+        } catch (FaultToleranceException e) {
+            return Observable.error(e);
+        } catch (Exception e) {
+            return Observable.error(new FaultToleranceException(e));
+        }
+    }
+
+    @Override
+    public Observable<Object> toObservable() {
+
+        Observable<Object> observable = super.toObservable();
+
+        if (admissionController == null) {
+            return observable;
+        }
+
+        return observable.doOnTerminate(this::releaseAdmission).doOnUnsubscribe(this::releaseAdmission);
+    }
+
+    /**
+     * Sets the admission controller which admitted this command into the bulkhead. Admission is released once the
+     * returned stream terminates or is unsubscribed.
+     *
+     * @param admissionController Bulkhead admission controller
+     */
+    public void setAdmissionController(BulkheadAdmissionController admissionController) {
+        this.admissionController = admissionController;
+    }
+
+    private void releaseAdmission() {
+        if (admissionReleased.compareAndSet(false, true)) {
+            admissionController.release();
+        }
+    }
+
+    private void finishExecution(boolean completed) {
+
+        if (bulkheadMetricsCollection == null || !executionFinished.compareAndSet(false, true)) {
+            return;
+        }
+
+        bulkheadMetricsCollection.getCurrentlyExecuting().decrement();
+
+        if (completed) {
+            bulkheadMetricsCollection.getExecutionDuration().update(System.nanoTime() - executionStartTime);
+        }
+    }
+}
@@ -0,0 +1,324 @@
+/*
+ *  Copyright (c) 2014-2017 Kumuluz and/or its affiliates
+ *  and other contributors as indicated by the @author tags and
+ *  the contributor list.
+ *
+ *  Licensed under the MIT License (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://opensource.org/licenses/MIT
+ *
+ *  The software is provided "AS IS", WITHOUT WARRANTY OF ANY KIND, express or
+ *  implied, including but not limited to the warranties of merchantability,
+ *  fitness for a particular purpose and noninfringement. in no event shall the
+ *  authors or copyright holders be liable for any claim, damages or other
+ *  liability, whether in an action of contract, tort or otherwise, arising from,
+ *  out of or in connection with the software or the use or other dealings in the
+ *  software. See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.kumuluz.ee.fault.tolerance;
+
+import com.kumuluz.ee.fault.tolerance.enums.CircuitBreakerType;
+import com.kumuluz.ee.fault.tolerance.interfaces.FaultToleranceUtil;
+import com.kumuluz.ee.fault.tolerance.metrics.MetricsUtil;
+import com.kumuluz.ee.fault.tolerance.models.ExecutionMetadata;
+import com.kumuluz.ee.fault.tolerance.utils.TestConfigurationUtil;
+import com.kumuluz.ee.fault.tolerance.utils.TestMetricRegistry;
+import org.eclipse.microprofile.faulttolerance.exceptions.FaultToleranceDefinitionException;
+import org.eclipse.microprofile.faulttolerance.exceptions.FaultToleranceException;
+import org.eclipse.microprofile.metrics.MetricRegistry;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import javax.enterprise.inject.Instance;
+import javax.enterprise.inject.spi.BeanManager;
+import javax.enterprise.inject.spi.CDI;
+import javax.enterprise.inject.spi.CDIProvider;
+import javax.enterprise.util.TypeLiteral;
+import javax.interceptor.InvocationContext;
+import java.io.IOException;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Proxy;
+import java.time.temporal.ChronoUnit;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Optional;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+
+/**
+ * Tests for the programmatic {@link FaultTolerance} API. Executions are passed to a fault tolerance util which invokes
+ * them directly, beans are provided by a test CDI provider.
+ *
+ * @since 2.2.0
+ */
+public class FaultToleranceTest {
+
+    private static volatile TestCDI cdi;
+
+    private TestMetricRegistry registry;
+    private ExecutionMetadata executedMetadata;
+    private Object[] executedParameters;
+    private Exception executionFailure;
+
+    @BeforeClass
+    public void setUpCdi() {
+        TestConfigurationUtil.initialize();
+        CDI.setCDIProvider(new TestCDIProvider());
+    }
+
+    @AfterClass
+    public void tearDownCdi() {
+        cdi = null;
+    }
+
+    @BeforeMethod
+    public void createBeans() {
+        registry = new TestMetricRegistry();
+        executedMetadata = null;
+        executedParameters = null;
+        executionFailure = null;
+
+        cdi = new TestCDI(faultToleranceUtil(), new TestMetricsUtil(registry));
+    }
+
+    @Test
+    public void shouldBuildExecutionMetadata() throws Exception {
+
+        FaultTolerance<String> faultTolerance = FaultTolerance.<String>builder()
+                .commandKey("fetch")
+                .timeout(500, ChronoUnit.MILLIS)
+                .retry(3, 10, ChronoUnit.MILLIS)
+                .circuitBreaker(20, 0.5, 5, ChronoUnit.SECONDS, 2)
+                .bulkhead(4, 8)
+                .build();
+
+        Assert.assertEquals(faultTolerance.call(() -> "result"), "result");
+
+        Assert.assertEquals(executedMetadata.getCommandKey(), "fetch");
+        Assert.assertEquals(executedMetadata.getGroupKey(), "fetch");
+        Assert.assertFalse(executedMetadata.isAsynchronous());
+        Assert.assertEquals(executedMetadata.getTimeout().value(), 500);
+        Assert.assertEquals(executedMetadata.getRetry().maxRetries(), 3);
+        Assert.assertEquals(executedMetadata.getCircuitBreaker().requestVolumeThreshold(), 20);
+        Assert.assertEquals(executedMetadata.getCircuitBreakerSuccessThreshold(), Integer.valueOf(2));
+        Assert.assertEquals(executedMetadata.getCircuitBreakerType(), CircuitBreakerType.SUCCESS_THRESHOLD);
+        Assert.assertEquals(executedMetadata.getBulkhead().value(), 4);
+        Assert.assertEquals(executedMetadata.getBulkhead().waitingTaskQueue(), 8);
+    }
+
+    @Test
+    public void shouldExecuteDecoratedFunctionWithArgument() {
+
+        FaultTolerance<Integer> faultTolerance = FaultTolerance.<Integer>builder()
+                .commandKey("length")
+                .groupKey("strings")
+                .build();
+        Function<String, Integer> length = faultTolerance.decorateFunction(String::length);
+
+        Assert.assertEquals(length.apply("abc"), Integer.valueOf(3));
+        Assert.assertEquals(executedMetadata.getGroupKey(), "strings");
+        Assert.assertEquals(executedParameters, new Object[]{"abc"});
+    }
+
+    @Test
+    public void shouldApplyFallbackAndCountIt() {
+
+        FaultTolerance<String> faultTolerance = FaultTolerance.<String>builder()
+                .commandKey("fetch")
+                .groupKey("customers")
+                .fallback(t -> "fallback " + t.getMessage())
+                .build();
+
+        Assert.assertEquals(faultTolerance.get(() -> {
+            throw new IllegalStateException("failure");
+        }), "fallback failure");
+        Assert.assertEquals(registry.getCounters().get("ft.customers.fetch.fallback.calls.total").getCount(), 1);
+    }
+
+    @Test
+    public void shouldPropagateExceptionsWithoutFallback() throws Exception {
+
+        FaultTolerance<String> faultTolerance = FaultTolerance.<String>builder().commandKey("fetch").build();
+
+        try {
+            faultTolerance.decorateSupplier(() -> {
+                throw new IllegalStateException("failure");
+            }).get();
+            Assert.fail("Exception of the execution should be thrown.");
+        } catch (IllegalStateException e) {
+            Assert.assertEquals(e.getMessage(), "failure");
+        }
+
+        try {
+            faultTolerance.decorateCallable(() -> {
+                throw new IOException("failure");
+            }).call();
+            Assert.fail("Exception of the execution should be thrown.");
+        } catch (IOException e) {
+            Assert.assertEquals(e.getMessage(), "failure");
+        }
+    }
+
+    @Test
+    public void shouldWrapCheckedExceptionsOfSupplier() {
+
+        FaultTolerance<String> faultTolerance = FaultTolerance.<String>builder().commandKey("fetch").build();
+        executionFailure = new TimeoutException();
+
+        try {
+            faultTolerance.get(() -> "result");
+            Assert.fail("Exception of the execution should be thrown.");
+        } catch (FaultToleranceException e) {
+            Assert.assertSame(e.getCause(), executionFailure);
+        }
+    }
+
+    @Test(expectedExceptions = FaultToleranceDefinitionException.class)
+    public void shouldRequireCommandKey() {
+        FaultTolerance.builder().timeout(1, ChronoUnit.SECONDS).build();
+    }
+
+    @Test(expectedExceptions = FaultToleranceDefinitionException.class)
+    public void shouldRejectInvalidCircuitBreaker() {
+        FaultTolerance.builder().circuitBreaker(20, 1.5, 5, ChronoUnit.SECONDS);
+    }
+
+    @Test(expectedExceptions = FaultToleranceDefinitionException.class)
+    public void shouldRejectInvalidBulkhead() {
+        FaultTolerance.builder().bulkhead(0);
+    }
+
+    private FaultToleranceUtil faultToleranceUtil() {
+        return (FaultToleranceUtil) Proxy.newProxyInstance(FaultToleranceTest.class.getClassLoader(),
+                new Class<?>[]{FaultToleranceUtil.class}, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "execute":
+                            InvocationContext invocationContext = (InvocationContext) args[0];
+
+                            executedMetadata = (ExecutionMetadata) args[2];
+                            executedParameters = invocationContext.getParameters();
+
+                            if (executionFailure != null) {
+                                throw executionFailure;
+                            }
+
+                            return invocationContext.proceed();
+                        case "getCircuitBreakerType":
+                            return CircuitBreakerType.SUCCESS_THRESHOLD;
+                        default:
+                            throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+    }
+
+    private static class TestMetricsUtil extends MetricsUtil {
+
+        private final MetricRegistry registry;
+
+        TestMetricsUtil(MetricRegistry registry) {
+            this.registry = registry;
+        }
+
+        @Override
+        public Optional<MetricRegistry> getRegistry() {
+            return Optional.of(registry);
+        }
+    }
+
+    private static class TestCDIProvider implements CDIProvider {
+
+        @Override
+        public CDI<Object> getCDI() {
+            TestCDI current = cdi;
+
+            if (current == null) {
+                throw new IllegalStateException("Test CDI is not active.");
+            }
+
+            return current;
+        }
+    }
+
+    /**
+     * CDI resolving fault tolerance util and metrics util. Request context is not needed, since executions are not
+     * intercepted.
+     */
+    private static class TestCDI extends CDI<Object> {
+
+        private final FaultToleranceUtil faultToleranceUtil;
+        private final MetricsUtil metricsUtil;
+
+        TestCDI(FaultToleranceUtil faultToleranceUtil, MetricsUtil metricsUtil) {
+            this.faultToleranceUtil = faultToleranceUtil;
+            this.metricsUtil = metricsUtil;
+        }
+
+        @Override
+        public BeanManager getBeanManager() {
+            throw new UnsupportedOperationException();
+        }
+
+        @SuppressWarnings("unchecked")
+        @Override
+        public <U> Instance<U> select(Class<U> subtype, Annotation... qualifiers) {
+            if (subtype == FaultToleranceUtil.class) {
+                return (Instance<U>) instance(faultToleranceUtil);
+            } else if (subtype == MetricsUtil.class) {
+                return (Instance<U>) instance(metricsUtil);
+            }
+
+            return instance(null);
+        }
+
+        @Override
+        public Instance<Object> select(Annotation... qualifiers) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public <U> Instance<U> select(TypeLiteral<U> subtype, Annotation... qualifiers) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean isUnsatisfied() {
+            return false;
+        }
+
+        @Override
+        public boolean isAmbiguous() {
+            return false;
+        }
+
+        @Override
+        public void destroy(Object instance) {
+        }
+
+        @Override
+        public Iterator<Object> iterator() {
+            return Collections.emptyIterator();
+        }
+
+        @Override
+        public Object get() {
+            throw new UnsupportedOperationException();
+        }
+
+        @SuppressWarnings("unchecked")
+        private static <U> Instance<U> instance(U bean) {
+            return (Instance<U>) Proxy.newProxyInstance(FaultToleranceTest.class.getClassLoader(),
+                    new Class<?>[]{Instance.class}, (proxy, method, args) -> {
+                        if (method.getName().equals("get")) {
+                            return bean;
+                        }
+                        throw new UnsupportedOperationException(method.getName());
+                    });
+        }
+    }
+}
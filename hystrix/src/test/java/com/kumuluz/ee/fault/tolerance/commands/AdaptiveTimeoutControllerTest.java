@@ -0,0 +1,129 @@
+/*
+ *  Copyright (c) 2014-2017 Kumuluz and/or its affiliates
+ *  and other contributors as indicated by the @author tags and
+ *  the contributor list.
+ *
+ *  Licensed under the MIT License (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://opensource.org/licenses/MIT
+ *
+ *  The software is provided "AS IS", WITHOUT WARRANTY OF ANY KIND, express or
+ *  implied, including but not limited to the warranties of merchantability,
+ *  fitness for a particular purpose and noninfringement. in no event shall the
+ *  authors or copyright holders be liable for any claim, damages or other
+ *  liability, whether in an action of contract, tort or otherwise, arising from,
+ *  out of or in connection with the software or the use or other dealings in the
+ *  software. See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.kumuluz.ee.fault.tolerance.commands;
+
+import com.kumuluz.ee.fault.tolerance.configurations.hystrix.HystrixFaultToleranceConfigurationManager;
+import com.kumuluz.ee.fault.tolerance.enums.HystrixConfigurationType;
+import com.netflix.config.ConfigurationManager;
+import com.netflix.hystrix.HystrixCommandKey;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tests for configured timeout handling of {@link AdaptiveTimeoutController}.
+ *
+ * @since 2.2.0
+ */
+public class AdaptiveTimeoutControllerTest {
+
+    private static final AtomicInteger keyCounter = new AtomicInteger();
+
+    @Test
+    public void shouldAdaptTimeoutToCeiling() {
+
+        String key = createCommand(1000);
+        AdaptiveTimeoutController controller = createController(key);
+
+        setProperty(key, AdaptiveTimeoutController.CEILING_PROPERTY, 500L);
+        setProperty(key, AdaptiveTimeoutController.ENABLED_PROPERTY, true);
+        controller.update();
+
+        Assert.assertEquals(controller.getEffectiveTimeout(), 500);
+        Assert.assertEquals(controller.getConfiguredTimeout(), 1000);
+    }
+
+    @Test
+    public void shouldRestoreConfiguredTimeoutWhenDisabled() {
+
+        String key = createCommand(1000);
+        AdaptiveTimeoutController controller = createController(key);
+
+        setProperty(key, AdaptiveTimeoutController.CEILING_PROPERTY, 500L);
+        setProperty(key, AdaptiveTimeoutController.ENABLED_PROPERTY, true);
+        controller.update();
+        Assert.assertEquals(controller.getEffectiveTimeout(), 500);
+
+        setProperty(key, AdaptiveTimeoutController.ENABLED_PROPERTY, false);
+
+        Assert.assertEquals(controller.getEffectiveTimeout(), 1000);
+    }
+
+    @Test
+    public void shouldUseChangedConfiguredTimeoutAsCeiling() {
+
+        String key = createCommand(1000);
+        AdaptiveTimeoutController controller = createController(key);
+
+        setProperty(key, AdaptiveTimeoutController.ENABLED_PROPERTY, true);
+        controller.update();
+        Assert.assertEquals(controller.getEffectiveTimeout(), 1000);
+
+        setProperty(key, AdaptiveTimeoutController.CONFIGURED_TIMEOUT_PROPERTY, 2000L);
+        controller.update();
+        Assert.assertEquals(controller.getEffectiveTimeout(), 2000);
+
+        setProperty(key, AdaptiveTimeoutController.ENABLED_PROPERTY, false);
+        Assert.assertEquals(controller.getEffectiveTimeout(), 2000);
+    }
+
+    @Test
+    public void shouldClampTimeoutToIntegerRange() {
+
+        String key = createCommand(1000);
+        AdaptiveTimeoutController controller = createController(key);
+
+        setProperty(key, AdaptiveTimeoutController.CEILING_PROPERTY, Long.MAX_VALUE);
+        setProperty(key, AdaptiveTimeoutController.ENABLED_PROPERTY, true);
+        controller.update();
+
+        Assert.assertEquals(controller.getEffectiveTimeout(), Integer.MAX_VALUE);
+    }
+
+    private static String createCommand(int timeout) {
+
+        String key = "adaptive-timeout-test-" + keyCounter.incrementAndGet();
+
+        setProperty(key, "execution.isolation.thread.timeoutInMilliseconds", timeout);
+        setProperty(key, AdaptiveTimeoutController.CONFIGURED_TIMEOUT_PROPERTY, (long) timeout);
+        setProperty(key, AdaptiveTimeoutController.UPDATE_INTERVAL_PROPERTY, 0L);
+
+        return key;
+    }
+
+    private static AdaptiveTimeoutController createController(String key) {
+        return AdaptiveTimeoutController.getInstance(HystrixCommandKey.Factory.asKey(key), new TestConfigurationManager());
+    }
+
+    private static void setProperty(String key, String propertyPath, Object value) {
+        ConfigurationManager.getConfigInstance().setProperty("hystrix.command." + key + "." + propertyPath, value);
+    }
+
+    private static class TestConfigurationManager extends HystrixFaultToleranceConfigurationManager {
+
+        @Override
+        public void setHystrixConfig(HystrixConfigurationType type, String key, String propertyPath, Object value) {
+            ConfigurationManager.getConfigInstance().setProperty(toHystrixConfigKeyPath(type, key, propertyPath),
+                    value);
+        }
+    }
+}
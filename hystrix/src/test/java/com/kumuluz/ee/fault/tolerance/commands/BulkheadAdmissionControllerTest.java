@@ -0,0 +1,76 @@
+/*
+ *  Copyright (c) 2014-2017 Kumuluz and/or its affiliates
+ *  and other contributors as indicated by the @author tags and
+ *  the contributor list.
+ *
+ *  Licensed under the MIT License (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://opensource.org/licenses/MIT
+ *
+ *  The software is provided "AS IS", WITHOUT WARRANTY OF ANY KIND, express or
+ *  implied, including but not limited to the warranties of merchantability,
+ *  fitness for a particular purpose and noninfringement. in no event shall the
+ *  authors or copyright holders be liable for any claim, damages or other
+ *  liability, whether in an action of contract, tort or otherwise, arising from,
+ *  out of or in connection with the software or the use or other dealings in the
+ *  software. See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.kumuluz.ee.fault.tolerance.commands;
+
+import com.kumuluz.ee.fault.tolerance.enums.CriticalityLevel;
+import com.netflix.config.ConfigurationManager;
+import com.netflix.hystrix.HystrixThreadPoolKey;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ * Tests for capacity reservations of {@link BulkheadAdmissionController}.
+ *
+ * @since 2.2.0
+ */
+public class BulkheadAdmissionControllerTest {
+
+    @Test
+    public void shouldReserveCapacityForHigherCriticality() {
+
+        String key = "admission-test";
+
+        // default thread pool admits 10 executions
+        ConfigurationManager.getConfigInstance().setProperty("hystrix.threadpool." + key + "." +
+                BulkheadAdmissionController.RESERVE_CRITICAL_PROPERTY, 0.2);
+        ConfigurationManager.getConfigInstance().setProperty("hystrix.threadpool." + key + "." +
+                BulkheadAdmissionController.RESERVE_DEFAULT_PROPERTY, 0.5);
+
+        BulkheadAdmissionController admissionController = BulkheadAdmissionController.getInstance(
+                HystrixThreadPoolKey.Factory.asKey(key));
+
+        Assert.assertEquals(acquire(admissionController, CriticalityLevel.SHEDDABLE), 5);
+        Assert.assertEquals(acquire(admissionController, CriticalityLevel.DEFAULT), 3);
+        Assert.assertTrue(admissionController.tryAcquire(CriticalityLevel.CRITICAL));
+
+        admissionController.release();
+        admissionController.release();
+        Assert.assertFalse(admissionController.tryAcquire(CriticalityLevel.SHEDDABLE));
+        Assert.assertTrue(admissionController.tryAcquire(CriticalityLevel.DEFAULT));
+
+        for (int i = 0; i < 8; i++) {
+            admissionController.release();
+        }
+        Assert.assertTrue(admissionController.tryAcquire(CriticalityLevel.SHEDDABLE));
+        admissionController.release();
+    }
+
+    private static int acquire(BulkheadAdmissionController admissionController, CriticalityLevel criticality) {
+
+        int admitted = 0;
+
+        while (admitted < 100 && admissionController.tryAcquire(criticality)) {
+            admitted++;
+        }
+
+        return admitted;
+    }
+}
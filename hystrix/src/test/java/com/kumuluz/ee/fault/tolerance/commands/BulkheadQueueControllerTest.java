@@ -0,0 +1,83 @@
+/*
+ *  Copyright (c) 2014-2017 Kumuluz and/or its affiliates
+ *  and other contributors as indicated by the @author tags and
+ *  the contributor list.
+ *
+ *  Licensed under the MIT License (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://opensource.org/licenses/MIT
+ *
+ *  The software is provided "AS IS", WITHOUT WARRANTY OF ANY KIND, express or
+ *  implied, including but not limited to the warranties of merchantability,
+ *  fitness for a particular purpose and noninfringement. in no event shall the
+ *  authors or copyright holders be liable for any claim, damages or other
+ *  liability, whether in an action of contract, tort or otherwise, arising from,
+ *  out of or in connection with the software or the use or other dealings in the
+ *  software. See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.kumuluz.ee.fault.tolerance.commands;
+
+import com.netflix.config.ConfigurationManager;
+import com.netflix.hystrix.HystrixThreadPoolKey;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tests for shedding decisions of {@link BulkheadQueueController}.
+ *
+ * @since 2.2.0
+ */
+public class BulkheadQueueControllerTest {
+
+    @Test
+    public void shouldShedTasksExceedingMaxQueueTime() {
+
+        setProperty("max-time-test", BulkheadQueueController.MAX_QUEUE_TIME_PROPERTY, 100L);
+        BulkheadQueueController controller = createController("max-time-test");
+
+        Assert.assertFalse(controller.shouldShed(TimeUnit.MILLISECONDS.toNanos(50)));
+        Assert.assertTrue(controller.shouldShed(TimeUnit.MILLISECONDS.toNanos(150)));
+    }
+
+    @Test
+    public void shouldNotShedWithoutConfiguration() {
+
+        BulkheadQueueController controller = createController("unconfigured-test");
+
+        Assert.assertFalse(controller.shouldShed(TimeUnit.SECONDS.toNanos(10)));
+    }
+
+    @Test
+    public void shouldShedAfterSojournTimeStaysAboveTargetForInterval() throws InterruptedException {
+
+        setProperty("codel-test", BulkheadQueueController.CODEL_TARGET_PROPERTY, 10L);
+        setProperty("codel-test", BulkheadQueueController.CODEL_INTERVAL_PROPERTY, 50L);
+        BulkheadQueueController controller = createController("codel-test");
+
+        long aboveTarget = TimeUnit.MILLISECONDS.toNanos(20);
+
+        // first task above target only starts the interval
+        Assert.assertFalse(controller.shouldShed(aboveTarget));
+        Assert.assertFalse(controller.shouldShed(aboveTarget));
+
+        Thread.sleep(60);
+        Assert.assertTrue(controller.shouldShed(aboveTarget));
+
+        // queue drained, controller leaves the dropping state
+        Assert.assertFalse(controller.shouldShed(TimeUnit.MILLISECONDS.toNanos(1)));
+        Assert.assertFalse(controller.shouldShed(aboveTarget));
+    }
+
+    private static BulkheadQueueController createController(String key) {
+        return BulkheadQueueController.getInstance(HystrixThreadPoolKey.Factory.asKey(key));
+    }
+
+    private static void setProperty(String key, String propertyPath, Object value) {
+        ConfigurationManager.getConfigInstance().setProperty("hystrix.threadpool." + key + "." + propertyPath, value);
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ *  Copyright (c) 2014-2017 Kumuluz and/or its affiliates
+ *  and other contributors as indicated by the @author tags and
+ *  the contributor list.
+ *
+ *  Licensed under the MIT License (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://opensource.org/licenses/MIT
+ *
+ *  The software is provided "AS IS", WITHOUT WARRANTY OF ANY KIND, express or
+ *  implied, including but not limited to the warranties of merchantability,
+ *  fitness for a particular purpose and noninfringement. in no event shall the
+ *  authors or copyright holders be liable for any claim, damages or other
+ *  liability, whether in an action of contract, tort or otherwise, arising from,
+ *  out of or in connection with the software or the use or other dealings in the
+ *  software. See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.kumuluz.ee.fault.tolerance.commands;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.Test;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tests for {@link DeadlineContext}.
+ *
+ * @since 2.2.0
+ */
+public class DeadlineContextTest {
+
+    @AfterMethod
+    public void clearDeadline() {
+        DeadlineContext.restore(null);
+    }
+
+    @Test
+    public void shouldHaveNoDeadlineByDefault() {
+        Assert.assertNull(DeadlineContext.get());
+        Assert.assertEquals(DeadlineContext.getRemainingNanos(), Long.MAX_VALUE);
+    }
+
+    @Test
+    public void shouldKeepEarlierDeadline() {
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(1);
+
+        Assert.assertNull(DeadlineContext.set(deadline));
+        Assert.assertEquals(DeadlineContext.set(deadline + TimeUnit.SECONDS.toNanos(1)), Long.valueOf(deadline));
+        Assert.assertEquals(DeadlineContext.get(), Long.valueOf(deadline));
+
+        Assert.assertEquals(DeadlineContext.set(null), Long.valueOf(deadline));
+        Assert.assertEquals(DeadlineContext.get(), Long.valueOf(deadline));
+    }
+
+    @Test
+    public void shouldShortenDeadlineAndRestoreIt() {
+
+        long outer = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        long inner = outer - TimeUnit.SECONDS.toNanos(5);
+
+        Long previousOuter = DeadlineContext.set(outer);
+        Long previousInner = DeadlineContext.set(inner);
+
+        Assert.assertEquals(DeadlineContext.get(), Long.valueOf(inner));
+        Assert.assertTrue(DeadlineContext.getRemainingNanos() <= TimeUnit.SECONDS.toNanos(5));
+
+        DeadlineContext.restore(previousInner);
+        Assert.assertEquals(DeadlineContext.get(), Long.valueOf(outer));
+
+        DeadlineContext.restore(previousOuter);
+        Assert.assertNull(DeadlineContext.get());
+    }
+
+    @Test
+    public void shouldReturnNegativeRemainingTimeAfterDeadline() {
+
+        DeadlineContext.set(System.nanoTime() - 1);
+
+        Assert.assertTrue(DeadlineContext.getRemainingNanos() < 0);
+    }
+}
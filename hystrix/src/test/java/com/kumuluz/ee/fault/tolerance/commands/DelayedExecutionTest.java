@@ -0,0 +1,130 @@
+/*
+ *  Copyright (c) 2014-2017 Kumuluz and/or its affiliates
+ *  and other contributors as indicated by the @author tags and
+ *  the contributor list.
+ *
+ *  Licensed under the MIT License (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://opensource.org/licenses/MIT
+ *
+ *  The software is provided "AS IS", WITHOUT WARRANTY OF ANY KIND, express or
+ *  implied, including but not limited to the warranties of merchantability,
+ *  fitness for a particular purpose and noninfringement. in no event shall the
+ *  authors or copyright holders be liable for any claim, damages or other
+ *  liability, whether in an action of contract, tort or otherwise, arising from,
+ *  out of or in connection with the software or the use or other dealings in the
+ *  software. See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.kumuluz.ee.fault.tolerance.commands;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Tests for {@link DelayedExecution}.
+ *
+ * @since 2.2.0
+ */
+public class DelayedExecutionTest {
+
+    @Test
+    public void shouldNotBlockCallingThread() throws Exception {
+
+        long start = System.nanoTime();
+        AtomicReference<Thread> executingThread = new AtomicReference<>();
+
+        DelayedExecution execution = new DelayedExecution(TimeUnit.MILLISECONDS.toNanos(200), () -> {
+            executingThread.set(Thread.currentThread());
+            return CompletableFuture.completedFuture("result");
+        });
+
+        Assert.assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(100));
+        Assert.assertFalse(execution.isDone());
+
+        Assert.assertEquals(execution.get(), "result");
+        Assert.assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(200));
+        Assert.assertNotEquals(executingThread.get(), Thread.currentThread());
+        Assert.assertTrue(execution.isDone());
+    }
+
+    @Test
+    public void shouldReturnResultOfStartedExecution() throws Exception {
+
+        CompletableFuture<Object> result = new CompletableFuture<>();
+        DelayedExecution execution = new DelayedExecution(0, () -> result);
+
+        try {
+            execution.get(100, TimeUnit.MILLISECONDS);
+            Assert.fail("Execution should not have completed.");
+        } catch (TimeoutException e) {
+            // expected
+        }
+
+        result.complete("result");
+
+        Assert.assertEquals(execution.get(1, TimeUnit.SECONDS), "result");
+    }
+
+    @Test
+    public void shouldFailIfExecutionCannotBeStarted() throws InterruptedException {
+
+        IllegalStateException exception = new IllegalStateException("rejected");
+        DelayedExecution execution = new DelayedExecution(0, () -> {
+            throw exception;
+        });
+
+        try {
+            execution.get();
+            Assert.fail("Execution should have failed.");
+        } catch (ExecutionException e) {
+            Assert.assertSame(e.getCause(), exception);
+        }
+    }
+
+    @Test
+    public void shouldNotStartCancelledExecution() throws InterruptedException {
+
+        AtomicBoolean executed = new AtomicBoolean();
+        DelayedExecution execution = new DelayedExecution(TimeUnit.MILLISECONDS.toNanos(100), () -> {
+            executed.set(true);
+            return null;
+        });
+
+        Assert.assertTrue(execution.cancel(false));
+        Assert.assertTrue(execution.isCancelled());
+
+        TimeUnit.MILLISECONDS.sleep(300);
+
+        Assert.assertFalse(executed.get());
+    }
+
+    @Test
+    public void shouldCancelStartedExecution() throws Exception {
+
+        CompletableFuture<Object> result = new CompletableFuture<>();
+        CountDownLatch started = new CountDownLatch(1);
+        DelayedExecution execution = new DelayedExecution(0, () -> {
+            started.countDown();
+            return result;
+        });
+
+        Assert.assertTrue(started.await(1, TimeUnit.SECONDS));
+        TimeUnit.MILLISECONDS.sleep(100);
+
+        Assert.assertTrue(execution.cancel(true));
+
+        Assert.assertTrue(result.isCancelled());
+        Assert.assertTrue(execution.isCancelled());
+    }
+}
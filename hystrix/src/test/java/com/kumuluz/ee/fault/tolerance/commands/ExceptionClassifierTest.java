@@ -0,0 +1,104 @@
+/*
+ *  Copyright (c) 2014-2017 Kumuluz and/or its affiliates
+ *  and other contributors as indicated by the @author tags and
+ *  the contributor list.
+ *
+ *  Licensed under the MIT License (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://opensource.org/licenses/MIT
+ *
+ *  The software is provided "AS IS", WITHOUT WARRANTY OF ANY KIND, express or
+ *  implied, including but not limited to the warranties of merchantability,
+ *  fitness for a particular purpose and noninfringement. in no event shall the
+ *  authors or copyright holders be liable for any claim, damages or other
+ *  liability, whether in an action of contract, tort or otherwise, arising from,
+ *  out of or in connection with the software or the use or other dealings in the
+ *  software. See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.kumuluz.ee.fault.tolerance.commands;
+
+import com.kumuluz.ee.fault.tolerance.models.ExecutionMetadata;
+import org.eclipse.microprofile.faulttolerance.CircuitBreaker;
+import org.eclipse.microprofile.faulttolerance.Retry;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.lang.reflect.Method;
+
+/**
+ * Tests for exception classification of {@link ExceptionClassifier}.
+ *
+ * @since 2.2.0
+ */
+public class ExceptionClassifierTest {
+
+    @Test
+    public void shouldClassifyBySubtype() {
+
+        ExceptionClassifier classifier = ExceptionClassifier.getInstance(metadata("retried"));
+
+        ExceptionClassifier.Classification io = classifier.classify(new IOException());
+        Assert.assertTrue(io.isRetryOn());
+        Assert.assertFalse(io.isAbortOn());
+        Assert.assertTrue(io.isFailOn());
+
+        ExceptionClassifier.Classification notFound = classifier.classify(new FileNotFoundException());
+        Assert.assertTrue(notFound.isRetryOn());
+        Assert.assertTrue(notFound.isAbortOn());
+
+        ExceptionClassifier.Classification state = classifier.classify(new IllegalStateException());
+        Assert.assertFalse(state.isRetryOn());
+        Assert.assertFalse(state.isFailOn());
+    }
+
+    @Test
+    public void shouldCountAllExceptionsAsFailuresWithoutCircuitBreaker() {
+
+        ExceptionClassifier classifier = ExceptionClassifier.getInstance(metadata("notRetried"));
+
+        ExceptionClassifier.Classification classification = classifier.classify(new IllegalStateException());
+        Assert.assertFalse(classification.isRetryOn());
+        Assert.assertFalse(classification.isAbortOn());
+        Assert.assertTrue(classification.isFailOn());
+    }
+
+    @Test
+    public void shouldCacheClassifierPerCommand() {
+
+        ExceptionClassifier classifier = ExceptionClassifier.getInstance(metadata("retried"));
+
+        Assert.assertSame(ExceptionClassifier.getInstance(metadata("retried")), classifier);
+        Assert.assertSame(classifier.classify(new IOException()), classifier.classify(new IOException()));
+        Assert.assertNotSame(ExceptionClassifier.getInstance(metadata("notRetried")), classifier);
+    }
+
+    private static ExecutionMetadata metadata(String methodName) {
+
+        Method method;
+        try {
+            method = ExceptionClassifierTest.class.getDeclaredMethod(methodName);
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException(e);
+        }
+
+        ExecutionMetadata metadata = new ExecutionMetadata(ExceptionClassifierTest.class, method,
+                "ExceptionClassifierTest-" + methodName, "test");
+        metadata.setRetry(method.getAnnotation(Retry.class));
+        metadata.setCircuitBreaker(method.getAnnotation(CircuitBreaker.class));
+
+        return metadata;
+    }
+
+    @Retry(retryOn = IOException.class, abortOn = FileNotFoundException.class)
+    @CircuitBreaker(failOn = IOException.class)
+    private static void retried() {
+    }
+
+    private static void notRetried() {
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ *  Copyright (c) 2014-2017 Kumuluz and/or its affiliates
+ *  and other contributors as indicated by the @author tags and
+ *  the contributor list.
+ *
+ *  Licensed under the MIT License (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://opensource.org/licenses/MIT
+ *
+ *  The software is provided "AS IS", WITHOUT WARRANTY OF ANY KIND, express or
+ *  implied, including but not limited to the warranties of merchantability,
+ *  fitness for a particular purpose and noninfringement. in no event shall the
+ *  authors or copyright holders be liable for any claim, damages or other
+ *  liability, whether in an action of contract, tort or otherwise, arising from,
+ *  out of or in connection with the software or the use or other dealings in the
+ *  software. See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.kumuluz.ee.fault.tolerance.commands;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Tests for {@link HeapCircuitBreakerStateStore}.
+ *
+ * @since 2.2.0
+ */
+public class HeapCircuitBreakerStateStoreTest {
+
+    @Test
+    public void shouldAllocateZeroedSlots() {
+
+        HeapCircuitBreakerStateStore store = new HeapCircuitBreakerStateStore(3);
+        Set<Integer> slots = new HashSet<>();
+
+        // spans several segments
+        for (int i = 0; i < 3000; i++) {
+            int slot = store.allocate("key" + i);
+
+            Assert.assertTrue(slots.add(slot));
+            Assert.assertEquals(store.get(slot, 0), 0);
+            Assert.assertEquals(store.get(slot, 2), 0);
+        }
+    }
+
+    @Test
+    public void shouldKeepSlotsIndependent() {
+
+        HeapCircuitBreakerStateStore store = new HeapCircuitBreakerStateStore(3);
+        int a = store.allocate("a");
+        int b = store.allocate("b");
+
+        store.set(a, 2, 5);
+        Assert.assertEquals(store.addAndGet(a, 2, 2), 7);
+        Assert.assertTrue(store.compareAndSet(b, 0, 0, 1));
+        Assert.assertFalse(store.compareAndSet(b, 0, 0, 2));
+        Assert.assertEquals(store.getAndSet(b, 1, 9), 0);
+
+        Assert.assertEquals(store.get(a, 0), 0);
+        Assert.assertEquals(store.get(a, 1), 0);
+        Assert.assertEquals(store.get(b, 2), 0);
+    }
+
+    @Test
+    public void shouldNotReuseSlotWhileOwnerIsReachable() {
+
+        HeapCircuitBreakerStateStore store = new HeapCircuitBreakerStateStore(3);
+        Object owner = new Object();
+        int slot = store.allocate("evicted");
+
+        store.set(slot, 0, 42);
+        store.release(slot, owner);
+        System.gc();
+
+        int other = store.allocate("new");
+        Assert.assertNotEquals(other, slot);
+
+        // evicted view still writes into its own slot
+        store.addAndGet(slot, 0, 1);
+        Assert.assertEquals(store.get(other, 0), 0);
+        Assert.assertEquals(store.get(slot, 0), 43);
+
+        Assert.assertNotNull(owner);
+    }
+
+    @Test
+    public void shouldReuseZeroedSlotOnceOwnerIsCollected() throws InterruptedException {
+
+        HeapCircuitBreakerStateStore store = new HeapCircuitBreakerStateStore(3);
+        int slot = store.allocate("evicted");
+
+        store.set(slot, 1, 42);
+        store.release(slot, new Object());
+
+        int reused = -1;
+
+        for (int i = 0; i < 100 && reused != slot; i++) {
+            System.gc();
+            Thread.sleep(10);
+            reused = store.allocate("new" + i);
+        }
+
+        Assert.assertEquals(reused, slot);
+        Assert.assertEquals(store.get(slot, 1), 0);
+    }
+}
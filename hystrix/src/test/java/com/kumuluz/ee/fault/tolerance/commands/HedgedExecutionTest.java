@@ -0,0 +1,164 @@
+/*
+ *  Copyright (c) 2014-2017 Kumuluz and/or its affiliates
+ *  and other contributors as indicated by the @author tags and
+ *  the contributor list.
+ *
+ *  Licensed under the MIT License (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://opensource.org/licenses/MIT
+ *
+ *  The software is provided "AS IS", WITHOUT WARRANTY OF ANY KIND, express or
+ *  implied, including but not limited to the warranties of merchantability,
+ *  fitness for a particular purpose and noninfringement. in no event shall the
+ *  authors or copyright holders be liable for any claim, damages or other
+ *  liability, whether in an action of contract, tort or otherwise, arising from,
+ *  out of or in connection with the software or the use or other dealings in the
+ *  software. See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.kumuluz.ee.fault.tolerance.commands;
+
+import com.kumuluz.ee.fault.tolerance.enums.CircuitBreakerType;
+import com.kumuluz.ee.fault.tolerance.enums.CriticalityLevel;
+import com.kumuluz.ee.fault.tolerance.models.ExecutionMetadata;
+import com.kumuluz.ee.fault.tolerance.utils.TestConfigurationUtil;
+import com.kumuluz.ee.fault.tolerance.utils.TestInvocationContext;
+import com.kumuluz.ee.fault.tolerance.utils.TestRequestContext;
+import com.netflix.hystrix.HystrixCommandGroupKey;
+import com.netflix.hystrix.HystrixCommandKey;
+import com.netflix.hystrix.HystrixThreadPoolKey;
+import com.netflix.hystrix.KumuluzHystrixGenericCommand;
+import org.testng.Assert;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tests for starting hedges of {@link HedgedExecution}.
+ *
+ * @since 2.2.0
+ */
+public class HedgedExecutionTest {
+
+    private final SlowBean bean = new SlowBean();
+
+    @BeforeClass
+    public void initializeConfiguration() {
+        TestConfigurationUtil.initialize();
+    }
+
+    @Test
+    public void shouldNotStartHedgeAfterPrimaryFailed() throws InterruptedException {
+
+        HedgedExecution execution = new HedgedExecution();
+        execution.start(createCommand("fail", 0L));
+
+        try {
+            execution.get();
+            Assert.fail("Execution should have failed.");
+        } catch (ExecutionException e) {
+            // expected
+        }
+
+        Assert.assertFalse(execution.startHedge(createCommand("sleep", 0L)));
+    }
+
+    @Test
+    public void shouldNotStartHedgeAfterPrimaryCompleted() throws Exception {
+
+        HedgedExecution execution = new HedgedExecution();
+        execution.start(createCommand("sleep", 0L));
+
+        Assert.assertEquals(execution.get(), 0L);
+        Assert.assertFalse(execution.startHedge(createCommand("sleep", 0L)));
+    }
+
+    @Test
+    public void shouldCompleteWithFasterHedge() throws Exception {
+
+        HedgedExecution execution = new HedgedExecution();
+        execution.start(createCommand("sleep", 500L));
+
+        Assert.assertFalse(execution.await(TimeUnit.MILLISECONDS.toNanos(20)));
+
+        KumuluzHystrixGenericCommand hedge = createCommand("sleep", 0L);
+        Assert.assertTrue(execution.startHedge(hedge));
+
+        Assert.assertEquals(execution.get(), 0L);
+        Assert.assertSame(execution.getCompletedCommand(), hedge);
+
+        execution.cancel();
+    }
+
+    @Test
+    public void shouldReleaseAdmissionsOfAllExecutions() throws Exception {
+
+        BulkheadAdmissionController admissionController = BulkheadAdmissionController.getInstance(
+                HystrixThreadPoolKey.Factory.asKey("hedge-test"));
+
+        HedgedExecution execution = new HedgedExecution();
+        KumuluzHystrixGenericCommand primary = createCommand("sleep", 500L);
+        KumuluzHystrixGenericCommand hedge = createCommand("sleep", 0L);
+
+        Assert.assertTrue(admissionController.tryAcquire(CriticalityLevel.DEFAULT));
+        primary.setAdmissionController(admissionController);
+        Assert.assertTrue(admissionController.tryAcquire(CriticalityLevel.DEFAULT));
+        hedge.setAdmissionController(admissionController);
+
+        execution.start(primary);
+        Assert.assertTrue(execution.startHedge(hedge));
+        Assert.assertEquals(execution.get(), 0L);
+        execution.cancel();
+
+        // default thread pool admits 10 executions
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(1);
+        int admitted = 0;
+
+        while (admitted < 10 && System.nanoTime() < deadline) {
+            if (admissionController.tryAcquire(CriticalityLevel.DEFAULT)) {
+                admitted++;
+            } else {
+                Thread.sleep(10);
+            }
+        }
+
+        for (int i = 0; i < admitted; i++) {
+            admissionController.release();
+        }
+
+        Assert.assertEquals(admitted, 10);
+    }
+
+    private KumuluzHystrixGenericCommand createCommand(String method, long millis) {
+
+        TestInvocationContext invocationContext = new TestInvocationContext(bean, method, millis);
+        ExecutionMetadata metadata = new ExecutionMetadata(SlowBean.class, invocationContext.getMethod(),
+                "hedge-test-" + method, "hedge-test");
+        metadata.setCircuitBreakerType(CircuitBreakerType.SUCCESS_THRESHOLD);
+
+        HystrixCommandConfiguration configuration = new HystrixCommandConfiguration(
+                HystrixCommandGroupKey.Factory.asKey("hedge-test"),
+                HystrixCommandKey.Factory.asKey("hedge-test-" + method),
+                HystrixThreadPoolKey.Factory.asKey("hedge-test"));
+
+        return new KumuluzHystrixGenericCommand(configuration, invocationContext, TestRequestContext.create(),
+                metadata);
+    }
+
+    public static class SlowBean {
+
+        public long sleep(Long millis) throws InterruptedException {
+            Thread.sleep(millis);
+
+            return millis;
+        }
+
+        public long fail(Long millis) {
+            throw new IllegalStateException("Execution failed.");
+        }
+    }
+}
@@ -0,0 +1,246 @@
+/*
+ *  Copyright (c) 2014-2017 Kumuluz and/or its affiliates
+ *  and other contributors as indicated by the @author tags and
+ *  the contributor list.
+ *
+ *  Licensed under the MIT License (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://opensource.org/licenses/MIT
+ *
+ *  The software is provided "AS IS", WITHOUT WARRANTY OF ANY KIND, express or
+ *  implied, including but not limited to the warranties of merchantability,
+ *  fitness for a particular purpose and noninfringement. in no event shall the
+ *  authors or copyright holders be liable for any claim, damages or other
+ *  liability, whether in an action of contract, tort or otherwise, arising from,
+ *  out of or in connection with the software or the use or other dealings in the
+ *  software. See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.kumuluz.ee.fault.tolerance.commands;
+
+import com.kumuluz.ee.fault.tolerance.annotations.KeyedCircuitBreaker;
+import com.kumuluz.ee.fault.tolerance.enums.CircuitBreakerType;
+import com.kumuluz.ee.fault.tolerance.metrics.CircuitBreakerMetricsCollection;
+import com.kumuluz.ee.fault.tolerance.models.ExecutionMetadata;
+import com.kumuluz.ee.fault.tolerance.utils.TestConfigurationUtil;
+import com.kumuluz.ee.fault.tolerance.utils.TestMetricRegistry;
+import com.netflix.hystrix.HystrixCircuitBreaker;
+import com.netflix.hystrix.HystrixCommandKey;
+import com.netflix.hystrix.HystrixCommandProperties;
+import org.testng.Assert;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+
+/**
+ * Tests for partitions of {@link KeyedCircuitBreakerRegistry}.
+ *
+ * @since 2.2.0
+ */
+public class KeyedCircuitBreakerRegistryTest {
+
+    private static final int SLEEP_WINDOW = 60000;
+
+    private static final String EXCHANGE_ENABLED = "kumuluzee.fault-tolerance.hystrix.circuit-breaker-exchange.enabled";
+
+    private static final AtomicInteger keyCounter = new AtomicInteger();
+
+    @BeforeClass
+    public void initializeConfiguration() {
+        TestConfigurationUtil.initialize();
+    }
+
+    @Test
+    public void shouldCreatePartitionsOfCircuitBreakerType() {
+
+        Assert.assertTrue(createRegistry(CircuitBreakerType.SUCCESS_THRESHOLD, null).getCircuitBreaker("a")
+                instanceof SuccessThresholdCircuitBreaker);
+        Assert.assertTrue(createRegistry(CircuitBreakerType.HYSTRIX, null).getCircuitBreaker("a")
+                instanceof HystrixPartitionCircuitBreaker);
+    }
+
+    @Test
+    public void shouldOpenHystrixPartitionsIndependently() {
+
+        KeyedCircuitBreakerRegistry registry = createRegistry(CircuitBreakerType.HYSTRIX, null);
+
+        HystrixCircuitBreaker failing = registry.getCircuitBreaker("failing");
+        HystrixCircuitBreaker healthy = registry.getCircuitBreaker("healthy");
+
+        failing.markNonSuccess();
+        failing.markNonSuccess();
+        healthy.markSuccess();
+        healthy.markSuccess();
+
+        Assert.assertTrue(failing.isOpen());
+        Assert.assertFalse(failing.attemptExecution());
+        Assert.assertFalse(healthy.isOpen());
+        Assert.assertEquals(registry.getOpenPartitions(10), Collections.singletonList("failing"));
+    }
+
+    @Test
+    public void shouldNotEvictOpenPartitions() {
+
+        KeyedCircuitBreakerRegistry registry = createRegistry(CircuitBreakerType.SUCCESS_THRESHOLD, null);
+
+        HystrixCircuitBreaker open = registry.getCircuitBreaker("open");
+        open.markNonSuccess();
+        open.markNonSuccess();
+        Assert.assertTrue(open.isOpen());
+
+        // open partition is least recently used, closed partitions are evicted instead
+        for (int i = 0; i < 10; i++) {
+            registry.getCircuitBreaker("closed" + i);
+        }
+
+        Assert.assertSame(registry.getCircuitBreaker("open"), open);
+        Assert.assertTrue(registry.getCircuitBreaker("open").isOpen());
+    }
+
+    @Test
+    public void shouldExportOpenPartitionsAsGauges() throws InterruptedException {
+
+        TestMetricRegistry metricRegistry = new TestMetricRegistry();
+        CircuitBreakerMetricsCollection metricsCollection = new CircuitBreakerMetricsCollection(metricRegistry);
+        metricsCollection.setMetricsPrefix("test.");
+        metricsCollection.initialize();
+
+        KeyedCircuitBreakerRegistry registry = createRegistry(CircuitBreakerType.SUCCESS_THRESHOLD,
+                metricsCollection);
+
+        HystrixCircuitBreaker open = registry.getCircuitBreaker("open");
+        open.markNonSuccess();
+        open.markNonSuccess();
+
+        // exported gauges are refreshed at most once per second
+        Thread.sleep(1100);
+        registry.getCircuitBreaker("closed");
+
+        Assert.assertTrue(metricRegistry.getGauges().containsKey("test.circuitbreaker.partitions.open.open.current"));
+        Assert.assertFalse(metricRegistry.getGauges()
+                .containsKey("test.circuitbreaker.partitions.open.closed.current"));
+        Assert.assertEquals(metricRegistry.getGauges().get("test.circuitbreaker.partitions.open.current").getValue(),
+                1L);
+    }
+
+    @Test
+    public void shouldWarnThatHystrixPartitionsAreNotExchanged() {
+
+        List<LogRecord> records = new ArrayList<>();
+        Handler handler = new Handler() {
+            @Override
+            public void publish(LogRecord record) {
+                records.add(record);
+            }
+
+            @Override
+            public void flush() {
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+        Logger logger = Logger.getLogger(CircuitBreakerStateExchangeManager.class.getName());
+
+        logger.addHandler(handler);
+        try {
+            createRegistry(CircuitBreakerType.HYSTRIX, null);
+            createRegistry(CircuitBreakerType.SUCCESS_THRESHOLD, null);
+            Assert.assertTrue(records.isEmpty());
+
+            System.setProperty(EXCHANGE_ENABLED, "true");
+            createRegistry(CircuitBreakerType.SUCCESS_THRESHOLD, null);
+            Assert.assertTrue(records.isEmpty());
+
+            createRegistry(CircuitBreakerType.HYSTRIX, null);
+            Assert.assertEquals(records.size(), 1);
+            Assert.assertEquals(records.get(0).getLevel(), Level.WARNING);
+        } finally {
+            System.clearProperty(EXCHANGE_ENABLED);
+            logger.removeHandler(handler);
+        }
+    }
+
+    @Test
+    public void shouldLimitExportedOpenPartitions() throws InterruptedException {
+
+        TestMetricRegistry metricRegistry = new TestMetricRegistry();
+        CircuitBreakerMetricsCollection metricsCollection = new CircuitBreakerMetricsCollection(metricRegistry);
+        metricsCollection.setMetricsPrefix("test.");
+        metricsCollection.initialize();
+
+        KeyedCircuitBreakerRegistry registry = createRegistry(CircuitBreakerType.SUCCESS_THRESHOLD,
+                metricsCollection, "unboundedPartitioned");
+
+        for (int i = 0; i < KeyedCircuitBreakerRegistry.MAX_OPEN_PARTITION_METRICS + 10; i++) {
+            HystrixCircuitBreaker open = registry.getCircuitBreaker("open/" + i);
+            open.markNonSuccess();
+            open.markNonSuccess();
+        }
+
+        Thread.sleep(1100);
+        registry.getCircuitBreaker("open/0");
+
+        long exported = metricRegistry.getGauges().keySet().stream()
+                .filter(name -> name.startsWith("test.circuitbreaker.partitions.open.open_"))
+                .count();
+
+        Assert.assertEquals(exported, KeyedCircuitBreakerRegistry.MAX_OPEN_PARTITION_METRICS);
+    }
+
+    private static KeyedCircuitBreakerRegistry createRegistry(CircuitBreakerType type,
+                                                              CircuitBreakerMetricsCollection metricsCollection) {
+        return createRegistry(type, metricsCollection, "partitioned");
+    }
+
+    private static KeyedCircuitBreakerRegistry createRegistry(CircuitBreakerType type,
+                                                              CircuitBreakerMetricsCollection metricsCollection,
+                                                              String methodName) {
+
+        String key = "KeyedCircuitBreakerRegistryTest" + keyCounter.incrementAndGet();
+        HystrixCommandProperties.Setter setter = HystrixCommandProperties.Setter()
+                .withCircuitBreakerRequestVolumeThreshold(2)
+                .withCircuitBreakerErrorThresholdPercentage(50)
+                .withCircuitBreakerSleepWindowInMilliseconds(SLEEP_WINDOW);
+        HystrixCommandKey commandKey = HystrixCommandKey.Factory.asKey(key);
+        HystrixCommandProperties properties = new HystrixCommandProperties(commandKey, setter) {
+        };
+
+        Method method = getMethod(methodName);
+        ExecutionMetadata metadata = new ExecutionMetadata(KeyedCircuitBreakerRegistryTest.class, method, key,
+                "test");
+        metadata.setKeyedCircuitBreaker(method.getAnnotation(KeyedCircuitBreaker.class));
+        metadata.setCircuitBreakerSuccessThreshold(1);
+        metadata.setCircuitBreakerType(type);
+
+        return KeyedCircuitBreakerRegistry.getInstance(commandKey, properties, metadata, metricsCollection);
+    }
+
+    private static Method getMethod(String name) {
+        try {
+            return KeyedCircuitBreakerRegistryTest.class.getDeclaredMethod(name, String.class);
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @KeyedCircuitBreaker(maxPartitions = 5, openPartitionMetrics = 5)
+    private static void partitioned(String key) {
+    }
+
+    @KeyedCircuitBreaker(maxPartitions = 1000, openPartitionMetrics = 1000)
+    private static void unboundedPartitioned(String key) {
+    }
+}
@@ -0,0 +1,170 @@
+/*
+ *  Copyright (c) 2014-2017 Kumuluz and/or its affiliates
+ *  and other contributors as indicated by the @author tags and
+ *  the contributor list.
+ *
+ *  Licensed under the MIT License (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://opensource.org/licenses/MIT
+ *
+ *  The software is provided "AS IS", WITHOUT WARRANTY OF ANY KIND, express or
+ *  implied, including but not limited to the warranties of merchantability,
+ *  fitness for a particular purpose and noninfringement. in no event shall the
+ *  authors or copyright holders be liable for any claim, damages or other
+ *  liability, whether in an action of contract, tort or otherwise, arising from,
+ *  out of or in connection with the software or the use or other dealings in the
+ *  software. See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.kumuluz.ee.fault.tolerance.commands;
+
+import com.kumuluz.ee.fault.tolerance.models.ExecutionMetadata;
+import com.kumuluz.ee.fault.tolerance.utils.TestConfigurationUtil;
+import com.kumuluz.ee.fault.tolerance.utils.TestInvocationContext;
+import com.netflix.hystrix.HystrixCollapser.CollapsedRequest;
+import com.netflix.hystrix.HystrixCommandGroupKey;
+import com.netflix.hystrix.HystrixCommandKey;
+import org.eclipse.microprofile.faulttolerance.exceptions.FaultToleranceException;
+import org.testng.Assert;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tests for mapping of batch results in {@link KumuluzHystrixBatchCollapser}.
+ *
+ * @since 2.2.0
+ */
+public class KumuluzHystrixBatchCollapserTest {
+
+    private final CustomersBean bean = new CustomersBean();
+
+    @BeforeClass
+    public void initializeConfiguration() {
+        TestConfigurationUtil.initialize();
+    }
+
+    @Test
+    public void shouldMapListResultsInOrder() {
+
+        KumuluzHystrixBatchCollapser collapser = createCollapser("list", "a");
+        List<TestCollapsedRequest> requests = Arrays.asList(createRequest("list", "a"), createRequest("list", "b"));
+
+        collapser.mapResponseToRequests(Arrays.asList("A", "B"), collapsed(requests));
+
+        Assert.assertEquals(requests.get(0).response, "A");
+        Assert.assertEquals(requests.get(1).response, "B");
+    }
+
+    @Test
+    public void shouldMapMapResultsByArgument() {
+
+        KumuluzHystrixBatchCollapser collapser = createCollapser("map", "a");
+        List<TestCollapsedRequest> requests = Arrays.asList(createRequest("map", "a"), createRequest("map", "b"));
+
+        Map<String, String> results = new HashMap<>();
+        results.put("b", "B");
+        results.put("a", "A");
+        collapser.mapResponseToRequests(results, collapsed(requests));
+
+        Assert.assertEquals(requests.get(0).response, "A");
+        Assert.assertEquals(requests.get(1).response, "B");
+    }
+
+    @Test
+    public void shouldUseMetadataOfCollapsedRequests() {
+
+        // Hystrix keeps using the first collapser instance of the command key for all batches
+        KumuluzHystrixBatchCollapser firstCollapser = createCollapser("first", "a");
+        List<TestCollapsedRequest> requests = Arrays.asList(createRequest("current", "a"),
+                createRequest("current", "b"));
+
+        firstCollapser.mapResponseToRequests(Collections.singletonList("A"), collapsed(requests));
+
+        for (TestCollapsedRequest request : requests) {
+            Assert.assertTrue(request.exception instanceof FaultToleranceException);
+            Assert.assertTrue(request.exception.getMessage().contains("'current'"));
+        }
+    }
+
+    private KumuluzHystrixBatchCollapser createCollapser(String commandKey, String argument) {
+
+        HystrixCommandConfiguration configuration = new HystrixCommandConfiguration(
+                HystrixCommandGroupKey.Factory.asKey("customers"), HystrixCommandKey.Factory.asKey("collapser-test"),
+                null);
+
+        return new KumuluzHystrixBatchCollapser(configuration, new TestInvocationContext(bean, "find", argument),
+                null, createMetadata(commandKey));
+    }
+
+    private TestCollapsedRequest createRequest(String commandKey, String argument) {
+        return new TestCollapsedRequest(createCollapser(commandKey, argument).getRequestArgument());
+    }
+
+    private static Collection<CollapsedRequest<Object, KumuluzHystrixBatchCollapser.BatchRequest>> collapsed(
+            List<TestCollapsedRequest> requests) {
+        return Collections.unmodifiableList(requests);
+    }
+
+    private ExecutionMetadata createMetadata(String commandKey) {
+
+        TestInvocationContext invocationContext = new TestInvocationContext(bean, "find", "");
+
+        return new ExecutionMetadata(CustomersBean.class, invocationContext.getMethod(), commandKey, "customers");
+    }
+
+    public static class CustomersBean {
+
+        public String find(String id) {
+            return null;
+        }
+
+        public List<String> findBatch(List<String> ids) {
+            return ids;
+        }
+    }
+
+    private static class TestCollapsedRequest
+            implements CollapsedRequest<Object, KumuluzHystrixBatchCollapser.BatchRequest> {
+
+        private final KumuluzHystrixBatchCollapser.BatchRequest argument;
+        private Object response;
+        private Exception exception;
+
+        private TestCollapsedRequest(KumuluzHystrixBatchCollapser.BatchRequest argument) {
+            this.argument = argument;
+        }
+
+        @Override
+        public KumuluzHystrixBatchCollapser.BatchRequest getArgument() {
+            return argument;
+        }
+
+        @Override
+        public void setResponse(Object response) {
+            this.response = response;
+        }
+
+        @Override
+        public void emitResponse(Object response) {
+            this.response = response;
+        }
+
+        @Override
+        public void setException(Exception exception) {
+            this.exception = exception;
+        }
+
+        @Override
+        public void setComplete() {
+        }
+    }
+}
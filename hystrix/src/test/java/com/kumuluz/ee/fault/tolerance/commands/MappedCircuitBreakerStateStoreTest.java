@@ -0,0 +1,251 @@
+/*
+ *  Copyright (c) 2014-2017 Kumuluz and/or its affiliates
+ *  and other contributors as indicated by the @author tags and
+ *  the contributor list.
+ *
+ *  Licensed under the MIT License (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://opensource.org/licenses/MIT
+ *
+ *  The software is provided "AS IS", WITHOUT WARRANTY OF ANY KIND, express or
+ *  implied, including but not limited to the warranties of merchantability,
+ *  fitness for a particular purpose and noninfringement. in no event shall the
+ *  authors or copyright holders be liable for any claim, damages or other
+ *  liability, whether in an action of contract, tort or otherwise, arising from,
+ *  out of or in connection with the software or the use or other dealings in the
+ *  software. See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.kumuluz.ee.fault.tolerance.commands;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.time.Duration;
+import java.util.Arrays;
+
+/**
+ * Tests for {@link MappedCircuitBreakerStateStore}.
+ *
+ * @since 2.2.0
+ */
+public class MappedCircuitBreakerStateStoreTest {
+
+    private static final int FIELDS = 3;
+
+    private File file;
+
+    @BeforeMethod
+    public void createFile() throws Exception {
+        file = File.createTempFile("circuit-breakers", ".state");
+        Assert.assertTrue(file.delete());
+    }
+
+    @AfterMethod
+    public void deleteFile() {
+        file.delete();
+    }
+
+    @Test
+    public void shouldRestoreStateFromFile() throws Exception {
+
+        MappedCircuitBreakerStateStore store = createStore(16);
+        int slot = store.allocate("a");
+        store.set(slot, 1, 42);
+
+        MappedCircuitBreakerStateStore restored = createStore(16);
+        int restoredSlot = restored.allocate("a");
+
+        Assert.assertTrue(restored.isMapped(restoredSlot));
+        Assert.assertEquals(restored.get(restoredSlot, 1), 42);
+        Assert.assertEquals(restored.get(restored.allocate("b"), 1), 0);
+    }
+
+    @Test
+    public void shouldShareStateBetweenStores() throws Exception {
+
+        MappedCircuitBreakerStateStore first = createStore(16);
+        MappedCircuitBreakerStateStore second = createStore(16);
+
+        int firstSlot = first.allocate("a");
+        int secondSlot = second.allocate("a");
+
+        Assert.assertTrue(first.compareAndSet(firstSlot, 0, 0, 1));
+        Assert.assertFalse(second.compareAndSet(secondSlot, 0, 0, 1));
+        Assert.assertEquals(second.addAndGet(secondSlot, 2, 5), 5);
+        Assert.assertEquals(first.get(firstSlot, 2), 5);
+    }
+
+    @Test
+    public void shouldDiscardExpiredState() throws Exception {
+
+        MappedCircuitBreakerStateStore store = createStore(16);
+        store.set(store.allocate("a"), 1, 42);
+        store.close();
+
+        Thread.sleep(50);
+
+        MappedCircuitBreakerStateStore restored = new MappedCircuitBreakerStateStore(file, FIELDS, 16,
+                Duration.ofMillis(10), true);
+
+        Assert.assertEquals(restored.get(restored.allocate("a"), 1), 0);
+    }
+
+    @Test
+    public void shouldNotDiscardExpiredStateInUse() throws Exception {
+
+        MappedCircuitBreakerStateStore store = createStore(16);
+        int slot = store.allocate("a");
+        store.set(slot, 1, 42);
+
+        Thread.sleep(50);
+
+        MappedCircuitBreakerStateStore other = new MappedCircuitBreakerStateStore(file, FIELDS, 16,
+                Duration.ofMillis(10), true);
+
+        Assert.assertEquals(other.get(other.allocate("a"), 1), 42);
+        Assert.assertEquals(store.get(slot, 1), 42);
+    }
+
+    @Test
+    public void shouldNotRefreshStateOnCounterIncrements() throws Exception {
+
+        MappedCircuitBreakerStateStore store = createStore(16);
+        int slot = store.allocate("a");
+        store.set(slot, 1, 42);
+
+        Thread.sleep(50);
+
+        store.addAndGet(slot, 2, 1);
+        store.close();
+
+        MappedCircuitBreakerStateStore restored = new MappedCircuitBreakerStateStore(file, FIELDS, 16,
+                Duration.ofMillis(10), true);
+        int restoredSlot = restored.allocate("a");
+
+        Assert.assertEquals(restored.get(restoredSlot, 1), 0);
+        Assert.assertEquals(restored.get(restoredSlot, 2), 0);
+    }
+
+    @Test
+    public void shouldKeepPartitionsOnHeap() throws Exception {
+
+        MappedCircuitBreakerStateStore store = createStore(1);
+        int partition = store.allocatePartition("a#partition");
+
+        Assert.assertFalse(store.isMapped(partition));
+        Assert.assertTrue(store.isMapped(store.allocate("a")));
+
+        store.set(partition, 1, 42);
+        Assert.assertEquals(store.get(partition, 1), 42);
+    }
+
+    @Test
+    public void shouldCompareKeysInFull() throws Exception {
+
+        char[] prefix = new char[MappedCircuitBreakerStateStore.KEY_BYTES - 1];
+        Arrays.fill(prefix, 'k');
+
+        MappedCircuitBreakerStateStore store = createStore(16);
+        int first = store.allocate(new String(prefix) + "a");
+        int second = store.allocate(new String(prefix) + "b");
+
+        Assert.assertTrue(store.isMapped(first));
+        Assert.assertTrue(store.isMapped(second));
+        Assert.assertNotEquals(first, second);
+    }
+
+    @Test
+    public void shouldKeepStateOfLongKeysOnHeap() throws Exception {
+
+        char[] prefix = new char[MappedCircuitBreakerStateStore.KEY_BYTES];
+        Arrays.fill(prefix, 'k');
+
+        MappedCircuitBreakerStateStore store = createStore(16);
+        int first = store.allocate(new String(prefix) + "a");
+        int second = store.allocate(new String(prefix) + "b");
+
+        Assert.assertFalse(store.isMapped(first));
+        Assert.assertFalse(store.isMapped(second));
+        Assert.assertNotEquals(first, second);
+
+        store.set(first, 0, 1);
+        Assert.assertEquals(store.get(second, 0), 0);
+    }
+
+    @Test
+    public void shouldTakeOverAbandonedClaim() throws Exception {
+
+        createStore(1);
+
+        // process claimed the only slot and crashed before writing the key
+        long claimTime = System.currentTimeMillis() - 2 * MappedCircuitBreakerStateStore.CLAIM_TIMEOUT;
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+             FileChannel channel = randomAccessFile.getChannel()) {
+            ByteBuffer keyState = ByteBuffer.allocate(8).order(ByteOrder.nativeOrder());
+            keyState.putLong(0, -claimTime);
+            channel.write(keyState, 64);
+        }
+
+        MappedCircuitBreakerStateStore store = createStore(1);
+        int slot = store.allocate("a");
+
+        Assert.assertTrue(store.isMapped(slot));
+        Assert.assertEquals(createStore(1).allocate("a"), slot);
+    }
+
+    @Test
+    public void shouldCreateFileAccessibleOnlyByOwner() throws Exception {
+
+        createStore(16);
+
+        Assert.assertEquals(PosixFilePermissions.toString(Files.getPosixFilePermissions(file.toPath())), "rw-------");
+    }
+
+    @Test
+    public void shouldCreateFileAccessibleByGroup() throws Exception {
+
+        new MappedCircuitBreakerStateStore(file, FIELDS, 16, Duration.ofMinutes(1), true, true);
+
+        Assert.assertEquals(PosixFilePermissions.toString(Files.getPosixFilePermissions(file.toPath())), "rw-rw----");
+    }
+
+    @Test(expectedExceptions = IOException.class)
+    public void shouldRejectFileAccessibleByOthers() throws Exception {
+
+        Files.createFile(file.toPath());
+        Files.setPosixFilePermissions(file.toPath(), PosixFilePermissions.fromString("rw-rw-rw-"));
+
+        createStore(16);
+    }
+
+    @Test(expectedExceptions = IOException.class)
+    public void shouldRejectSymbolicLink() throws Exception {
+
+        File target = File.createTempFile("circuit-breakers", ".target");
+
+        try {
+            Files.createSymbolicLink(file.toPath(), target.toPath());
+
+            createStore(16);
+        } finally {
+            target.delete();
+        }
+    }
+
+    private MappedCircuitBreakerStateStore createStore(int capacity) throws Exception {
+        return new MappedCircuitBreakerStateStore(file, FIELDS, capacity, Duration.ofMinutes(1), true);
+    }
+}
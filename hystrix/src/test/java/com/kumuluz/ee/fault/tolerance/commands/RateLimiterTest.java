@@ -0,0 +1,150 @@
+/*
+ *  Copyright (c) 2014-2017 Kumuluz and/or its affiliates
+ *  and other contributors as indicated by the @author tags and
+ *  the contributor list.
+ *
+ *  Licensed under the MIT License (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://opensource.org/licenses/MIT
+ *
+ *  The software is provided "AS IS", WITHOUT WARRANTY OF ANY KIND, express or
+ *  implied, including but not limited to the warranties of merchantability,
+ *  fitness for a particular purpose and noninfringement. in no event shall the
+ *  authors or copyright holders be liable for any claim, damages or other
+ *  liability, whether in an action of contract, tort or otherwise, arising from,
+ *  out of or in connection with the software or the use or other dealings in the
+ *  software. See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.kumuluz.ee.fault.tolerance.commands;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tests for permits of {@link RateLimiter}.
+ *
+ * @since 2.2.0
+ */
+public class RateLimiterTest {
+
+    private static final long MINUTE = TimeUnit.MINUTES.toNanos(1);
+
+    @Test
+    public void shouldAllowBurstOfAllPermits() {
+
+        RateLimiter rateLimiter = new RateLimiter(5, MINUTE, 0);
+
+        for (int i = 0; i < 5; i++) {
+            Assert.assertEquals(rateLimiter.acquire(), 0);
+        }
+        Assert.assertEquals(rateLimiter.acquire(), -1);
+    }
+
+    @Test
+    public void shouldDelayExecutionsWithinMaxWait() {
+
+        long emissionInterval = MINUTE / 2;
+        RateLimiter rateLimiter = new RateLimiter(2, MINUTE, MINUTE);
+
+        Assert.assertEquals(rateLimiter.acquire(), 0);
+        Assert.assertEquals(rateLimiter.acquire(), 0);
+
+        long wait = rateLimiter.acquire();
+        Assert.assertTrue(wait > 0 && wait <= emissionInterval, "Unexpected wait " + wait + ".");
+
+        // second delayed execution waits for the next emission interval
+        long nextWait = rateLimiter.acquire();
+        Assert.assertTrue(nextWait > wait && nextWait <= 2 * emissionInterval, "Unexpected wait " + nextWait + ".");
+
+        Assert.assertEquals(rateLimiter.acquire(), -1);
+    }
+
+    @Test
+    public void shouldReplenishPermitsAfterWindow() throws InterruptedException {
+
+        RateLimiter rateLimiter = new RateLimiter(2, TimeUnit.MILLISECONDS.toNanos(100), 0);
+
+        Assert.assertEquals(rateLimiter.acquire(), 0);
+        Assert.assertEquals(rateLimiter.acquire(), 0);
+        Assert.assertEquals(rateLimiter.acquire(), -1);
+
+        Thread.sleep(150);
+
+        Assert.assertEquals(rateLimiter.acquire(), 0);
+        Assert.assertEquals(rateLimiter.acquire(), 0);
+    }
+
+    @Test
+    public void shouldApplyReconfiguredPermits() {
+
+        RateLimiter rateLimiter = new RateLimiter(1, MINUTE, 0);
+
+        Assert.assertEquals(rateLimiter.acquire(), 0);
+        Assert.assertEquals(rateLimiter.acquire(), -1);
+
+        rateLimiter.setPermits(1000);
+
+        Assert.assertEquals(rateLimiter.acquire(), 0);
+    }
+
+    @Test
+    public void shouldApplyReducedPermits() {
+
+        RateLimiter rateLimiter = new RateLimiter(1000, MINUTE, 0);
+
+        for (int i = 0; i < 10; i++) {
+            Assert.assertEquals(rateLimiter.acquire(), 0);
+        }
+
+        // executions admitted under the previous limit already exceed the new one
+        rateLimiter.setPermits(5);
+
+        Assert.assertEquals(rateLimiter.acquire(), -1);
+    }
+
+    @Test
+    public void shouldNotExceedPermitsUnderConcurrentAcquisition() throws Exception {
+
+        int threads = 8;
+        RateLimiter rateLimiter = new RateLimiter(100, MINUTE, 0);
+        AtomicInteger accepted = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int j = 0; j < 1000; j++) {
+                        if (rateLimiter.acquire() == 0) {
+                            accepted.incrementAndGet();
+                        }
+                    }
+                    return null;
+                }));
+            }
+
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        Assert.assertEquals(accepted.get(), 100);
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ *  Copyright (c) 2014-2017 Kumuluz and/or its affiliates
+ *  and other contributors as indicated by the @author tags and
+ *  the contributor list.
+ *
+ *  Licensed under the MIT License (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://opensource.org/licenses/MIT
+ *
+ *  The software is provided "AS IS", WITHOUT WARRANTY OF ANY KIND, express or
+ *  implied, including but not limited to the warranties of merchantability,
+ *  fitness for a particular purpose and noninfringement. in no event shall the
+ *  authors or copyright holders be liable for any claim, damages or other
+ *  liability, whether in an action of contract, tort or otherwise, arising from,
+ *  out of or in connection with the software or the use or other dealings in the
+ *  software. See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.kumuluz.ee.fault.tolerance.commands;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+/**
+ * Tests for {@link RequestCacheKeys}.
+ *
+ * @since 2.2.0
+ */
+public class RequestCacheKeysTest {
+
+    @Test
+    public void shouldAssignSameKeyToEqualArguments() {
+
+        RequestCacheKeys keys = new RequestCacheKeys();
+
+        Assert.assertEquals(keys.getKey(new Object[]{"a", 1, Arrays.asList(1, 2)}),
+                keys.getKey(new Object[]{"a", 1, Arrays.asList(1, 2)}));
+        Assert.assertEquals(keys.getKey(new Object[]{new int[]{1, 2}, new String[]{"x"}}),
+                keys.getKey(new Object[]{new int[]{1, 2}, new String[]{"x"}}));
+        Assert.assertEquals(keys.getKey(new Object[0]), keys.getKey(new Object[0]));
+        Assert.assertEquals(keys.getKey(new Object[]{null}), keys.getKey(new Object[]{null}));
+    }
+
+    @Test
+    public void shouldDistinguishArgumentsWithEqualStringForm() {
+
+        RequestCacheKeys keys = new RequestCacheKeys();
+
+        // all of the pairs were mapped to the same key when arguments were converted to strings
+        assertDistinct(keys, new Object[]{"a, b"}, new Object[]{"a", "b"});
+        assertDistinct(keys, new Object[]{1}, new Object[]{1L});
+        assertDistinct(keys, new Object[]{"1"}, new Object[]{1});
+        assertDistinct(keys, new Object[]{"null"}, new Object[]{null});
+        assertDistinct(keys, new Object[]{Collections.singletonList("a")}, new Object[]{new String[]{"a"}});
+        assertDistinct(keys, new Object[]{new Unequal("x")}, new Object[]{new Unequal("x")});
+    }
+
+    @Test
+    public void shouldNotBeAffectedByLaterChangesOfArgumentArray() {
+
+        RequestCacheKeys keys = new RequestCacheKeys();
+        Object[] parameters = new Object[]{"a"};
+
+        String key = keys.getKey(parameters);
+        parameters[0] = "b";
+
+        Assert.assertEquals(keys.getKey(new Object[]{"a"}), key);
+        Assert.assertNotEquals(keys.getKey(parameters), key);
+    }
+
+    private static void assertDistinct(RequestCacheKeys keys, Object[] first, Object[] second) {
+        Assert.assertNotEquals(keys.getKey(first), keys.getKey(second));
+    }
+
+    private static class Unequal {
+
+        private final String value;
+
+        private Unequal(String value) {
+            this.value = value;
+        }
+
+        @Override
+        public String toString() {
+            return value;
+        }
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ *  Copyright (c) 2014-2017 Kumuluz and/or its affiliates
+ *  and other contributors as indicated by the @author tags and
+ *  the contributor list.
+ *
+ *  Licensed under the MIT License (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://opensource.org/licenses/MIT
+ *
+ *  The software is provided "AS IS", WITHOUT WARRANTY OF ANY KIND, express or
+ *  implied, including but not limited to the warranties of merchantability,
+ *  fitness for a particular purpose and noninfringement. in no event shall the
+ *  authors or copyright holders be liable for any claim, damages or other
+ *  liability, whether in an action of contract, tort or otherwise, arising from,
+ *  out of or in connection with the software or the use or other dealings in the
+ *  software. See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.kumuluz.ee.fault.tolerance.commands;
+
+import com.kumuluz.ee.fault.tolerance.utils.TestConfigurationUtil;
+import com.netflix.hystrix.HystrixCommandKey;
+import com.netflix.hystrix.HystrixCommandProperties;
+import org.testng.Assert;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tests for status transitions of {@link SuccessThresholdCircuitBreaker}.
+ *
+ * @since 2.2.0
+ */
+public class SuccessThresholdCircuitBreakerTest {
+
+    private static final int SLEEP_WINDOW = 100;
+    private static final int SUCCESS_THRESHOLD = 2;
+
+    private static final AtomicInteger keyCounter = new AtomicInteger();
+
+    @BeforeClass
+    public void initializeConfiguration() {
+        TestConfigurationUtil.initialize();
+    }
+
+    @Test
+    public void shouldOpenWhenFailureRatioIsReached() {
+
+        SuccessThresholdCircuitBreaker circuitBreaker = createCircuitBreaker();
+
+        circuitBreaker.markSuccess();
+        Assert.assertFalse(circuitBreaker.isOpen());
+
+        circuitBreaker.markNonSuccess();
+        Assert.assertTrue(circuitBreaker.isOpen());
+        Assert.assertFalse(circuitBreaker.attemptExecution());
+    }
+
+    @Test
+    public void shouldAllowTrialExecutionsAfterSleepWindow() throws InterruptedException {
+
+        SuccessThresholdCircuitBreaker circuitBreaker = createOpenCircuitBreaker();
+
+        Thread.sleep(SLEEP_WINDOW + 50);
+
+        for (int i = 0; i < SUCCESS_THRESHOLD; i++) {
+            Assert.assertTrue(circuitBreaker.attemptExecution());
+        }
+        Assert.assertFalse(circuitBreaker.attemptExecution());
+    }
+
+    @Test
+    public void shouldReopenWhenTrialExecutionFails() throws InterruptedException {
+
+        SuccessThresholdCircuitBreaker circuitBreaker = createOpenCircuitBreaker();
+        long openedTime = circuitBreaker.getCircuitOpenedTime();
+
+        Thread.sleep(SLEEP_WINDOW + 50);
+        Assert.assertTrue(circuitBreaker.attemptExecution());
+
+        // circuit is half-open, a single failure opens it again and restarts the sleep window
+        circuitBreaker.markNonSuccess();
+
+        Assert.assertTrue(circuitBreaker.getCircuitOpenedTime() > openedTime);
+        Assert.assertFalse(circuitBreaker.attemptExecution());
+    }
+
+    @Test
+    public void shouldAllowNewTrialExecutionsAfterReopen() throws InterruptedException {
+
+        SuccessThresholdCircuitBreaker circuitBreaker = createOpenCircuitBreaker();
+
+        Thread.sleep(SLEEP_WINDOW + 50);
+        while (circuitBreaker.attemptExecution()) {
+            // use up all trial executions
+        }
+        circuitBreaker.markNonSuccess();
+
+        Thread.sleep(SLEEP_WINDOW + 50);
+        Assert.assertTrue(circuitBreaker.attemptExecution());
+    }
+
+    @Test
+    public void shouldCloseAfterSuccessThreshold() throws InterruptedException {
+
+        SuccessThresholdCircuitBreaker circuitBreaker = createOpenCircuitBreaker();
+
+        Thread.sleep(SLEEP_WINDOW + 50);
+
+        for (int i = 0; i < SUCCESS_THRESHOLD; i++) {
+            Assert.assertTrue(circuitBreaker.attemptExecution());
+            Assert.assertTrue(circuitBreaker.isOpen());
+            circuitBreaker.markSuccess();
+        }
+
+        Assert.assertFalse(circuitBreaker.isOpen());
+        Assert.assertEquals(circuitBreaker.getCircuitOpenedTime(), -1);
+        Assert.assertTrue(circuitBreaker.attemptExecution());
+    }
+
+    private static SuccessThresholdCircuitBreaker createOpenCircuitBreaker() {
+
+        SuccessThresholdCircuitBreaker circuitBreaker = createCircuitBreaker();
+
+        circuitBreaker.markNonSuccess();
+        circuitBreaker.markNonSuccess();
+        Assert.assertTrue(circuitBreaker.isOpen());
+
+        return circuitBreaker;
+    }
+
+    private static SuccessThresholdCircuitBreaker createCircuitBreaker() {
+
+        String key = "SuccessThresholdCircuitBreakerTest" + keyCounter.incrementAndGet();
+        HystrixCommandProperties.Setter setter = HystrixCommandProperties.Setter()
+                .withCircuitBreakerRequestVolumeThreshold(2)
+                .withCircuitBreakerErrorThresholdPercentage(50)
+                .withCircuitBreakerSleepWindowInMilliseconds(SLEEP_WINDOW);
+        HystrixCommandProperties properties =
+                new HystrixCommandProperties(HystrixCommandKey.Factory.asKey(key), setter) {
+                };
+
+        return SuccessThresholdCircuitBreaker.createPartition(properties, key, key, "test", SUCCESS_THRESHOLD,
+                null);
+    }
+}
@@ -0,0 +1,184 @@
+/*
+ *  Copyright (c) 2014-2017 Kumuluz and/or its affiliates
+ *  and other contributors as indicated by the @author tags and
+ *  the contributor list.
+ *
+ *  Licensed under the MIT License (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://opensource.org/licenses/MIT
+ *
+ *  The software is provided "AS IS", WITHOUT WARRANTY OF ANY KIND, express or
+ *  implied, including but not limited to the warranties of merchantability,
+ *  fitness for a particular purpose and noninfringement. in no event shall the
+ *  authors or copyright holders be liable for any claim, damages or other
+ *  liability, whether in an action of contract, tort or otherwise, arising from,
+ *  out of or in connection with the software or the use or other dealings in the
+ *  software. See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.kumuluz.ee.fault.tolerance.commands;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.Test;
+
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Tests for {@link UdpGossipStateExchange} exchanging states between exchanges bound to loopback.
+ *
+ * @since 2.2.0
+ */
+public class UdpGossipStateExchangeTest {
+
+    private static final byte[] SECRET = "secret".getBytes(StandardCharsets.UTF_8);
+
+    private final List<UdpGossipStateExchange> exchanges = new ArrayList<>();
+
+    @AfterMethod
+    public void stopExchanges() {
+        exchanges.forEach(UdpGossipStateExchange::stop);
+        exchanges.clear();
+    }
+
+    @Test
+    public void shouldDeliverStateToPeer() throws Exception {
+
+        int portB = freePort();
+        BlockingQueue<Long> received = new LinkedBlockingQueue<>();
+
+        UdpGossipStateExchange a = start(freePort(), portB, SECRET, Duration.ofMinutes(1), null);
+        start(portB, -1, SECRET, Duration.ofMinutes(1), received);
+
+        a.publish(42L, true, System.currentTimeMillis());
+
+        Assert.assertEquals(received.poll(5, TimeUnit.SECONDS), Long.valueOf(42L));
+    }
+
+    @Test
+    public void shouldDropStatesSignedWithDifferentSecret() throws Exception {
+
+        int portB = freePort();
+        BlockingQueue<Long> received = new LinkedBlockingQueue<>();
+
+        UdpGossipStateExchange a = start(freePort(), portB, "other".getBytes(StandardCharsets.UTF_8),
+                Duration.ofMinutes(1), null);
+        start(portB, -1, SECRET, Duration.ofMinutes(1), received);
+
+        a.publish(42L, true, System.currentTimeMillis());
+
+        Assert.assertNull(received.poll(500, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void shouldDropUnsignedDatagrams() throws Exception {
+
+        int portB = freePort();
+        BlockingQueue<Long> received = new LinkedBlockingQueue<>();
+        start(portB, -1, SECRET, Duration.ofMinutes(1), received);
+
+        ByteBuffer buffer = ByteBuffer.allocate(6 + 25 + 32);
+        buffer.putInt(0x4b554346);
+        buffer.putShort((short) 1);
+        buffer.putLong(1L);
+        buffer.putLong(42L);
+        buffer.put((byte) 1);
+        buffer.putLong(System.currentTimeMillis());
+
+        try (DatagramSocket socket = new DatagramSocket()) {
+            socket.send(new DatagramPacket(buffer.array(), buffer.capacity(),
+                    new InetSocketAddress(InetAddress.getLoopbackAddress(), portB)));
+        }
+
+        Assert.assertNull(received.poll(500, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void shouldDropExpiredStates() throws Exception {
+
+        int portB = freePort();
+        BlockingQueue<Long> received = new LinkedBlockingQueue<>();
+
+        UdpGossipStateExchange a = start(freePort(), portB, SECRET, Duration.ofMinutes(1), null);
+        start(portB, -1, SECRET, Duration.ofMinutes(1), received);
+
+        a.publish(42L, true, System.currentTimeMillis() - TimeUnit.HOURS.toMillis(1));
+
+        Assert.assertNull(received.poll(500, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void shouldForgetSpreadRumorsAfterTtl() throws Exception {
+
+        UdpGossipStateExchange a = start(freePort(), freePort(), SECRET, Duration.ofMillis(100), null);
+
+        for (int i = 0; i < 100; i++) {
+            a.publish(i, true, System.currentTimeMillis());
+        }
+
+        Assert.assertEquals(a.getRumorCount(), 100);
+        Assert.assertTrue(await(() -> a.getRumorCount() == 0, 5000), "Rumors were not expired.");
+    }
+
+    @Test(expectedExceptions = IllegalStateException.class)
+    public void shouldRequireSecret() {
+        new UdpGossipStateExchange(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0),
+                Collections.emptyList(), Duration.ofMillis(10), 3, 3, Duration.ofMinutes(1), null)
+                .start((nodeId, keyHash, open, epoch) -> {
+                });
+    }
+
+    private UdpGossipStateExchange start(int port, int peerPort, byte[] secret, Duration rumorTtl,
+                                         BlockingQueue<Long> received) {
+
+        List<InetSocketAddress> peers = peerPort < 0 ? Collections.emptyList() :
+                Collections.singletonList(new InetSocketAddress(InetAddress.getLoopbackAddress(), peerPort));
+
+        UdpGossipStateExchange exchange = new UdpGossipStateExchange(
+                new InetSocketAddress(InetAddress.getLoopbackAddress(), port), peers, Duration.ofMillis(10), 3, 3,
+                rumorTtl, secret);
+        exchange.start((nodeId, keyHash, open, epoch) -> {
+            if (received != null) {
+                received.add(keyHash);
+            }
+        });
+        exchanges.add(exchange);
+
+        return exchange;
+    }
+
+    private static int freePort() throws Exception {
+        try (DatagramSocket socket = new DatagramSocket(0, InetAddress.getLoopbackAddress())) {
+            return socket.getLocalPort();
+        }
+    }
+
+    static boolean await(BooleanSupplier condition, long timeoutMillis) throws InterruptedException {
+
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) {
+                return false;
+            }
+            Thread.sleep(10);
+        }
+
+        return true;
+    }
+}
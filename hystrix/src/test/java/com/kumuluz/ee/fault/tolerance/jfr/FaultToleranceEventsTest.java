@@ -0,0 +1,123 @@
+/*
+ *  Copyright (c) 2014-2017 Kumuluz and/or its affiliates
+ *  and other contributors as indicated by the @author tags and
+ *  the contributor list.
+ *
+ *  Licensed under the MIT License (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://opensource.org/licenses/MIT
+ *
+ *  The software is provided "AS IS", WITHOUT WARRANTY OF ANY KIND, express or
+ *  implied, including but not limited to the warranties of merchantability,
+ *  fitness for a particular purpose and noninfringement. in no event shall the
+ *  authors or copyright holders be liable for any claim, damages or other
+ *  liability, whether in an action of contract, tort or otherwise, arising from,
+ *  out of or in connection with the software or the use or other dealings in the
+ *  software. See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.kumuluz.ee.fault.tolerance.jfr;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
+
+/**
+ * Tests for Java Flight Recorder events emitted through {@link FaultToleranceEvents}.
+ *
+ * @since 2.2.0
+ */
+public class FaultToleranceEventsTest {
+
+    private static final String PREFIX = "com.kumuluz.ee.fault.tolerance.";
+
+    @Test
+    public void shouldRecordEnabledEvents() throws IOException {
+
+        List<RecordedEvent> events = record(true, () -> {
+            FaultToleranceEvents.circuitBreakerStateChanged("command", "group", "partition", "CLOSED", "OPEN");
+            FaultToleranceEvents.retry("command", "group", 2, Duration.ofMillis(10).toNanos(),
+                    new IllegalStateException());
+            FaultToleranceEvents.bulkheadRejected("command", "group", "queue full");
+            FaultToleranceEvents.bulkheadQueueWait("command", "group", Duration.ofMillis(5).toNanos());
+            FaultToleranceEvents.timeout("command", "group", Duration.ofMillis(100).toNanos());
+            FaultToleranceEvents.fallback("command", "group", new TimeoutException());
+        });
+
+        Assert.assertEquals(events.size(), 6);
+        for (RecordedEvent event : events) {
+            Assert.assertEquals(event.getString("commandKey"), "command");
+            Assert.assertEquals(event.getString("groupKey"), "group");
+        }
+
+        RecordedEvent stateChange = find(events, "CircuitBreakerStateChange");
+        Assert.assertEquals(stateChange.getString("circuitBreakerKey"), "partition");
+        Assert.assertEquals(stateChange.getString("previousState"), "CLOSED");
+        Assert.assertEquals(stateChange.getString("state"), "OPEN");
+
+        RecordedEvent retry = find(events, "Retry");
+        Assert.assertEquals(retry.getInt("attempt"), 2);
+        Assert.assertEquals(retry.getDuration("delay"), Duration.ofMillis(10));
+        Assert.assertEquals(retry.getString("cause"), IllegalStateException.class.getName());
+
+        Assert.assertEquals(find(events, "BulkheadRejection").getString("reason"), "queue full");
+        Assert.assertEquals(find(events, "Fallback").getString("cause"), TimeoutException.class.getName());
+    }
+
+    @Test
+    public void shouldNotRecordDisabledEvents() throws IOException {
+
+        List<RecordedEvent> events = record(false, () -> {
+            FaultToleranceEvents.retry("command", "group", 1, 0, null);
+            FaultToleranceEvents.timeout("command", "group", 0);
+        });
+
+        Assert.assertTrue(events.isEmpty());
+    }
+
+    private static List<RecordedEvent> record(boolean enabled, Runnable emitter) throws IOException {
+
+        Path file = Files.createTempFile("kumuluzee-fault-tolerance", ".jfr");
+
+        try (Recording recording = new Recording()) {
+            for (String name : new String[]{"CircuitBreakerStateChange", "Retry", "BulkheadRejection",
+                    "BulkheadQueueWait", "Timeout", "Fallback"}) {
+                if (enabled) {
+                    recording.enable(PREFIX + name).withThreshold(Duration.ZERO);
+                } else {
+                    recording.disable(PREFIX + name);
+                }
+            }
+
+            recording.start();
+            emitter.run();
+            recording.stop();
+            recording.dump(file);
+
+            return RecordingFile.readAllEvents(file).stream()
+                    .filter(e -> e.getEventType().getName().startsWith(PREFIX))
+                    .collect(Collectors.toList());
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private static RecordedEvent find(List<RecordedEvent> events, String name) {
+        return events.stream()
+                .filter(e -> e.getEventType().getName().equals(PREFIX + name))
+                .findFirst()
+                .orElseThrow(() -> new AssertionError("No " + name + " event was recorded."));
+    }
+}
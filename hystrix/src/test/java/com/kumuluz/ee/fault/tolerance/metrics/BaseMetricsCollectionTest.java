@@ -0,0 +1,191 @@
+/*
+ *  Copyright (c) 2014-2017 Kumuluz and/or its affiliates
+ *  and other contributors as indicated by the @author tags and
+ *  the contributor list.
+ *
+ *  Licensed under the MIT License (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://opensource.org/licenses/MIT
+ *
+ *  The software is provided "AS IS", WITHOUT WARRANTY OF ANY KIND, express or
+ *  implied, including but not limited to the warranties of merchantability,
+ *  fitness for a particular purpose and noninfringement. in no event shall the
+ *  authors or copyright holders be liable for any claim, damages or other
+ *  liability, whether in an action of contract, tort or otherwise, arising from,
+ *  out of or in connection with the software or the use or other dealings in the
+ *  software. See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.kumuluz.ee.fault.tolerance.metrics;
+
+import com.kumuluz.ee.fault.tolerance.utils.TestConfigurationUtil;
+import com.kumuluz.ee.fault.tolerance.utils.TestMetricRegistry;
+import org.eclipse.microprofile.metrics.Counter;
+import org.eclipse.microprofile.metrics.Histogram;
+import org.eclipse.microprofile.metrics.Metadata;
+import org.eclipse.microprofile.metrics.MetricRegistry;
+import org.eclipse.microprofile.metrics.MetricType;
+import org.eclipse.microprofile.metrics.MetricUnits;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Tests for counters and histograms created by {@link BaseMetricsCollection}.
+ *
+ * @since 2.2.0
+ */
+public class BaseMetricsCollectionTest {
+
+    private static final String STRIPED_COUNTERS_ENABLED = "kumuluzee.fault-tolerance.metrics.striped-counters.enabled";
+
+    private static final String HIGH_RESOLUTION_HISTOGRAMS_ENABLED =
+            "kumuluzee.fault-tolerance.metrics.high-resolution-histograms.enabled";
+
+    private static final int THREADS = 16;
+    private static final int INCREMENTS = 100000;
+
+    @BeforeClass
+    public void initializeConfiguration() {
+        TestConfigurationUtil.initialize();
+    }
+
+    @AfterMethod
+    public void resetConfiguration() {
+        System.clearProperty(STRIPED_COUNTERS_ENABLED);
+        System.clearProperty(HIGH_RESOLUTION_HISTOGRAMS_ENABLED);
+    }
+
+    @Test
+    public void shouldCreateRegistryCountersByDefault() {
+
+        Counter counter = new TestMetricsCollection(new TestMetricRegistry()).createCounter(metadata());
+
+        Assert.assertFalse(counter instanceof StripedCounter);
+    }
+
+    @Test
+    public void shouldShareStripedCounterBetweenConcurrentCollections() throws Exception {
+
+        System.setProperty(STRIPED_COUNTERS_ENABLED, "true");
+
+        List<Counter> counters = runConcurrently(registry -> new TestMetricsCollection(registry)
+                .createCounter(metadata()));
+
+        for (Counter counter : counters) {
+            Assert.assertTrue(counter instanceof StripedCounter);
+            Assert.assertSame(counter, counters.get(0));
+        }
+    }
+
+    @Test
+    public void shouldCountConcurrentIncrements() throws Exception {
+
+        System.setProperty(STRIPED_COUNTERS_ENABLED, "true");
+        MetricRegistry registry = new TestMetricRegistry();
+        Counter counter = new TestMetricsCollection(registry).createCounter(metadata());
+
+        runConcurrently(r -> {
+            for (int i = 0; i < INCREMENTS; i++) {
+                counter.inc();
+            }
+
+            return counter;
+        }, registry);
+
+        Assert.assertEquals(counter.getCount(), (long) THREADS * INCREMENTS);
+    }
+
+    @Test
+    public void shouldShareLatencyHistogramBetweenConcurrentCollections() throws Exception {
+
+        System.setProperty(HIGH_RESOLUTION_HISTOGRAMS_ENABLED, "true");
+
+        MetricRegistry registry = new TestMetricRegistry();
+        Metadata metadata = new Metadata("ft.test.duration", "ft.test.duration", "", MetricType.HISTOGRAM,
+                MetricUnits.NANOSECONDS);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+
+        try {
+            List<Future<Histogram>> futures = new ArrayList<>();
+
+            for (int i = 0; i < THREADS; i++) {
+                futures.add(executor.submit(() -> new TestMetricsCollection(registry)
+                        .createDurationHistogram(metadata)));
+            }
+
+            for (Future<Histogram> future : futures) {
+                Histogram histogram = future.get();
+
+                Assert.assertTrue(histogram instanceof LatencyHistogram);
+                Assert.assertSame(histogram, registry.getHistograms().get("ft.test.duration"));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static List<Counter> runConcurrently(CounterTask task) throws Exception {
+        return runConcurrently(task, new TestMetricRegistry());
+    }
+
+    private static List<Counter> runConcurrently(CounterTask task, MetricRegistry registry) throws Exception {
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+
+        try {
+            List<Future<Counter>> futures = new ArrayList<>();
+
+            for (int i = 0; i < THREADS; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+
+                    return task.run(registry);
+                }));
+            }
+
+            start.countDown();
+
+            List<Counter> counters = new ArrayList<>();
+            for (Future<Counter> future : futures) {
+                counters.add(future.get());
+            }
+
+            return counters;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static Metadata metadata() {
+        return new Metadata("ft.test.invocations.total", "ft.test.invocations.total", "", MetricType.COUNTER,
+                MetricUnits.NONE);
+    }
+
+    private interface CounterTask {
+
+        Counter run(MetricRegistry registry) throws Exception;
+    }
+
+    private static class TestMetricsCollection extends BaseMetricsCollection {
+
+        TestMetricsCollection(MetricRegistry registry) {
+            super(registry);
+        }
+
+        @Override
+        protected void initMetrics() {
+        }
+    }
+}
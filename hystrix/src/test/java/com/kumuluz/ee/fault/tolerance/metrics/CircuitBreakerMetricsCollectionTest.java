@@ -0,0 +1,87 @@
+/*
+ *  Copyright (c) 2014-2017 Kumuluz and/or its affiliates
+ *  and other contributors as indicated by the @author tags and
+ *  the contributor list.
+ *
+ *  Licensed under the MIT License (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://opensource.org/licenses/MIT
+ *
+ *  The software is provided "AS IS", WITHOUT WARRANTY OF ANY KIND, express or
+ *  implied, including but not limited to the warranties of merchantability,
+ *  fitness for a particular purpose and noninfringement. in no event shall the
+ *  authors or copyright holders be liable for any claim, damages or other
+ *  liability, whether in an action of contract, tort or otherwise, arising from,
+ *  out of or in connection with the software or the use or other dealings in the
+ *  software. See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.kumuluz.ee.fault.tolerance.metrics;
+
+import com.kumuluz.ee.fault.tolerance.utils.TestConfigurationUtil;
+import com.kumuluz.ee.fault.tolerance.utils.TestMetricRegistry;
+import org.testng.Assert;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+/**
+ * Tests for gauges of open partitions registered by {@link CircuitBreakerMetricsCollection}.
+ *
+ * @since 2.2.0
+ */
+public class CircuitBreakerMetricsCollectionTest {
+
+    @BeforeClass
+    public void initializeConfiguration() {
+        TestConfigurationUtil.initialize();
+    }
+
+    @Test
+    public void shouldKeepValidPartitionKeys() {
+        Assert.assertEquals(CircuitBreakerMetricsCollection.sanitizePartitionKey("tenant-1_a"), "tenant-1_a");
+    }
+
+    @Test
+    public void shouldSanitizePartitionKeys() {
+
+        String sanitized = CircuitBreakerMetricsCollection.sanitizePartitionKey("a.b/c d");
+
+        Assert.assertTrue(sanitized.matches("a_b_c_d_[0-9a-f]{8}"), sanitized);
+        Assert.assertNotEquals(CircuitBreakerMetricsCollection.sanitizePartitionKey("a.b"),
+                CircuitBreakerMetricsCollection.sanitizePartitionKey("a/b"));
+        Assert.assertTrue(CircuitBreakerMetricsCollection.sanitizePartitionKey("").matches("_[0-9a-f]{8}"));
+    }
+
+    @Test
+    public void shouldBoundLengthOfPartitionKeys() {
+
+        StringBuilder key = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            key.append('k');
+        }
+
+        Assert.assertEquals(CircuitBreakerMetricsCollection.sanitizePartitionKey(key.toString()).length(), 64);
+    }
+
+    @Test
+    public void shouldRegisterAndRemoveGaugesWithSanitizedNames() {
+
+        TestMetricRegistry metricRegistry = new TestMetricRegistry();
+        CircuitBreakerMetricsCollection metricsCollection = new CircuitBreakerMetricsCollection(metricRegistry);
+        metricsCollection.setMetricsPrefix("test.");
+        metricsCollection.initialize();
+
+        String name = "test.circuitbreaker.partitions.open." +
+                CircuitBreakerMetricsCollection.sanitizePartitionKey("a.b") + ".current";
+
+        Assert.assertTrue(metricsCollection.registerOpenPartitionGauge("a.b", () -> 0L));
+        Assert.assertTrue(metricRegistry.getGauges().containsKey(name));
+        Assert.assertFalse(metricsCollection.registerOpenPartitionGauge("a.b", () -> 0L));
+
+        metricsCollection.removeOpenPartitionGauge("a.b");
+
+        Assert.assertFalse(metricRegistry.getGauges().containsKey(name));
+    }
+}
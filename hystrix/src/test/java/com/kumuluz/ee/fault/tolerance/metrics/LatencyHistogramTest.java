@@ -0,0 +1,123 @@
+/*
+ *  Copyright (c) 2014-2017 Kumuluz and/or its affiliates
+ *  and other contributors as indicated by the @author tags and
+ *  the contributor list.
+ *
+ *  Licensed under the MIT License (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://opensource.org/licenses/MIT
+ *
+ *  The software is provided "AS IS", WITHOUT WARRANTY OF ANY KIND, express or
+ *  implied, including but not limited to the warranties of merchantability,
+ *  fitness for a particular purpose and noninfringement. in no event shall the
+ *  authors or copyright holders be liable for any claim, damages or other
+ *  liability, whether in an action of contract, tort or otherwise, arising from,
+ *  out of or in connection with the software or the use or other dealings in the
+ *  software. See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.kumuluz.ee.fault.tolerance.metrics;
+
+import org.eclipse.microprofile.metrics.Snapshot;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tests for recording and snapshots of {@link LatencyHistogram}.
+ *
+ * @since 2.2.0
+ */
+public class LatencyHistogramTest {
+
+    @Test
+    public void shouldReportValuesWithinRelativeError() {
+
+        long[] values = {0, 1, 127, 128, 1000, 123456, TimeUnit.MILLISECONDS.toNanos(250),
+                TimeUnit.SECONDS.toNanos(30)};
+
+        for (long value : values) {
+            LatencyHistogram histogram = new LatencyHistogram(1, TimeUnit.MINUTES);
+            histogram.update(value);
+
+            Snapshot snapshot = histogram.getSnapshot();
+
+            Assert.assertEquals((double) snapshot.getMax(), (double) value, value * 0.01);
+            Assert.assertEquals(snapshot.getMedian(), (double) value, value * 0.01);
+        }
+    }
+
+    @Test
+    public void shouldComputePercentiles() {
+
+        LatencyHistogram histogram = new LatencyHistogram(1, TimeUnit.MINUTES);
+
+        for (int i = 1; i <= 1000; i++) {
+            histogram.update(TimeUnit.MICROSECONDS.toNanos(i));
+        }
+
+        Snapshot snapshot = histogram.getSnapshot();
+
+        Assert.assertEquals(histogram.getCount(), 1000);
+        Assert.assertEquals(snapshot.get99thPercentile(), TimeUnit.MICROSECONDS.toNanos(990),
+                TimeUnit.MICROSECONDS.toNanos(20));
+        Assert.assertEquals(snapshot.getMedian(), TimeUnit.MICROSECONDS.toNanos(500), TimeUnit.MICROSECONDS.toNanos(10));
+    }
+
+    @Test
+    public void shouldKeepPreviousIntervalAndDropOlderValues() throws InterruptedException {
+
+        LatencyHistogram histogram = new LatencyHistogram(50, TimeUnit.MILLISECONDS);
+        histogram.update(1000);
+
+        Thread.sleep(60);
+        Assert.assertEquals(histogram.getSnapshot().size(), 1);
+
+        histogram.update(2000);
+        Thread.sleep(60);
+        Snapshot snapshot = histogram.getSnapshot();
+
+        Assert.assertEquals(snapshot.size(), 1);
+        Assert.assertEquals((double) snapshot.getMax(), 2000, 20);
+    }
+
+    @Test
+    public void shouldRecordConcurrentUpdates() throws Exception {
+
+        LatencyHistogram histogram = new LatencyHistogram(1, TimeUnit.MILLISECONDS);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+
+            for (int t = 0; t < 8; t++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 50000; i++) {
+                        histogram.update(i);
+                    }
+                }));
+            }
+
+            // snapshots swap phases while values are recorded
+            for (int i = 0; i < 100; i++) {
+                histogram.getSnapshot();
+            }
+
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        Assert.assertEquals(histogram.getCount(), 8 * 50000);
+    }
+}
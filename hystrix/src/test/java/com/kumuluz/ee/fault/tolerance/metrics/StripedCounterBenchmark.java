@@ -0,0 +1,113 @@
+/*
+ *  Copyright (c) 2014-2017 Kumuluz and/or its affiliates
+ *  and other contributors as indicated by the @author tags and
+ *  the contributor list.
+ *
+ *  Licensed under the MIT License (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://opensource.org/licenses/MIT
+ *
+ *  The software is provided "AS IS", WITHOUT WARRANTY OF ANY KIND, express or
+ *  implied, including but not limited to the warranties of merchantability,
+ *  fitness for a particular purpose and noninfringement. in no event shall the
+ *  authors or copyright holders be liable for any claim, damages or other
+ *  liability, whether in an action of contract, tort or otherwise, arising from,
+ *  out of or in connection with the software or the use or other dealings in the
+ *  software. See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.kumuluz.ee.fault.tolerance.metrics;
+
+import com.kumuluz.ee.fault.tolerance.utils.TestMetricRegistry;
+import org.eclipse.microprofile.metrics.Counter;
+import org.eclipse.microprofile.metrics.Metadata;
+import org.eclipse.microprofile.metrics.MetricType;
+import org.eclipse.microprofile.metrics.MetricUnits;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.logging.Logger;
+
+/**
+ * Compares throughput of {@link StripedCounter} with a counter backed by a single atomic value at 64 threads.
+ *
+ * Not executed with the test suite, since results depend on the machine. Run with
+ * {@code mvn test -pl hystrix -Dtest=StripedCounterBenchmark}.
+ *
+ * @since 2.2.0
+ */
+public class StripedCounterBenchmark {
+
+    private static final Logger log = Logger.getLogger(StripedCounterBenchmark.class.getName());
+
+    private static final int THREADS = 64;
+    private static final int INCREMENTS = 1000000;
+    private static final int ROUNDS = 5;
+
+    @Test
+    public void compareCounters() throws Exception {
+
+        Metadata metadata = new Metadata("benchmark.total", MetricType.COUNTER, MetricUnits.NONE);
+
+        // first rounds warm up the JIT and are not reported
+        for (int round = 0; round < ROUNDS; round++) {
+            long atomic = run(() -> new TestMetricRegistry().counter(metadata));
+            long striped = run(StripedCounter::new);
+
+            if (round > 0) {
+                log.info(String.format("Round %d: atomic counter %.1f M increments/s, striped counter %.1f M " +
+                                "increments/s.", round, throughput(atomic), throughput(striped)));
+            }
+        }
+    }
+
+    /**
+     * Increments a new counter from all threads and returns the elapsed time in nanoseconds.
+     */
+    private static long run(Supplier<Counter> counterSupplier) throws Exception {
+
+        Counter counter = counterSupplier.get();
+        AtomicLong start = new AtomicLong();
+        // time is measured from the moment all threads are ready, which does not depend on scheduling of this thread
+        CyclicBarrier barrier = new CyclicBarrier(THREADS, () -> start.set(System.nanoTime()));
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                futures.add(executor.submit(() -> {
+                    barrier.await();
+                    for (int j = 0; j < INCREMENTS; j++) {
+                        counter.inc();
+                    }
+                    return null;
+                }));
+            }
+
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            long elapsed = System.nanoTime() - start.get();
+
+            Assert.assertEquals(counter.getCount(), (long) THREADS * INCREMENTS);
+
+            return elapsed;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static double throughput(long elapsedNanos) {
+        return (double) THREADS * INCREMENTS / elapsedNanos * 1000;
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ *  Copyright (c) 2014-2017 Kumuluz and/or its affiliates
+ *  and other contributors as indicated by the @author tags and
+ *  the contributor list.
+ *
+ *  Licensed under the MIT License (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://opensource.org/licenses/MIT
+ *
+ *  The software is provided "AS IS", WITHOUT WARRANTY OF ANY KIND, express or
+ *  implied, including but not limited to the warranties of merchantability,
+ *  fitness for a particular purpose and noninfringement. in no event shall the
+ *  authors or copyright holders be liable for any claim, damages or other
+ *  liability, whether in an action of contract, tort or otherwise, arising from,
+ *  out of or in connection with the software or the use or other dealings in the
+ *  software. See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.kumuluz.ee.fault.tolerance.models;
+
+import com.kumuluz.ee.fault.tolerance.metrics.CommonMetricsCollection;
+import com.kumuluz.ee.fault.tolerance.utils.TestConfigurationUtil;
+import com.kumuluz.ee.fault.tolerance.utils.TestMetricRegistry;
+import org.testng.Assert;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tests for lazy creation and registration of metrics collections in {@link ExecutionMetadata}.
+ *
+ * @since 2.2.0
+ */
+public class ExecutionMetadataTest {
+
+    private static final int THREADS = 8;
+
+    private static final String PREFIX = "ft." + ExecutionMetadataTest.class.getCanonicalName() + ".";
+
+    private TestMetricRegistry registry;
+    private AtomicInteger created;
+    private ExecutionMetadata metadata;
+
+    @BeforeClass
+    public void initializeConfiguration() {
+        TestConfigurationUtil.initialize();
+    }
+
+    @BeforeMethod
+    public void createMetadata() throws Exception {
+        registry = new TestMetricRegistry();
+        created = new AtomicInteger();
+        metadata = new ExecutionMetadata(ExecutionMetadataTest.class,
+                ExecutionMetadataTest.class.getMethod("createMetadata"), "command", "group");
+        metadata.setCommonMetricsCollectionFactory(() -> {
+            created.incrementAndGet();
+
+            return new CommonMetricsCollection(registry);
+        });
+    }
+
+    @Test
+    public void shouldNotRegisterMetricsBeforeFirstLookup() {
+        Assert.assertEquals(created.get(), 0);
+        Assert.assertTrue(registry.getNames().isEmpty());
+    }
+
+    @Test
+    public void shouldRegisterMetricsOfLookedUpMethodOnly() {
+
+        Assert.assertTrue(metadata.getCommonMetricsCollection("find").isPresent());
+
+        Assert.assertEquals(created.get(), 1);
+        Assert.assertTrue(registry.getNames().contains(PREFIX + "find.invocations.total"));
+        Assert.assertTrue(registry.getNames().stream().allMatch(name -> name.startsWith(PREFIX + "find.")));
+    }
+
+    @Test
+    public void shouldReturnSameCollectionOnSubsequentLookups() {
+
+        Optional<CommonMetricsCollection> first = metadata.getCommonMetricsCollection("find");
+
+        Assert.assertSame(metadata.getCommonMetricsCollection("find"), first);
+        Assert.assertEquals(created.get(), 1);
+    }
+
+    @Test
+    public void shouldCreateCollectionOnceForConcurrentLookups() throws Exception {
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CyclicBarrier barrier = new CyclicBarrier(THREADS);
+
+        try {
+            List<Future<Optional<CommonMetricsCollection>>> futures = new ArrayList<>();
+
+            for (int i = 0; i < THREADS; i++) {
+                futures.add(executor.submit(() -> {
+                    barrier.await();
+
+                    return metadata.getCommonMetricsCollection("find");
+                }));
+            }
+
+            CommonMetricsCollection collection = futures.get(0).get().orElse(null);
+
+            Assert.assertNotNull(collection);
+            for (Future<Optional<CommonMetricsCollection>> future : futures) {
+                Assert.assertSame(future.get().orElse(null), collection);
+            }
+            Assert.assertEquals(created.get(), 1);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void shouldReturnEmptyWithoutFactory() {
+        Assert.assertFalse(metadata.getRetryMetricsCollection("find").isPresent());
+        Assert.assertTrue(registry.getNames().isEmpty());
+    }
+}
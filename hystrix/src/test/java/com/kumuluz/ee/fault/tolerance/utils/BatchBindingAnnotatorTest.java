@@ -0,0 +1,79 @@
+/*
+ *  Copyright (c) 2014-2017 Kumuluz and/or its affiliates
+ *  and other contributors as indicated by the @author tags and
+ *  the contributor list.
+ *
+ *  Licensed under the MIT License (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://opensource.org/licenses/MIT
+ *
+ *  The software is provided "AS IS", WITHOUT WARRANTY OF ANY KIND, express or
+ *  implied, including but not limited to the warranties of merchantability,
+ *  fitness for a particular purpose and noninfringement. in no event shall the
+ *  authors or copyright holders be liable for any claim, damages or other
+ *  liability, whether in an action of contract, tort or otherwise, arising from,
+ *  out of or in connection with the software or the use or other dealings in the
+ *  software. See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.kumuluz.ee.fault.tolerance.utils;
+
+import com.kumuluz.ee.fault.tolerance.annotations.Batch;
+import com.kumuluz.ee.fault.tolerance.annotations.BatchBinding;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import javax.enterprise.inject.spi.AnnotatedType;
+import javax.enterprise.inject.spi.BeanManager;
+import javax.enterprise.inject.spi.BeforeBeanDiscovery;
+import javax.interceptor.InterceptorBinding;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Target;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Tests for {@link BatchBindingAnnotator}.
+ *
+ * @since 2.2.0
+ */
+public class BatchBindingAnnotatorTest {
+
+    @Test
+    public void shouldOnlyAllowBatchOnMethods() {
+
+        Assert.assertEquals(Batch.class.getAnnotation(Target.class).value(), new ElementType[]{ElementType.METHOD});
+        Assert.assertFalse(Batch.class.isAnnotationPresent(InterceptorBinding.class));
+    }
+
+    @Test
+    public void shouldRegisterBatchAsInterceptorBinding() {
+
+        AtomicReference<AnnotatedType<?>> binding = new AtomicReference<>();
+
+        BeforeBeanDiscovery bbd = (BeforeBeanDiscovery) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{BeforeBeanDiscovery.class}, (proxy, method, args) -> {
+                    if (method.getName().equals("addInterceptorBinding") &&
+                            method.getParameterTypes()[0].equals(AnnotatedType.class)) {
+                        binding.set((AnnotatedType<?>) args[0]);
+                        return null;
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+        BeanManager bm = (BeanManager) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{BeanManager.class}, (proxy, method, args) -> {
+                    if (method.getName().equals("createAnnotatedType")) {
+                        return DeploymentValidatorTest.annotatedType((Class<?>) args[0]);
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+
+        new BatchBindingAnnotator().addBatchBinding(bbd, bm);
+
+        Assert.assertNotNull(binding.get());
+        Assert.assertEquals(binding.get().getJavaClass(), Batch.class);
+        Assert.assertTrue(binding.get().isAnnotationPresent(BatchBinding.class));
+    }
+}
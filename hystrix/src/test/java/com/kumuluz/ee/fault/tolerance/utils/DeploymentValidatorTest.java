@@ -0,0 +1,176 @@
+/*
+ *  Copyright (c) 2014-2017 Kumuluz and/or its affiliates
+ *  and other contributors as indicated by the @author tags and
+ *  the contributor list.
+ *
+ *  Licensed under the MIT License (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://opensource.org/licenses/MIT
+ *
+ *  The software is provided "AS IS", WITHOUT WARRANTY OF ANY KIND, express or
+ *  implied, including but not limited to the warranties of merchantability,
+ *  fitness for a particular purpose and noninfringement. in no event shall the
+ *  authors or copyright holders be liable for any claim, damages or other
+ *  liability, whether in an action of contract, tort or otherwise, arising from,
+ *  out of or in connection with the software or the use or other dealings in the
+ *  software. See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.kumuluz.ee.fault.tolerance.utils;
+
+import com.kumuluz.ee.fault.tolerance.annotations.Batch;
+import com.kumuluz.ee.fault.tolerance.config.IsEnabledConfig;
+import org.eclipse.microprofile.faulttolerance.exceptions.FaultToleranceDefinitionException;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.context.RequestScoped;
+import javax.enterprise.inject.spi.AnnotatedMethod;
+import javax.enterprise.inject.spi.AnnotatedType;
+import javax.enterprise.inject.spi.ProcessAnnotatedType;
+import javax.inject.Singleton;
+import java.lang.reflect.AnnotatedElement;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Tests for {@link DeploymentValidator}. Annotated types are backed directly by the reflection of the bean class.
+ *
+ * @since 2.2.0
+ */
+public class DeploymentValidatorTest {
+
+    private final DeploymentValidator validator = new DeploymentValidator();
+
+    private boolean enabled;
+
+    @BeforeClass
+    public void enable() {
+        enabled = IsEnabledConfig.isEnabled();
+        IsEnabledConfig.setEnabled(true);
+    }
+
+    @AfterClass
+    public void restore() {
+        IsEnabledConfig.setEnabled(enabled);
+    }
+
+    @Test
+    public void shouldAcceptBatchOnApplicationScopedBean() {
+        validator.processAnnotatedType(processAnnotatedType(ApplicationScopedBatchBean.class), null);
+    }
+
+    @Test
+    public void shouldAcceptBatchOnSingletonBean() {
+        validator.processAnnotatedType(processAnnotatedType(SingletonBatchBean.class), null);
+    }
+
+    @Test(expectedExceptions = FaultToleranceDefinitionException.class)
+    public void shouldRejectBatchOnRequestScopedBean() {
+        validator.processAnnotatedType(processAnnotatedType(RequestScopedBatchBean.class), null);
+    }
+
+    @Test(expectedExceptions = FaultToleranceDefinitionException.class)
+    public void shouldRejectBatchOnDependentBean() {
+        validator.processAnnotatedType(processAnnotatedType(DependentBatchBean.class), null);
+    }
+
+    @ApplicationScoped
+    public static class ApplicationScopedBatchBean extends DependentBatchBean {
+    }
+
+    @Singleton
+    public static class SingletonBatchBean extends DependentBatchBean {
+    }
+
+    @RequestScoped
+    public static class RequestScopedBatchBean extends DependentBatchBean {
+    }
+
+    public static class DependentBatchBean {
+
+        @Batch(batchMethod = "findBatch")
+        public String find(String id) {
+            return null;
+        }
+
+        public List<String> findBatch(List<String> ids) {
+            return ids;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    static <T> ProcessAnnotatedType<T> processAnnotatedType(Class<T> beanClass) {
+
+        AnnotatedType<T> annotatedType = annotatedType(beanClass);
+
+        return (ProcessAnnotatedType<T>) Proxy.newProxyInstance(DeploymentValidatorTest.class.getClassLoader(),
+                new Class<?>[]{ProcessAnnotatedType.class}, (proxy, method, args) -> {
+                    if (method.getName().equals("getAnnotatedType")) {
+                        return annotatedType;
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    @SuppressWarnings("unchecked")
+    static <T> AnnotatedType<T> annotatedType(Class<T> beanClass) {
+
+        Set<AnnotatedMethod<? super T>> methods = Arrays.stream(beanClass.getMethods())
+                .filter(m -> !m.getDeclaringClass().equals(Object.class))
+                .map(DeploymentValidatorTest::<T>annotatedMethod)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+
+        return (AnnotatedType<T>) Proxy.newProxyInstance(DeploymentValidatorTest.class.getClassLoader(),
+                new Class<?>[]{AnnotatedType.class}, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "getJavaClass":
+                        case "getBaseType":
+                            return beanClass;
+                        case "getMethods":
+                            return methods;
+                        default:
+                            return invokeAnnotated(beanClass, method, args);
+                    }
+                });
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> AnnotatedMethod<? super T> annotatedMethod(Method javaMethod) {
+        return (AnnotatedMethod<? super T>) Proxy.newProxyInstance(DeploymentValidatorTest.class.getClassLoader(),
+                new Class<?>[]{AnnotatedMethod.class}, (proxy, method, args) -> {
+                    if (method.getName().equals("getJavaMember")) {
+                        return javaMethod;
+                    }
+                    return invokeAnnotated(javaMethod, method, args);
+                });
+    }
+
+    private static Object invokeAnnotated(AnnotatedElement element, Method method, Object[] args) {
+        switch (method.getName()) {
+            case "isAnnotationPresent":
+                return element.isAnnotationPresent((Class) args[0]);
+            case "getAnnotation":
+                return element.getAnnotation((Class) args[0]);
+            case "getAnnotations":
+                return new LinkedHashSet<>(Arrays.asList(element.getAnnotations()));
+            case "hashCode":
+                return System.identityHashCode(element);
+            case "equals":
+                return false;
+            case "toString":
+                return element.toString();
+            default:
+                throw new UnsupportedOperationException(method.getName());
+        }
+    }
+}
@@ -0,0 +1,244 @@
+/*
+ *  Copyright (c) 2014-2017 Kumuluz and/or its affiliates
+ *  and other contributors as indicated by the @author tags and
+ *  the contributor list.
+ *
+ *  Licensed under the MIT License (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://opensource.org/licenses/MIT
+ *
+ *  The software is provided "AS IS", WITHOUT WARRANTY OF ANY KIND, express or
+ *  implied, including but not limited to the warranties of merchantability,
+ *  fitness for a particular purpose and noninfringement. in no event shall the
+ *  authors or copyright holders be liable for any claim, damages or other
+ *  liability, whether in an action of contract, tort or otherwise, arising from,
+ *  out of or in connection with the software or the use or other dealings in the
+ *  software. See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.kumuluz.ee.fault.tolerance.utils;
+
+import org.eclipse.microprofile.metrics.*;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory metric registry for tests executed without KumuluzEE Metrics. Only counters can be created by the registry,
+ * other metrics need to be registered before they are retrieved.
+ *
+ * @since 2.2.0
+ */
+public class TestMetricRegistry extends MetricRegistry {
+
+    private final Map<String, Metric> metrics = new ConcurrentHashMap<>();
+    private final Map<String, Metadata> metadata = new ConcurrentHashMap<>();
+
+    @Override
+    public <T extends Metric> T register(String name, T metric) {
+        return register(new Metadata(name, MetricType.from(metric.getClass())), metric);
+    }
+
+    @Override
+    public <T extends Metric> T register(String name, T metric, Metadata metadata) {
+        return register(metadata, metric);
+    }
+
+    @Override
+    public <T extends Metric> T register(Metadata metadata, T metric) {
+
+        if (metrics.putIfAbsent(metadata.getName(), metric) != null) {
+            throw new IllegalArgumentException("Metric " + metadata.getName() + " is already registered.");
+        }
+        this.metadata.put(metadata.getName(), metadata);
+
+        return metric;
+    }
+
+    @Override
+    public Counter counter(String name) {
+        return counter(new Metadata(name, MetricType.COUNTER));
+    }
+
+    @Override
+    public Counter counter(Metadata metadata) {
+
+        Metric metric = metrics.computeIfAbsent(metadata.getName(), name -> {
+            this.metadata.put(name, metadata);
+
+            return new TestCounter();
+        });
+
+        if (!(metric instanceof Counter)) {
+            throw new IllegalArgumentException("Metric " + metadata.getName() + " is not a counter.");
+        }
+
+        return (Counter) metric;
+    }
+
+    @Override
+    public Histogram histogram(String name) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Histogram histogram(Metadata metadata) {
+
+        Metric metric = metrics.get(metadata.getName());
+
+        if (!(metric instanceof Histogram)) {
+            throw new UnsupportedOperationException("Histograms need to be registered.");
+        }
+
+        return (Histogram) metric;
+    }
+
+    @Override
+    public Meter meter(String name) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Meter meter(Metadata metadata) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Timer timer(String name) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Timer timer(Metadata metadata) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean remove(String name) {
+        metadata.remove(name);
+
+        return metrics.remove(name) != null;
+    }
+
+    @Override
+    public void removeMatching(MetricFilter filter) {
+        metrics.entrySet().removeIf(e -> filter.matches(e.getKey(), e.getValue()));
+    }
+
+    @Override
+    public SortedSet<String> getNames() {
+        return new TreeSet<>(metrics.keySet());
+    }
+
+    @Override
+    public SortedMap<String, Gauge> getGauges() {
+        return getMetrics(Gauge.class, MetricFilter.ALL);
+    }
+
+    @Override
+    public SortedMap<String, Gauge> getGauges(MetricFilter filter) {
+        return getMetrics(Gauge.class, filter);
+    }
+
+    @Override
+    public SortedMap<String, Counter> getCounters() {
+        return getMetrics(Counter.class, MetricFilter.ALL);
+    }
+
+    @Override
+    public SortedMap<String, Counter> getCounters(MetricFilter filter) {
+        return getMetrics(Counter.class, filter);
+    }
+
+    @Override
+    public SortedMap<String, Histogram> getHistograms() {
+        return getMetrics(Histogram.class, MetricFilter.ALL);
+    }
+
+    @Override
+    public SortedMap<String, Histogram> getHistograms(MetricFilter filter) {
+        return getMetrics(Histogram.class, filter);
+    }
+
+    @Override
+    public SortedMap<String, Meter> getMeters() {
+        return getMetrics(Meter.class, MetricFilter.ALL);
+    }
+
+    @Override
+    public SortedMap<String, Meter> getMeters(MetricFilter filter) {
+        return getMetrics(Meter.class, filter);
+    }
+
+    @Override
+    public SortedMap<String, Timer> getTimers() {
+        return getMetrics(Timer.class, MetricFilter.ALL);
+    }
+
+    @Override
+    public SortedMap<String, Timer> getTimers(MetricFilter filter) {
+        return getMetrics(Timer.class, filter);
+    }
+
+    @Override
+    public Map<String, Metric> getMetrics() {
+        return Collections.unmodifiableMap(metrics);
+    }
+
+    @Override
+    public Map<String, Metadata> getMetadata() {
+        return Collections.unmodifiableMap(metadata);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T extends Metric> SortedMap<String, T> getMetrics(Class<T> type, MetricFilter filter) {
+
+        SortedMap<String, T> result = new TreeMap<>();
+
+        metrics.forEach((name, metric) -> {
+            if (type.isInstance(metric) && filter.matches(name, metric)) {
+                result.put(name, (T) metric);
+            }
+        });
+
+        return result;
+    }
+
+    private static class TestCounter implements Counter {
+
+        private final AtomicLong count = new AtomicLong();
+
+        @Override
+        public void inc() {
+            count.incrementAndGet();
+        }
+
+        @Override
+        public void inc(long n) {
+            count.addAndGet(n);
+        }
+
+        @Override
+        public void dec() {
+            count.decrementAndGet();
+        }
+
+        @Override
+        public void dec(long n) {
+            count.addAndGet(-n);
+        }
+
+        @Override
+        public long getCount() {
+            return count.get();
+        }
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ *  Copyright (c) 2014-2017 Kumuluz and/or its affiliates
+ *  and other contributors as indicated by the @author tags and
+ *  the contributor list.
+ *
+ *  Licensed under the MIT License (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://opensource.org/licenses/MIT
+ *
+ *  The software is provided "AS IS", WITHOUT WARRANTY OF ANY KIND, express or
+ *  implied, including but not limited to the warranties of merchantability,
+ *  fitness for a particular purpose and noninfringement. in no event shall the
+ *  authors or copyright holders be liable for any claim, damages or other
+ *  liability, whether in an action of contract, tort or otherwise, arising from,
+ *  out of or in connection with the software or the use or other dealings in the
+ *  software. See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.kumuluz.ee.fault.tolerance.utils;
+
+import org.jboss.weld.context.RequestContext;
+
+import java.lang.reflect.Proxy;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Request context which only tracks its activation, for tests executed without a CDI container.
+ *
+ * @since 2.2.0
+ */
+public class TestRequestContext {
+
+    private TestRequestContext() {
+    }
+
+    /**
+     * Creates an inactive request context.
+     *
+     * @return Request context
+     */
+    public static RequestContext create() {
+
+        AtomicBoolean active = new AtomicBoolean(false);
+
+        return (RequestContext) Proxy.newProxyInstance(TestRequestContext.class.getClassLoader(),
+                new Class<?>[]{RequestContext.class}, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "isActive":
+                            return active.get();
+                        case "activate":
+                            active.set(true);
+                            return null;
+                        case "deactivate":
+                            active.set(false);
+                            return null;
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        case "equals":
+                            return proxy == args[0];
+                        case "toString":
+                            return "TestRequestContext";
+                        default:
+                            throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+    }
+}
@@ -0,0 +1,205 @@
+/*
+ *  Copyright (c) 2014-2017 Kumuluz and/or its affiliates
+ *  and other contributors as indicated by the @author tags and
+ *  the contributor list.
+ *
+ *  Licensed under the MIT License (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://opensource.org/licenses/MIT
+ *
+ *  The software is provided "AS IS", WITHOUT WARRANTY OF ANY KIND, express or
+ *  implied, including but not limited to the warranties of merchantability,
+ *  fitness for a particular purpose and noninfringement. in no event shall the
+ *  authors or copyright holders be liable for any claim, damages or other
+ *  liability, whether in an action of contract, tort or otherwise, arising from,
+ *  out of or in connection with the software or the use or other dealings in the
+ *  software. See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.netflix.hystrix;
+
+import com.kumuluz.ee.fault.tolerance.commands.BulkheadQueueController;
+import com.kumuluz.ee.fault.tolerance.commands.DeadlineContext;
+import com.kumuluz.ee.fault.tolerance.commands.HystrixCommandConfiguration;
+import com.kumuluz.ee.fault.tolerance.enums.CircuitBreakerType;
+import com.kumuluz.ee.fault.tolerance.models.ExecutionMetadata;
+import com.kumuluz.ee.fault.tolerance.utils.TestConfigurationUtil;
+import com.kumuluz.ee.fault.tolerance.utils.TestInvocationContext;
+import com.kumuluz.ee.fault.tolerance.utils.TestRequestContext;
+import com.netflix.config.ConfigurationManager;
+import com.netflix.hystrix.exception.HystrixBadRequestException;
+import org.eclipse.microprofile.faulttolerance.Timeout;
+import org.eclipse.microprofile.faulttolerance.exceptions.BulkheadException;
+import org.eclipse.microprofile.faulttolerance.exceptions.TimeoutException;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tests for executions of {@link KumuluzHystrixGenericCommand}.
+ *
+ * @since 2.2.0
+ */
+public class KumuluzHystrixGenericCommandTest {
+
+    private final SlowBean bean = new SlowBean();
+
+    @BeforeClass
+    public void initializeConfiguration() {
+        TestConfigurationUtil.initialize();
+
+        ConfigurationManager.getConfigInstance().setProperty("hystrix.threadpool.shed-test.coreSize", 1);
+        ConfigurationManager.getConfigInstance().setProperty("hystrix.threadpool.shed-test.maxQueueSize", 10);
+        ConfigurationManager.getConfigInstance().setProperty("hystrix.command.deadline-test.execution.isolation." +
+                "thread.timeoutInMilliseconds", 5000);
+    }
+
+    @AfterMethod
+    public void clearDeadline() {
+        DeadlineContext.restore(null);
+    }
+
+    @Test
+    public void shouldNotRecordShedExecutionAsFailure() throws Exception {
+
+        // thread pool is started before queue time is limited, so the blocking execution is not shed itself
+        Assert.assertEquals(createCommand(0L).queue().get(), 0L);
+        ConfigurationManager.getConfigInstance().setProperty("hystrix.threadpool.shed-test." +
+                BulkheadQueueController.MAX_QUEUE_TIME_PROPERTY, 50);
+
+        KumuluzHystrixGenericCommand blocking = createCommand(300L);
+        KumuluzHystrixGenericCommand shed = createCommand(0L);
+
+        Future<Object> blockingResult = blocking.queue();
+        Future<Object> shedResult = shed.queue();
+
+        try {
+            shedResult.get();
+            Assert.fail("Execution should have been shed.");
+        } catch (ExecutionException e) {
+            Assert.assertTrue(e.getCause() instanceof HystrixBadRequestException);
+            Assert.assertTrue(e.getCause().getCause() instanceof BulkheadException);
+        }
+
+        Assert.assertEquals(blockingResult.get(), 300L);
+
+        Assert.assertFalse(shed.isFailedExecution());
+        Assert.assertFalse(shed.isResponseFromFallback());
+        Assert.assertFalse(shed.isCircuitBreakerOpen());
+    }
+
+    @Test
+    public void shouldPropagateDeadlineToExecutionThread() throws Exception {
+
+        DeadlineContext.set(System.nanoTime() + TimeUnit.SECONDS.toNanos(2));
+
+        long remaining = (Long) createDeadlineCommand("remaining").queue().get();
+
+        Assert.assertTrue(remaining > 0 && remaining <= TimeUnit.SECONDS.toNanos(2), String.valueOf(remaining));
+    }
+
+    @Test
+    public void shouldLimitTimeoutToDeadlineOfEnclosingExecution() throws Exception {
+
+        DeadlineContext.set(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(200));
+
+        long start = System.nanoTime();
+
+        try {
+            createDeadlineCommand("sleep", 2000L).queue().get();
+            Assert.fail("Execution should exceed the deadline.");
+        } catch (ExecutionException e) {
+            Assert.assertTrue(causedBy(e, TimeoutException.class), e.toString());
+        }
+
+        Assert.assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(1500));
+    }
+
+    @Test
+    public void shouldFailImmediatelyWhenDeadlineHasPassed() throws Exception {
+
+        DeadlineContext.set(System.nanoTime() - 1);
+        KumuluzHystrixGenericCommand command = createDeadlineCommand("sleep", 0L);
+
+        try {
+            command.queue().get();
+            Assert.fail("Execution should exceed the deadline.");
+        } catch (ExecutionException e) {
+            Assert.assertTrue(causedBy(e, TimeoutException.class), e.toString());
+        }
+
+        // command was not subscribed, the method was not invoked
+        Assert.assertFalse(command.isExecutionComplete());
+    }
+
+    @Test
+    public void shouldNotLimitExecutionWithoutDeadline() throws Exception {
+        Assert.assertEquals(createDeadlineCommand("sleep", 50L).queue().get(), 50L);
+    }
+
+    private KumuluzHystrixGenericCommand createDeadlineCommand(String methodName, Object... parameters)
+            throws NoSuchMethodException {
+
+        TestInvocationContext invocationContext = new TestInvocationContext(bean, methodName, parameters);
+        ExecutionMetadata metadata = new ExecutionMetadata(SlowBean.class, invocationContext.getMethod(),
+                "deadline-test", "deadline-test");
+        metadata.setAsynchronous(true);
+        metadata.setCircuitBreakerType(CircuitBreakerType.SUCCESS_THRESHOLD);
+        metadata.setTimeout(SlowBean.class.getMethod("sleep", Long.class).getAnnotation(Timeout.class));
+
+        HystrixCommandConfiguration configuration = new HystrixCommandConfiguration(
+                HystrixCommandGroupKey.Factory.asKey("deadline-test"),
+                HystrixCommandKey.Factory.asKey("deadline-test"),
+                HystrixThreadPoolKey.Factory.asKey("deadline-test"));
+
+        return new KumuluzHystrixGenericCommand(configuration, invocationContext, TestRequestContext.create(),
+                metadata);
+    }
+
+    private static boolean causedBy(Throwable throwable, Class<? extends Throwable> type) {
+        for (Throwable cause = throwable; cause != null; cause = cause.getCause()) {
+            if (type.isInstance(cause)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private KumuluzHystrixGenericCommand createCommand(long millis) {
+
+        TestInvocationContext invocationContext = new TestInvocationContext(bean, "sleep", millis);
+        ExecutionMetadata metadata = new ExecutionMetadata(SlowBean.class, invocationContext.getMethod(),
+                "shed-test", "shed-test");
+        metadata.setAsynchronous(true);
+        metadata.setCircuitBreakerType(CircuitBreakerType.SUCCESS_THRESHOLD);
+
+        HystrixCommandConfiguration configuration = new HystrixCommandConfiguration(
+                HystrixCommandGroupKey.Factory.asKey("shed-test"), HystrixCommandKey.Factory.asKey("shed-test"),
+                HystrixThreadPoolKey.Factory.asKey("shed-test"));
+
+        return new KumuluzHystrixGenericCommand(configuration, invocationContext, TestRequestContext.create(),
+                metadata);
+    }
+
+    public static class SlowBean {
+
+        @Timeout(5000)
+        public long sleep(Long millis) throws InterruptedException {
+            Thread.sleep(millis);
+
+            return millis;
+        }
+
+        public long remaining() {
+            return DeadlineContext.getRemainingNanos();
+        }
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ *  Copyright (c) 2014-2017 Kumuluz and/or its affiliates
+ *  and other contributors as indicated by the @author tags and
+ *  the contributor list.
+ *
+ *  Licensed under the MIT License (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://opensource.org/licenses/MIT
+ *
+ *  The software is provided "AS IS", WITHOUT WARRANTY OF ANY KIND, express or
+ *  implied, including but not limited to the warranties of merchantability,
+ *  fitness for a particular purpose and noninfringement. in no event shall the
+ *  authors or copyright holders be liable for any claim, damages or other
+ *  liability, whether in an action of contract, tort or otherwise, arising from,
+ *  out of or in connection with the software or the use or other dealings in the
+ *  software. See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.netflix.hystrix;
+
+import com.kumuluz.ee.fault.tolerance.commands.HystrixCommandConfiguration;
+import com.kumuluz.ee.fault.tolerance.enums.CircuitBreakerType;
+import com.kumuluz.ee.fault.tolerance.models.ExecutionMetadata;
+import com.kumuluz.ee.fault.tolerance.utils.TestConfigurationUtil;
+import com.kumuluz.ee.fault.tolerance.utils.TestInvocationContext;
+import com.kumuluz.ee.fault.tolerance.utils.TestRequestContext;
+import com.netflix.config.ConfigurationManager;
+import org.jboss.weld.context.RequestContext;
+import org.testng.Assert;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+import rx.Observable;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tests for subscriptions of {@link KumuluzHystrixObservableCommand}.
+ *
+ * @since 2.2.0
+ */
+public class KumuluzHystrixObservableCommandTest {
+
+    @BeforeClass
+    public void initializeConfiguration() {
+        TestConfigurationUtil.initialize();
+
+        // reactive methods which are not asynchronous are executed with semaphore isolation
+        ConfigurationManager.getConfigInstance().setProperty(
+                "hystrix.command.observable-test.execution.isolation.strategy", "SEMAPHORE");
+    }
+
+    @Test
+    public void shouldKeepRequestContextActiveWhileSubscribing() {
+
+        RequestContext requestContext = TestRequestContext.create();
+        ReactiveBean bean = new ReactiveBean(requestContext);
+
+        List<Object> items = createCommand(bean, requestContext).toObservable().toList().toBlocking().single();
+
+        Assert.assertEquals(items, Arrays.asList(true, true));
+        Assert.assertFalse(requestContext.isActive());
+    }
+
+    @Test
+    public void shouldInvokeMethodOnSubscription() {
+
+        RequestContext requestContext = TestRequestContext.create();
+        ReactiveBean bean = new ReactiveBean(requestContext);
+
+        Observable<Object> observable = createCommand(bean, requestContext).toObservable();
+        Assert.assertEquals(bean.invocations.get(), 0);
+
+        observable.toBlocking().last();
+        Assert.assertEquals(bean.invocations.get(), 1);
+    }
+
+    private static KumuluzHystrixObservableCommand createCommand(ReactiveBean bean, RequestContext requestContext) {
+
+        TestInvocationContext invocationContext = new TestInvocationContext(bean, "contextActive");
+        ExecutionMetadata metadata = new ExecutionMetadata(ReactiveBean.class, invocationContext.getMethod(),
+                "observable-test", "observable-test");
+        metadata.setReactive(true);
+        metadata.setCircuitBreakerType(CircuitBreakerType.SUCCESS_THRESHOLD);
+
+        HystrixCommandConfiguration configuration = new HystrixCommandConfiguration(
+                HystrixCommandGroupKey.Factory.asKey("observable-test"),
+                HystrixCommandKey.Factory.asKey("observable-test"),
+                HystrixThreadPoolKey.Factory.asKey("observable-test"));
+
+        return new KumuluzHystrixObservableCommand(configuration, invocationContext, requestContext, metadata);
+    }
+
+    public static class ReactiveBean {
+
+        private final RequestContext requestContext;
+        private final AtomicInteger invocations = new AtomicInteger();
+
+        ReactiveBean(RequestContext requestContext) {
+            this.requestContext = requestContext;
+        }
+
+        public Observable<Boolean> contextActive() {
+            invocations.incrementAndGet();
+
+            // items are read when the stream is subscribed, not when the method is invoked
+            return Observable.create(subscriber -> {
+                subscriber.onNext(requestContext.isActive());
+                subscriber.onNext(requestContext.isActive());
+                subscriber.onCompleted();
+            });
+        }
+    }
+}
@@ -21,23 +21,39 @@
 package com.kumuluz.ee.fault.tolerance.smallrye;
 
 import com.kumuluz.ee.common.dependencies.EeExtensionGroup;
+import com.kumuluz.ee.configuration.utils.ConfigurationUtil;
+import com.kumuluz.ee.fault.tolerance.smallrye.beans.KumuluzAsyncExecutorProvider;
 import com.kumuluz.ee.fault.tolerance.smallrye.beans.NoopMetricRegistry;
+import com.kumuluz.ee.fault.tolerance.smallrye.config.StrategyReconfigurator;
 import org.eclipse.microprofile.metrics.MetricRegistry;
 
 import javax.enterprise.context.ApplicationScoped;
 import javax.enterprise.event.Observes;
 import javax.enterprise.inject.Default;
-import javax.enterprise.inject.spi.AfterBeanDiscovery;
-import javax.enterprise.inject.spi.Extension;
+import javax.enterprise.inject.spi.*;
 
 /**
- * CDI extension that registers {@link NoopMetricRegistry} as a bean if KumuluzEE Metrics extension is not present.
+ * CDI extension that registers {@link NoopMetricRegistry} as a bean if KumuluzEE Metrics extension is not present and
+ * starts the {@link StrategyReconfigurator} if watching for configuration changes is enabled. Unless disabled,
+ * {@link KumuluzAsyncExecutorProvider} is registered as the executor provider for asynchronous invocations.
  *
  * @author Urban Malc
  * @since 2.0.0
  */
 public class SmallRyeCdiExtension implements Extension {
 
+    private static final String WATCH_ENABLED_KEY = "kumuluzee.fault-tolerance.config.watch-enabled";
+
+    private StrategyReconfigurator strategyReconfigurator;
+
+    public void beforeBeanDiscovery(@Observes BeforeBeanDiscovery event, BeanManager beanManager) {
+        if (ConfigurationUtil.getInstance().getBoolean(KumuluzAsyncExecutorProvider.CONFIG_PREFIX + "enabled")
+                .orElse(true)) {
+            event.addAnnotatedType(beanManager.createAnnotatedType(KumuluzAsyncExecutorProvider.class),
+                    KumuluzAsyncExecutorProvider.class.getName());
+        }
+    }
+
     public void afterBeanDiscovery(@Observes AfterBeanDiscovery event) {
         if (!SmallRyeFtExtension.isExtensionPresent(EeExtensionGroup.METRICS, "MetricsCommons")) {
             // add noop metrics registry producer to satisfy injection points
@@ -49,4 +65,21 @@ public class SmallRyeCdiExtension implements Extension {
                     .produceWith(f -> new NoopMetricRegistry());
         }
     }
+
+    public void afterDeploymentValidation(@Observes AfterDeploymentValidation event, BeanManager beanManager) {
+        if (ConfigurationUtil.getInstance().getBoolean(WATCH_ENABLED_KEY).orElse(false)) {
+            try {
+                strategyReconfigurator = new StrategyReconfigurator(beanManager);
+                strategyReconfigurator.start();
+            } catch (IllegalStateException e) {
+                event.addDeploymentProblem(e);
+            }
+        }
+    }
+
+    public void beforeShutdown(@Observes BeforeShutdown event) {
+        if (strategyReconfigurator != null) {
+            strategyReconfigurator.stop();
+        }
+    }
 }
@@ -52,9 +52,15 @@ public class SmallRyeFtExtension implements Extension {
                     "extension to function properly. Please make sure it is added to dependencies.");
         }
 
-        if (!SmallRyeFtExtension.isExtensionPresent(EeExtensionGroup.METRICS, "MetricsCommons") &&
-               ConfigurationUtil.getInstance().getBoolean("MP_Fault_Tolerance_Metrics_Enabled")
-                       .orElse(true)) {
+        boolean metricsConfigured = ConfigurationUtil.getInstance().getBoolean("MP_Fault_Tolerance_Metrics_Enabled")
+                .orElse(true);
+
+        metricsEnabled = true;
+
+        if (!metricsConfigured) {
+            // metrics collection disabled in configuration, SmallRye strategies get the NO-OP metrics collector
+            metricsEnabled = false;
+        } else if (!SmallRyeFtExtension.isExtensionPresent(EeExtensionGroup.METRICS, "MetricsCommons")) {
             // metrics extension is missing but collection of metrics is enabled
             LOG.info("KumuluzEE Metrics extension not found. Disabling metrics collection in KumuluzEE Fault " +
                     "Tolerance.");
@@ -0,0 +1,269 @@
+/*
+ *  Copyright (c) 2014-2017 Kumuluz and/or its affiliates
+ *  and other contributors as indicated by the @author tags and
+ *  the contributor list.
+ *
+ *  Licensed under the MIT License (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://opensource.org/licenses/MIT
+ *
+ *  The software is provided "AS IS", WITHOUT WARRANTY OF ANY KIND, express or
+ *  implied, including but not limited to the warranties of merchantability,
+ *  fitness for a particular purpose and noninfringement. in no event shall the
+ *  authors or copyright holders be liable for any claim, damages or other
+ *  liability, whether in an action of contract, tort or otherwise, arising from,
+ *  out of or in connection with the software or the use or other dealings in the
+ *  software. See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.kumuluz.ee.fault.tolerance.smallrye.beans;
+
+import com.kumuluz.ee.configuration.utils.ConfigurationUtil;
+import com.kumuluz.ee.fault.tolerance.smallrye.SmallRyeFtExtension;
+import io.smallrye.faulttolerance.ExecutorProvider;
+import org.eclipse.microprofile.metrics.*;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.annotation.Priority;
+import javax.enterprise.inject.Alternative;
+import javax.enterprise.inject.Instance;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+
+/**
+ * Provides the executor used by SmallRye for {@link org.eclipse.microprofile.faulttolerance.Asynchronous} invocations,
+ * configured through KumuluzEE config. Registered by {@link com.kumuluz.ee.fault.tolerance.smallrye.SmallRyeCdiExtension}.
+ * Replaces the global executor of SmallRye's {@link ExecutorProvider}, the timeout executor is left to SmallRye.
+ *
+ * @since 2.2.0
+ */
+@Alternative
+@Priority(1)
+@Singleton
+public class KumuluzAsyncExecutorProvider extends ExecutorProvider {
+
+    private static final Logger LOG = Logger.getLogger(KumuluzAsyncExecutorProvider.class.getName());
+
+    public static final String CONFIG_PREFIX = "kumuluzee.fault-tolerance.executor.";
+
+    private static final String METRICS_PREFIX = "ft.executor.";
+
+    @Inject
+    private Instance<MetricRegistry> metricRegistry;
+
+    private InstrumentedExecutorService executor;
+
+    @PostConstruct
+    @Override
+    public void setUp() {
+        // sets up the timeout executor and the factory of bulkhead executors
+        super.setUp();
+        // global executor of SmallRye is replaced, no threads were started by it yet
+        super.getGlobalExecutor().shutdownNow();
+
+        ConfigurationUtil configUtil = ConfigurationUtil.getInstance();
+
+        int maxSize = configUtil.getInteger(CONFIG_PREFIX + "max-size").orElse(100);
+        int queueSize = configUtil.getInteger(CONFIG_PREFIX + "queue-size").orElse(-1);
+        int coreSize = getCoreSize(configUtil.getInteger(CONFIG_PREFIX + "core-size").orElse(maxSize), maxSize,
+                queueSize);
+        long keepAlive = configUtil.getLong(CONFIG_PREFIX + "keep-alive").orElse(60000L);
+        boolean virtualThreads = configUtil.getBoolean(CONFIG_PREFIX + "virtual-threads").orElse(false);
+
+        ExecutorService delegate = null;
+
+        if (virtualThreads) {
+            delegate = createVirtualThreadExecutor();
+        }
+
+        if (delegate == null) {
+            BlockingQueue<Runnable> queue;
+            if (queueSize < 0) {
+                queue = new LinkedBlockingQueue<>();
+            } else if (queueSize == 0) {
+                queue = new SynchronousQueue<>();
+            } else {
+                queue = new LinkedBlockingQueue<>(queueSize);
+            }
+
+            ThreadPoolExecutor threadPoolExecutor = new ThreadPoolExecutor(coreSize, maxSize,
+                    keepAlive, TimeUnit.MILLISECONDS, queue, new ExecutorThreadFactory());
+            threadPoolExecutor.allowCoreThreadTimeOut(true);
+
+            delegate = threadPoolExecutor;
+        }
+
+        executor = new InstrumentedExecutorService(delegate);
+
+        if (SmallRyeFtExtension.isMetricsEnabled() && metricRegistry.isResolvable()) {
+            registerMetrics(metricRegistry.get());
+        }
+    }
+
+    @PreDestroy
+    @Override
+    public void tearDown() {
+        executor.shutdownNow();
+        super.tearDown();
+    }
+
+    @Override
+    public ExecutorService getGlobalExecutor() {
+        return executor;
+    }
+
+    /**
+     * Thread pool executor starts threads beyond the core size only when the queue is full, so with an unbounded queue
+     * the pool would never grow past the core size. Core threads time out when idle, so using the maximum size as the
+     * core size does not keep idle threads around.
+     */
+    private static int getCoreSize(int coreSize, int maxSize, int queueSize) {
+        if (coreSize > maxSize) {
+            LOG.warning(CONFIG_PREFIX + "core-size (" + coreSize + ") is larger than " + CONFIG_PREFIX +
+                    "max-size (" + maxSize + "), using " + maxSize + ".");
+            return maxSize;
+        }
+
+        if (coreSize < maxSize && queueSize < 0) {
+            LOG.warning(CONFIG_PREFIX + "core-size (" + coreSize + ") is smaller than " + CONFIG_PREFIX +
+                    "max-size (" + maxSize + ") but the queue is unbounded, the executor would never start more " +
+                    "than " + coreSize + " threads. Using " + maxSize + " as the core size, set " + CONFIG_PREFIX +
+                    "queue-size to bound the queue.");
+            return maxSize;
+        }
+
+        return coreSize;
+    }
+
+    /**
+     * Virtual threads are only available on Java 21+, executor is looked up reflectively since the extension targets
+     * Java 8.
+     */
+    private static ExecutorService createVirtualThreadExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            LOG.warning("Virtual threads are not supported by the running JVM, using platform threads for " +
+                    "asynchronous executions.");
+            return null;
+        }
+    }
+
+    private void registerMetrics(MetricRegistry registry) {
+        registry.register(Metadata.builder()
+                .withName(METRICS_PREFIX + "activeThreads")
+                .withType(MetricType.GAUGE)
+                .withUnit(MetricUnits.NONE)
+                .withDescription("Number of threads currently executing asynchronous invocations")
+                .build(), (Gauge<Long>) () -> executor.getActive().sum());
+
+        registry.register(Metadata.builder()
+                .withName(METRICS_PREFIX + "queueSize")
+                .withType(MetricType.GAUGE)
+                .withUnit(MetricUnits.NONE)
+                .withDescription("Number of asynchronous invocations waiting for a thread")
+                .build(), (Gauge<Long>) () -> (long) executor.getQueueSize());
+
+        executor.setWaitDuration(registry.histogram(Metadata.builder()
+                .withName(METRICS_PREFIX + "waitDuration")
+                .withType(MetricType.HISTOGRAM)
+                .withUnit(MetricUnits.NANOSECONDS)
+                .withDescription("Histogram of the time asynchronous invocations wait for a thread")
+                .build()));
+    }
+
+    /**
+     * Executor service wrapping submitted tasks in order to track active threads and time spent waiting for a thread.
+     */
+    private static class InstrumentedExecutorService extends AbstractExecutorService {
+
+        private final ExecutorService delegate;
+        private final LongAdder active = new LongAdder();
+        private volatile Histogram waitDuration;
+
+        InstrumentedExecutorService(ExecutorService delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void execute(Runnable command) {
+            long queuedTime = System.nanoTime();
+
+            delegate.execute(() -> {
+                Histogram histogram = waitDuration;
+                if (histogram != null) {
+                    histogram.update(System.nanoTime() - queuedTime);
+                }
+
+                active.increment();
+                try {
+                    command.run();
+                } finally {
+                    active.decrement();
+                }
+            });
+        }
+
+        LongAdder getActive() {
+            return active;
+        }
+
+        int getQueueSize() {
+            if (delegate instanceof ThreadPoolExecutor) {
+                return ((ThreadPoolExecutor) delegate).getQueue().size();
+            }
+
+            return 0;
+        }
+
+        void setWaitDuration(Histogram waitDuration) {
+            this.waitDuration = waitDuration;
+        }
+
+        @Override
+        public void shutdown() {
+            delegate.shutdown();
+        }
+
+        @Override
+        public List<Runnable> shutdownNow() {
+            return delegate.shutdownNow();
+        }
+
+        @Override
+        public boolean isShutdown() {
+            return delegate.isShutdown();
+        }
+
+        @Override
+        public boolean isTerminated() {
+            return delegate.isTerminated();
+        }
+
+        @Override
+        public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+            return delegate.awaitTermination(timeout, unit);
+        }
+    }
+
+    private static class ExecutorThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger threadNumber = new AtomicInteger(1);
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, "kumuluzee-ft-async-" + threadNumber.getAndIncrement());
+            thread.setDaemon(true);
+
+            return thread;
+        }
+    }
+}
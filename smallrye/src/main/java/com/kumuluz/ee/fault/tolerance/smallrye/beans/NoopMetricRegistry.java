@@ -22,12 +22,14 @@ package com.kumuluz.ee.fault.tolerance.smallrye.beans;
 
 import org.eclipse.microprofile.metrics.*;
 
+import java.util.Collections;
 import java.util.Map;
 import java.util.SortedMap;
 import java.util.SortedSet;
 
 /**
- * NO-OP Metric Registry, used only to satisfy injection point if KumuluzEE Metrics dependency is not present.
+ * NO-OP Metric Registry, used only to satisfy injection point if KumuluzEE Metrics dependency is not present. Shared
+ * NO-OP metrics of all types are returned, nothing is allocated per call.
  *
  * @author Urban Malc
  * @since 2.0.0
@@ -36,137 +38,137 @@ public class NoopMetricRegistry extends MetricRegistry {
 
     @Override
     public <T extends Metric> T register(String name, T metric) throws IllegalArgumentException {
-        return null;
+        return metric;
     }
 
     @Override
     public <T extends Metric> T register(Metadata metadata, T metric) throws IllegalArgumentException {
-        return null;
+        return metric;
     }
 
     @Override
     public <T extends Metric> T register(Metadata metadata, T metric, Tag... tags) throws IllegalArgumentException {
-        return null;
+        return metric;
     }
 
     @Override
     public Counter counter(String name) {
-        return null;
+        return NoopMetrics.COUNTER;
     }
 
     @Override
     public Counter counter(String name, Tag... tags) {
-        return null;
+        return NoopMetrics.COUNTER;
     }
 
     @Override
     public Counter counter(Metadata metadata) {
-        return null;
+        return NoopMetrics.COUNTER;
     }
 
     @Override
     public Counter counter(Metadata metadata, Tag... tags) {
-        return null;
+        return NoopMetrics.COUNTER;
     }
 
     @Override
     public ConcurrentGauge concurrentGauge(String name) {
-        return null;
+        return NoopMetrics.CONCURRENT_GAUGE;
     }
 
     @Override
     public ConcurrentGauge concurrentGauge(String name, Tag... tags) {
-        return null;
+        return NoopMetrics.CONCURRENT_GAUGE;
     }
 
     @Override
     public ConcurrentGauge concurrentGauge(Metadata metadata) {
-        return null;
+        return NoopMetrics.CONCURRENT_GAUGE;
     }
 
     @Override
     public ConcurrentGauge concurrentGauge(Metadata metadata, Tag... tags) {
-        return null;
+        return NoopMetrics.CONCURRENT_GAUGE;
     }
 
     @Override
     public Histogram histogram(String name) {
-        return null;
+        return NoopMetrics.HISTOGRAM;
     }
 
     @Override
     public Histogram histogram(String name, Tag... tags) {
-        return null;
+        return NoopMetrics.HISTOGRAM;
     }
 
     @Override
     public Histogram histogram(Metadata metadata) {
-        return null;
+        return NoopMetrics.HISTOGRAM;
     }
 
     @Override
     public Histogram histogram(Metadata metadata, Tag... tags) {
-        return null;
+        return NoopMetrics.HISTOGRAM;
     }
 
     @Override
     public Meter meter(String name) {
-        return null;
+        return NoopMetrics.METER;
     }
 
     @Override
     public Meter meter(String name, Tag... tags) {
-        return null;
+        return NoopMetrics.METER;
     }
 
     @Override
     public Meter meter(Metadata metadata) {
-        return null;
+        return NoopMetrics.METER;
     }
 
     @Override
     public Meter meter(Metadata metadata, Tag... tags) {
-        return null;
+        return NoopMetrics.METER;
     }
 
     @Override
     public Timer timer(String name) {
-        return null;
+        return NoopMetrics.TIMER;
     }
 
     @Override
     public Timer timer(String name, Tag... tags) {
-        return null;
+        return NoopMetrics.TIMER;
     }
 
     @Override
     public Timer timer(Metadata metadata) {
-        return null;
+        return NoopMetrics.TIMER;
     }
 
     @Override
     public Timer timer(Metadata metadata, Tag... tags) {
-        return null;
+        return NoopMetrics.TIMER;
     }
 
     @Override
     public SimpleTimer simpleTimer(String s) {
-        return null;
+        return NoopMetrics.SIMPLE_TIMER;
     }
 
     @Override
     public SimpleTimer simpleTimer(String s, Tag... tags) {
-        return null;
+        return NoopMetrics.SIMPLE_TIMER;
     }
 
     @Override
     public SimpleTimer simpleTimer(Metadata metadata) {
-        return null;
+        return NoopMetrics.SIMPLE_TIMER;
     }
 
     @Override
     public SimpleTimer simpleTimer(Metadata metadata, Tag... tags) {
-        return null;
+        return NoopMetrics.SIMPLE_TIMER;
     }
 
     @Override
@@ -186,91 +188,91 @@ public class NoopMetricRegistry extends MetricRegistry {
 
     @Override
     public SortedSet<String> getNames() {
-        return null;
+        return Collections.emptySortedSet();
     }
 
     @Override
     public SortedSet<MetricID> getMetricIDs() {
-        return null;
+        return Collections.emptySortedSet();
     }
 
     @Override
     public SortedMap<MetricID, Gauge> getGauges() {
-        return null;
+        return Collections.emptySortedMap();
     }
 
     @Override
     public SortedMap<MetricID, Gauge> getGauges(MetricFilter filter) {
-        return null;
+        return Collections.emptySortedMap();
     }
 
     @Override
     public SortedMap<MetricID, Counter> getCounters() {
-        return null;
+        return Collections.emptySortedMap();
     }
 
     @Override
     public SortedMap<MetricID, Counter> getCounters(MetricFilter filter) {
-        return null;
+        return Collections.emptySortedMap();
     }
 
     @Override
     public SortedMap<MetricID, ConcurrentGauge> getConcurrentGauges() {
-        return null;
+        return Collections.emptySortedMap();
     }
 
     @Override
     public SortedMap<MetricID, ConcurrentGauge> getConcurrentGauges(MetricFilter filter) {
-        return null;
+        return Collections.emptySortedMap();
     }
 
     @Override
     public SortedMap<MetricID, Histogram> getHistograms() {
-        return null;
+        return Collections.emptySortedMap();
     }
 
     @Override
     public SortedMap<MetricID, Histogram> getHistograms(MetricFilter filter) {
-        return null;
+        return Collections.emptySortedMap();
     }
 
     @Override
     public SortedMap<MetricID, Meter> getMeters() {
-        return null;
+        return Collections.emptySortedMap();
     }
 
     @Override
     public SortedMap<MetricID, Meter> getMeters(MetricFilter filter) {
-        return null;
+        return Collections.emptySortedMap();
     }
 
     @Override
     public SortedMap<MetricID, Timer> getTimers() {
-        return null;
+        return Collections.emptySortedMap();
     }
 
     @Override
     public SortedMap<MetricID, Timer> getTimers(MetricFilter filter) {
-        return null;
+        return Collections.emptySortedMap();
     }
 
     @Override
     public SortedMap<MetricID, SimpleTimer> getSimpleTimers() {
-        return null;
+        return Collections.emptySortedMap();
     }
 
     @Override
     public SortedMap<MetricID, SimpleTimer> getSimpleTimers(MetricFilter metricFilter) {
-        return null;
+        return Collections.emptySortedMap();
     }
 
     @Override
     public Map<MetricID, Metric> getMetrics() {
-        return null;
+        return Collections.emptyMap();
     }
 
     @Override
     public Map<String, Metadata> getMetadata() {
-        return null;
+        return Collections.emptyMap();
     }
 }
@@ -0,0 +1,273 @@
+/*
+ *  Copyright (c) 2014-2017 Kumuluz and/or its affiliates
+ *  and other contributors as indicated by the @author tags and
+ *  the contributor list.
+ *
+ *  Licensed under the MIT License (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://opensource.org/licenses/MIT
+ *
+ *  The software is provided "AS IS", WITHOUT WARRANTY OF ANY KIND, express or
+ *  implied, including but not limited to the warranties of merchantability,
+ *  fitness for a particular purpose and noninfringement. in no event shall the
+ *  authors or copyright holders be liable for any claim, damages or other
+ *  liability, whether in an action of contract, tort or otherwise, arising from,
+ *  out of or in connection with the software or the use or other dealings in the
+ *  software. See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.kumuluz.ee.fault.tolerance.smallrye.beans;
+
+import org.eclipse.microprofile.metrics.*;
+
+import java.io.OutputStream;
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Shared NO-OP metrics handed out by {@link NoopMetricRegistry}. Metrics are stateless so a single instance of each
+ * type is used for all metric names.
+ *
+ * @since 2.2.0
+ */
+final class NoopMetrics {
+
+    static final Counter COUNTER = new NoopCounter();
+    static final ConcurrentGauge CONCURRENT_GAUGE = new NoopConcurrentGauge();
+    static final Histogram HISTOGRAM = new NoopHistogram();
+    static final Meter METER = new NoopMeter();
+    static final Timer TIMER = new NoopTimer();
+    static final SimpleTimer SIMPLE_TIMER = new NoopSimpleTimer();
+
+    private static final Snapshot SNAPSHOT = new NoopSnapshot();
+
+    private NoopMetrics() {
+    }
+
+    private static class NoopCounter implements Counter {
+
+        @Override
+        public void inc() {
+        }
+
+        @Override
+        public void inc(long n) {
+        }
+
+        @Override
+        public long getCount() {
+            return 0;
+        }
+    }
+
+    private static class NoopConcurrentGauge implements ConcurrentGauge {
+
+        @Override
+        public long getCount() {
+            return 0;
+        }
+
+        @Override
+        public long getMax() {
+            return 0;
+        }
+
+        @Override
+        public long getMin() {
+            return 0;
+        }
+
+        @Override
+        public void inc() {
+        }
+
+        @Override
+        public void dec() {
+        }
+    }
+
+    private static class NoopHistogram implements Histogram {
+
+        @Override
+        public void update(int value) {
+        }
+
+        @Override
+        public void update(long value) {
+        }
+
+        @Override
+        public long getCount() {
+            return 0;
+        }
+
+        @Override
+        public Snapshot getSnapshot() {
+            return SNAPSHOT;
+        }
+    }
+
+    private static class NoopMeter implements Meter {
+
+        @Override
+        public void mark() {
+        }
+
+        @Override
+        public void mark(long n) {
+        }
+
+        @Override
+        public long getCount() {
+            return 0;
+        }
+
+        @Override
+        public double getFifteenMinuteRate() {
+            return 0;
+        }
+
+        @Override
+        public double getFiveMinuteRate() {
+            return 0;
+        }
+
+        @Override
+        public double getMeanRate() {
+            return 0;
+        }
+
+        @Override
+        public double getOneMinuteRate() {
+            return 0;
+        }
+    }
+
+    private static class NoopTimer extends NoopMeter implements Timer {
+
+        private static final Timer.Context CONTEXT = new Timer.Context() {
+            @Override
+            public long stop() {
+                return 0;
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+
+        @Override
+        public void update(long duration, TimeUnit unit) {
+        }
+
+        @Override
+        public <T> T time(Callable<T> event) throws Exception {
+            return event.call();
+        }
+
+        @Override
+        public void time(Runnable event) {
+            event.run();
+        }
+
+        @Override
+        public Timer.Context time() {
+            return CONTEXT;
+        }
+
+        @Override
+        public Snapshot getSnapshot() {
+            return SNAPSHOT;
+        }
+    }
+
+    private static class NoopSimpleTimer implements SimpleTimer {
+
+        private static final SimpleTimer.Context CONTEXT = new SimpleTimer.Context() {
+            @Override
+            public long stop() {
+                return 0;
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+
+        @Override
+        public void update(Duration duration) {
+        }
+
+        @Override
+        public <T> T time(Callable<T> event) throws Exception {
+            return event.call();
+        }
+
+        @Override
+        public void time(Runnable event) {
+            event.run();
+        }
+
+        @Override
+        public SimpleTimer.Context time() {
+            return CONTEXT;
+        }
+
+        @Override
+        public Duration getElapsedTime() {
+            return Duration.ZERO;
+        }
+
+        @Override
+        public long getCount() {
+            return 0;
+        }
+    }
+
+    private static class NoopSnapshot extends Snapshot {
+
+        private static final long[] VALUES = new long[0];
+
+        @Override
+        public double getValue(double quantile) {
+            return 0;
+        }
+
+        @Override
+        public long[] getValues() {
+            return VALUES;
+        }
+
+        @Override
+        public int size() {
+            return 0;
+        }
+
+        @Override
+        public long getMax() {
+            return 0;
+        }
+
+        @Override
+        public double getMean() {
+            return 0;
+        }
+
+        @Override
+        public long getMin() {
+            return 0;
+        }
+
+        @Override
+        public double getStdDev() {
+            return 0;
+        }
+
+        @Override
+        public void dump(OutputStream output) {
+        }
+    }
+}
@@ -75,6 +75,10 @@ public class AnnotationOverrideRule {
         return parameters.get(parameterName);
     }
 
+    public Map<String, String> getParameters() {
+        return Collections.unmodifiableMap(parameters);
+    }
+
     @Override
     public String toString() {
         return "[Class: " + klass + ", Method: " + method + ", Annotation: " + annotation + "]";
@@ -20,15 +20,20 @@
  */
 package com.kumuluz.ee.fault.tolerance.smallrye.config;
 
+import com.kumuluz.ee.configuration.ConfigurationListener;
 import com.kumuluz.ee.configuration.utils.ConfigurationUtil;
 
 import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.logging.Logger;
 
 /**
  * Stores all the KumuluzEE specific configuration for Fault Tolerance. Used for mapping keys from MP Fault Tolerance
  * keys to KumuluzEE specific ones.
  *
+ * Overrides are indexed by (class, method, annotation) into immutable maps, which are rebuilt and replaced atomically
+ * when the configuration under {@code kumuluzee.fault-tolerance} changes.
+ *
  * @author Urban Malc
  * @since 2.0.0
  */
@@ -36,47 +41,125 @@ public class AnnotationOverrides {
 
     private static final Logger LOG = Logger.getLogger(AnnotationOverrides.class.getName());
 
+    private static final String CONFIG_PREFIX = "kumuluzee.fault-tolerance.";
+    private static final String ANNOTATION_OVERRIDES_KEY = CONFIG_PREFIX + "annotation-overrides";
+
+    private static final List<ChangeListener> CHANGE_LISTENERS = new CopyOnWriteArrayList<>();
+
     private ConfigurationUtil configUtil;
 
-    private Map<String, Map<String, String>> globalAnnotationOverrides;
-    private Map<String, List<AnnotationOverrideRule>> annotationRules;
+    private volatile OverridesIndex index;
 
     public AnnotationOverrides() {
         this.configUtil = ConfigurationUtil.getInstance();
 
-        initGlobalAnnotationOverrides();
-        initAnnotationRules();
+        this.index = buildIndex();
+
+        watchOverrides();
+    }
+
+    private void watchOverrides() {
+        ConfigurationListener listener = (String updatedKey, String updatedValue) -> {
+            if (updatedKey.startsWith(CONFIG_PREFIX) && isOverrideKey(updatedKey)) {
+                LOG.finest("Annotation overrides updated for '" + updatedKey + "', rebuilding index.");
+
+                rebuildIndex();
+            }
+        };
+
+        configUtil.subscribe(ANNOTATION_OVERRIDES_KEY, listener);
+        for (String annotationName : FaultToleranceConfigMapper.FT_ANNOTATION_NAME_TO_HYPHEN_CASE.values()) {
+            configUtil.subscribe(CONFIG_PREFIX + annotationName, listener);
+        }
+    }
+
+    private static boolean isOverrideKey(String key) {
+        if (key.startsWith(ANNOTATION_OVERRIDES_KEY)) {
+            return true;
+        }
+
+        for (String annotationName : FaultToleranceConfigMapper.FT_ANNOTATION_NAME_TO_HYPHEN_CASE.values()) {
+            if (key.startsWith(CONFIG_PREFIX + annotationName + ".")) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private synchronized void rebuildIndex() {
+        OverridesIndex previous = index;
+        index = buildIndex();
+
+        boolean globalChanged = !previous.globalAnnotationOverrides.equals(index.globalAnnotationOverrides);
+
+        Set<String> changedClasses = new HashSet<>();
+        collectChangedClasses(previous.annotationRules, index.annotationRules, changedClasses);
+        collectChangedClasses(index.annotationRules, previous.annotationRules, changedClasses);
+
+        if (globalChanged || !changedClasses.isEmpty()) {
+            CHANGE_LISTENERS.forEach(l -> l.overridesChanged(changedClasses, globalChanged));
+        }
+    }
+
+    private static void collectChangedClasses(Map<OverrideKey, AnnotationOverrideRule> rules,
+                                              Map<OverrideKey, AnnotationOverrideRule> otherRules,
+                                              Set<String> changedClasses) {
+        rules.forEach((key, rule) -> {
+            AnnotationOverrideRule otherRule = otherRules.get(key);
+
+            if (otherRule == null || !rule.getParameters().equals(otherRule.getParameters())) {
+                changedClasses.add(key.klass);
+            }
+        });
+    }
+
+    /**
+     * Registers listener notified after the overrides have been rebuilt because of a configuration change.
+     *
+     * @param listener listener to register
+     */
+    public static void addChangeListener(ChangeListener listener) {
+        CHANGE_LISTENERS.add(listener);
     }
 
-    private void initGlobalAnnotationOverrides() {
-        globalAnnotationOverrides = new HashMap<>();
+    public static void removeChangeListener(ChangeListener listener) {
+        CHANGE_LISTENERS.remove(listener);
+    }
+
+    private OverridesIndex buildIndex() {
+        return new OverridesIndex(buildGlobalAnnotationOverrides(), buildAnnotationRules());
+    }
+
+    private Map<String, Map<String, String>> buildGlobalAnnotationOverrides() {
+        Map<String, Map<String, String>> globalAnnotationOverrides = new HashMap<>();
 
         for (String annotationName : FaultToleranceConfigMapper.FT_ANNOTATION_NAME_TO_HYPHEN_CASE.values()) {
-            globalAnnotationOverrides.put(annotationName, new HashMap<>());
-            configUtil.getMapKeys("kumuluzee.fault-tolerance." + annotationName)
+            Map<String, String> parameters = new HashMap<>();
+
+            configUtil.getMapKeys(CONFIG_PREFIX + annotationName)
                     .ifPresent(l -> l.forEach(
-                            paramName -> configUtil.get("kumuluzee.fault-tolerance." + annotationName + "." + paramName)
-                                    .ifPresent(
-                                            paramValue -> globalAnnotationOverrides.get(annotationName)
-                                                    .put(paramName, paramValue)
-                                    )
+                            paramName -> configUtil.get(CONFIG_PREFIX + annotationName + "." + paramName)
+                                    .ifPresent(paramValue -> parameters.put(paramName, paramValue))
                             )
                     );
+
+            if (!parameters.isEmpty()) {
+                globalAnnotationOverrides.put(annotationName, Collections.unmodifiableMap(parameters));
+            }
         }
-    }
 
-    private void initAnnotationRules() {
-        annotationRules = new HashMap<>();
+        return Collections.unmodifiableMap(globalAnnotationOverrides);
+    }
 
-        int rulesListLen = configUtil.getListSize("kumuluzee.fault-tolerance.annotation-overrides").orElse(-1);
+    private Map<OverrideKey, AnnotationOverrideRule> buildAnnotationRules() {
+        Map<OverrideKey, AnnotationOverrideRule> annotationRules = new HashMap<>();
 
-        if (rulesListLen <= 0) {
-            return;
-        }
+        int rulesListLen = configUtil.getListSize(ANNOTATION_OVERRIDES_KEY).orElse(-1);
 
         for (int i = 0; i < rulesListLen; i++) {
 
-            String prefix = "kumuluzee.fault-tolerance.annotation-overrides[" + i + "].";
+            String prefix = ANNOTATION_OVERRIDES_KEY + "[" + i + "].";
 
             String klass = configUtil.get(prefix + "class").orElse(null);
             String method = configUtil.get(prefix + "method").orElse(null);
@@ -101,37 +184,100 @@ public class AnnotationOverrides {
                     )
             );
 
-            if (!annotationRules.containsKey(klass)) {
-                annotationRules.put(klass, new LinkedList<>());
-            }
-            annotationRules.get(klass).add(rule);
+            // first rule defined for (class, method, annotation) takes precedence
+            annotationRules.putIfAbsent(new OverrideKey(klass, method, annotation), rule);
         }
+
+        return Collections.unmodifiableMap(annotationRules);
     }
 
     public Optional<String> getGlobalParameter(String annotation, String parameterName) {
-        if (!globalAnnotationOverrides.containsKey(annotation)) {
+        Map<String, String> parameters = index.globalAnnotationOverrides.get(annotation);
+
+        if (parameters == null) {
             return Optional.empty();
         }
 
-        return Optional.ofNullable(globalAnnotationOverrides.get(annotation).get(parameterName));
+        return Optional.ofNullable(parameters.get(parameterName));
     }
 
     public Optional<String> getAnnotationOverrideParameter(String klass, String method,
                                                            String annotation, String parameterName) {
-        if (!annotationRules.containsKey(klass)) {
+        // rule matches if annotations are equal and methods are undefined on both sides (class override) or equal
+        // on both sides (method override)
+        AnnotationOverrideRule rule = index.annotationRules.get(new OverrideKey(klass, method, annotation));
+
+        if (rule == null) {
             return Optional.empty();
         }
 
-        for (AnnotationOverrideRule rule : annotationRules.get(klass)) {
-            // rule matches if annotations are equal and methods are undefined on both sides (class override) or equal
-            // on both sides (method override)
-            if (rule.getAnnotation().equals(annotation) &&
-                    (method == null && rule.getMethod() == null || method != null && method.equals(rule.getMethod()))) {
-                // return parameter if present
-                return Optional.ofNullable(rule.getParameter(parameterName));
+        return Optional.ofNullable(rule.getParameter(parameterName));
+    }
+
+    /**
+     * Listener for changes of the annotation overrides.
+     */
+    @FunctionalInterface
+    public interface ChangeListener {
+
+        /**
+         * Called after the overrides have been rebuilt.
+         *
+         * @param changedClasses classes with added, removed or updated annotation override rules
+         * @param globalChanged  whether global overrides changed, affecting all classes
+         */
+        void overridesChanged(Set<String> changedClasses, boolean globalChanged);
+    }
+
+    /**
+     * Immutable snapshot of the annotation overrides.
+     */
+    private static class OverridesIndex {
+
+        private final Map<String, Map<String, String>> globalAnnotationOverrides;
+        private final Map<OverrideKey, AnnotationOverrideRule> annotationRules;
+
+        OverridesIndex(Map<String, Map<String, String>> globalAnnotationOverrides,
+                       Map<OverrideKey, AnnotationOverrideRule> annotationRules) {
+            this.globalAnnotationOverrides = globalAnnotationOverrides;
+            this.annotationRules = annotationRules;
+        }
+    }
+
+    /**
+     * Key of the annotation override rule. Method is {@code null} for class overrides.
+     */
+    private static class OverrideKey {
+
+        private final String klass;
+        private final String method;
+        private final String annotation;
+        private final int hash;
+
+        OverrideKey(String klass, String method, String annotation) {
+            this.klass = klass;
+            this.method = method;
+            this.annotation = annotation;
+            this.hash = 31 * (31 * Objects.hashCode(klass) + Objects.hashCode(method)) + Objects.hashCode(annotation);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
             }
+            if (!(o instanceof OverrideKey)) {
+                return false;
+            }
+
+            OverrideKey that = (OverrideKey) o;
+            return Objects.equals(klass, that.klass) && Objects.equals(method, that.method) &&
+                    Objects.equals(annotation, that.annotation);
         }
 
-        return Optional.empty();
+        @Override
+        public int hashCode() {
+            return hash;
+        }
     }
 }
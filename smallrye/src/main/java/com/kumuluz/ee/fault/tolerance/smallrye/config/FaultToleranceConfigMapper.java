@@ -27,6 +27,7 @@ import com.kumuluz.ee.configuration.utils.ConfigurationUtil;
 import org.eclipse.microprofile.faulttolerance.*;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
@@ -77,6 +78,12 @@ public class FaultToleranceConfigMapper implements ConfigurationSource {
                     .collect(Collectors.joining("|")) +
             ")/([^/]+)$");
 
+    // translated keys are a pure function of the key, values are still looked up in annotation overrides on every call
+    private static final int MAX_TRANSLATED_KEYS = 10000;
+    private static final TranslatedKey NOT_TRANSLATED = new TranslatedKey(null, null, null, null);
+
+    private final Map<String, TranslatedKey> translatedKeys = new ConcurrentHashMap<>();
+
     @Override
     public void init(ConfigurationDispatcher configurationDispatcher) {
         this.configurationUtil = ConfigurationUtil.getInstance();
@@ -94,35 +101,59 @@ public class FaultToleranceConfigMapper implements ConfigurationSource {
             return configurationUtil.get(KUMULUZ_METRICS_ENABLED_KEY);
         }
 
-        Matcher matcher = KEY_TRANSLATION_PATTERN.matcher(key);
-        if (matcher.find()) {
+        // all ft keys contain a slash, skip the cache and pattern for the rest
+        if (key.indexOf('/') < 0) {
+            return Optional.empty();
+        }
 
-            // key matches ft patterns, extract parameters from the key
-            String klass = matcher.group(1);
-            if (klass != null) {
-                klass = klass.substring(0, klass.length() - 1); // remove trailing slash
-            }
-            String method = matcher.group(2);
-            if (method != null) {
-                method = method.substring(0, method.length() - 1); // remove trailing slash
-            }
-            String annotation = matcher.group(3);
-            annotation = FT_ANNOTATION_NAME_TO_HYPHEN_CASE.get(annotation);
-            String parameterName = matcher.group(4);
-            if (parameterName != null) {
-                parameterName = StringUtils.camelCaseToHyphenCase(parameterName);
-            }
+        TranslatedKey translatedKey = translatedKeys.get(key);
+        if (translatedKey == null) {
+            translatedKey = translateKey(key);
 
-            if (klass == null) {
-                // class & method = null, key is for global configuration
-                return annotationOverrides.getGlobalParameter(annotation, parameterName);
+            if (translatedKeys.size() >= MAX_TRANSLATED_KEYS) {
+                translatedKeys.clear();
             }
+            translatedKeys.put(key, translatedKey);
+        }
 
-            // class is defined, key is for annotation override
-            return annotationOverrides.getAnnotationOverrideParameter(klass, method, annotation, parameterName);
+        if (translatedKey == NOT_TRANSLATED) {
+            return Optional.empty();
         }
 
-        return Optional.empty();
+        if (translatedKey.klass == null) {
+            // class & method = null, key is for global configuration
+            return annotationOverrides.getGlobalParameter(translatedKey.annotation, translatedKey.parameterName);
+        }
+
+        // class is defined, key is for annotation override
+        return annotationOverrides.getAnnotationOverrideParameter(translatedKey.klass, translatedKey.method,
+                translatedKey.annotation, translatedKey.parameterName);
+    }
+
+    static TranslatedKey translateKey(String key) {
+
+        Matcher matcher = KEY_TRANSLATION_PATTERN.matcher(key);
+        if (!matcher.find()) {
+            return NOT_TRANSLATED;
+        }
+
+        // key matches ft patterns, extract parameters from the key
+        String klass = matcher.group(1);
+        if (klass != null) {
+            klass = klass.substring(0, klass.length() - 1); // remove trailing slash
+        }
+        String method = matcher.group(2);
+        if (method != null) {
+            method = method.substring(0, method.length() - 1); // remove trailing slash
+        }
+        String annotation = matcher.group(3);
+        annotation = FT_ANNOTATION_NAME_TO_HYPHEN_CASE.get(annotation);
+        String parameterName = matcher.group(4);
+        if (parameterName != null) {
+            parameterName = StringUtils.camelCaseToHyphenCase(parameterName);
+        }
+
+        return new TranslatedKey(klass, method, annotation, parameterName);
     }
 
     /**
@@ -251,4 +282,30 @@ public class FaultToleranceConfigMapper implements ConfigurationSource {
     public void set(String s, Float aFloat) {
 
     }
+
+    /**
+     * MP Fault Tolerance key translated to parts of the KumuluzEE Fault Tolerance key.
+     */
+    static class TranslatedKey {
+
+        private final String klass;
+        private final String method;
+        private final String annotation;
+        private final String parameterName;
+
+        TranslatedKey(String klass, String method, String annotation, String parameterName) {
+            this.klass = klass;
+            this.method = method;
+            this.annotation = annotation;
+            this.parameterName = parameterName;
+        }
+
+        boolean isTranslated() {
+            return this != NOT_TRANSLATED;
+        }
+
+        String getKlass() {
+            return klass;
+        }
+    }
 }
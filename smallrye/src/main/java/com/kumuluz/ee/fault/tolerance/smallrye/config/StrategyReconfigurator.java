@@ -0,0 +1,316 @@
+/*
+ *  Copyright (c) 2014-2017 Kumuluz and/or its affiliates
+ *  and other contributors as indicated by the @author tags and
+ *  the contributor list.
+ *
+ *  Licensed under the MIT License (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://opensource.org/licenses/MIT
+ *
+ *  The software is provided "AS IS", WITHOUT WARRANTY OF ANY KIND, express or
+ *  implied, including but not limited to the warranties of merchantability,
+ *  fitness for a particular purpose and noninfringement. in no event shall the
+ *  authors or copyright holders be liable for any claim, damages or other
+ *  liability, whether in an action of contract, tort or otherwise, arising from,
+ *  out of or in connection with the software or the use or other dealings in the
+ *  software. See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.kumuluz.ee.fault.tolerance.smallrye.config;
+
+import com.kumuluz.ee.configuration.ConfigurationListener;
+import com.kumuluz.ee.configuration.utils.ConfigurationUtil;
+import io.smallrye.faulttolerance.FaultToleranceExtension;
+import io.smallrye.faulttolerance.config.BulkheadConfig;
+import io.smallrye.faulttolerance.config.FaultToleranceOperation;
+import io.smallrye.faulttolerance.core.FaultToleranceStrategy;
+import io.smallrye.faulttolerance.core.bulkhead.BulkheadBase;
+import io.smallrye.faulttolerance.core.bulkhead.CompletionStageBulkhead;
+import io.smallrye.faulttolerance.core.bulkhead.SemaphoreBulkhead;
+import io.smallrye.faulttolerance.core.bulkhead.ThreadPoolBulkhead;
+import io.smallrye.faulttolerance.internal.InterceptionPoint;
+import io.smallrye.faulttolerance.internal.StrategyCache;
+import io.smallrye.faulttolerance.metrics.MetricsCollector;
+
+import javax.enterprise.context.spi.Context;
+import javax.enterprise.inject.spi.Bean;
+import javax.enterprise.inject.spi.BeanManager;
+import java.lang.reflect.Field;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.logging.Logger;
+
+/**
+ * Applies fault tolerance configuration changes to the SmallRye strategies at runtime.
+ *
+ * SmallRye builds the fault tolerance operation of a method, holding the configured values, at deployment and the
+ * strategy of a method on its first invocation and caches both. When configuration of a class changes, operations of
+ * the class are rebuilt from the updated configuration and the cached strategies and metrics collectors are evicted,
+ * so that they are rebuilt on the next invocation. Invocations already in progress complete with the previous
+ * strategy. State of the rebuilt strategies (e.g. circuit breaker state) starts anew.
+ *
+ * A strategy with a bulkhead is evicted only once all of its permits are taken over, so that the previous and the
+ * rebuilt bulkhead never admit more invocations than the configured limit together. Until then, the previous bulkhead
+ * stays in use; if it does not become idle within {@link #IDLE_WAIT_MILLIS}, its permits are taken over one by one as
+ * invocations in progress complete and invocations beyond the shrinking limit are rejected.
+ *
+ * @since 2.2.0
+ */
+public class StrategyReconfigurator {
+
+    private static final Logger LOG = Logger.getLogger(StrategyReconfigurator.class.getName());
+
+    private static final long IDLE_WAIT_MILLIS = 1000;
+    private static final long IDLE_POLL_MILLIS = 10;
+
+    private final Map<InterceptionPoint, FaultToleranceStrategy<?>> strategies;
+    private final Map<InterceptionPoint, MetricsCollector> metricsCollectors;
+    private final Map<String, FaultToleranceOperation> operations;
+
+    private final Set<FaultToleranceStrategy<?>> retiringStrategies = ConcurrentHashMap.newKeySet();
+    private final ExecutorService retireExecutor;
+
+    private final AnnotationOverrides.ChangeListener overridesListener;
+    private final ConfigurationListener configurationListener;
+
+    public StrategyReconfigurator(BeanManager beanManager) {
+        StrategyCache strategyCache = getInstance(beanManager, StrategyCache.class);
+
+        this.strategies = getField(strategyCache, StrategyCache.class, "strategies");
+        this.metricsCollectors = getField(strategyCache, StrategyCache.class, "metricsCollectors");
+        this.operations = getField(beanManager.getExtension(FaultToleranceExtension.class),
+                FaultToleranceExtension.class, "faultToleranceOperations");
+
+        // fail on startup instead of on the first configuration change
+        requireField(BulkheadBase.class, "delegate");
+        requireField(SemaphoreBulkhead.class, "semaphore");
+        requireField(ThreadPoolBulkhead.class, "capacitySemaphore");
+        requireField(CompletionStageBulkhead.class, "capacitySemaphore");
+
+        this.retireExecutor = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "kumuluzee-ft-reconfigure");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        this.overridesListener = (changedClasses, globalChanged) -> {
+            if (globalChanged) {
+                rebuildAll();
+            } else {
+                rebuild(changedClasses);
+            }
+        };
+
+        // keys in the MP Fault Tolerance format provided by other configuration sources
+        this.configurationListener = (String updatedKey, String updatedValue) -> {
+            if (updatedKey.indexOf('/') < 0) {
+                return;
+            }
+
+            FaultToleranceConfigMapper.TranslatedKey translatedKey =
+                    FaultToleranceConfigMapper.translateKey(updatedKey);
+
+            if (translatedKey.isTranslated()) {
+                if (translatedKey.getKlass() == null) {
+                    rebuildAll();
+                } else {
+                    rebuild(Collections.singleton(translatedKey.getKlass()));
+                }
+            }
+        };
+    }
+
+    public void start() {
+        AnnotationOverrides.addChangeListener(overridesListener);
+        ConfigurationUtil.getInstance().subscribe("kumuluzee.fault-tolerance", configurationListener);
+    }
+
+    public void stop() {
+        AnnotationOverrides.removeChangeListener(overridesListener);
+        ConfigurationUtil.getInstance().unsubscribe(configurationListener);
+
+        retireExecutor.shutdownNow();
+    }
+
+    private void rebuildAll() {
+        LOG.info("Global fault tolerance configuration changed, rebuilding all strategies.");
+
+        rebuild(beanClass -> true);
+    }
+
+    private void rebuild(Set<String> classNames) {
+        LOG.info("Fault tolerance configuration changed for " + classNames + ", rebuilding strategies.");
+
+        rebuild(beanClass -> classNames.contains(beanClass.getName()));
+    }
+
+    private synchronized void rebuild(Predicate<Class<?>> affected) {
+        for (Map.Entry<String, FaultToleranceOperation> entry : operations.entrySet()) {
+            FaultToleranceOperation previous = entry.getValue();
+
+            if (!affected.test(previous.getBeanClass())) {
+                continue;
+            }
+
+            FaultToleranceOperation operation;
+            try {
+                operation = FaultToleranceOperation.of(previous.getBeanClass(), previous.getMethod());
+                operation.validate();
+            } catch (RuntimeException e) {
+                LOG.warning("Invalid fault tolerance configuration of " + previous.getBeanClass().getName() + "#" +
+                        previous.getMethod().getName() + ", keeping the previous configuration: " + e.getMessage());
+                continue;
+            }
+
+            // rebuilt strategies read the configuration from the operation
+            entry.setValue(operation);
+
+            for (InterceptionPoint point : strategies.keySet()) {
+                if (point.method().equals(previous.getMethod()) && affected.test(point.beanClass())) {
+                    retire(point, previous);
+                }
+            }
+        }
+    }
+
+    private void retire(InterceptionPoint point, FaultToleranceOperation previous) {
+        FaultToleranceStrategy<?> strategy = strategies.get(point);
+
+        metricsCollectors.remove(point);
+
+        if (strategy == null || !retiringStrategies.add(strategy)) {
+            return;
+        }
+
+        BulkheadBase<?> bulkhead = previous.hasBulkhead() ? findBulkhead(strategy) : null;
+
+        if (bulkhead == null) {
+            strategies.remove(point, strategy);
+            retiringStrategies.remove(strategy);
+            return;
+        }
+
+        Semaphore semaphore = getPermits(bulkhead);
+        int capacity = getCapacity(bulkhead, previous.getBulkhead());
+
+        retireExecutor.execute(() -> {
+            try {
+                takeOverPermits(semaphore, capacity);
+
+                strategies.remove(point, strategy);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                retiringStrategies.remove(strategy);
+            }
+        });
+    }
+
+    private static void takeOverPermits(Semaphore semaphore, int capacity) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(IDLE_WAIT_MILLIS);
+
+        while (System.nanoTime() < deadline) {
+            if (semaphore.tryAcquire(capacity)) {
+                return;
+            }
+
+            Thread.sleep(IDLE_POLL_MILLIS);
+        }
+
+        LOG.info("Bulkhead did not become idle, taking over its permits as invocations complete.");
+
+        for (int acquired = 0; acquired < capacity; acquired++) {
+            semaphore.acquire();
+        }
+    }
+
+    private static Semaphore getPermits(BulkheadBase<?> bulkhead) {
+        if (bulkhead instanceof SemaphoreBulkhead) {
+            return getField(bulkhead, SemaphoreBulkhead.class, "semaphore");
+        } else if (bulkhead instanceof ThreadPoolBulkhead) {
+            return getField(bulkhead, ThreadPoolBulkhead.class, "capacitySemaphore");
+        } else {
+            return getField(bulkhead, CompletionStageBulkhead.class, "capacitySemaphore");
+        }
+    }
+
+    private static int getCapacity(BulkheadBase<?> bulkhead, BulkheadConfig config) {
+        int capacity = config.<Integer>get(BulkheadConfig.VALUE);
+
+        if (!(bulkhead instanceof SemaphoreBulkhead)) {
+            capacity += config.<Integer>get(BulkheadConfig.WAITING_TASK_QUEUE);
+        }
+
+        return capacity;
+    }
+
+    private static BulkheadBase<?> findBulkhead(FaultToleranceStrategy<?> strategy) {
+        while (strategy != null && !(strategy instanceof BulkheadBase)) {
+            strategy = getDelegate(strategy);
+        }
+
+        return (BulkheadBase<?>) strategy;
+    }
+
+    private static FaultToleranceStrategy<?> getDelegate(FaultToleranceStrategy<?> strategy) {
+        for (Class<?> c = strategy.getClass(); c != null && c != Object.class; c = c.getSuperclass()) {
+            try {
+                return getField(strategy, c.getDeclaredField("delegate"));
+            } catch (NoSuchFieldException e) {
+                // declared by a superclass
+            }
+        }
+
+        return null;
+    }
+
+    private static <T> T getField(Object instance, Class<?> declaringClass, String name) {
+        return getField(instance, requireField(declaringClass, name));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T getField(Object instance, Field field) {
+        try {
+            field.setAccessible(true);
+
+            return (T) field.get(instance);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            throw new IllegalStateException("Could not read SmallRye field " + field.getDeclaringClass().getName() +
+                    "." + field.getName() + ".", e);
+        }
+    }
+
+    private static Field requireField(Class<?> declaringClass, String name) {
+        try {
+            return declaringClass.getDeclaredField(name);
+        } catch (NoSuchFieldException e) {
+            throw new IllegalStateException("SmallRye field " + declaringClass.getName() + "." + name + " not " +
+                    "found, fault tolerance configuration changes cannot be applied at runtime with this SmallRye " +
+                    "version. Disable kumuluzee.fault-tolerance.config.watch-enabled.", e);
+        }
+    }
+
+    private static <T> T getInstance(BeanManager beanManager, Class<T> beanClass) {
+        @SuppressWarnings("unchecked")
+        Bean<T> bean = (Bean<T>) beanManager.resolve(beanManager.getBeans(beanClass));
+
+        if (bean == null) {
+            throw new IllegalStateException("SmallRye bean " + beanClass.getName() + " not found, fault tolerance " +
+                    "configuration changes cannot be applied at runtime.");
+        }
+
+        // contextual instance instead of the client proxy, fields of the proxy are not populated
+        Context context = beanManager.getContext(bean.getScope());
+
+        return context.get(bean, beanManager.createCreationalContext(bean));
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ *  Copyright (c) 2014-2017 Kumuluz and/or its affiliates
+ *  and other contributors as indicated by the @author tags and
+ *  the contributor list.
+ *
+ *  Licensed under the MIT License (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://opensource.org/licenses/MIT
+ *
+ *  The software is provided "AS IS", WITHOUT WARRANTY OF ANY KIND, express or
+ *  implied, including but not limited to the warranties of merchantability,
+ *  fitness for a particular purpose and noninfringement. in no event shall the
+ *  authors or copyright holders be liable for any claim, damages or other
+ *  liability, whether in an action of contract, tort or otherwise, arising from,
+ *  out of or in connection with the software or the use or other dealings in the
+ *  software. See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.kumuluz.ee.fault.tolerance.smallrye;
+
+import org.jboss.arquillian.testng.Arquillian;
+import org.testng.annotations.Test;
+
+import javax.inject.Inject;
+import java.lang.management.ManagementFactory;
+import java.util.function.LongUnaryOperator;
+import java.util.logging.Logger;
+
+/**
+ * Compares per-call time and allocation of an intercepted fault tolerant method with a plain method of the same bean.
+ * Subclasses deploy the bean with metrics enabled and disabled.
+ *
+ * Not executed with the test suite, since results depend on the machine. Run with
+ * {@code mvn test -pl smallrye -Dtest='Metrics*Benchmark'}.
+ *
+ * @since 2.2.0
+ */
+public abstract class InvocationBenchmark extends Arquillian {
+
+    private static final Logger log = Logger.getLogger(InvocationBenchmark.class.getName());
+
+    private static final int CALLS = 200000;
+    private static final int ROUNDS = 5;
+
+    @Inject
+    private MeasuredBean bean;
+
+    private long sink;
+
+    @Test
+    public void compareInvocations() {
+
+        // first round warms up the JIT and is not reported
+        for (int round = 0; round < ROUNDS; round++) {
+            long[] plain = measure(bean::plain);
+            long[] faultTolerant = measure(bean::faultTolerant);
+
+            if (round > 0) {
+                log.info(String.format("%s round %d: no fault tolerance %.1f ns and %.1f bytes per call, fault " +
+                                "tolerance %.1f ns and %.1f bytes per call.", getClass().getSimpleName(), round,
+                        (double) plain[0] / CALLS, (double) plain[1] / CALLS,
+                        (double) faultTolerant[0] / CALLS, (double) faultTolerant[1] / CALLS));
+            }
+        }
+    }
+
+    /**
+     * Returns elapsed time in nanoseconds and bytes allocated by this thread (-1 if not supported) for all calls.
+     */
+    private long[] measure(LongUnaryOperator call) {
+
+        long allocatedBefore = allocatedBytes();
+        long start = System.nanoTime();
+
+        for (int i = 0; i < CALLS; i++) {
+            sink += call.applyAsLong(i);
+        }
+
+        long elapsed = System.nanoTime() - start;
+        long allocatedAfter = allocatedBytes();
+
+        return new long[]{elapsed, allocatedBefore < 0 ? -1 : allocatedAfter - allocatedBefore};
+    }
+
+    private static long allocatedBytes() {
+
+        java.lang.management.ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+
+        if (threadMXBean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) threadMXBean)
+                    .getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+
+        return -1;
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ *  Copyright (c) 2014-2017 Kumuluz and/or its affiliates
+ *  and other contributors as indicated by the @author tags and
+ *  the contributor list.
+ *
+ *  Licensed under the MIT License (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://opensource.org/licenses/MIT
+ *
+ *  The software is provided "AS IS", WITHOUT WARRANTY OF ANY KIND, express or
+ *  implied, including but not limited to the warranties of merchantability,
+ *  fitness for a particular purpose and noninfringement. in no event shall the
+ *  authors or copyright holders be liable for any claim, damages or other
+ *  liability, whether in an action of contract, tort or otherwise, arising from,
+ *  out of or in connection with the software or the use or other dealings in the
+ *  software. See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.kumuluz.ee.fault.tolerance.smallrye;
+
+import org.jboss.arquillian.container.test.api.Deployment;
+import org.jboss.arquillian.testng.Arquillian;
+import org.jboss.shrinkwrap.api.ShrinkWrap;
+import org.jboss.shrinkwrap.api.spec.WebArchive;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import javax.enterprise.inject.spi.BeanManager;
+import javax.inject.Inject;
+
+/**
+ * Tests that strategies of fault tolerant methods collect metrics when KumuluzEE Metrics extension is present, which
+ * shows that {@link MetricsDisabledArquillianTest} inspects the strategies which would collect them.
+ *
+ * @since 2.2.0
+ */
+public class MetricsEnabledArquillianTest extends Arquillian {
+
+    @Inject
+    private MeasuredBean bean;
+
+    @Inject
+    private BeanManager beanManager;
+
+    @Deployment
+    public static WebArchive deployment() {
+        return ShrinkWrap.create(WebArchive.class, "metrics-enabled.war")
+                .addClasses(MeasuredBean.class, StrategyChain.class);
+    }
+
+    @Test
+    public void shouldCollectMetrics() throws Exception {
+
+        Assert.assertEquals(bean.faultTolerant(1), 2);
+
+        Assert.assertTrue(SmallRyeFtExtension.isMetricsEnabled());
+        Assert.assertEquals(StrategyChain.countStrategies(beanManager), 1);
+        Assert.assertFalse(StrategyChain.findMetricsCollectors(beanManager).isEmpty());
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ *  Copyright (c) 2014-2017 Kumuluz and/or its affiliates
+ *  and other contributors as indicated by the @author tags and
+ *  the contributor list.
+ *
+ *  Licensed under the MIT License (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://opensource.org/licenses/MIT
+ *
+ *  The software is provided "AS IS", WITHOUT WARRANTY OF ANY KIND, express or
+ *  implied, including but not limited to the warranties of merchantability,
+ *  fitness for a particular purpose and noninfringement. in no event shall the
+ *  authors or copyright holders be liable for any claim, damages or other
+ *  liability, whether in an action of contract, tort or otherwise, arising from,
+ *  out of or in connection with the software or the use or other dealings in the
+ *  software. See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.kumuluz.ee.fault.tolerance.smallrye;
+
+import io.smallrye.faulttolerance.core.FaultToleranceStrategy;
+import io.smallrye.faulttolerance.internal.StrategyCache;
+import io.smallrye.faulttolerance.metrics.MetricsCollector;
+
+import javax.enterprise.context.spi.Context;
+import javax.enterprise.inject.spi.Bean;
+import javax.enterprise.inject.spi.BeanManager;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Inspects strategies cached by SmallRye Fault Tolerance.
+ *
+ * @since 2.2.0
+ */
+public class StrategyChain {
+
+    private StrategyChain() {
+    }
+
+    /**
+     * Returns number of cached strategy chains.
+     */
+    public static int countStrategies(BeanManager beanManager) throws ReflectiveOperationException {
+        return getCached(beanManager, "strategies").size();
+    }
+
+    /**
+     * Returns metrics collectors, other than the NO-OP collector, referenced by cached strategies or cached for
+     * interception points.
+     */
+    public static List<MetricsCollector> findMetricsCollectors(BeanManager beanManager)
+            throws ReflectiveOperationException {
+
+        List<MetricsCollector> collectors = new ArrayList<>();
+
+        for (Object strategy : getCached(beanManager, "strategies").values()) {
+            collectMetricsCollectors(strategy, collectors);
+        }
+
+        for (Object collector : getCached(beanManager, "metricsCollectors").values()) {
+            if (collector != MetricsCollector.NOOP) {
+                collectors.add((MetricsCollector) collector);
+            }
+        }
+
+        return collectors;
+    }
+
+    private static void collectMetricsCollectors(Object strategy, List<MetricsCollector> collectors)
+            throws IllegalAccessException {
+
+        for (Class<?> c = strategy.getClass(); c != Object.class; c = c.getSuperclass()) {
+            for (Field field : c.getDeclaredFields()) {
+                if (Modifier.isStatic(field.getModifiers())) {
+                    continue;
+                }
+
+                field.setAccessible(true);
+                Object value = field.get(strategy);
+
+                if (value instanceof MetricsCollector && value != MetricsCollector.NOOP) {
+                    collectors.add((MetricsCollector) value);
+                } else if (value instanceof FaultToleranceStrategy) {
+                    collectMetricsCollectors(value, collectors);
+                }
+            }
+        }
+    }
+
+    private static Map<?, ?> getCached(BeanManager beanManager, String fieldName)
+            throws ReflectiveOperationException {
+
+        @SuppressWarnings("unchecked")
+        Bean<StrategyCache> bean = (Bean<StrategyCache>) beanManager.resolve(beanManager.getBeans(StrategyCache.class));
+        Context context = beanManager.getContext(bean.getScope());
+        StrategyCache cache = context.get(bean, beanManager.createCreationalContext(bean));
+
+        Field field = StrategyCache.class.getDeclaredField(fieldName);
+        field.setAccessible(true);
+
+        return (Map<?, ?>) field.get(cache);
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ *  Copyright (c) 2014-2017 Kumuluz and/or its affiliates
+ *  and other contributors as indicated by the @author tags and
+ *  the contributor list.
+ *
+ *  Licensed under the MIT License (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://opensource.org/licenses/MIT
+ *
+ *  The software is provided "AS IS", WITHOUT WARRANTY OF ANY KIND, express or
+ *  implied, including but not limited to the warranties of merchantability,
+ *  fitness for a particular purpose and noninfringement. in no event shall the
+ *  authors or copyright holders be liable for any claim, damages or other
+ *  liability, whether in an action of contract, tort or otherwise, arising from,
+ *  out of or in connection with the software or the use or other dealings in the
+ *  software. See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.kumuluz.ee.fault.tolerance.smallrye;
+
+import com.kumuluz.ee.configuration.utils.ConfigurationImpl;
+import com.kumuluz.ee.configuration.utils.ConfigurationUtil;
+
+import java.lang.reflect.Field;
+
+/**
+ * Initializes KumuluzEE configuration for tests executed outside of a KumuluzEE runtime.
+ *
+ * @since 2.2.0
+ */
+public class TestConfigurationUtil {
+
+    private TestConfigurationUtil() {
+    }
+
+    /**
+     * Initializes {@link ConfigurationUtil} unless it was already initialized by another test.
+     *
+     * @return Configuration util
+     */
+    public static synchronized ConfigurationUtil initialize() {
+        try {
+            return ConfigurationUtil.getInstance();
+        } catch (IllegalStateException e) {
+            ConfigurationUtil.initialize(new ConfigurationImpl());
+
+            return ConfigurationUtil.getInstance();
+        }
+    }
+
+    /**
+     * Sets the configuration value as a system property and notifies the subscribed listeners, as a watched
+     * configuration source would.
+     *
+     * @param key   configuration key
+     * @param value new value
+     */
+    public static void update(String key, String value) {
+
+        System.setProperty(key, value);
+        configuration(initialize()).getDispatcher().notifyChange(key, value);
+    }
+
+    private static ConfigurationImpl configuration(ConfigurationUtil configUtil) {
+        try {
+            Field config = ConfigurationUtil.class.getDeclaredField("config");
+            config.setAccessible(true);
+
+            return (ConfigurationImpl) config.get(configUtil);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Could not access configuration of the configuration util.", e);
+        }
+    }
+}
@@ -0,0 +1,274 @@
+/*
+ *  Copyright (c) 2014-2017 Kumuluz and/or its affiliates
+ *  and other contributors as indicated by the @author tags and
+ *  the contributor list.
+ *
+ *  Licensed under the MIT License (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://opensource.org/licenses/MIT
+ *
+ *  The software is provided "AS IS", WITHOUT WARRANTY OF ANY KIND, express or
+ *  implied, including but not limited to the warranties of merchantability,
+ *  fitness for a particular purpose and noninfringement. in no event shall the
+ *  authors or copyright holders be liable for any claim, damages or other
+ *  liability, whether in an action of contract, tort or otherwise, arising from,
+ *  out of or in connection with the software or the use or other dealings in the
+ *  software. See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.kumuluz.ee.fault.tolerance.smallrye.beans;
+
+import com.kumuluz.ee.fault.tolerance.smallrye.SmallRyeFtExtension;
+import com.kumuluz.ee.fault.tolerance.smallrye.TestConfigurationUtil;
+import io.smallrye.faulttolerance.ExecutorProvider;
+import org.eclipse.microprofile.metrics.Gauge;
+import org.eclipse.microprofile.metrics.Histogram;
+import org.eclipse.microprofile.metrics.Metadata;
+import org.eclipse.microprofile.metrics.Metric;
+import org.eclipse.microprofile.metrics.MetricRegistry;
+import org.eclipse.microprofile.metrics.Snapshot;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import javax.enterprise.inject.Instance;
+import java.lang.reflect.Field;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Tests for the executor of {@link KumuluzAsyncExecutorProvider}, created outside of a CDI container.
+ *
+ * @since 2.2.0
+ */
+public class KumuluzAsyncExecutorProviderTest {
+
+    private static final String[] CONFIG_KEYS = {"max-size", "core-size", "queue-size", "keep-alive",
+            "virtual-threads"};
+
+    private RecordingMetricRegistry registry;
+    private KumuluzAsyncExecutorProvider provider;
+    private boolean metricsEnabled;
+
+    @BeforeClass
+    public void initializeConfiguration() {
+        TestConfigurationUtil.initialize();
+    }
+
+    @BeforeMethod
+    public void enableMetrics() throws Exception {
+        metricsEnabled = SmallRyeFtExtension.isMetricsEnabled();
+        setField(SmallRyeFtExtension.class, null, "metricsEnabled", true);
+
+        registry = new RecordingMetricRegistry();
+    }
+
+    @AfterMethod
+    public void tearDown() throws Exception {
+        if (provider != null) {
+            provider.tearDown();
+            provider = null;
+        }
+
+        for (String key : CONFIG_KEYS) {
+            System.clearProperty(KumuluzAsyncExecutorProvider.CONFIG_PREFIX + key);
+        }
+        setField(SmallRyeFtExtension.class, null, "metricsEnabled", metricsEnabled);
+    }
+
+    @Test
+    public void shouldQueueAndRejectTasksAboveConfiguredSize() throws Exception {
+
+        System.setProperty(KumuluzAsyncExecutorProvider.CONFIG_PREFIX + "max-size", "2");
+        System.setProperty(KumuluzAsyncExecutorProvider.CONFIG_PREFIX + "queue-size", "1");
+
+        ExecutorService executor = createProvider().getGlobalExecutor();
+        CountDownLatch started = new CountDownLatch(2);
+        CountDownLatch release = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+
+        for (int i = 0; i < 3; i++) {
+            futures.add(executor.submit(() -> {
+                started.countDown();
+                release.await();
+
+                return null;
+            }));
+        }
+
+        Assert.assertTrue(started.await(5, TimeUnit.SECONDS));
+        Assert.assertEquals(gauge("ft.executor.activeThreads"), 2L);
+        Assert.assertEquals(gauge("ft.executor.queueSize"), 1L);
+
+        try {
+            executor.submit(() -> null);
+            Assert.fail("Task above the configured size should be rejected.");
+        } catch (RejectedExecutionException e) {
+            // expected
+        }
+
+        release.countDown();
+        for (Future<?> future : futures) {
+            future.get(5, TimeUnit.SECONDS);
+        }
+
+        Assert.assertEquals(registry.waitDuration.count.sum(), 3L);
+    }
+
+    @Test
+    public void shouldStartThreadsUpToMaxSizeWithUnboundedQueue() throws Exception {
+
+        System.setProperty(KumuluzAsyncExecutorProvider.CONFIG_PREFIX + "max-size", "3");
+        System.setProperty(KumuluzAsyncExecutorProvider.CONFIG_PREFIX + "core-size", "1");
+
+        ExecutorService executor = createProvider().getGlobalExecutor();
+        CountDownLatch started = new CountDownLatch(3);
+        CountDownLatch release = new CountDownLatch(1);
+
+        try {
+            for (int i = 0; i < 3; i++) {
+                executor.submit(() -> {
+                    started.countDown();
+                    release.await();
+
+                    return null;
+                });
+            }
+
+            Assert.assertTrue(started.await(5, TimeUnit.SECONDS));
+            Assert.assertEquals(gauge("ft.executor.queueSize"), 0L);
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    public void shouldShutDownReplacedSmallRyeExecutor() throws Exception {
+
+        createProvider();
+
+        Field globalExecutor = ExecutorProvider.class.getDeclaredField("globalExecutor");
+        globalExecutor.setAccessible(true);
+        ExecutorService smallRyeExecutor = (ExecutorService) globalExecutor.get(provider);
+
+        Assert.assertNotSame(provider.getGlobalExecutor(), smallRyeExecutor);
+        Assert.assertTrue(smallRyeExecutor.isShutdown());
+        Assert.assertFalse(provider.getTimeoutExecutor().isShutdown());
+    }
+
+    @Test
+    public void shouldRunTasksOnProviderThreads() throws Exception {
+
+        ExecutorService executor = createProvider().getGlobalExecutor();
+
+        String threadName = executor.submit(() -> Thread.currentThread().getName()).get(5, TimeUnit.SECONDS);
+
+        Assert.assertTrue(threadName.startsWith("kumuluzee-ft-async-"), threadName);
+    }
+
+    @Test
+    public void shouldShutDownExecutorOnTearDown() {
+
+        ExecutorService executor = createProvider().getGlobalExecutor();
+
+        provider.tearDown();
+
+        Assert.assertTrue(executor.isShutdown());
+    }
+
+    private KumuluzAsyncExecutorProvider createProvider() {
+        provider = new KumuluzAsyncExecutorProvider();
+
+        try {
+            setField(ExecutorProvider.class, provider, "size", 10);
+            setField(ExecutorProvider.class, provider, "timeoutExecutorSize", 1);
+            setField(KumuluzAsyncExecutorProvider.class, provider, "metricRegistry", instance(registry));
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+
+        provider.setUp();
+
+        return provider;
+    }
+
+    private Object gauge(String name) {
+        return ((Gauge<?>) registry.metrics.get(name)).getValue();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Instance<MetricRegistry> instance(MetricRegistry registry) {
+        return (Instance<MetricRegistry>) Proxy.newProxyInstance(KumuluzAsyncExecutorProviderTest.class
+                .getClassLoader(), new Class<?>[]{Instance.class}, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "isResolvable":
+                    return true;
+                case "get":
+                    return registry;
+                default:
+                    throw new UnsupportedOperationException(method.getName());
+            }
+        });
+    }
+
+    private static void setField(Class<?> type, Object target, String name, Object value)
+            throws ReflectiveOperationException {
+        Field field = type.getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(target, value);
+    }
+
+    /**
+     * Keeps registered metrics and hands out a counting wait duration histogram.
+     */
+    private static class RecordingMetricRegistry extends NoopMetricRegistry {
+
+        private final Map<String, Metric> metrics = new ConcurrentHashMap<>();
+        private final CountingHistogram waitDuration = new CountingHistogram();
+
+        @Override
+        public <T extends Metric> T register(Metadata metadata, T metric) {
+            metrics.put(metadata.getName(), metric);
+
+            return metric;
+        }
+
+        @Override
+        public Histogram histogram(Metadata metadata) {
+            return waitDuration;
+        }
+    }
+
+    private static class CountingHistogram implements Histogram {
+
+        private final LongAdder count = new LongAdder();
+
+        @Override
+        public void update(int value) {
+            count.increment();
+        }
+
+        @Override
+        public void update(long value) {
+            count.increment();
+        }
+
+        @Override
+        public long getCount() {
+            return count.sum();
+        }
+
+        @Override
+        public Snapshot getSnapshot() {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
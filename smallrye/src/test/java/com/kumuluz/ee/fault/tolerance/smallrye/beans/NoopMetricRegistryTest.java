@@ -0,0 +1,88 @@
+/*
+ *  Copyright (c) 2014-2017 Kumuluz and/or its affiliates
+ *  and other contributors as indicated by the @author tags and
+ *  the contributor list.
+ *
+ *  Licensed under the MIT License (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://opensource.org/licenses/MIT
+ *
+ *  The software is provided "AS IS", WITHOUT WARRANTY OF ANY KIND, express or
+ *  implied, including but not limited to the warranties of merchantability,
+ *  fitness for a particular purpose and noninfringement. in no event shall the
+ *  authors or copyright holders be liable for any claim, damages or other
+ *  liability, whether in an action of contract, tort or otherwise, arising from,
+ *  out of or in connection with the software or the use or other dealings in the
+ *  software. See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.kumuluz.ee.fault.tolerance.smallrye.beans;
+
+import org.eclipse.microprofile.metrics.Counter;
+import org.eclipse.microprofile.metrics.Metadata;
+import org.eclipse.microprofile.metrics.MetricRegistry;
+import org.eclipse.microprofile.metrics.MetricType;
+import org.eclipse.microprofile.metrics.Tag;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tests for metrics handed out by {@link NoopMetricRegistry}.
+ *
+ * @since 2.2.0
+ */
+public class NoopMetricRegistryTest {
+
+    private final MetricRegistry registry = new NoopMetricRegistry();
+
+    @Test
+    public void shouldReturnSharedMetricsOfAllTypes() {
+
+        Metadata first = Metadata.builder().withName("first").withType(MetricType.COUNTER).build();
+        Metadata second = Metadata.builder().withName("second").withType(MetricType.COUNTER).build();
+
+        Assert.assertSame(registry.counter(first), registry.counter(second));
+        Assert.assertSame(registry.counter("first", new Tag("method", "find")), registry.counter("second"));
+        Assert.assertSame(registry.concurrentGauge("first"), registry.concurrentGauge("second"));
+        Assert.assertSame(registry.histogram("first"), registry.histogram("second"));
+        Assert.assertSame(registry.meter("first"), registry.meter("second"));
+        Assert.assertSame(registry.timer("first"), registry.timer("second"));
+        Assert.assertSame(registry.simpleTimer("first"), registry.simpleTimer("second"));
+    }
+
+    @Test
+    public void shouldIgnoreUpdates() throws Exception {
+
+        registry.counter("calls").inc();
+        registry.concurrentGauge("executing").inc();
+        registry.histogram("duration").update(10);
+        registry.meter("rate").mark();
+        registry.timer("timer").update(10, TimeUnit.MILLISECONDS);
+        registry.simpleTimer("simpleTimer").update(Duration.ofMillis(10));
+
+        Assert.assertEquals(registry.counter("calls").getCount(), 0);
+        Assert.assertEquals(registry.concurrentGauge("executing").getCount(), 0);
+        Assert.assertEquals(registry.histogram("duration").getCount(), 0);
+        Assert.assertEquals(registry.timer("timer").getCount(), 0);
+        Assert.assertEquals(registry.simpleTimer("simpleTimer").getElapsedTime(), Duration.ZERO);
+
+        // timed events are still executed
+        Assert.assertEquals(registry.timer("timer").time(() -> "result"), "result");
+        Assert.assertEquals(registry.timer("timer").time().stop(), 0);
+    }
+
+    @Test
+    public void shouldReturnRegisteredMetricWithoutKeepingIt() {
+
+        Counter counter = registry.counter("calls");
+
+        Assert.assertSame(registry.register("registered", counter), counter);
+        Assert.assertTrue(registry.getMetrics().isEmpty());
+        Assert.assertTrue(registry.getNames().isEmpty());
+    }
+}
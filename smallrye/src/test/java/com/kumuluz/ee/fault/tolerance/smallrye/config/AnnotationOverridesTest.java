@@ -0,0 +1,149 @@
+/*
+ *  Copyright (c) 2014-2017 Kumuluz and/or its affiliates
+ *  and other contributors as indicated by the @author tags and
+ *  the contributor list.
+ *
+ *  Licensed under the MIT License (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://opensource.org/licenses/MIT
+ *
+ *  The software is provided "AS IS", WITHOUT WARRANTY OF ANY KIND, express or
+ *  implied, including but not limited to the warranties of merchantability,
+ *  fitness for a particular purpose and noninfringement. in no event shall the
+ *  authors or copyright holders be liable for any claim, damages or other
+ *  liability, whether in an action of contract, tort or otherwise, arising from,
+ *  out of or in connection with the software or the use or other dealings in the
+ *  software. See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.kumuluz.ee.fault.tolerance.smallrye.config;
+
+import com.kumuluz.ee.fault.tolerance.smallrye.TestConfigurationUtil;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Tests for lookups and rebuilding of the {@link AnnotationOverrides} index.
+ *
+ * @since 2.2.0
+ */
+public class AnnotationOverridesTest {
+
+    private static final String OVERRIDES_KEY = "kumuluzee.fault-tolerance.annotation-overrides";
+    private static final String GLOBAL_RETRY_KEY = "kumuluzee.fault-tolerance.retry.max-retries";
+
+    private final Set<String> properties = new HashSet<>();
+
+    @BeforeClass
+    public void initializeConfiguration() {
+        TestConfigurationUtil.initialize();
+    }
+
+    @AfterMethod
+    public void resetConfiguration() {
+        properties.forEach(System::clearProperty);
+        properties.clear();
+    }
+
+    @Test
+    public void shouldFindClassAndMethodOverrides() {
+
+        rule(0, "com.example.Bean", null, "retry", "max-retries", "3");
+        rule(1, "com.example.Bean", "find", "retry", "max-retries", "5");
+
+        AnnotationOverrides overrides = new AnnotationOverrides();
+
+        Assert.assertEquals(overrides.getAnnotationOverrideParameter("com.example.Bean", null, "retry",
+                "max-retries"), Optional.of("3"));
+        Assert.assertEquals(overrides.getAnnotationOverrideParameter("com.example.Bean", "find", "retry",
+                "max-retries"), Optional.of("5"));
+        Assert.assertEquals(overrides.getAnnotationOverrideParameter("com.example.Bean", "save", "retry",
+                "max-retries"), Optional.empty());
+        Assert.assertEquals(overrides.getAnnotationOverrideParameter("com.example.Bean", "find", "timeout",
+                "value"), Optional.empty());
+    }
+
+    @Test
+    public void shouldPreferFirstRuleForSameKey() {
+
+        rule(0, "com.example.Bean", "find", "retry", "max-retries", "3");
+        rule(1, "com.example.Bean", "find", "retry", "max-retries", "5");
+
+        Assert.assertEquals(new AnnotationOverrides().getAnnotationOverrideParameter("com.example.Bean", "find",
+                "retry", "max-retries"), Optional.of("3"));
+    }
+
+    @Test
+    public void shouldSkipInvalidRules() {
+
+        rule(0, "com.example.Bean", "find", "cached", "value", "3");
+        rule(1, "com.example.Bean", "find", "retry", "max-retries", "5");
+
+        AnnotationOverrides overrides = new AnnotationOverrides();
+
+        Assert.assertEquals(overrides.getAnnotationOverrideParameter("com.example.Bean", "find", "cached",
+                "value"), Optional.empty());
+        Assert.assertEquals(overrides.getAnnotationOverrideParameter("com.example.Bean", "find", "retry",
+                "max-retries"), Optional.of("5"));
+    }
+
+    @Test
+    public void shouldFindGlobalOverrides() {
+
+        setProperty(GLOBAL_RETRY_KEY, "7");
+
+        AnnotationOverrides overrides = new AnnotationOverrides();
+
+        Assert.assertEquals(overrides.getGlobalParameter("retry", "max-retries"), Optional.of("7"));
+        Assert.assertEquals(overrides.getGlobalParameter("retry", "delay"), Optional.empty());
+        Assert.assertEquals(overrides.getGlobalParameter("timeout", "value"), Optional.empty());
+    }
+
+    @Test
+    public void shouldRebuildIndexAndNotifyListenersOnChange() {
+
+        rule(0, "com.example.Bean", "find", "retry", "max-retries", "3");
+
+        AnnotationOverrides overrides = new AnnotationOverrides();
+        Set<String> changedClasses = new HashSet<>();
+        AnnotationOverrides.ChangeListener listener = (classes, global) -> changedClasses.addAll(classes);
+
+        AnnotationOverrides.addChangeListener(listener);
+        try {
+            String key = OVERRIDES_KEY + "[0].parameters.max-retries";
+            properties.add(key);
+            TestConfigurationUtil.update(key, "4");
+
+            Assert.assertEquals(overrides.getAnnotationOverrideParameter("com.example.Bean", "find", "retry",
+                    "max-retries"), Optional.of("4"));
+            Assert.assertTrue(changedClasses.contains("com.example.Bean"));
+        } finally {
+            AnnotationOverrides.removeChangeListener(listener);
+        }
+    }
+
+    private void rule(int index, String klass, String method, String annotation, String parameter, String value) {
+
+        String prefix = OVERRIDES_KEY + "[" + index + "].";
+
+        setProperty(prefix + "class", klass);
+        if (method != null) {
+            setProperty(prefix + "method", method);
+        }
+        setProperty(prefix + "annotation", annotation);
+        setProperty(prefix + "parameters." + parameter, value);
+    }
+
+    private void setProperty(String key, String value) {
+        properties.add(key);
+        System.setProperty(key, value);
+    }
+}
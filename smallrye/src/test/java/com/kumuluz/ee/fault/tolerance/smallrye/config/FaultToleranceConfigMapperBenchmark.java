@@ -0,0 +1,108 @@
+/*
+ *  Copyright (c) 2014-2017 Kumuluz and/or its affiliates
+ *  and other contributors as indicated by the @author tags and
+ *  the contributor list.
+ *
+ *  Licensed under the MIT License (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://opensource.org/licenses/MIT
+ *
+ *  The software is provided "AS IS", WITHOUT WARRANTY OF ANY KIND, express or
+ *  implied, including but not limited to the warranties of merchantability,
+ *  fitness for a particular purpose and noninfringement. in no event shall the
+ *  authors or copyright holders be liable for any claim, damages or other
+ *  liability, whether in an action of contract, tort or otherwise, arising from,
+ *  out of or in connection with the software or the use or other dealings in the
+ *  software. See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.kumuluz.ee.fault.tolerance.smallrye.config;
+
+import com.kumuluz.ee.configuration.utils.ConfigurationImpl;
+import com.kumuluz.ee.configuration.utils.ConfigurationUtil;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Logger;
+
+/**
+ * Compares configuration lookups of {@link FaultToleranceConfigMapper} with translation of every key, for keys
+ * queried at startup of an application with 5000 annotated methods.
+ *
+ * Not executed with the test suite, since results depend on the machine. Run with
+ * {@code mvn test -pl smallrye -Dtest=FaultToleranceConfigMapperBenchmark}.
+ *
+ * @since 2.2.0
+ */
+public class FaultToleranceConfigMapperBenchmark {
+
+    private static final Logger log = Logger.getLogger(FaultToleranceConfigMapperBenchmark.class.getName());
+
+    private static final int METHODS = 5000;
+    private static final int LOOKUPS_PER_KEY = 3;
+    private static final int ROUNDS = 5;
+
+    private static final String[] KEY_SUFFIXES = {
+            "Retry/maxRetries", "Retry/delay", "Retry/enabled",
+            "Timeout/value", "Timeout/enabled",
+            "CircuitBreaker/requestVolumeThreshold", "CircuitBreaker/failureRatio", "CircuitBreaker/enabled",
+            "Bulkhead/value", "Fallback/enabled",
+    };
+
+    @Test
+    public void compareLookups() {
+
+        try {
+            ConfigurationUtil.getInstance();
+        } catch (IllegalStateException e) {
+            ConfigurationUtil.initialize(new ConfigurationImpl());
+        }
+
+        List<String> keys = new ArrayList<>();
+        for (int i = 0; i < METHODS; i++) {
+            for (String suffix : KEY_SUFFIXES) {
+                keys.add("com.example.Bean" + (i / 10) + "/method" + i + "/" + suffix);
+            }
+            // keys of other configuration sources are queried through the mapper as well
+            keys.add("com.example.Bean" + (i / 10) + "/method" + i + "/mp.config.value");
+        }
+
+        // startup runs mostly interpreted code, so the first (cold) round is the most representative one
+        for (int round = 0; round < ROUNDS; round++) {
+            FaultToleranceConfigMapper mapper = new FaultToleranceConfigMapper();
+            mapper.init(null);
+
+            long start = System.nanoTime();
+            int translated = 0;
+            for (int i = 0; i < LOOKUPS_PER_KEY; i++) {
+                for (String key : keys) {
+                    if (FaultToleranceConfigMapper.translateKey(key).isTranslated()) {
+                        translated++;
+                    }
+                }
+            }
+            long uncached = System.nanoTime() - start;
+
+            // keys are translated on the first lookup and read from the cache on the following ones
+            int found = 0;
+            long[] lookups = new long[LOOKUPS_PER_KEY];
+            for (int i = 0; i < LOOKUPS_PER_KEY; i++) {
+                start = System.nanoTime();
+                for (String key : keys) {
+                    if (mapper.get(key).isPresent()) {
+                        found++;
+                    }
+                }
+                lookups[i] = System.nanoTime() - start;
+            }
+
+            log.info(String.format("Round %d: %d keys (%d translated, %d found), translation of every key %.1f ms " +
+                            "per pass, mapper lookups %.1f ms on first pass and %.1f ms per following pass.", round,
+                    keys.size(), translated / LOOKUPS_PER_KEY, found, uncached / 1e6 / LOOKUPS_PER_KEY,
+                    lookups[0] / 1e6, (lookups[1] + lookups[2]) / 2e6));
+        }
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ *  Copyright (c) 2014-2017 Kumuluz and/or its affiliates
+ *  and other contributors as indicated by the @author tags and
+ *  the contributor list.
+ *
+ *  Licensed under the MIT License (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://opensource.org/licenses/MIT
+ *
+ *  The software is provided "AS IS", WITHOUT WARRANTY OF ANY KIND, express or
+ *  implied, including but not limited to the warranties of merchantability,
+ *  fitness for a particular purpose and noninfringement. in no event shall the
+ *  authors or copyright holders be liable for any claim, damages or other
+ *  liability, whether in an action of contract, tort or otherwise, arising from,
+ *  out of or in connection with the software or the use or other dealings in the
+ *  software. See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.kumuluz.ee.fault.tolerance.smallrye.config;
+
+import com.kumuluz.ee.configuration.utils.ConfigurationImpl;
+import com.kumuluz.ee.configuration.utils.ConfigurationUtil;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.util.Optional;
+
+/**
+ * Tests for key translation of {@link FaultToleranceConfigMapper}.
+ *
+ * @since 2.2.0
+ */
+public class FaultToleranceConfigMapperTest {
+
+    private static final String KUMULUZ_METRICS_ENABLED_KEY = "kumuluzee.fault-tolerance.metrics-enabled";
+
+    private FaultToleranceConfigMapper mapper;
+
+    @BeforeClass
+    public void initializeMapper() {
+        try {
+            ConfigurationUtil.getInstance();
+        } catch (IllegalStateException e) {
+            ConfigurationUtil.initialize(new ConfigurationImpl());
+        }
+
+        mapper = new FaultToleranceConfigMapper();
+        mapper.init(null);
+    }
+
+    @AfterMethod
+    public void resetConfiguration() {
+        System.clearProperty(KUMULUZ_METRICS_ENABLED_KEY);
+    }
+
+    @Test
+    public void shouldTranslateMethodKeys() {
+
+        FaultToleranceConfigMapper.TranslatedKey translatedKey =
+                FaultToleranceConfigMapper.translateKey("com.example.Bean/find/Retry/maxRetries");
+
+        Assert.assertTrue(translatedKey.isTranslated());
+        Assert.assertEquals(translatedKey.getKlass(), "com.example.Bean");
+    }
+
+    @Test
+    public void shouldTranslateGlobalKeys() {
+
+        FaultToleranceConfigMapper.TranslatedKey translatedKey =
+                FaultToleranceConfigMapper.translateKey("CircuitBreaker/delay");
+
+        Assert.assertTrue(translatedKey.isTranslated());
+        Assert.assertNull(translatedKey.getKlass());
+    }
+
+    @Test
+    public void shouldNotTranslateOtherKeys() {
+
+        Assert.assertFalse(FaultToleranceConfigMapper.translateKey("com.example.Bean/find/Cached/value")
+                .isTranslated());
+        Assert.assertFalse(FaultToleranceConfigMapper.translateKey("a/com.example.Bean/find/Retry/maxRetries")
+                .isTranslated());
+        Assert.assertFalse(FaultToleranceConfigMapper.translateKey("mp.config.profile").isTranslated());
+    }
+
+    @Test
+    public void shouldReturnSameResultForRepeatedLookups() {
+
+        for (int i = 0; i < 3; i++) {
+            Assert.assertEquals(mapper.get("com.example.Bean/find/Retry/maxRetries"), Optional.empty());
+            Assert.assertEquals(mapper.get("com.example.Bean/find/Cached/value"), Optional.empty());
+            Assert.assertEquals(mapper.get("kumuluzee.server.http.port"), Optional.empty());
+        }
+    }
+
+    @Test
+    public void shouldMapMetricsEnabledKey() {
+
+        Assert.assertEquals(mapper.getBoolean(FaultToleranceConfigMapper.MP_METRICS_ENABLED_KEY), Optional.empty());
+
+        System.setProperty(KUMULUZ_METRICS_ENABLED_KEY, "false");
+
+        Assert.assertEquals(mapper.getBoolean(FaultToleranceConfigMapper.MP_METRICS_ENABLED_KEY),
+                Optional.of(false));
+    }
+}
@@ -0,0 +1,174 @@
+/*
+ *  Copyright (c) 2014-2017 Kumuluz and/or its affiliates
+ *  and other contributors as indicated by the @author tags and
+ *  the contributor list.
+ *
+ *  Licensed under the MIT License (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://opensource.org/licenses/MIT
+ *
+ *  The software is provided "AS IS", WITHOUT WARRANTY OF ANY KIND, express or
+ *  implied, including but not limited to the warranties of merchantability,
+ *  fitness for a particular purpose and noninfringement. in no event shall the
+ *  authors or copyright holders be liable for any claim, damages or other
+ *  liability, whether in an action of contract, tort or otherwise, arising from,
+ *  out of or in connection with the software or the use or other dealings in the
+ *  software. See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.kumuluz.ee.fault.tolerance.smallrye.config;
+
+import com.kumuluz.ee.fault.tolerance.smallrye.TestConfigurationUtil;
+import org.eclipse.microprofile.faulttolerance.exceptions.BulkheadException;
+import org.jboss.arquillian.container.test.api.Deployment;
+import org.jboss.arquillian.testng.Arquillian;
+import org.jboss.shrinkwrap.api.ShrinkWrap;
+import org.jboss.shrinkwrap.api.asset.StringAsset;
+import org.jboss.shrinkwrap.api.spec.WebArchive;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.Test;
+
+import javax.inject.Inject;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+/**
+ * Tests that fault tolerance configuration changed at runtime through KumuluzEE configuration is enforced by the
+ * SmallRye strategies.
+ *
+ * @since 2.2.0
+ */
+public class StrategyReconfiguratorArquillianTest extends Arquillian {
+
+    private static final String BEAN_KEY_PREFIX = ReconfiguredBean.class.getName() + "/";
+    private static final String OVERRIDE_KEY = "kumuluzee.fault-tolerance.annotation-overrides[0].";
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    @Inject
+    private ReconfiguredBean bean;
+
+    @Deployment
+    public static WebArchive deployment() {
+        return ShrinkWrap.create(WebArchive.class, "strategy-reconfigurator.war")
+                .addClasses(ReconfiguredBean.class, TestConfigurationUtil.class)
+                .addAsResource(new StringAsset("kumuluzee:\n" +
+                        "  fault-tolerance:\n" +
+                        "    config:\n" +
+                        "      watch-enabled: true\n"), "config.yaml");
+    }
+
+    @AfterClass
+    public void shutdownExecutor() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void shouldEnforceChangedBulkheadWithoutAdmittingOverLimit() throws Exception {
+
+        Assert.assertEquals(concurrentlyAdmitted(bean::limited, 1), 1);
+
+        CountDownLatch release = new CountDownLatch(1);
+        List<Future<String>> calls = new ArrayList<>();
+
+        try {
+            Assert.assertTrue(admitted(bean::limited, calls, release));
+
+            TestConfigurationUtil.update(BEAN_KEY_PREFIX + "limited/Bulkhead/value", "2");
+
+            // the previous bulkhead stays in use while its invocations are in progress
+            Assert.assertFalse(admitted(bean::limited, calls, release));
+        } finally {
+            release.countDown();
+            await(calls);
+        }
+
+        awaitLimit(bean::limited, 2);
+    }
+
+    @Test
+    public void shouldEnforceChangedAnnotationOverride() throws Exception {
+
+        System.setProperty(OVERRIDE_KEY + "class", ReconfiguredBean.class.getName());
+        System.setProperty(OVERRIDE_KEY + "method", "overridden");
+        System.setProperty(OVERRIDE_KEY + "annotation", "bulkhead");
+
+        Assert.assertEquals(concurrentlyAdmitted(bean::overridden, 1), 1);
+
+        TestConfigurationUtil.update(OVERRIDE_KEY + "parameters.value", "3");
+
+        awaitLimit(bean::overridden, 3);
+    }
+
+    /**
+     * Waits until the method admits exactly {@code limit} concurrent invocations, failing if it ever admits more.
+     */
+    private void awaitLimit(LimitedMethod method, int limit) throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+
+        int admitted;
+        while ((admitted = concurrentlyAdmitted(method, limit)) != limit) {
+            Assert.assertTrue(admitted < limit, "Admitted " + admitted + " invocations over the limit of " + limit);
+            Assert.assertTrue(System.nanoTime() < deadline, "Bulkhead was not rebuilt.");
+
+            Thread.sleep(50);
+        }
+    }
+
+    /**
+     * Starts up to {@code limit + 1} concurrent invocations and returns the number of admitted ones.
+     */
+    private int concurrentlyAdmitted(LimitedMethod method, int limit) throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        List<Future<String>> calls = new ArrayList<>();
+
+        int admitted = 0;
+        try {
+            while (admitted <= limit && admitted(method, calls, release)) {
+                admitted++;
+            }
+        } finally {
+            release.countDown();
+            await(calls);
+        }
+
+        return admitted;
+    }
+
+    /**
+     * Invokes the bulkhead protected method in another thread and returns whether the invocation was admitted.
+     */
+    private boolean admitted(LimitedMethod method, List<Future<String>> calls, CountDownLatch release)
+            throws InterruptedException {
+        CountDownLatch entered = new CountDownLatch(1);
+        Future<String> call = executor.submit(() -> method.invoke(entered, release));
+        calls.add(call);
+
+        while (!entered.await(10, TimeUnit.MILLISECONDS)) {
+            if (call.isDone()) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static void await(List<Future<String>> calls) throws Exception {
+        for (Future<String> call : calls) {
+            try {
+                call.get(10, TimeUnit.SECONDS);
+            } catch (ExecutionException e) {
+                Assert.assertTrue(e.getCause() instanceof BulkheadException, e.getCause().toString());
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface LimitedMethod {
+        String invoke(CountDownLatch entered, CountDownLatch release) throws InterruptedException;
+    }
+}